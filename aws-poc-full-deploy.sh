@@ -657,10 +657,10 @@ if ! is_step_done 3; then
   docker build -t "${PROJECT}-${REPO_CONFIG}:latest"   "$DIR_CONFIG"
   docker build -t "${PROJECT}-${REPO_EUREKA}:latest"   "$DIR_EUREKA"
   docker build -t "${PROJECT}-${REPO_GATEWAY}:latest"  "$DIR_GATEWAY"
-  docker build -t "${PROJECT}-${REPO_PRODUCTS}:latest" "$DIR_PRODUCTS"
-  docker build -t "${PROJECT}-${REPO_ORDERS}:latest"   "$DIR_ORDERS"
-  docker build -t "${PROJECT}-${REPO_PAY}:latest"      "$DIR_PAY"
-  docker build -t "${PROJECT}-${REPO_USERS}:latest"    "$DIR_USERS"
+  docker build -t "${PROJECT}-${REPO_PRODUCTS}:latest" -f "$DIR_PRODUCTS/Dockerfile" .
+  docker build -t "${PROJECT}-${REPO_ORDERS}:latest"   -f "$DIR_ORDERS/Dockerfile" .
+  docker build -t "${PROJECT}-${REPO_PAY}:latest"      -f "$DIR_PAY/Dockerfile" .
+  docker build -t "${PROJECT}-${REPO_USERS}:latest"    -f "$DIR_USERS/Dockerfile" .
 
   log "Push a ECR (tag=$TAG y latest)..."
   tag_push "${PROJECT}-${REPO_CONFIG}:latest"   "$REPO_CONFIG"   "$TAG"
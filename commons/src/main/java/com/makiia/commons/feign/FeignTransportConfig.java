@@ -0,0 +1,68 @@
+package com.makiia.commons.feign;
+
+import com.makiia.commons.smile.SmileConfig;
+import feign.Client;
+import feign.RequestInterceptor;
+import feign.RetryableException;
+import feign.Retryer;
+import feign.codec.ErrorDecoder;
+import feign.httpclient.ApacheHttpClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.util.Date;
+
+/**
+ * Transporte común de los clientes Feign: pool de conexiones keep-alive de Apache
+ * HttpClient (feign.httpclient.*), timeouts y métricas por método, reintentos con
+ * jitter sólo para llamadas idempotentes y respuestas en Smile cuando el servicio lo
+ * soporta.
+ *
+ * El servicio la importa (@Import) y registra su HttpClientProperties con su prefijo.
+ */
+@Configuration
+public class FeignTransportConfig {
+
+    @Bean
+    public Client feignClient(CloseableHttpClient httpClient,
+                              HttpClientProperties properties,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+        return new MeteredFeignClient(new ApacheHttpClient(httpClient), properties, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    public Retryer feignRetryer(HttpClientProperties properties) {
+        return new JitteredRetryer(properties);
+    }
+
+    // 📌 Pide Smile y acepta JSON; los bodies se siguen enviando en JSON (el servicio
+    // destino podría no soportar Smile todavía y respondería 415)
+    @Bean
+    public RequestInterceptor smileAcceptInterceptor() {
+        return template -> {
+            if (!template.headers().containsKey(HttpHeaders.ACCEPT)) {
+                template.header(HttpHeaders.ACCEPT, SmileConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_JSON_VALUE);
+            }
+        };
+    }
+
+    // 📌 502/503/504 son reintentables (el Retryer decide si el método lo permite)
+    @Bean
+    public ErrorDecoder feignErrorDecoder() {
+        ErrorDecoder defaults = new ErrorDecoder.Default();
+        return (methodKey, response) -> {
+            Exception error = defaults.decode(methodKey, response);
+            int status = response.status();
+            if (!(error instanceof RetryableException) && (status == 502 || status == 503 || status == 504)) {
+                return new RetryableException(status, error.getMessage(),
+                        response.request().httpMethod(), (Date) null, response.request());
+            }
+            return error;
+        };
+    }
+}
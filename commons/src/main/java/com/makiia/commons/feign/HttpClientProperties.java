@@ -0,0 +1,58 @@
+package com.makiia.commons.feign;
+
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Timeouts por método y reintentos de los clientes Feign (el pool y los timeouts por defecto van en feign.*).
+// Cada servicio la registra con su prefijo (orders.http-client, payments.http-client).
+@Data
+public class HttpClientProperties {
+
+    // Intentos totales (1 = sin reintentos)
+    private int maxAttempts = 3;
+
+    // Tope de la llamada completa (intentos + esperas): no se reintenta si otro intento
+    // como el anterior ya no entra. Evita sumar read timeouts (8 s x 3 intentos).
+    private long maxTotalMs = 10000;
+
+    // Backoff exponencial con jitter completo: random(0, min(max, initial * 2^intento))
+    private long initialBackoffMs = 100;
+    private long maxBackoffMs = 2000;
+
+    // Cliente (nombre de la interfaz) -> método -> ajustes
+    private Map<String, Map<String, Method>> clients = new HashMap<>();
+
+    // 📌 Ajustes del método o null (acepta getProductById, get-product-by-id, ...)
+    public Method find(String client, String method) {
+        for (Map.Entry<String, Map<String, Method>> c : clients.entrySet()) {
+            if (normalize(c.getKey()).equals(normalize(client))) {
+                for (Map.Entry<String, Method> m : c.getValue().entrySet()) {
+                    if (normalize(m.getKey()).equals(normalize(method))) {
+                        return m.getValue();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("-", "").replace("_", "").toLowerCase();
+    }
+
+    @Data
+    public static class Method {
+
+        // null = el de feign.client.config
+        private Long connectTimeoutMs;
+        private Long readTimeoutMs;
+
+        // null = según el verbo HTTP (GET, HEAD, OPTIONS, PUT y DELETE se reintentan)
+        private Boolean retry;
+
+        // null = maxTotalMs general
+        private Long maxTotalMs;
+    }
+}
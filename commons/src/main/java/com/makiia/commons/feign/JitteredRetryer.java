@@ -0,0 +1,108 @@
+package com.makiia.commons.feign;
+
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RetryableException;
+import feign.Retryer;
+
+import java.net.ConnectException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reintentos de Feign sólo para llamadas idempotentes (según el verbo o
+ * *.http-client.clients.*.retry), con backoff exponencial y jitter completo.
+ * Si la conexión ni siquiera se abrió se reintenta cualquier método: el request no
+ * llegó al servidor.
+ *
+ * Feign clona el Retryer en cada llamada: el clon mide la llamada completa y no
+ * reintenta si espera + un intento tan largo como el último superan maxTotalMs.
+ */
+public class JitteredRetryer implements Retryer {
+
+    private static final Set<Request.HttpMethod> IDEMPOTENT = EnumSet.of(
+            Request.HttpMethod.GET, Request.HttpMethod.HEAD, Request.HttpMethod.OPTIONS,
+            Request.HttpMethod.PUT, Request.HttpMethod.DELETE);
+
+    private final HttpClientProperties properties;
+    private final long startNanos = System.nanoTime();
+    private long attemptStartNanos = startNanos;
+    private int attempt = 1;
+
+    public JitteredRetryer(HttpClientProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void continueOrPropagate(RetryableException e) {
+        if (attempt >= properties.getMaxAttempts() || !isRetryable(e)) {
+            throw e;
+        }
+        long sleep = backoff(attempt);
+        if (e.retryAfter() != null) {
+            long retryAfter = e.retryAfter().getTime() - System.currentTimeMillis();
+            if (retryAfter > properties.getMaxBackoffMs()) {
+                throw e;
+            }
+            sleep = Math.max(sleep, retryAfter);
+        }
+        long now = System.nanoTime();
+        if (!fitsBudget(e, now, sleep)) {
+            throw e;
+        }
+        attempt++;
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        attemptStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public Retryer clone() {
+        return new JitteredRetryer(properties);
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    // 📌 Lo ya gastado + la espera + otro intento como el último tienen que entrar en el tope
+    boolean fitsBudget(RetryableException e, long nowNanos, long sleepMs) {
+        HttpClientProperties.Method config = methodConfig(e);
+        long budgetMs = config != null && config.getMaxTotalMs() != null
+                ? config.getMaxTotalMs()
+                : properties.getMaxTotalMs();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(nowNanos - startNanos);
+        long lastAttemptMs = TimeUnit.NANOSECONDS.toMillis(nowNanos - attemptStartNanos);
+        return elapsedMs + sleepMs + lastAttemptMs <= budgetMs;
+    }
+
+    boolean isRetryable(RetryableException e) {
+        if (e.getCause() instanceof ConnectException) {
+            return true;
+        }
+        HttpClientProperties.Method config = methodConfig(e);
+        if (config != null && config.getRetry() != null) {
+            return config.getRetry();
+        }
+        return e.method() != null && IDEMPOTENT.contains(e.method());
+    }
+
+    private HttpClientProperties.Method methodConfig(RetryableException e) {
+        Request request = e.request();
+        MethodMetadata metadata = request != null && request.requestTemplate() != null
+                ? request.requestTemplate().methodMetadata() : null;
+        if (metadata == null || metadata.method() == null) {
+            return null;
+        }
+        return properties.find(metadata.method().getDeclaringClass().getSimpleName(), metadata.method().getName());
+    }
+
+    long backoff(int attempt) {
+        long cap = Math.min(properties.getMaxBackoffMs(), properties.getInitialBackoffMs() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+}
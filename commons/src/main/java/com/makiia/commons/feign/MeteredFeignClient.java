@@ -0,0 +1,93 @@
+package com.makiia.commons.feign;
+
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envuelve el transporte de Feign: aplica los timeouts del método (si tiene) y mide
+ * cada intento en un timer con histograma por cliente, método y status.
+ */
+public class MeteredFeignClient implements Client {
+
+    static final String METRIC = "feign.client.requests";
+
+    private final Client delegate;
+    private final HttpClientProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<Method, Binding> bindings = new ConcurrentHashMap<>();
+
+    public MeteredFeignClient(Client delegate, HttpClientProperties properties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        MethodMetadata metadata = request.requestTemplate() != null ? request.requestTemplate().methodMetadata() : null;
+        if (metadata == null || metadata.method() == null) {
+            return delegate.execute(request, options);
+        }
+        Binding binding = bindings.computeIfAbsent(metadata.method(), this::bind);
+
+        long start = System.nanoTime();
+        String status = "IO_ERROR";
+        try {
+            Response response = delegate.execute(request, binding.options(options));
+            status = String.valueOf(response.status());
+            return response;
+        } finally {
+            if (meterRegistry != null) {
+                Timer.builder(METRIC)
+                        .tag("client", binding.client)
+                        .tag("method", binding.method)
+                        .tag("status", status)
+                        .publishPercentileHistogram()
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private Binding bind(Method method) {
+        String client = method.getDeclaringClass().getSimpleName();
+        return new Binding(client, method.getName(), properties.find(client, method.getName()));
+    }
+
+    private static class Binding {
+
+        private final String client;
+        private final String method;
+        private final HttpClientProperties.Method config;
+
+        Binding(String client, String method, HttpClientProperties.Method config) {
+            this.client = client;
+            this.method = method;
+            this.config = config;
+        }
+
+        Request.Options options(Request.Options defaults) {
+            if (config == null || (config.getConnectTimeoutMs() == null && config.getReadTimeoutMs() == null)) {
+                return defaults;
+            }
+            return new Request.Options(
+                    config.getConnectTimeoutMs() != null ? config.getConnectTimeoutMs() : defaults.connectTimeoutMillis(),
+                    TimeUnit.MILLISECONDS,
+                    config.getReadTimeoutMs() != null ? config.getReadTimeoutMs() : defaults.readTimeoutMillis(),
+                    TimeUnit.MILLISECONDS,
+                    defaults.isFollowRedirects());
+        }
+    }
+}
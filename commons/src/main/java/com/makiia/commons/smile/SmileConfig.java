@@ -0,0 +1,26 @@
+package com.makiia.commons.smile;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Smile (JSON binario de Jackson) para las llamadas entre servicios: mismos DTOs, sin
+ * parsear texto. Se negocia por Accept / Content-Type; sin Accept explícito se sigue
+ * respondiendo JSON (el conversor queda después del de JSON).
+ *
+ * Cada servicio la importa (@Import) en su clase de aplicación.
+ */
+@Configuration
+public class SmileConfig {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    // 📌 Mismo ObjectMapper que el de JSON (spring.jackson.*), con fábrica Smile
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,131 @@
+package com.makiia.commons.feign;
+
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.RetryableException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeignTransportTests {
+
+    @Test
+    void appliesMethodTimeoutsAndRecordsLatencyPerMethod() throws Exception {
+        HttpClientProperties properties = properties("getProductsByIds", 500L, null);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AtomicReference<Request.Options> used = new AtomicReference<>();
+        MeteredFeignClient client = new MeteredFeignClient((request, options) -> {
+            used.set(options);
+            return Response.builder().status(200).request(request).headers(Collections.emptyMap()).build();
+        }, properties, registry);
+
+        Request.Options defaults = new Request.Options(1, TimeUnit.SECONDS, 5, TimeUnit.SECONDS, true);
+        client.execute(request("getProductsByIds", Request.HttpMethod.GET), defaults);
+        assertThat(used.get().readTimeoutMillis()).isEqualTo(500);
+        assertThat(used.get().connectTimeoutMillis()).isEqualTo(1000);
+
+        // Método sin ajustes: timeouts por defecto
+        client.execute(request("getProductById", Request.HttpMethod.GET), defaults);
+        assertThat(used.get()).isSameAs(defaults);
+
+        Timer timer = registry.find(MeteredFeignClient.METRIC)
+                .tags("client", "ProductClient", "method", "getProductsByIds", "status", "200")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    void retriesOnlyIdempotentCalls() {
+        JitteredRetryer retryer = new JitteredRetryer(properties("getProductsByIds", null, false));
+
+        assertThat(retryer.isRetryable(retryable("getProductById", Request.HttpMethod.GET, new SocketTimeoutException()))).isTrue();
+        assertThat(retryer.isRetryable(retryable("getProductById", Request.HttpMethod.POST, new SocketTimeoutException()))).isFalse();
+        // El request no salió: se puede reintentar aunque sea POST
+        assertThat(retryer.isRetryable(retryable("getProductById", Request.HttpMethod.POST, new ConnectException()))).isTrue();
+        // Ajuste explícito por método
+        assertThat(retryer.isRetryable(retryable("getProductsByIds", Request.HttpMethod.GET, new SocketTimeoutException()))).isFalse();
+    }
+
+    @Test
+    void retriesStopWhenAnotherAttemptDoesNotFitTheCallBudget() {
+        HttpClientProperties properties = properties("getProductsByIds", 8000L, null);
+        properties.setMaxTotalMs(10000);
+        JitteredRetryer retryer = new JitteredRetryer(properties);
+        RetryableException timeout = retryable("getProductsByIds", Request.HttpMethod.GET, new SocketTimeoutException());
+        long start = System.nanoTime();
+
+        // Read timeout de 8 s: otro intento igual ya no entra en 10 s
+        assertThat(retryer.fitsBudget(timeout, start + TimeUnit.SECONDS.toNanos(8), 100)).isFalse();
+        // Un 503 rápido sí se reintenta
+        assertThat(retryer.fitsBudget(timeout, start + TimeUnit.MILLISECONDS.toNanos(50), 100)).isTrue();
+
+        // Tope propio del método
+        properties.find("ProductClient", "getProductsByIds").setMaxTotalMs(20000L);
+        assertThat(retryer.fitsBudget(timeout, start + TimeUnit.SECONDS.toNanos(8), 100)).isTrue();
+    }
+
+    @Test
+    void backoffIsJitteredAndCapped() {
+        JitteredRetryer retryer = new JitteredRetryer(new HttpClientProperties());
+        for (int i = 0; i < 1000; i++) {
+            assertThat(retryer.backoff(1)).isBetween(0L, 100L);
+            assertThat(retryer.backoff(30)).isBetween(0L, 2000L);
+        }
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private HttpClientProperties properties(String method, Long readTimeoutMs, Boolean retry) {
+        HttpClientProperties.Method config = new HttpClientProperties.Method();
+        config.setReadTimeoutMs(readTimeoutMs);
+        config.setRetry(retry);
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.getClients().put("product-client", Map.of(method, config));
+        return properties;
+    }
+
+    private Request request(String method, Request.HttpMethod httpMethod) {
+        MethodMetadata metadata = new SpringMvcContract().parseAndValidateMetadata(ProductClient.class)
+                .stream()
+                .filter(m -> m.method().getName().equals(method))
+                .findFirst()
+                .orElseThrow();
+        RequestTemplate template = new RequestTemplate().methodMetadata(metadata);
+        return Request.create(httpMethod, "http://productservice:8001/products", Collections.emptyMap(),
+                null, StandardCharsets.UTF_8, template);
+    }
+
+    private RetryableException retryable(String method, Request.HttpMethod httpMethod, Throwable cause) {
+        return new RetryableException(-1, cause.getClass().getSimpleName(), httpMethod, cause, (Date) null,
+                request(method, httpMethod));
+    }
+
+    // Cliente de ejemplo: de acá sale la metadata (clase y método) que usa el transporte
+    interface ProductClient {
+
+        @GetMapping("/products/{id}")
+        Object getProductById(@PathVariable("id") Long id);
+
+        @GetMapping("/products/batch")
+        List<Object> getProductsByIds(@RequestParam("ids") List<Long> ids);
+    }
+}
@@ -0,0 +1,75 @@
+package com.makiia.gatewayservice.accesslog;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lo que paga el event loop por request: un offer al ring mientras el drenador escribe
+ * a disco (gzip) en su propio hilo, como en AccessLog. Si el drenador no da abasto se
+ * descarta: el costo medido incluye esos offers rechazados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccessLogRingBenchmark {
+
+    private AccessLogRing ring;
+    private AccessLogWriter writer;
+    private Thread drainer;
+    private volatile boolean running;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path dir = Files.createTempDirectory("access-log-bench");
+        ring = new AccessLogRing(65536);
+        writer = new AccessLogWriter(dir, 64L * 1024 * 1024, Long.MAX_VALUE, 2,
+                route -> "orders-services", method -> "GET");
+        running = true;
+        drainer = new Thread(() -> {
+            while (running) {
+                if (ring.drain(writer, 4096) == 0) {
+                    Thread.onSpinWait();
+                }
+            }
+        }, "access-log-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        running = false;
+        drainer.join(10_000);
+        writer.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean offer() {
+        return record();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean offerFromEventLoops() {
+        return record();
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private boolean record() {
+        return ring.offer(System.currentTimeMillis(), 1, (byte) 0, 42, 200, 1500);
+    }
+}
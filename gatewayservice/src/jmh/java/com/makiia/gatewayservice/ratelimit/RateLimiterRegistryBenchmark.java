@@ -0,0 +1,57 @@
+package com.makiia.gatewayservice.ratelimit;
+
+import com.makiia.gatewayservice.config.RateLimitProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo del rate limit por request: un tryConsume sobre el registry con 10.000 usuarios
+ * activos, en un hilo y con todos los cores compitiendo por los mismos buckets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RateLimiterRegistryBenchmark {
+
+    private static final int USERS = 10_000;
+
+    private RateLimiterRegistry registry;
+    private String[] users;
+
+    @Setup
+    public void setUp() {
+        registry = new RateLimiterRegistry(new RateLimitProperties());
+        users = new String[USERS];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = "u" + i;
+            registry.tryConsume("orders", users[i], 20, 10);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TokenBucket.Result singleThread() {
+        return tryConsume();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public TokenBucket.Result contended() {
+        return tryConsume();
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private TokenBucket.Result tryConsume() {
+        return registry.tryConsume("orders", users[ThreadLocalRandom.current().nextInt(USERS)], 20, 10);
+    }
+}
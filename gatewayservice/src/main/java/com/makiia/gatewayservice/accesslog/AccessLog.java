@@ -0,0 +1,187 @@
+package com.makiia.gatewayservice.accesslog;
+
+import com.makiia.gatewayservice.config.AccessLogProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Access log asíncrono del gateway. El event loop sólo copia campos de tamaño fijo al
+ * ring (sin locks, sin I/O, sin formatear); un hilo aparte los drena por lotes a
+ * archivos comprimidos. Si el ring está lleno el registro se descarta y se cuenta
+ * (métrica gateway.accesslog.dropped y un warn por minuto como mucho).
+ */
+@Component
+public class AccessLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLog.class);
+
+    // Rutas por índice (el ring guarda un int, no el String); 0 = desconocida
+    private static final int MAX_ROUTES = 1024;
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    private final AccessLogProperties properties;
+    private final AccessLogRing ring;
+    private final ConcurrentHashMap<String, Integer> routeIndex = new ConcurrentHashMap<>();
+    private final String[] routeNames = new String[MAX_ROUTES];
+    private final AtomicLong written = new AtomicLong();
+
+    private AccessLogWriter writer;
+    private Thread drainer;
+    private volatile boolean running;
+
+    public AccessLog(AccessLogProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.ring = new AccessLogRing(properties.getCapacity());
+        routeNames[0] = "-";
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            FunctionCounter.builder("gateway.accesslog.dropped", ring, AccessLogRing::getDropped)
+                    .description("Registros descartados con el ring lleno")
+                    .register(registry);
+            FunctionCounter.builder("gateway.accesslog.written", written, AtomicLong::get).register(registry);
+            Gauge.builder("gateway.accesslog.capacity", properties, AccessLogProperties::getCapacity).register(registry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        writer = new AccessLogWriter(Paths.get(properties.getDir()), properties.getRollBytes(),
+                TimeUnit.MINUTES.toMillis(properties.getRollIntervalMinutes()), properties.getMaxFiles(),
+                this::routeName, this::methodName);
+        running = true;
+        drainer = new Thread(this::drainLoop, "gateway-access-log");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!isEnabled()) {
+            return;
+        }
+        running = false;
+        drainer.join(5000);
+    }
+
+    // 📌 Desde el event loop: nunca bloquea; false si se descartó
+    public boolean record(String routeId, HttpMethod method, long userId, int status, long latencyMicros) {
+        return ring.offer(System.currentTimeMillis(), routeId(routeId),
+                method != null ? (byte) method.ordinal() : -1, userId, status, latencyMicros);
+    }
+
+    public long getDropped() {
+        return ring.getDropped();
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private int routeId(String routeId) {
+        if (routeId == null) {
+            return 0;
+        }
+        Integer index = routeIndex.get(routeId);
+        if (index != null) {
+            return index;
+        }
+        synchronized (routeNames) {
+            index = routeIndex.get(routeId);
+            if (index == null) {
+                int next = routeIndex.size() + 1;
+                if (next >= MAX_ROUTES) {
+                    return 0;
+                }
+                routeNames[next] = routeId;
+                index = next;
+                routeIndex.put(routeId, index);
+            }
+            return index;
+        }
+    }
+
+    private String routeName(int index) {
+        String name = routeNames[index];
+        return name != null ? name : "-";
+    }
+
+    private String methodName(int ordinal) {
+        return ordinal >= 0 && ordinal < METHODS.length ? METHODS[ordinal].name() : "-";
+    }
+
+    private void drainLoop() {
+        long lastFlush = System.currentTimeMillis();
+        long lastWarn = 0;
+        long reportedDropped = 0;
+        boolean dirty = false;
+
+        while (running) {
+            int drained = ring.drain(writer, properties.getBatchSize());
+            if (drained > 0) {
+                written.addAndGet(drained);
+                dirty = true;
+            }
+
+            long now = System.currentTimeMillis();
+            if (dirty && now - lastFlush >= properties.getFlushIntervalMs()) {
+                flush();
+                lastFlush = now;
+                dirty = false;
+            }
+            IOException failure = writer.takeFailure();
+            long dropped = ring.getDropped();
+            if (now - lastWarn >= 60000) {
+                if (failure != null) {
+                    log.warn("Access log: no se pudo escribir el archivo", failure);
+                    lastWarn = now;
+                }
+                if (dropped > reportedDropped) {
+                    log.warn("Access log: {} registros descartados con el ring lleno ({} desde el arranque)",
+                            dropped - reportedDropped, dropped);
+                    reportedDropped = dropped;
+                    lastWarn = now;
+                }
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            }
+        }
+
+        // Lo que quedó en el ring al apagar
+        written.addAndGet(ring.drain(writer, properties.getCapacity()));
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Access log: no se pudo cerrar el archivo", e);
+        }
+    }
+
+    private void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            log.warn("Access log: no se pudo escribir el archivo", e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.makiia.gatewayservice.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ring buffer sin locks de registros de acceso de tamaño fijo (cola acotada de
+ * Vyukov: varios productores, un consumidor). Cada slot guarda los campos en arrays
+ * de primitivos preasignados: registrar un request no reserva memoria. Si el ring
+ * está lleno el registro se descarta (nunca bloquea el event loop) y se cuenta.
+ */
+public class AccessLogRing {
+
+    private final int mask;
+    private final AtomicLongArray sequence;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long head;
+
+    // Campos del registro, un valor por slot
+    private final long[] timestamps;
+    private final long[] userIds;
+    private final int[] routes;
+    private final int[] statuses;
+    private final long[] latenciesMicros;
+    private final byte[] methods;
+
+    public AccessLogRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("La capacidad del ring debe ser potencia de 2");
+        }
+        this.mask = capacity - 1;
+        this.sequence = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequence.set(i, i);
+        }
+        this.timestamps = new long[capacity];
+        this.userIds = new long[capacity];
+        this.routes = new int[capacity];
+        this.statuses = new int[capacity];
+        this.latenciesMicros = new long[capacity];
+        this.methods = new byte[capacity];
+    }
+
+    // 📌 Productor (cualquier hilo): false si el ring está lleno
+    public boolean offer(long timestamp, int route, byte method, long userId, int status, long latencyMicros) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) (position & mask);
+            long diff = sequence.get(slot) - position;
+            if (diff < 0) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (diff == 0 && tail.compareAndSet(position, position + 1)) {
+                timestamps[slot] = timestamp;
+                routes[slot] = route;
+                methods[slot] = method;
+                userIds[slot] = userId;
+                statuses[slot] = status;
+                latenciesMicros[slot] = latencyMicros;
+                // Publica el slot: el consumidor ve los campos después de ver la secuencia
+                sequence.lazySet(slot, position + 1);
+                return true;
+            }
+        }
+    }
+
+    // 📌 Consumidor (un solo hilo): pasa hasta max registros al sink; devuelve cuántos
+    public int drain(Sink sink, int max) {
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) (head & mask);
+            if (sequence.get(slot) != head + 1) {
+                break;
+            }
+            sink.accept(timestamps[slot], routes[slot], methods[slot], userIds[slot], statuses[slot], latenciesMicros[slot]);
+            sequence.lazySet(slot, head + mask + 1);
+            head++;
+            drained++;
+        }
+        return drained;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @FunctionalInterface
+    public interface Sink {
+        void accept(long timestamp, int route, byte method, long userId, int status, long latencyMicros);
+    }
+}
@@ -0,0 +1,138 @@
+package com.makiia.gatewayservice.accesslog;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escribe los registros del ring en archivos CSV comprimidos (gzip) que rotan por
+ * tamaño (bytes sin comprimir) o por tiempo; se conservan los últimos maxFiles.
+ * Lo usa un solo hilo (el drenador de AccessLog).
+ */
+public class AccessLogWriter implements AccessLogRing.Sink, Closeable {
+
+    static final String PREFIX = "access-";
+    static final String SUFFIX = ".csv.gz";
+    static final String HEADER = "timestamp,route,method,user_id,status,latency_us\n";
+
+    private static final DateTimeFormatter FILE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final Path dir;
+    private final long rollBytes;
+    private final long rollIntervalMs;
+    private final int maxFiles;
+    private final IntFunction<String> routeNames;
+    private final IntFunction<String> methodNames;
+    private final StringBuilder line = new StringBuilder(128);
+
+    private Writer out;
+    private long written;
+    private long openedAt;
+    private IOException failure;
+
+    public AccessLogWriter(Path dir, long rollBytes, long rollIntervalMs, int maxFiles,
+                           IntFunction<String> routeNames, IntFunction<String> methodNames) {
+        this.dir = dir;
+        this.rollBytes = rollBytes;
+        this.rollIntervalMs = rollIntervalMs;
+        this.maxFiles = maxFiles;
+        this.routeNames = routeNames;
+        this.methodNames = methodNames;
+    }
+
+    @Override
+    public void accept(long timestamp, int route, byte method, long userId, int status, long latencyMicros) {
+        line.setLength(0);
+        line.append(Instant.ofEpochMilli(timestamp)).append(',')
+                .append(routeNames.apply(route)).append(',')
+                .append(methodNames.apply(method)).append(',');
+        if (userId >= 0) {
+            line.append(userId);
+        }
+        line.append(',').append(status).append(',').append(latencyMicros).append('\n');
+
+        try {
+            if (out == null || written >= rollBytes || timestamp - openedAt >= rollIntervalMs) {
+                roll(timestamp);
+            }
+            out.append(line);
+            written += line.length();
+        } catch (IOException e) {
+            // Se guarda el error y se sigue: el drenador lo informa y reintenta en el próximo lote
+            failure = e;
+            closeQuietly();
+        }
+    }
+
+    // 📌 Deja lo escrito legible en el archivo (sync flush del gzip)
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    // Error de escritura desde la última llamada (o null)
+    public IOException takeFailure() {
+        IOException e = failure;
+        failure = null;
+        return e;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private void roll(long now) throws IOException {
+        close();
+        Files.createDirectories(dir);
+        Path file = dir.resolve(PREFIX + FILE_TIME.format(Instant.ofEpochMilli(now)) + SUFFIX);
+        out = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024, true), StandardCharsets.UTF_8),
+                64 * 1024);
+        out.append(HEADER);
+        written = HEADER.length();
+        openedAt = now;
+        deleteOldFiles();
+    }
+
+    private void deleteOldFiles() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(f -> f.getFileName().toString().startsWith(PREFIX)
+                            && f.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException ignored) {
+            out = null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.makiia.gatewayservice.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.concurrent.TimeUnit;
+
+public class CachedResponse {
+
+    private final String routeId;
+    private final String path;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final String etag;
+    private final long storedAtNanos;
+    private final long freshForNanos;
+
+    public CachedResponse(String routeId, String path, HttpHeaders headers, byte[] body, String etag,
+                          long storedAtNanos, long freshForNanos) {
+        this.routeId = routeId;
+        this.path = path;
+        this.headers = headers;
+        this.body = body;
+        this.etag = etag;
+        this.storedAtNanos = storedAtNanos;
+        this.freshForNanos = freshForNanos;
+    }
+
+    public boolean isFresh(long nowNanos) {
+        return nowNanos - storedAtNanos < freshForNanos;
+    }
+
+    public long ageSeconds(long nowNanos) {
+        return TimeUnit.NANOSECONDS.toSeconds(nowNanos - storedAtNanos);
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+}
@@ -0,0 +1,135 @@
+package com.makiia.gatewayservice.cache;
+
+import com.makiia.gatewayservice.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Cache de respuestas del gateway, acotado por bytes de body (no por cantidad). Está
+ * partido en segmentos por hash de la clave, cada uno un LRU con su propio lock y su
+ * parte del presupuesto de bytes: las lecturas de claves distintas no compiten por
+ * el mismo lock.
+ */
+@Component
+public class ResponseCache {
+
+    private final ResponseCacheProperties properties;
+    private final Segment[] segments;
+
+    public ResponseCache(ResponseCacheProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.segments = new Segment[properties.getSegments()];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(properties.getMaxBytes() / segments.length);
+        }
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("gateway.cache.bytes", this, ResponseCache::bytes).baseUnit("bytes").register(registry);
+            Gauge.builder("gateway.cache.entries", this, ResponseCache::size).register(registry);
+        }
+    }
+
+    public CachedResponse get(String key) {
+        return segment(key).get(key);
+    }
+
+    public boolean put(String key, CachedResponse response) {
+        if (response.getBody().length > properties.getMaxEntryBytes()) {
+            return false;
+        }
+        segment(key).put(key, response);
+        return true;
+    }
+
+    // 📌 Borra las entradas de una ruta (null = todas) cuyo path empieza con prefix (null = todos)
+    public int purge(String routeId, String pathPrefix) {
+        int removed = 0;
+        for (Segment segment : segments) {
+            removed += segment.removeIf(r -> (routeId == null || routeId.equals(r.getRouteId()))
+                    && (pathPrefix == null || r.getPath().startsWith(pathPrefix)));
+        }
+        return removed;
+    }
+
+    public long bytes() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.bytes();
+        }
+        return total;
+    }
+
+    public int size() {
+        int total = 0;
+        for (Segment segment : segments) {
+            total += segment.size();
+        }
+        return total;
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private Segment segment(String key) {
+        int hash = key.hashCode();
+        return segments[((hash ^ (hash >>> 16)) & 0x7fffffff) % segments.length];
+    }
+
+    private static final class Segment {
+
+        private final long maxBytes;
+        private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long bytes;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized CachedResponse get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, CachedResponse response) {
+            CachedResponse previous = entries.put(key, response);
+            if (previous != null) {
+                bytes -= previous.getBody().length;
+            }
+            bytes += response.getBody().length;
+
+            Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().getValue().getBody().length;
+                eldest.remove();
+            }
+        }
+
+        synchronized int removeIf(Predicate<CachedResponse> predicate) {
+            int removed = 0;
+            Iterator<CachedResponse> it = entries.values().iterator();
+            while (it.hasNext()) {
+                CachedResponse response = it.next();
+                if (predicate.test(response)) {
+                    bytes -= response.getBody().length;
+                    it.remove();
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.makiia.gatewayservice.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET /actuator/gatewaycache: tamaño del cache.
+ * DELETE /actuator/gatewaycache?route=products-services&prefix=/products/12: purga
+ * (sin parámetros, todo).
+ *
+ * Solo en el puerto de management (management.server.port), que no se publica en el ALB
+ * ni en docker-compose. Afecta a la instancia llamada: para purgar todo, una vez por instancia.
+ */
+@Component
+@Endpoint(id = "gatewaycache")
+public class ResponseCacheEndpoint {
+
+    private final ResponseCache cache;
+
+    public ResponseCacheEndpoint(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", cache.size());
+        stats.put("bytes", cache.bytes());
+        return stats;
+    }
+
+    @DeleteOperation
+    public Map<String, Object> purge(@Nullable String route, @Nullable String prefix) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("purged", cache.purge(route, prefix));
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+package com.makiia.gatewayservice.config;
+
+import com.makiia.gatewayservice.accesslog.AccessLog;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Registra cada request (ruta, usuario, método, status, latencia) en el access log
+ * asíncrono. Va primero en la cadena para medir todo el tiempo del gateway; el usuario
+ * lo deja AuthFilter como atributo del exchange (los headers que agrega van en el
+ * request mutado, que este filtro no ve).
+ */
+@Component
+public class AccessLogFilter implements GlobalFilter, Ordered {
+
+    // Status para requests que el cliente canceló antes de recibir respuesta
+    private static final int CLIENT_CLOSED = 499;
+
+    private final AccessLog accessLog;
+
+    public AccessLogFilter(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!accessLog.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> record(exchange, signal, start));
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private void record(ServerWebExchange exchange, SignalType signal, long start) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        Integer userId = exchange.getAttribute(AuthFilter.USER_ID_ATTR);
+        HttpStatus status = exchange.getResponse().getStatusCode();
+
+        int code;
+        if (signal == SignalType.CANCEL) {
+            code = CLIENT_CLOSED;
+        } else if (status != null) {
+            code = status.value();
+        } else {
+            code = signal == SignalType.ON_ERROR ? 500 : 200;
+        }
+
+        accessLog.record(route != null ? route.getId() : null,
+                exchange.getRequest().getMethod(),
+                userId != null ? userId : -1,
+                code,
+                (System.nanoTime() - start) / 1000);
+    }
+}
@@ -0,0 +1,30 @@
+package com.makiia.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.access-log")
+public class AccessLogProperties {
+
+    private boolean enabled = true;
+
+    // Registros en el ring (potencia de 2); si se llena, los nuevos se descartan
+    private int capacity = 65536;
+
+    private String dir = "logs/access";
+
+    // Registros por lote del hilo drenador
+    private int batchSize = 4096;
+
+    // Cada cuánto se hace flush del archivo si hubo escrituras
+    private long flushIntervalMs = 1000;
+
+    // Rotación: bytes sin comprimir o tiempo, lo que llegue primero
+    private long rollBytes = 256L * 1024 * 1024;
+    private long rollIntervalMinutes = 60;
+
+    private int maxFiles = 168;
+}
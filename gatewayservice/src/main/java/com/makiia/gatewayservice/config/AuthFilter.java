@@ -15,6 +15,9 @@ import reactor.core.publisher.Mono;
 @Component
 public class AuthFilter extends AbstractGatewayFilterFactory<AuthFilter.Config> {
 
+    // Usuario autenticado, para filtros globales que no ven el request mutado
+    public static final String USER_ID_ATTR = AuthFilter.class.getName() + ".userId";
+
     private final WebClient.Builder webClient;
 
     public AuthFilter(WebClient.Builder webClient) {
@@ -49,6 +52,10 @@ public class AuthFilter extends AbstractGatewayFilterFactory<AuthFilter.Config>
                     .bodyToMono(TokenDto.class)
                     .flatMap(tokenDto -> {
 
+                        if (tokenDto.getUserId() != null) {
+                            exchange.getAttributes().put(USER_ID_ATTR, tokenDto.getUserId());
+                        }
+
                         ServerWebExchange mutatedExchange = exchange.mutate()
                                 .request(exchange.getRequest().mutate()
                                         .header("X-User-Id", String.valueOf(tokenDto.getUserId()))
@@ -0,0 +1,303 @@
+package com.makiia.gatewayservice.config;
+
+import com.makiia.gatewayservice.hedge.HedgeBudget;
+import com.makiia.gatewayservice.hedge.LatencyTracker;
+import com.makiia.gatewayservice.loadbalancer.InstanceStats;
+import com.makiia.gatewayservice.loadbalancer.InstanceStatsRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Hedging para rutas lb:// idempotentes (GET/HEAD; el resto pasa de largo). Manda el
+ * request a la instancia que elige el balanceador y, si no respondió dentro del p95
+ * reciente de la ruta, manda una copia a la mejor otra instancia; gana la primera
+ * respuesta y la otra se cancela. Los hedges salen de un presupuesto (budgetPercent
+ * del tráfico). Tiene que ser el último filtro de la ruta: responde él mismo.
+ *
+ * Las copias salen por el HttpClient del gateway (mismo pool y connect-timeout que el
+ * routing normal). La carrera se decide con los headers: el cuerpo de la ganadora se
+ * pasa al cliente en streaming, sin acumularlo en memoria. Cada intento tiene su propio
+ * response timeout (responseTimeoutMs o spring.cloud.gateway.httpclient.response-timeout).
+ */
+@Component
+public class HedgeFilter extends AbstractGatewayFilterFactory<HedgeFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgeFilter.class);
+
+    private static final Set<String> HOP_BY_HOP = Set.of(
+            HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.HOST,
+            HttpHeaders.CONTENT_LENGTH, "Keep-Alive");
+
+    private final LoadBalancerClientFactory clientFactory;
+    private final InstanceStatsRegistry statsRegistry;
+    private final MeterRegistry meterRegistry;
+    private final WebClient webClient;
+    private final Duration defaultResponseTimeout;
+
+    public HedgeFilter(LoadBalancerClientFactory clientFactory,
+                       InstanceStatsRegistry statsRegistry,
+                       ObjectProvider<MeterRegistry> meterRegistry,
+                       HttpClient httpClient,
+                       HttpClientProperties httpClientProperties) {
+        super(Config.class);
+        this.clientFactory = clientFactory;
+        this.statsRegistry = statsRegistry;
+        this.meterRegistry = meterRegistry.getIfAvailable();
+        // Sin @LoadBalanced: la instancia la elige este filtro
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.defaultResponseTimeout = httpClientProperties.getResponseTimeout();
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        LatencyTracker tracker = new LatencyTracker(TimeUnit.SECONDS.toNanos(config.getWindowSeconds()), config.getMinSamples());
+        HedgeBudget budget = new HedgeBudget(config.getBudgetPercent(), config.getBudgetBurst());
+
+        return (exchange, chain) -> {
+            HttpMethod method = exchange.getRequest().getMethod();
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            if ((method != HttpMethod.GET && method != HttpMethod.HEAD)
+                    || route == null || !"lb".equals(route.getUri().getScheme())) {
+                return chain.filter(exchange);
+            }
+
+            String serviceId = route.getUri().getHost();
+            ServerHttpRequest request = exchange.getRequest();
+            Duration delay = hedgeDelay(tracker, config);
+            Duration timeout = responseTimeout(config);
+            budget.deposit();
+
+            return choose(serviceId)
+                    .flatMap(primary -> {
+                        Mono<Attempt> first = call(primary, request, tracker, timeout, false);
+                        Mono<Attempt> second = Mono.delay(delay)
+                                .filter(tick -> {
+                                    boolean allowed = budget.tryWithdraw();
+                                    count(route, allowed ? "sent" : "denied");
+                                    return allowed;
+                                })
+                                .flatMap(tick -> alternative(serviceId, primary))
+                                .flatMap(other -> call(other, request, tracker, timeout, true));
+                        return Mono.firstWithValue(first, second);
+                    })
+                    .flatMap(attempt -> {
+                        if (attempt.hedge) {
+                            count(route, "won");
+                        }
+                        return write(exchange, attempt.response);
+                    })
+                    .switchIfEmpty(Mono.defer(() -> onError(exchange, HttpStatus.SERVICE_UNAVAILABLE)))
+                    .onErrorResume(e -> {
+                        log.warn("Hedge: error llamando a {} {}: {}", serviceId, request.getPath(), e.toString());
+                        // Con el cuerpo ya en camino solo queda cortar la respuesta
+                        if (exchange.getResponse().isCommitted()) {
+                            return Mono.error(e);
+                        }
+                        return onError(exchange, isTimeout(e) ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.BAD_GATEWAY);
+                    });
+        };
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    // 📌 p95 reciente acotado a [min, max]; hasta juntar muestras se usa initialDelayMs
+    private Duration hedgeDelay(LatencyTracker tracker, Config config) {
+        long percentile = tracker.percentile(config.getPercentile());
+        long delay = percentile < 0
+                ? TimeUnit.MILLISECONDS.toNanos(config.getInitialDelayMs())
+                : Math.min(Math.max(percentile, TimeUnit.MILLISECONDS.toNanos(config.getMinDelayMs())),
+                        TimeUnit.MILLISECONDS.toNanos(config.getMaxDelayMs()));
+        return Duration.ofNanos(delay);
+    }
+
+    // null = sin timeout propio (tampoco configurado en el HttpClient del gateway)
+    private Duration responseTimeout(Config config) {
+        return config.getResponseTimeoutMs() > 0
+                ? Duration.ofMillis(config.getResponseTimeoutMs())
+                : defaultResponseTimeout;
+    }
+
+    // firstWithValue junta los errores de los intentos como suppressed
+    private boolean isTimeout(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return true;
+        }
+        for (Throwable suppressed : error.getSuppressed()) {
+            if (suppressed instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Mono<ServiceInstance> choose(String serviceId) {
+        return Mono.from(clientFactory.getInstance(serviceId).choose(new DefaultRequest<>()))
+                .filter(Response::hasServer)
+                .map(Response::getServer);
+    }
+
+    private Mono<ServiceInstance> alternative(String serviceId, ServiceInstance primary) {
+        ServiceInstanceListSupplier supplier = clientFactory.getInstance(serviceId, ServiceInstanceListSupplier.class);
+        if (supplier == null) {
+            return Mono.empty();
+        }
+        return supplier.get().next()
+                .flatMap(instances -> {
+                    List<ServiceInstance> others = instances.stream()
+                            .filter(i -> !(i.getHost().equals(primary.getHost()) && i.getPort() == primary.getPort()))
+                            .collect(Collectors.toList());
+                    return Mono.justOrEmpty(statsRegistry.cheapest(serviceId, others));
+                });
+    }
+
+    private Mono<Attempt> call(ServiceInstance instance,
+                               ServerHttpRequest request,
+                               LatencyTracker tracker,
+                               Duration timeout,
+                               boolean hedge) {
+        URI uri = UriComponentsBuilder.fromUri(instance.getUri())
+                .path(request.getURI().getRawPath())
+                .query(request.getURI().getRawQuery())
+                .build(true)
+                .toUri();
+
+        return Mono.defer(() -> {
+            InstanceStats stats = statsRegistry.begin(instance);
+            long start = System.nanoTime();
+            AtomicBoolean answered = new AtomicBoolean();
+            AtomicBoolean serverError = new AtomicBoolean();
+
+            Mono<ResponseEntity<Flux<DataBuffer>>> response = webClient.method(request.getMethod())
+                    .uri(uri)
+                    .headers(headers -> {
+                        headers.addAll(request.getHeaders());
+                        HOP_BY_HOP.forEach(headers::remove);
+                    })
+                    .retrieve()
+                    // 4xx / 5xx se devuelven tal cual al cliente
+                    .onStatus(status -> true, clientResponse -> Mono.empty())
+                    .toEntityFlux(DataBuffer.class);
+            if (timeout != null) {
+                response = response.timeout(timeout);
+            }
+
+            return response
+                    .doOnNext(entity -> {
+                        answered.set(true);
+                        serverError.set(entity.getStatusCode().is5xxServerError());
+                        tracker.record(System.nanoTime() - start);
+                    })
+                    .doFinally(signal -> {
+                        if (stats == null) {
+                            return;
+                        }
+                        if (answered.get() || signal == SignalType.ON_ERROR) {
+                            statsRegistry.complete(stats, start, !answered.get() || serverError.get());
+                        } else {
+                            // El que perdió la carrera: cancelado, no aporta latencia
+                            statsRegistry.cancel(stats);
+                        }
+                    })
+                    .map(entity -> new Attempt(entity, hedge));
+        });
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, ResponseEntity<Flux<DataBuffer>> entity) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(entity.getStatusCode());
+        entity.getHeaders().forEach((name, values) -> {
+            if (HOP_BY_HOP.stream().noneMatch(name::equalsIgnoreCase)) {
+                response.getHeaders().put(name, values);
+            }
+        });
+        Flux<DataBuffer> body = entity.getBody();
+        if (body == null) {
+            return response.setComplete();
+        }
+        if (exchange.getRequest().getMethod() == HttpMethod.HEAD) {
+            // Se consume igual para devolver la conexión al pool
+            return body.doOnNext(DataBufferUtils::release).then(response.setComplete());
+        }
+        return response.writeWith(body);
+    }
+
+    private Mono<Void> onError(ServerWebExchange exchange, HttpStatus status) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        return response.setComplete();
+    }
+
+    private void count(Route route, String result) {
+        if (meterRegistry != null) {
+            meterRegistry.counter("gateway.hedge.requests", "route", route.getId(), "result", result).increment();
+        }
+    }
+
+    private static final class Attempt {
+
+        private final ResponseEntity<Flux<DataBuffer>> response;
+        private final boolean hedge;
+
+        Attempt(ResponseEntity<Flux<DataBuffer>> response, boolean hedge) {
+            this.response = response;
+            this.hedge = hedge;
+        }
+    }
+
+    @Data
+    public static class Config {
+        private double percentile = 95;
+        private long initialDelayMs = 100;
+        private long minDelayMs = 5;
+        private long maxDelayMs = 1000;
+        // Muestras mínimas en la ventana para confiar en el percentil
+        private int minSamples = 100;
+        private long windowSeconds = 30;
+        // Hedges como % del tráfico de la ruta, con ráfaga de budgetBurst
+        private double budgetPercent = 5;
+        private int budgetBurst = 10;
+        // Timeout hasta los headers de cada intento; 0 = el response-timeout del HttpClient del gateway
+        private long responseTimeoutMs = 0;
+    }
+}
@@ -0,0 +1,32 @@
+package com.makiia.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.load-balancer")
+public class LatencyBalancerProperties {
+
+    // false = round-robin de Spring Cloud LoadBalancer
+    private boolean latencyAware = true;
+
+    // Constante de tiempo del EWMA: cuánto "recuerda" la latencia pasada (y cuánto tarda
+    // en olvidarse la penalidad de una instancia que dejó de recibir tráfico)
+    private long decayMs = 10000;
+
+    // Una instancia nueva recibe tráfico creciente durante este tiempo
+    private long warmupSeconds = 60;
+
+    // Peso inicial de una instancia nueva (1 = sin warm-up)
+    private double minWarmupWeight = 0.1;
+
+    // Latencia que se le anota a un request fallido (conexión o 5xx)
+    private long failurePenaltyMs = 2000;
+
+    // Estadísticas de instancias sin tráfico por este tiempo se eliminan
+    private long idleEvictSeconds = 600;
+
+    private long sweepIntervalMs = 60000;
+}
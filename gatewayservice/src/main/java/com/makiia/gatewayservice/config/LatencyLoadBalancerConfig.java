@@ -0,0 +1,13 @@
+package com.makiia.gatewayservice.config;
+
+import com.makiia.gatewayservice.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+// 📌 Rutas lb:// (y WebClient @LoadBalanced) eligen instancia por latencia en vez de round-robin
+@Configuration
+@ConditionalOnProperty(name = "gateway.load-balancer.latency-aware", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LatencyLoadBalancerConfig {
+}
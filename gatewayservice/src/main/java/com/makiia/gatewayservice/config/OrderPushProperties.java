@@ -0,0 +1,31 @@
+package com.makiia.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.push.order-status")
+public class OrderPushProperties {
+
+    private boolean enabled = true;
+
+    // Stream interno de cada instancia de orderservice
+    private String serviceId = "msvc-orders";
+    private String streamPath = "/internal/orders/status/stream";
+
+    // Cada cuánto se revisa en Eureka qué instancias de orderservice hay
+    private long refreshIntervalMs = 30000;
+
+    private long reconnectMinMs = 1000;
+    private long reconnectMaxMs = 30000;
+
+    private int maxConnections = 10000;
+    private int maxConnectionsPerUser = 5;
+
+    // Eventos pendientes por conexión; si el cliente no los lee, se le cierra la conexión
+    private int bufferPerConnection = 32;
+
+    private long heartbeatMs = 15000;
+}
@@ -0,0 +1,101 @@
+package com.makiia.gatewayservice.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makiia.gatewayservice.dto.external.OrderStatusEventDto;
+import com.makiia.gatewayservice.push.OrderStatusHub;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * GET /push/orders/status (SSE): cambios de estado de las órdenes del usuario
+ * autenticado (X-User-Id de AuthFilter), evento "order-status" por cambio. Reemplaza
+ * el polling de GET /orders: el cliente lee el estado una vez y después escucha.
+ * Evento "resync": el gateway perdió cambios (reconexión con orderservice) y el cliente
+ * tiene que volver a leer el estado.
+ */
+@Component
+public class OrderStatusPushFilter extends AbstractGatewayFilterFactory<Object> {
+
+    private final OrderStatusHub hub;
+    private final ObjectMapper objectMapper;
+
+    public OrderStatusPushFilter(OrderStatusHub hub, ObjectMapper objectMapper) {
+        super(Object.class);
+        this.hub = hub;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return (exchange, chain) -> {
+            String userId = exchange.getRequest().getHeaders().getFirst("X-User-Id");
+            Long customerId;
+            try {
+                customerId = Long.valueOf(userId);
+            } catch (NumberFormatException e) {
+                return onError(exchange, HttpStatus.UNAUTHORIZED);
+            }
+
+            Flux<OrderStatusEventDto> events;
+            try {
+                events = hub.subscribe(customerId);
+            } catch (ResponseStatusException e) {
+                return onError(exchange, e.getStatus());
+            }
+
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+            response.getHeaders().setCacheControl("no-cache");
+            // Que ningún proxy intermedio acumule el stream
+            response.getHeaders().set("X-Accel-Buffering", "no");
+
+            Flux<String> frames = Flux.just("retry: 5000\n\n")
+                    .concatWith(events.map(this::frame));
+
+            return response.writeAndFlushWith(frames.map(frame -> Mono.just(buffer(response, frame))));
+        };
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private String frame(OrderStatusEventDto event) {
+        if (event == OrderStatusHub.HEARTBEAT) {
+            return ": ping\n\n";
+        }
+        if (event == OrderStatusHub.RESYNC) {
+            return "event: resync\ndata: {}\n\n";
+        }
+        try {
+            return "event: order-status\ndata: " + objectMapper.writeValueAsString(event) + "\n\n";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private DataBuffer buffer(ServerHttpResponse response, String frame) {
+        return response.bufferFactory().wrap(frame.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mono<Void> onError(ServerWebExchange exchange, HttpStatus status) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        if (status == HttpStatus.TOO_MANY_REQUESTS || status == HttpStatus.SERVICE_UNAVAILABLE) {
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, "5");
+        }
+        return response.setComplete();
+    }
+}
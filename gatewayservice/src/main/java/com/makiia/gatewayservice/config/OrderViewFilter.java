@@ -0,0 +1,71 @@
+package com.makiia.gatewayservice.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makiia.gatewayservice.service.OrderViewService;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ruta de composición GET /views/orders/{id}: responde el propio gateway con
+ * OrderViewService (no hay servicio detrás, uri: no://op). Va después de AuthFilter
+ * y RateLimitFilter, así la vista paga una sola validación de token.
+ */
+@Component
+public class OrderViewFilter extends AbstractGatewayFilterFactory<Object> {
+
+    private final OrderViewService orderViewService;
+    private final ObjectMapper objectMapper;
+
+    public OrderViewFilter(OrderViewService orderViewService, ObjectMapper objectMapper) {
+        super(Object.class);
+        this.orderViewService = orderViewService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return (exchange, chain) -> {
+            String id = ServerWebExchangeUtils.getUriTemplateVariables(exchange).get("id");
+            Long orderId;
+            try {
+                orderId = Long.valueOf(id);
+            } catch (NumberFormatException e) {
+                return onError(exchange, HttpStatus.BAD_REQUEST);
+            }
+
+            return orderViewService.getOrderView(orderId, exchange.getRequest().getHeaders())
+                    .flatMap(view -> write(exchange, view))
+                    .onErrorResume(ResponseStatusException.class, e -> onError(exchange, e.getStatus()));
+        };
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private Mono<Void> write(ServerWebExchange exchange, Object body) {
+        ServerHttpResponse response = exchange.getResponse();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(json)));
+    }
+
+    private Mono<Void> onError(ServerWebExchange exchange, HttpStatus status) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        return response.setComplete();
+    }
+}
@@ -0,0 +1,18 @@
+package com.makiia.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.views.order")
+public class OrderViewProperties {
+
+    // La orden es obligatoria: si no llega a tiempo, 504
+    private long orderTimeoutMs = 2000;
+
+    // Pagos y productos son opcionales: si no llegan, la vista sale sin ellos
+    private long paymentsTimeoutMs = 1500;
+    private long productsTimeoutMs = 1000;
+}
@@ -0,0 +1,82 @@
+package com.makiia.gatewayservice.config;
+
+import com.makiia.gatewayservice.ratelimit.RateLimiterRegistry;
+import com.makiia.gatewayservice.ratelimit.TokenBucket;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Límite por usuario (X-User-Id, lo agrega AuthFilter) y por ruta, en memoria.
+ * Va después de AuthFilter en la lista de filtros de la ruta.
+ */
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    private final RateLimiterRegistry registry;
+    private final RateLimitProperties properties;
+
+    public RateLimitFilter(RateLimiterRegistry registry, RateLimitProperties properties) {
+        super(Config.class);
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            if (!properties.isEnabled()) {
+                return chain.filter(exchange);
+            }
+
+            int capacity = config.getCapacity() != null ? config.getCapacity() : properties.getCapacity();
+            double refill = config.getRefillPerSecond() != null
+                    ? config.getRefillPerSecond()
+                    : properties.getRefillPerSecond();
+
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "default";
+
+            TokenBucket.Result result = registry.tryConsume(routeId, userKey(exchange), capacity, refill);
+
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().set("X-RateLimit-Limit", String.valueOf(capacity));
+            response.getHeaders().set("X-RateLimit-Remaining", String.valueOf(result.getRemaining()));
+
+            if (!result.isAllowed()) {
+                long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(result.getRetryAfterNanos() + 999_999_999L));
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+                response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                return response.setComplete();
+            }
+            return chain.filter(exchange);
+        };
+    }
+
+    // Sin usuario autenticado (ruta sin AuthFilter) se limita por IP
+    private String userKey(ServerWebExchange exchange) {
+        String userId = exchange.getRequest().getHeaders().getFirst("X-User-Id");
+        if (userId != null) {
+            return "u" + userId;
+        }
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        return remote != null && remote.getAddress() != null ? "ip" + remote.getAddress().getHostAddress() : "anonymous";
+    }
+
+    @Data
+    public static class Config {
+        // null = usar gateway.rate-limit.capacity / refill-per-second
+        private Integer capacity;
+        private Double refillPerSecond;
+    }
+}
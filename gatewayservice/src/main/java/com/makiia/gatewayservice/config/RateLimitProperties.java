@@ -0,0 +1,25 @@
+package com.makiia.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Tope de buckets (usuario x ruta) en memoria
+    private int maxKeys = 100000;
+
+    // Un bucket sin uso por este tiempo se elimina
+    private long idleSeconds = 300;
+
+    private long sweepIntervalMs = 30000;
+
+    // Valores por defecto de las rutas que no definen los suyos
+    private int capacity = 20;
+    private double refillPerSecond = 10;
+}
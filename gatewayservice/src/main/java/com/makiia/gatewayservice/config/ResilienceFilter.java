@@ -0,0 +1,229 @@
+package com.makiia.gatewayservice.config;
+
+import com.makiia.gatewayservice.resilience.BodyCapturingResponse;
+import com.makiia.gatewayservice.resilience.FallbackResponseCache;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Circuit breaker + bulkhead (semáforo de requests concurrentes) + timeout por ruta.
+ * Cada ruta tiene los suyos (nombre = id de la ruta; configuración en resilience4j.*
+ * de msvc-gateway.yml), así una ruta lenta no se come las conexiones de las demás.
+ * Rechazos: 503 inmediato, o la última respuesta buena si la ruta tiene cachedFallback.
+ * El timeout corre hasta que la respuesta se empieza a escribir: con el status ya enviado
+ * no hay 504 posible, y cortar el cuerpo a la mitad dejaría al cliente con una respuesta
+ * truncada sin aviso. Un cuerpo que sigue más allá del timeout se cuenta y se loguea.
+ *
+ * Estados y eventos por actuator: /actuator/circuitbreakers, /actuator/circuitbreakerevents,
+ * /actuator/bulkheads y las métricas resilience4j.*, gateway.resilience.rejected y
+ * gateway.resilience.slow_body.
+ */
+@Component
+public class ResilienceFilter extends AbstractGatewayFilterFactory<ResilienceFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(ResilienceFilter.class);
+
+    private static final int MAX_CACHED_BODY = 1024 * 1024;
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final FallbackResponseCache fallbackCache;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> listening = ConcurrentHashMap.newKeySet();
+
+    public ResilienceFilter(CircuitBreakerRegistry circuitBreakerRegistry,
+                            BulkheadRegistry bulkheadRegistry,
+                            FallbackResponseCache fallbackCache,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        super(Config.class);
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.fallbackCache = fallbackCache;
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String name = config.getName() != null ? config.getName() : route != null ? route.getId() : "default";
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name);
+            Bulkhead bulkhead = bulkheadRegistry.bulkhead(name);
+            logTransitions(circuitBreaker);
+
+            // 📌 Fast-fail: ni se intenta si el bulkhead está lleno o el circuito abierto
+            if (!bulkhead.tryAcquirePermission()) {
+                return reject(exchange, config, name, "bulkhead_full");
+            }
+            if (!circuitBreaker.tryAcquirePermission()) {
+                bulkhead.onComplete();
+                return reject(exchange, config, name, "circuit_open");
+            }
+
+            ServerWebExchange target = cacheable(exchange, config) ? capturing(exchange) : exchange;
+            long start = System.nanoTime();
+            Duration timeout = Duration.ofMillis(config.getTimeoutMs());
+            AtomicBoolean committed = new AtomicBoolean();
+            exchange.getResponse().beforeCommit(() -> {
+                committed.set(true);
+                return Mono.empty();
+            });
+            // Solo vence si para entonces no hay nada escrito
+            Mono<Long> beforeCommit = Mono.delay(timeout)
+                    .filter(tick -> !committed.get())
+                    .switchIfEmpty(Mono.never());
+
+            return chain.filter(target)
+                    .timeout(beforeCommit)
+                    .doOnSuccess(v -> {
+                        HttpStatus status = exchange.getResponse().getStatusCode();
+                        long elapsed = System.nanoTime() - start;
+                        if (status != null && status.is5xxServerError()) {
+                            circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS,
+                                    new IllegalStateException("Respuesta " + status.value() + " de la ruta " + name));
+                        } else {
+                            circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+                        }
+                    })
+                    .doOnError(e -> circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e))
+                    .doOnCancel(circuitBreaker::releasePermission)
+                    .doFinally(signal -> {
+                        bulkhead.onComplete();
+                        long elapsed = System.nanoTime() - start;
+                        if (committed.get() && elapsed > timeout.toNanos()) {
+                            slowBody(name, exchange, elapsed);
+                        }
+                    })
+                    .onErrorResume(TimeoutException.class, e -> {
+                        count(name, "timeout");
+                        return onError(exchange, HttpStatus.GATEWAY_TIMEOUT);
+                    });
+        };
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private Mono<Void> reject(ServerWebExchange exchange, Config config, String name, String reason) {
+        count(name, reason);
+        if (config.isCachedFallback() && isRead(exchange)) {
+            FallbackResponseCache.Entry cached = fallbackCache.get(cacheKey(exchange));
+            if (cached != null && acceptable(exchange, cached.getHeaders().getContentType())) {
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(cached.getStatus());
+                response.getHeaders().putAll(cached.getHeaders());
+                response.getHeaders().set(HttpHeaders.WARNING, "110 - \"Response is Stale\"");
+                response.getHeaders().set(HttpHeaders.AGE, String.valueOf(cached.getAgeSeconds()));
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.getBody())));
+            }
+        }
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        return onError(exchange, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private ServerWebExchange capturing(ServerWebExchange exchange) {
+        String key = cacheKey(exchange);
+        ServerHttpResponse response = exchange.getResponse();
+        BodyCapturingResponse decorated = new BodyCapturingResponse(response, MAX_CACHED_BODY, body -> {
+            if (response.getStatusCode() == HttpStatus.OK) {
+                HttpHeaders headers = new HttpHeaders();
+                if (response.getHeaders().getContentType() != null) {
+                    headers.setContentType(response.getHeaders().getContentType());
+                }
+                fallbackCache.put(key, HttpStatus.OK, headers, body);
+            }
+        });
+        return exchange.mutate().response(decorated).build();
+    }
+
+    private boolean cacheable(ServerWebExchange exchange, Config config) {
+        return config.isCachedFallback() && exchange.getRequest().getMethod() == HttpMethod.GET;
+    }
+
+    private boolean isRead(ServerWebExchange exchange) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        return method == HttpMethod.GET || method == HttpMethod.HEAD;
+    }
+
+    // 📌 Ruta + query + Accept: un cliente JSON nunca recibe la copia Smile de otro
+    private String cacheKey(ServerWebExchange exchange) {
+        String accept = String.join(",", exchange.getRequest().getHeaders().getOrEmpty(HttpHeaders.ACCEPT));
+        return exchange.getRequest().getURI().getRawPath()
+                + (exchange.getRequest().getURI().getRawQuery() != null ? "?" + exchange.getRequest().getURI().getRawQuery() : "")
+                + " " + accept;
+    }
+
+    // Por si el mismo Accept se respondió con otro formato (p. ej. el servicio cambió de versión)
+    private boolean acceptable(ServerWebExchange exchange, MediaType cachedType) {
+        List<MediaType> accepted = exchange.getRequest().getHeaders().getAccept();
+        if (cachedType == null || accepted.isEmpty()) {
+            return true;
+        }
+        return accepted.stream().anyMatch(type -> type.isCompatibleWith(cachedType));
+    }
+
+    private void slowBody(String name, ServerWebExchange exchange, long elapsedNanos) {
+        log.warn("Ruta {}: {} terminó en {} ms, después del timeout (respuesta ya enviada, no se cortó)",
+                name, exchange.getRequest().getPath(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        if (meterRegistry != null) {
+            meterRegistry.counter("gateway.resilience.slow_body", "route", name).increment();
+        }
+    }
+
+    private void logTransitions(CircuitBreaker circuitBreaker) {
+        if (listening.add(circuitBreaker.getName())) {
+            circuitBreaker.getEventPublisher().onStateTransition(event ->
+                    log.warn("Circuit breaker {}: {}", event.getCircuitBreakerName(), event.getStateTransition()));
+        }
+    }
+
+    private Mono<Void> onError(ServerWebExchange exchange, HttpStatus status) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.empty();
+        }
+        response.setStatusCode(status);
+        return response.setComplete();
+    }
+
+    private void count(String name, String reason) {
+        if (meterRegistry != null) {
+            meterRegistry.counter("gateway.resilience.rejected", "route", name, "reason", reason).increment();
+        }
+    }
+
+    @Data
+    public static class Config {
+        // null = id de la ruta (y la instancia de resilience4j con ese nombre)
+        private String name;
+        private long timeoutMs = 5000;
+        // Lecturas: servir la última respuesta buena cuando se rechaza
+        private boolean cachedFallback = false;
+    }
+}
@@ -0,0 +1,217 @@
+package com.makiia.gatewayservice.config;
+
+import com.makiia.gatewayservice.cache.CachedResponse;
+import com.makiia.gatewayservice.cache.ResponseCache;
+import com.makiia.gatewayservice.resilience.BodyCapturingResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache de GETs para rutas de lectura pública (ej. /products/**). Respeta el
+ * Cache-Control del servicio (no-store/private/no-cache no se guardan; max-age y
+ * s-maxage fijan la vigencia) y el del cliente (no-store/no-cache saltan el cache).
+ * Cada respuesta guardada lleva ETag: un If-None-Match que coincide recibe 304 sin
+ * body. Las escrituras que pasan por la ruta (POST/PUT/...) vacían su cache.
+ *
+ * El cache es de cada instancia del gateway: purgeOnWrite solo vacía el de la instancia
+ * por la que pasó la escritura, y las demás siguen sirviendo lo que tienen hasta que vence
+ * (ttlSeconds o el max-age del servicio). Por eso la vigencia tiene que ser corta en las
+ * rutas con escrituras; si hace falta consistencia inmediata, no cachear esa ruta.
+ *
+ * Las respuestas se comparten entre usuarios: solo para rutas cuyo contenido no
+ * depende de quién pregunta. Purga manual: DELETE /actuator/gatewaycache en el puerto
+ * de management de cada instancia.
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private static final Pattern MAX_AGE = Pattern.compile("(?:s-maxage|max-age)\\s*=\\s*(\\d+)");
+    private static final List<String> STORED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LANGUAGE, HttpHeaders.CONTENT_ENCODING,
+            HttpHeaders.LAST_MODIFIED, HttpHeaders.CACHE_CONTROL);
+
+    private final ResponseCache cache;
+    private final ResponseCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCacheFilter(ResponseCache cache,
+                               ResponseCacheProperties properties,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        super(Config.class);
+        this.cache = cache;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "default";
+            HttpMethod method = request.getMethod();
+
+            if (method != HttpMethod.GET) {
+                if (config.isPurgeOnWrite() && method != HttpMethod.HEAD && method != HttpMethod.OPTIONS) {
+                    return chain.filter(exchange).doOnSuccess(v -> {
+                        HttpStatus status = exchange.getResponse().getStatusCode();
+                        if (status != null && status.is2xxSuccessful()) {
+                            cache.purge(routeId, null);
+                        }
+                    });
+                }
+                return chain.filter(exchange);
+            }
+
+            String requestCacheControl = lower(request.getHeaders().getCacheControl());
+            if (requestCacheControl.contains("no-store")) {
+                count(routeId, "bypass");
+                return chain.filter(exchange);
+            }
+
+            String path = pathAndQuery(request);
+            String key = key(routeId, path, request, config);
+            long now = System.nanoTime();
+
+            if (!requestCacheControl.contains("no-cache")) {
+                CachedResponse cached = cache.get(key);
+                if (cached != null && cached.isFresh(now)) {
+                    return serve(exchange, routeId, cached, now);
+                }
+            }
+
+            // 📌 Miss: la respuesta pasa tal cual y se guarda una copia al terminar
+            count(routeId, "miss");
+            ServerHttpResponse response = exchange.getResponse();
+            BodyCapturingResponse capturing = new BodyCapturingResponse(response, properties.getMaxEntryBytes(),
+                    body -> store(key, routeId, path, response, body, config));
+            return chain.filter(exchange.mutate().response(capturing).build());
+        };
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private Mono<Void> serve(ServerWebExchange exchange, String routeId, CachedResponse cached, long now) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.getHeaders());
+        headers.setETag(cached.getEtag());
+        headers.set(HttpHeaders.AGE, String.valueOf(cached.ageSeconds(now)));
+        headers.set("X-Cache", "HIT");
+
+        if (matches(exchange.getRequest().getHeaders().getIfNoneMatch(), cached.getEtag())) {
+            count(routeId, "not_modified");
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+
+        count(routeId, "hit");
+        response.setStatusCode(HttpStatus.OK);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    private void store(String key, String routeId, String path, ServerHttpResponse response, byte[] body, Config config) {
+        HttpHeaders upstream = response.getHeaders();
+        String cacheControl = lower(upstream.getCacheControl());
+        if (response.getStatusCode() != HttpStatus.OK
+                || cacheControl.contains("no-store") || cacheControl.contains("private") || cacheControl.contains("no-cache")
+                || upstream.containsKey(HttpHeaders.SET_COOKIE)
+                // Fallback stale de ResilienceFilter: no se vuelve a guardar como fresco
+                || upstream.containsKey(HttpHeaders.WARNING)
+                || upstream.getVary().contains("*")) {
+            return;
+        }
+
+        long ttlSeconds = config.getTtlSeconds();
+        Matcher maxAge = MAX_AGE.matcher(cacheControl);
+        if (maxAge.find()) {
+            ttlSeconds = Long.parseLong(maxAge.group(1));
+        }
+        if (ttlSeconds <= 0) {
+            return;
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : STORED_HEADERS) {
+            List<String> values = upstream.get(name);
+            if (values != null) {
+                headers.put(name, values);
+            }
+        }
+        // Sin política del servicio: el cliente siempre revalida (y el gateway responde 304)
+        if (!headers.containsKey(HttpHeaders.CACHE_CONTROL)) {
+            headers.setCacheControl("no-cache");
+        }
+        String etag = upstream.getETag() != null
+                ? upstream.getETag()
+                : "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+
+        cache.put(key, new CachedResponse(routeId, path, headers, body, etag,
+                System.nanoTime(), TimeUnit.SECONDS.toNanos(ttlSeconds)));
+    }
+
+    private boolean matches(List<String> ifNoneMatch, String etag) {
+        String strong = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals(strong) || value.equals("W/" + strong)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String key(String routeId, String path, ServerHttpRequest request, Config config) {
+        StringBuilder key = new StringBuilder(routeId).append(' ').append(path);
+        for (String header : config.getVaryHeaders()) {
+            key.append('|').append(String.join(",", request.getHeaders().getOrEmpty(header)));
+        }
+        return key.toString();
+    }
+
+    private String pathAndQuery(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        return request.getURI().getRawPath() + (query != null ? "?" + query : "");
+    }
+
+    private String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+
+    private void count(String routeId, String result) {
+        if (meterRegistry != null) {
+            meterRegistry.counter("gateway.cache.requests", "route", routeId, "result", result).increment();
+        }
+    }
+
+    @Data
+    public static class Config {
+        // Vigencia cuando el servicio no manda max-age
+        private long ttlSeconds = 30;
+        // Headers del request que cambian la respuesta (parte de la clave)
+        private List<String> varyHeaders = List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT_LANGUAGE);
+        // Solo la instancia que recibió la escritura (ver arriba)
+        private boolean purgeOnWrite = true;
+    }
+}
@@ -0,0 +1,20 @@
+package com.makiia.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.cache")
+public class ResponseCacheProperties {
+
+    // Tope total de bodies en memoria (todas las rutas)
+    private long maxBytes = 64L * 1024 * 1024;
+
+    // Respuestas más grandes no se guardan
+    private int maxEntryBytes = 1024 * 1024;
+
+    // Segmentos con lock propio (menos contención entre lecturas concurrentes)
+    private int segments = 16;
+}
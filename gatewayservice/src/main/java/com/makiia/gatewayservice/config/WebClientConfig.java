@@ -3,13 +3,21 @@ package com.makiia.gatewayservice.config;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
 public class WebClientConfig {
+
+    // JSON binario de Jackson; los servicios internos lo producen si se pide en Accept
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    // 📌 Llamadas internas: Smile preferido, JSON si el servicio no lo soporta
     @Bean
     @LoadBalanced
     public WebClient.Builder builder() {
-        return WebClient.builder();
+        return WebClient.builder()
+                .defaultHeader(HttpHeaders.ACCEPT, APPLICATION_SMILE_VALUE, MediaType.APPLICATION_JSON_VALUE);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.makiia.gatewayservice.dto;
+
+import com.makiia.gatewayservice.dto.external.PaymentDto;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class OrderViewDto {
+    private Long orderId;
+    private Long customerId;
+    private BigDecimal total;
+    private String status;
+    private String channel;
+    private LocalDateTime createdAt;
+    private LocalDateTime confirmedAt;
+    private List<OrderViewItemDto> items;
+    // null si paymentservice no respondió a tiempo (ver missing)
+    private List<PaymentDto> payments;
+    // Partes que no llegaron a tiempo o fallaron: "payments", "products"
+    private List<String> missing;
+}
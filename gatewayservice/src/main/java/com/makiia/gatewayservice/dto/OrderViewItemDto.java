@@ -0,0 +1,17 @@
+package com.makiia.gatewayservice.dto;
+
+import com.makiia.gatewayservice.dto.external.ProductDto;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class OrderViewItemDto {
+    private Integer productId;
+    private Integer quantity;
+    private BigDecimal price;
+    // null si productservice no respondió a tiempo
+    private ProductDto product;
+}
@@ -0,0 +1,27 @@
+package com.makiia.gatewayservice.dto.external;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class OrderDetailDto {
+    private Long orderId;
+    private Long customerId;
+    private BigDecimal total;
+    private String status;
+    private String channel;
+    private String contactPhone;
+    private String notes;
+    private LocalDateTime createdAt;
+    private LocalDateTime confirmedAt;
+    private List<OrderItemDto> items;
+}
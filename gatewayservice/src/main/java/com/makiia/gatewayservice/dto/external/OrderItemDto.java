@@ -0,0 +1,18 @@
+package com.makiia.gatewayservice.dto.external;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class OrderItemDto {
+    private Integer productId;
+    private Integer quantity;
+    private BigDecimal price;
+}
@@ -0,0 +1,19 @@
+package com.makiia.gatewayservice.dto.external;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class OrderStatusEventDto {
+    private Long orderId;
+    private Long customerId;
+    private String status;
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,22 @@
+package com.makiia.gatewayservice.dto.external;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class PaymentDto {
+    private Long paymentId;
+    private Long orderId;
+    private BigDecimal amount;
+    private String method;
+    private String status;
+    private LocalDateTime createdAt;
+}
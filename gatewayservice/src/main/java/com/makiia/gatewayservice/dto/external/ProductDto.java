@@ -0,0 +1,21 @@
+package com.makiia.gatewayservice.dto.external;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ProductDto {
+    private Integer id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Integer stock;
+    private String category;
+}
@@ -0,0 +1,39 @@
+package com.makiia.gatewayservice.hedge;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Presupuesto de requests extra: cada request normal deposita percent/100 de crédito
+ * (hasta burst) y cada hedge gasta 1. Así los hedges nunca pasan de ~percent% del
+ * tráfico, aunque todas las instancias se pongan lentas a la vez.
+ */
+public class HedgeBudget {
+
+    private static final long UNIT = 1000;
+
+    private final long depositPerRequest;
+    private final long maxCredit;
+    private final AtomicLong credit;
+
+    public HedgeBudget(double percent, int burst) {
+        this.depositPerRequest = Math.round(percent * UNIT / 100);
+        this.maxCredit = burst * UNIT;
+        this.credit = new AtomicLong(maxCredit);
+    }
+
+    public void deposit() {
+        credit.updateAndGet(c -> Math.min(maxCredit, c + depositPerRequest));
+    }
+
+    public boolean tryWithdraw() {
+        while (true) {
+            long current = credit.get();
+            if (current < UNIT) {
+                return false;
+            }
+            if (credit.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+}
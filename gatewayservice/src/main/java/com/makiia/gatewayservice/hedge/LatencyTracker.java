@@ -0,0 +1,114 @@
+package com.makiia.gatewayservice.hedge;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias con buckets logarítmicos (~10% de precisión, de 1 ms a ~2 min)
+ * sobre dos ventanas que rotan: se consulta la actual + la anterior, así el percentil
+ * sigue a la latencia reciente sin quedarse en cero al rotar. Registrar es un
+ * incremento atómico; el percentil se recalcula como mucho cada 250 ms.
+ */
+public class LatencyTracker {
+
+    private static final long MIN_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final double GROWTH = 1.1;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+    private static final int BUCKETS = 125;
+    private static final long REFRESH_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private final long windowNanos;
+    private final int minSamples;
+
+    private volatile Window current;
+    private volatile Window previous;
+
+    private volatile long cachedAt = Long.MIN_VALUE;
+    private volatile double cachedPercentile = -1;
+    private volatile long cachedValue = -1;
+
+    public LatencyTracker(long windowNanos, int minSamples) {
+        this.windowNanos = windowNanos;
+        this.minSamples = minSamples;
+        long now = System.nanoTime();
+        this.current = new Window(now);
+        this.previous = new Window(now - windowNanos);
+    }
+
+    public void record(long latencyNanos) {
+        window(System.nanoTime()).counts.incrementAndGet(bucketOf(latencyNanos));
+    }
+
+    // 📌 Percentil (0-100) en nanos; -1 si todavía no hay muestras suficientes
+    public long percentile(double percentile) {
+        long now = System.nanoTime();
+        if (percentile == cachedPercentile && now - cachedAt < REFRESH_NANOS) {
+            return cachedValue;
+        }
+        Window cur = window(now);
+        Window prev = previous;
+
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = cur.counts.get(i) + prev.counts.get(i);
+            total += counts[i];
+        }
+
+        long value = -1;
+        if (total >= minSamples) {
+            long target = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    value = upperBound(i);
+                    break;
+                }
+            }
+        }
+        cachedValue = value;
+        cachedPercentile = percentile;
+        cachedAt = now;
+        return value;
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private Window window(long now) {
+        Window cur = current;
+        if (now - cur.start < windowNanos) {
+            return cur;
+        }
+        synchronized (this) {
+            if (now - current.start >= windowNanos) {
+                // Sin tráfico por más de dos ventanas, lo anterior ya no sirve
+                previous = now - current.start < 2 * windowNanos ? current : new Window(now - windowNanos);
+                current = new Window(now);
+            }
+            return current;
+        }
+    }
+
+    static int bucketOf(long latencyNanos) {
+        if (latencyNanos <= MIN_NANOS) {
+            return 0;
+        }
+        int bucket = (int) Math.ceil(Math.log((double) latencyNanos / MIN_NANOS) / LOG_GROWTH);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    static long upperBound(int bucket) {
+        return (long) (MIN_NANOS * Math.pow(GROWTH, bucket));
+    }
+
+    private static final class Window {
+
+        private final long start;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        Window(long start) {
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.makiia.gatewayservice.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latencia (EWMA con decaimiento por tiempo, estilo "peak EWMA") y requests en curso
+ * de una instancia. Una latencia mayor al promedio se toma de inmediato, así una
+ * instancia que se pone lenta (GC, CPU) deja de recibir tráfico enseguida; las mejoras
+ * se incorporan de a poco. Al leerla, la latencia decae con el tiempo sin observaciones:
+ * una instancia penalizada que deja de recibir tráfico vuelve a ser elegida al rato y
+ * ese request mide su latencia real.
+ */
+public class InstanceStats {
+
+    private final String serviceId;
+    private final String instanceId;
+    private final long warmSinceNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private double ewmaNanos;
+    private long lastObservedNanos;
+    private volatile long lastUsedNanos;
+
+    InstanceStats(String serviceId, String instanceId, double initialEwmaNanos, long warmSinceNanos, long nowNanos) {
+        this.serviceId = serviceId;
+        this.instanceId = instanceId;
+        this.ewmaNanos = initialEwmaNanos;
+        this.warmSinceNanos = warmSinceNanos;
+        this.lastObservedNanos = nowNanos;
+        this.lastUsedNanos = nowNanos;
+    }
+
+    public synchronized void observe(long latencyNanos, long nowNanos, long decayNanos) {
+        if (latencyNanos > ewmaNanos) {
+            ewmaNanos = latencyNanos;
+        } else {
+            double weight = Math.exp(-(double) Math.max(0, nowNanos - lastObservedNanos) / decayNanos);
+            ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+        }
+        lastObservedNanos = nowNanos;
+    }
+
+    // Último valor observado, sin decaer
+    public synchronized double getEwmaNanos() {
+        return ewmaNanos;
+    }
+
+    // 📌 Latencia a la fecha: decae hacia 0 con el tiempo desde la última observación
+    public synchronized double ewmaAt(long nowNanos, long decayNanos) {
+        return ewmaNanos * Math.exp(-(double) Math.max(0, nowNanos - lastObservedNanos) / decayNanos);
+    }
+
+    // 1 cuando terminó el warm-up; crece lineal desde minWeight
+    public double warmupWeight(long nowNanos, long warmupNanos, double minWeight) {
+        if (warmupNanos <= 0 || nowNanos - warmSinceNanos >= warmupNanos) {
+            return 1;
+        }
+        double progress = (double) Math.max(0, nowNanos - warmSinceNanos) / warmupNanos;
+        return minWeight + (1 - minWeight) * progress;
+    }
+
+    // 📌 Costo esperado de mandarle un request más (menor = mejor)
+    public double cost(long nowNanos, long decayNanos, long warmupNanos, double minWeight) {
+        return (ewmaAt(nowNanos, decayNanos) + 1) * (inFlight.get() + 1) / warmupWeight(nowNanos, warmupNanos, minWeight);
+    }
+
+    public void started(long nowNanos) {
+        inFlight.incrementAndGet();
+        lastUsedNanos = nowNanos;
+    }
+
+    public void finished() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+}
@@ -0,0 +1,190 @@
+package com.makiia.gatewayservice.loadbalancer;
+
+import com.makiia.gatewayservice.config.LatencyBalancerProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estadísticas por instancia, compartidas por los balanceadores de todos los servicios
+ * (cada servicio tiene su contexto de LoadBalancer, este bean vive en el del gateway).
+ *
+ * Métricas (si hay MeterRegistry): gateway.lb.selections (contador por instancia y
+ * tipo de elección), gateway.lb.latency.ewma (ms), gateway.lb.inflight y
+ * gateway.lb.warmup.weight.
+ */
+@Component
+public class InstanceStatsRegistry {
+
+    private final LatencyBalancerProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    // serviceId -> (instanceId -> stats)
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, InstanceStats>> services = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<InstanceStats, List<Meter>> meters = new ConcurrentHashMap<>();
+
+    public InstanceStatsRegistry(LatencyBalancerProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    // 📌 Stats de las instancias candidatas; las que aparecen por primera vez entran en warm-up
+    public List<InstanceStats> statsFor(String serviceId, List<ServiceInstance> instances) {
+        long now = System.nanoTime();
+        String service = normalize(serviceId);
+        boolean firstLook = !services.containsKey(service);
+        ConcurrentHashMap<String, InstanceStats> byInstance = services.computeIfAbsent(service, k -> new ConcurrentHashMap<>());
+
+        List<InstanceStats> result = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            String key = keyOf(instance);
+            InstanceStats stats = byInstance.get(key);
+            if (stats == null) {
+                // Al arrancar el gateway las instancias ya existentes no son "nuevas"
+                long warmSince = firstLook ? now - TimeUnit.SECONDS.toNanos(properties.getWarmupSeconds()) : now;
+                stats = byInstance.computeIfAbsent(key,
+                        k -> register(new InstanceStats(service, k, averageEwma(byInstance, now), warmSince, now)));
+            }
+            result.add(stats);
+        }
+        return result;
+    }
+
+    // 📌 Instancia de menor costo (para el hedge, entre las que no son la primera elegida)
+    public ServiceInstance cheapest(String serviceId, List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return null;
+        }
+        List<InstanceStats> stats = statsFor(serviceId, instances);
+        long now = System.nanoTime();
+        long decayNanos = decayNanos();
+        long warmupNanos = TimeUnit.SECONDS.toNanos(properties.getWarmupSeconds());
+        int best = 0;
+        double bestCost = Double.MAX_VALUE;
+        for (int i = 0; i < stats.size(); i++) {
+            double cost = stats.get(i).cost(now, decayNanos, warmupNanos, properties.getMinWarmupWeight());
+            if (cost < bestCost) {
+                best = i;
+                bestCost = cost;
+            }
+        }
+        return instances.get(best);
+    }
+
+    public InstanceStats find(String serviceId, ServiceInstance instance) {
+        Map<String, InstanceStats> byInstance = services.get(normalize(serviceId));
+        return byInstance != null ? byInstance.get(keyOf(instance)) : null;
+    }
+
+    // 📌 Request que sale hacia la instancia; null si la instancia no es de un balanceo conocido
+    public InstanceStats begin(ServiceInstance instance) {
+        InstanceStats stats = find(instance.getServiceId(), instance);
+        if (stats != null) {
+            stats.started(System.nanoTime());
+        }
+        return stats;
+    }
+
+    // Fallos (conexión, 5xx) se anotan como al menos failure-penalty-ms
+    public void complete(InstanceStats stats, long startNanos, boolean failed) {
+        stats.finished();
+        long now = System.nanoTime();
+        long latency = now - startNanos;
+        if (failed) {
+            latency = Math.max(latency, TimeUnit.MILLISECONDS.toNanos(properties.getFailurePenaltyMs()));
+        }
+        stats.observe(latency, now, decayNanos());
+    }
+
+    // Request cancelado (p. ej. el hedge que perdió): no dice nada de la latencia
+    public void cancel(InstanceStats stats) {
+        stats.finished();
+    }
+
+    public void recordSelection(InstanceStats stats, String choice) {
+        if (meterRegistry != null) {
+            meterRegistry.counter("gateway.lb.selections",
+                    "service", stats.getServiceId(),
+                    "instance", stats.getInstanceId(),
+                    "choice", choice).increment();
+        }
+    }
+
+    // Instancias que ya no reciben tráfico (dadas de baja en Eureka, tareas reemplazadas)
+    @Scheduled(fixedDelayString = "${gateway.load-balancer.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        long idle = TimeUnit.SECONDS.toNanos(properties.getIdleEvictSeconds());
+        services.values().forEach(byInstance -> byInstance.values().removeIf(stats -> {
+            boolean evict = stats.getInFlight() == 0 && now - stats.getLastUsedNanos() > idle;
+            if (evict) {
+                unregister(stats);
+            }
+            return evict;
+        }));
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private InstanceStats register(InstanceStats stats) {
+        if (meterRegistry == null) {
+            return stats;
+        }
+        Tags tags = Tags.of("service", stats.getServiceId(), "instance", stats.getInstanceId());
+        long warmupNanos = TimeUnit.SECONDS.toNanos(properties.getWarmupSeconds());
+        List<Meter> registered = new ArrayList<>();
+        registered.add(Gauge.builder("gateway.lb.latency.ewma", stats,
+                        s -> s.ewmaAt(System.nanoTime(), decayNanos()) / 1_000_000)
+                .tags(tags).baseUnit("milliseconds").register(meterRegistry));
+        registered.add(Gauge.builder("gateway.lb.inflight", stats, InstanceStats::getInFlight)
+                .tags(tags).register(meterRegistry));
+        registered.add(Gauge.builder("gateway.lb.warmup.weight", stats,
+                        s -> s.warmupWeight(System.nanoTime(), warmupNanos, properties.getMinWarmupWeight()))
+                .tags(tags).register(meterRegistry));
+        meters.put(stats, registered);
+        return stats;
+    }
+
+    private void unregister(InstanceStats stats) {
+        List<Meter> registered = meters.remove(stats);
+        if (registered != null) {
+            registered.forEach(meterRegistry::remove);
+            for (Meter meter : meterRegistry.find("gateway.lb.selections")
+                    .tags("service", stats.getServiceId(), "instance", stats.getInstanceId()).counters()) {
+                meterRegistry.remove(meter);
+            }
+        }
+    }
+
+    // Una instancia nueva arranca con la latencia promedio del servicio (no con 0)
+    private double averageEwma(Map<String, InstanceStats> byInstance, long now) {
+        return byInstance.values().stream().mapToDouble(s -> s.ewmaAt(now, decayNanos())).average().orElse(0);
+    }
+
+    private long decayNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(properties.getDecayMs());
+    }
+
+    // Eureka devuelve el nombre de la app en mayúsculas; las rutas lb:// lo usan en minúsculas
+    private String normalize(String serviceId) {
+        return serviceId.toLowerCase(Locale.ROOT);
+    }
+
+    private String keyOf(ServiceInstance instance) {
+        return instance.getInstanceId() != null
+                ? instance.getInstanceId()
+                : instance.getHost() + ":" + instance.getPort();
+    }
+}
@@ -0,0 +1,82 @@
+package com.makiia.gatewayservice.loadbalancer;
+
+import com.makiia.gatewayservice.config.LatencyBalancerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Power of two choices: toma dos instancias al azar y manda el request a la de menor
+ * costo (latencia EWMA x requests en curso / peso de warm-up). Con dos candidatas al
+ * azar se evita que todos los gateways elijan a la vez la misma instancia "mejor".
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyAwareLoadBalancer.class);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry statsRegistry;
+    private final LatencyBalancerProperties properties;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    String serviceId,
+                                    InstanceStatsRegistry statsRegistry,
+                                    LatencyBalancerProperties properties) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.statsRegistry = statsRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No hay instancias disponibles para {}", serviceId);
+            return new EmptyResponse();
+        }
+
+        List<InstanceStats> stats = statsRegistry.statsFor(serviceId, instances);
+        if (instances.size() == 1) {
+            statsRegistry.recordSelection(stats.get(0), "single");
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        long now = System.nanoTime();
+        long decayNanos = TimeUnit.MILLISECONDS.toNanos(properties.getDecayMs());
+        long warmupNanos = TimeUnit.SECONDS.toNanos(properties.getWarmupSeconds());
+        double firstCost = stats.get(first).cost(now, decayNanos, warmupNanos, properties.getMinWarmupWeight());
+        double secondCost = stats.get(second).cost(now, decayNanos, warmupNanos, properties.getMinWarmupWeight());
+        int chosen = firstCost <= secondCost ? first : second;
+
+        statsRegistry.recordSelection(stats.get(chosen), "p2c");
+        return new DefaultResponse(instances.get(chosen));
+    }
+}
@@ -0,0 +1,29 @@
+package com.makiia.gatewayservice.loadbalancer;
+
+import com.makiia.gatewayservice.config.LatencyBalancerProperties;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuración de cada contexto de LoadBalancer (uno por servicio). Sin @Configuration
+ * a propósito: no debe quedar en el contexto principal (ver LatencyLoadBalancerConfig).
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                                                                         LoadBalancerClientFactory clientFactory,
+                                                                         InstanceStatsRegistry statsRegistry,
+                                                                         LatencyBalancerProperties properties) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId,
+                statsRegistry,
+                properties);
+    }
+}
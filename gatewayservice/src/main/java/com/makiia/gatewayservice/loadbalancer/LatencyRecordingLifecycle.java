@@ -0,0 +1,80 @@
+package com.makiia.gatewayservice.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lo llama ReactiveLoadBalancerClientFilter al empezar y al terminar cada request
+ * balanceado: lleva la cuenta de requests en curso y alimenta el EWMA de latencia.
+ */
+@Component
+public class LatencyRecordingLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final InstanceStatsRegistry statsRegistry;
+
+    public LatencyRecordingLifecycle(InstanceStatsRegistry statsRegistry) {
+        this.statsRegistry = statsRegistry;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext) {
+            ((TimedRequestContext) request.getContext()).setRequestStartTime(System.nanoTime());
+        }
+        statsRegistry.begin(lbResponse.getServer());
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        InstanceStats stats = stats(completionContext.getLoadBalancerResponse());
+        if (stats == null) {
+            return;
+        }
+        Object context = completionContext.getLoadBalancerRequest() != null
+                ? completionContext.getLoadBalancerRequest().getContext()
+                : null;
+        if (!(context instanceof TimedRequestContext)) {
+            statsRegistry.cancel(stats);
+            return;
+        }
+        statsRegistry.complete(stats, ((TimedRequestContext) context).getRequestStartTime(), failed(completionContext));
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private InstanceStats stats(Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return null;
+        }
+        ServiceInstance instance = lbResponse.getServer();
+        return statsRegistry.find(instance.getServiceId(), instance);
+    }
+
+    private boolean failed(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        Object response = completionContext.getClientResponse();
+        return response instanceof ResponseData
+                && ((ResponseData) response).getHttpStatus() != null
+                && ((ResponseData) response).getHttpStatus().is5xxServerError();
+    }
+}
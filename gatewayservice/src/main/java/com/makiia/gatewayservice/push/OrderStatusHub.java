@@ -0,0 +1,225 @@
+package com.makiia.gatewayservice.push;
+
+import com.makiia.gatewayservice.config.OrderPushProperties;
+import com.makiia.gatewayservice.dto.external.OrderStatusEventDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Reparte los cambios de estado de órdenes a los clientes conectados a este gateway.
+ *
+ * Hacia arriba: una conexión SSE por instancia de orderservice (descubiertas en
+ * Eureka), no una por cliente; cada gateway recibe todos los cambios y los filtra por
+ * customerId. Hacia abajo: cada conexión de cliente tiene un buffer acotado; si el
+ * cliente no lo vacía se le cierra la conexión (al reconectar vuelve a leer el estado).
+ *
+ * Mientras una conexión hacia orderservice está caída sus cambios se pierden: al
+ * reconectar (comentario "ready" del nuevo stream) se manda RESYNC a todos los clientes
+ * para que vuelvan a leer el estado.
+ */
+@Component
+public class OrderStatusHub {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusHub.class);
+
+    // Marca de heartbeat dentro del stream de cada conexión
+    public static final OrderStatusEventDto HEARTBEAT = new OrderStatusEventDto();
+    // Marca de "pudieron perderse cambios: volver a leer el estado"
+    public static final OrderStatusEventDto RESYNC = new OrderStatusEventDto();
+
+    private final DiscoveryClient discoveryClient;
+    private final OrderPushProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final WebClient webClient = WebClient.create();
+
+    private final ConcurrentHashMap<String, Disposable> upstreams = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    public OrderStatusHub(DiscoveryClient discoveryClient,
+                          OrderPushProperties properties,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
+        this.discoveryClient = discoveryClient;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry.getIfAvailable();
+        if (this.meterRegistry != null) {
+            Gauge.builder("gateway.push.connections", connectionCount, AtomicInteger::get).register(this.meterRegistry);
+            Gauge.builder("gateway.push.upstreams", upstreams, ConcurrentHashMap::size).register(this.meterRegistry);
+        }
+    }
+
+    // 📌 Stream de cambios de las órdenes del cliente (termina si se desborda su buffer)
+    public Flux<OrderStatusEventDto> subscribe(Long customerId) {
+        if (connectionCount.incrementAndGet() > properties.getMaxConnections()) {
+            connectionCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Demasiadas conexiones abiertas");
+        }
+
+        Connection connection = new Connection(properties.getBufferPerConnection());
+        boolean[] added = {false};
+        connections.compute(customerId, (id, set) -> {
+            Set<Connection> current = set != null ? set : ConcurrentHashMap.newKeySet();
+            if (current.size() < properties.getMaxConnectionsPerUser()) {
+                current.add(connection);
+                added[0] = true;
+            }
+            return current;
+        });
+        if (!added[0]) {
+            connectionCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Demasiadas conexiones para el usuario");
+        }
+
+        return connection.sink.asFlux().doFinally(signal -> {
+            connectionCount.decrementAndGet();
+            connections.computeIfPresent(customerId, (id, set) -> {
+                set.remove(connection);
+                return set.isEmpty() ? null : set;
+            });
+        });
+    }
+
+    public int connectionCount() {
+        return connectionCount.get();
+    }
+
+    // 📌 Evento recibido de orderservice: solo a las conexiones de ese cliente
+    void publish(OrderStatusEventDto event) {
+        if (event.getCustomerId() == null) {
+            return;
+        }
+        Set<Connection> targets = connections.get(event.getCustomerId());
+        if (targets == null) {
+            return;
+        }
+        for (Connection connection : targets) {
+            count(connection.offer(event) ? "delivered" : "overflow");
+        }
+    }
+
+    // 📌 Hueco en un stream de orderservice: todas las conexiones vuelven a leer el estado
+    void resync(String source) {
+        log.info("Push de estados: stream de {} reabierto, resync a {} conexiones", source, connectionCount.get());
+        connections.values().forEach(set -> set.forEach(c -> count(c.offer(RESYNC) ? "resync" : "overflow")));
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.push.order-status.heartbeat-ms:15000}")
+    public void heartbeat() {
+        connections.values().forEach(set -> set.forEach(c -> c.offer(HEARTBEAT)));
+    }
+
+    // 📌 Una conexión por instancia de orderservice; se abren/cierran según Eureka
+    @Scheduled(fixedDelayString = "${gateway.push.order-status.refresh-interval-ms:30000}", initialDelay = 5000)
+    public void refreshUpstreams() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        List<ServiceInstance> instances = discoveryClient.getInstances(properties.getServiceId());
+        Set<String> current = instances.stream().map(this::keyOf).collect(Collectors.toSet());
+
+        for (ServiceInstance instance : instances) {
+            upstreams.computeIfAbsent(keyOf(instance), k -> connect(instance));
+        }
+        upstreams.keySet().removeIf(key -> {
+            if (current.contains(key)) {
+                return false;
+            }
+            upstreams.get(key).dispose();
+            return true;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        upstreams.values().forEach(Disposable::dispose);
+        connections.values().forEach(set -> set.forEach(c -> c.sink.tryEmitComplete()));
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private Disposable connect(ServiceInstance instance) {
+        log.info("Push de estados: conectando a {}", instance.getUri());
+        AtomicBoolean connectedOnce = new AtomicBoolean();
+        return webClient.get()
+                .uri(instance.getUri() + properties.getStreamPath())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<OrderStatusEventDto>>() {})
+                .doOnNext(sse -> {
+                    // El primer "ready" es la conexión inicial; los siguientes, reconexiones
+                    if ("ready".equals(sse.comment()) && !connectedOnce.compareAndSet(false, true)) {
+                        resync(instance.getUri().toString());
+                    }
+                })
+                .filter(sse -> sse.data() != null)
+                .map(ServerSentEvent::data)
+                // El stream termina por timeout del lado de orderservice: se reabre, con pausa
+                .repeatWhen(completed -> completed.delayElements(Duration.ofMillis(properties.getReconnectMinMs())))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(properties.getReconnectMinMs()))
+                        .maxBackoff(Duration.ofMillis(properties.getReconnectMaxMs()))
+                        .transientErrors(true)
+                        .doBeforeRetry(s -> log.debug("Push de estados: reconectando a {} ({})",
+                                instance.getUri(), s.failure().toString())))
+                .subscribe(this::publish, e -> log.warn("Push de estados: stream de {} terminado", instance.getUri(), e));
+    }
+
+    private String keyOf(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private void count(String result) {
+        if (meterRegistry != null) {
+            meterRegistry.counter("gateway.push.events", "result", result).increment();
+        }
+    }
+
+    private static final class Connection {
+
+        private final Sinks.Many<OrderStatusEventDto> sink;
+
+        // 📌 Capacidad exacta: Queues.get redondea a potencia de 2 y nunca baja de 8
+        Connection(int buffer) {
+            this.sink = Sinks.many().unicast().onBackpressureBuffer(new ArrayBlockingQueue<>(buffer));
+        }
+
+        // Varias instancias de orderservice publican a la vez: se serializa por conexión
+        synchronized boolean offer(OrderStatusEventDto event) {
+            Sinks.EmitResult result = sink.tryEmitNext(event);
+            // Buffer lleno: FAIL_OVERFLOW si el cliente no pide más, FAIL_ZERO_SUBSCRIBER si
+            // todavía no se suscribió
+            if (result == Sinks.EmitResult.FAIL_OVERFLOW || result == Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+                // Cliente que no lee: se le cierra el stream en vez de acumular
+                sink.tryEmitComplete();
+                return false;
+            }
+            return result.isSuccess();
+        }
+    }
+}
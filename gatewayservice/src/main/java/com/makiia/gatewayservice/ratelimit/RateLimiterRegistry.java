@@ -0,0 +1,75 @@
+package com.makiia.gatewayservice.ratelimit;
+
+import com.makiia.gatewayservice.config.RateLimitProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buckets por (ruta, usuario) en un ConcurrentHashMap acotado. Los buckets sin uso se
+ * eliminan periódicamente; si la tabla igual se llena, los usuarios nuevos comparten
+ * un bucket de desborde por ruta (se sigue limitando, pero en grupo).
+ *
+ * El bean lleva nombre propio: "rateLimiterRegistry" ya lo registra resilience4j.
+ */
+@Component("userRateLimiterRegistry")
+public class RateLimiterRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimiterRegistry.class);
+
+    private final RateLimitProperties properties;
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private volatile long lastEviction;
+
+    public RateLimiterRegistry(RateLimitProperties properties) {
+        this.properties = properties;
+    }
+
+    public TokenBucket.Result tryConsume(String routeId, String userKey, int capacity, double refillPerSecond) {
+        long now = System.nanoTime();
+        return bucket(routeId + ":" + userKey, routeId, capacity, refillPerSecond, now).tryConsume(now);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.sweep-interval-ms:30000}")
+    public void sweep() {
+        int before = buckets.size();
+        evictIdle(System.nanoTime());
+        int evicted = before - buckets.size();
+        if (evicted > 0) {
+            log.debug("Rate limit: {} buckets inactivos eliminados", evicted);
+        }
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private TokenBucket bucket(String key, String routeId, int capacity, double refillPerSecond, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= properties.getMaxKeys()) {
+            // Como mucho un barrido por segundo cuando la tabla está llena
+            if (now - lastEviction > TimeUnit.SECONDS.toNanos(1)) {
+                evictIdle(now);
+            }
+            if (buckets.size() >= properties.getMaxKeys()) {
+                key = routeId + ":overflow";
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerSecond));
+    }
+
+    private void evictIdle(long now) {
+        lastEviction = now;
+        long idle = TimeUnit.SECONDS.toNanos(properties.getIdleSeconds());
+        buckets.values().removeIf(b -> b.isIdle(now, idle));
+    }
+}
@@ -0,0 +1,75 @@
+package com.makiia.gatewayservice.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin locks, implementado como GCRA: en vez de guardar tokens + última
+ * recarga, guarda un solo valor (el "tiempo teórico de llegada") en un AtomicLong y
+ * lo avanza con CAS. Equivale a un bucket de capacity tokens que se recarga a
+ * refillPerSecond tokens por segundo.
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int capacity;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(int capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = intervalNanos * capacity;
+    }
+
+    // 📌 Consume un token; el resultado trae lo que queda o cuánto esperar
+    public Result tryConsume(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long base = current == Long.MIN_VALUE ? nowNanos : Math.max(current, nowNanos);
+            long next = base + intervalNanos;
+            long backlog = next - nowNanos;
+
+            if (backlog > burstNanos) {
+                return new Result(false, 0, backlog - burstNanos);
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return new Result(true, (int) ((burstNanos - backlog) / intervalNanos), 0);
+            }
+        }
+    }
+
+    // Sin consumo durante al menos idleNanos (el bucket ya está lleno)
+    public boolean isIdle(long nowNanos, long idleNanos) {
+        long current = theoreticalArrival.get();
+        return current == Long.MIN_VALUE || nowNanos - current > idleNanos;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public static final class Result {
+
+        private final boolean allowed;
+        private final int remaining;
+        private final long retryAfterNanos;
+
+        Result(boolean allowed, int remaining, long retryAfterNanos) {
+            this.allowed = allowed;
+            this.remaining = remaining;
+            this.retryAfterNanos = retryAfterNanos;
+        }
+
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        public int getRemaining() {
+            return remaining;
+        }
+
+        public long getRetryAfterNanos() {
+            return retryAfterNanos;
+        }
+    }
+}
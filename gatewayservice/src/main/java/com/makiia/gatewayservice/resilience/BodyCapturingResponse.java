@@ -0,0 +1,55 @@
+package com.makiia.gatewayservice.resilience;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.util.function.Consumer;
+
+/**
+ * Deja pasar el body tal cual y, de paso, guarda una copia (hasta maxBytes); al
+ * terminar de escribir entrega la copia completa. Si el body supera maxBytes no
+ * entrega nada.
+ */
+public class BodyCapturingResponse extends ServerHttpResponseDecorator {
+
+    private final int maxBytes;
+    private final Consumer<byte[]> onComplete;
+
+    public BodyCapturingResponse(ServerHttpResponse delegate, int maxBytes, Consumer<byte[]> onComplete) {
+        super(delegate);
+        this.maxBytes = maxBytes;
+        this.onComplete = onComplete;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        boolean[] overflow = {false};
+
+        Flux<? extends DataBuffer> tapped = Flux.from(body).doOnNext(buffer -> {
+            if (overflow[0]) {
+                return;
+            }
+            int length = buffer.readableByteCount();
+            if (copy.size() + length > maxBytes) {
+                overflow[0] = true;
+                return;
+            }
+            // asByteBuffer() no mueve la posición de lectura del buffer original
+            byte[] bytes = new byte[length];
+            buffer.asByteBuffer().get(bytes);
+            copy.write(bytes, 0, length);
+        });
+
+        return super.writeWith(tapped).doOnSuccess(v -> {
+            if (!overflow[0]) {
+                onComplete.accept(copy.toByteArray());
+            }
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package com.makiia.gatewayservice.resilience;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Última respuesta buena de las lecturas de rutas con cachedFallback: se sirve (stale)
+ * cuando el circuito de la ruta está abierto o el bulkhead lleno. LRU acotado por
+ * cantidad de entradas y por bytes.
+ */
+@Component
+public class FallbackResponseCache {
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+
+    public FallbackResponseCache(@Value("${gateway.resilience.fallback-cache.max-entries:2000}") int maxEntries,
+                                 @Value("${gateway.resilience.fallback-cache.max-bytes:33554432}") long maxBytes,
+                                 @Value("${gateway.resilience.fallback-cache.ttl-seconds:3600}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    public synchronized void put(String key, HttpStatus status, HttpHeaders headers, byte[] body) {
+        if (body.length > maxBytes / 10) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(status, headers, body, System.nanoTime()));
+        if (previous != null) {
+            bytes -= previous.body.length;
+        }
+        bytes += body.length;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().body.length;
+            eldest.remove();
+        }
+    }
+
+    public synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.storedAt > ttlNanos) {
+            entries.remove(key);
+            bytes -= entry.body.length;
+            return null;
+        }
+        return entry;
+    }
+
+    public static final class Entry {
+
+        private final HttpStatus status;
+        private final HttpHeaders headers;
+        private final byte[] body;
+        private final long storedAt;
+
+        Entry(HttpStatus status, HttpHeaders headers, byte[] body, long storedAt) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+            this.storedAt = storedAt;
+        }
+
+        public HttpStatus getStatus() {
+            return status;
+        }
+
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public long getAgeSeconds() {
+            return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - storedAt);
+        }
+    }
+}
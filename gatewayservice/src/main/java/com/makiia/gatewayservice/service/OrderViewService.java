@@ -0,0 +1,167 @@
+package com.makiia.gatewayservice.service;
+
+import com.makiia.gatewayservice.config.OrderViewProperties;
+import com.makiia.gatewayservice.dto.OrderViewDto;
+import com.makiia.gatewayservice.dto.OrderViewItemDto;
+import com.makiia.gatewayservice.dto.external.OrderDetailDto;
+import com.makiia.gatewayservice.dto.external.OrderItemDto;
+import com.makiia.gatewayservice.dto.external.PaymentDto;
+import com.makiia.gatewayservice.dto.external.ProductDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Vista de detalle de orden armada en el gateway: orden + pagos + productos en una
+ * sola respuesta. Orden y pagos se piden a la vez; los productos salen apenas llega
+ * la orden (necesitan sus productId), así el total es ~max(orden + productos, pagos).
+ */
+@Service
+public class OrderViewService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderViewService.class);
+
+    // Identidad que agrega AuthFilter; se pasa tal cual a cada servicio
+    private static final List<String> IDENTITY_HEADERS = List.of("X-User-Id", "X-User-Role", "X-Username");
+
+    private final WebClient webClient;
+    private final OrderViewProperties properties;
+
+    public OrderViewService(WebClient.Builder webClient, OrderViewProperties properties) {
+        this.webClient = webClient.build();
+        this.properties = properties;
+    }
+
+    public Mono<OrderViewDto> getOrderView(Long orderId, HttpHeaders requestHeaders) {
+        Mono<OrderDetailDto> order = fetchOrder(orderId, requestHeaders).cache();
+
+        Mono<Optional<List<PaymentDto>>> payments = optional("payments", orderId,
+                webClient.get()
+                        .uri("http://msvc-pay/payments/by-order/{orderId}", orderId)
+                        .headers(h -> copyIdentity(requestHeaders, h))
+                        .retrieve()
+                        .bodyToMono(new ParameterizedTypeReference<List<PaymentDto>>() {})
+                        .timeout(Duration.ofMillis(properties.getPaymentsTimeoutMs())));
+
+        Mono<Optional<List<ProductDto>>> products = order.flatMap(o -> {
+            List<Integer> ids = productIds(o);
+            if (ids.isEmpty()) {
+                return Mono.just(Optional.of(Collections.<ProductDto>emptyList()));
+            }
+            return optional("products", orderId,
+                    webClient.get()
+                            .uri(uri -> uri.scheme("http").host("msvc-products").path("/products/batch")
+                                    .queryParam("ids", ids.stream().map(String::valueOf).collect(Collectors.joining(",")))
+                                    .build())
+                            .headers(h -> copyIdentity(requestHeaders, h))
+                            .retrieve()
+                            .bodyToMono(new ParameterizedTypeReference<List<ProductDto>>() {})
+                            .timeout(Duration.ofMillis(properties.getProductsTimeoutMs())));
+        });
+
+        // 📌 Las tres piernas en paralelo; si la orden falla se cancela el resto
+        return Mono.zip(order, payments, products)
+                .map(t -> toView(t.getT1(), t.getT2(), t.getT3()));
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private Mono<OrderDetailDto> fetchOrder(Long orderId, HttpHeaders requestHeaders) {
+        return webClient.get()
+                .uri("http://msvc-orders/orders/{id}", orderId)
+                .headers(h -> copyIdentity(requestHeaders, h))
+                .retrieve()
+                .bodyToMono(OrderDetailDto.class)
+                .timeout(Duration.ofMillis(properties.getOrderTimeoutMs()))
+                .onErrorMap(WebClientResponseException.NotFound.class,
+                        e -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Orden no encontrada"))
+                .onErrorMap(TimeoutException.class,
+                        e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "orderservice no respondió a tiempo"))
+                .onErrorMap(e -> !(e instanceof ResponseStatusException),
+                        e -> new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Error consultando la orden", e));
+    }
+
+    // Pierna opcional: un fallo o timeout deja la parte vacía en vez de romper la vista
+    private <T> Mono<Optional<T>> optional(String leg, Long orderId, Mono<T> call) {
+        return call.map(Optional::of)
+                .onErrorResume(e -> {
+                    log.warn("Vista de orden {}: sin {} ({})", orderId, leg, e.toString());
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+    private OrderViewDto toView(OrderDetailDto order,
+                                Optional<List<PaymentDto>> payments,
+                                Optional<List<ProductDto>> products) {
+        Map<Integer, ProductDto> byId = products.orElse(Collections.emptyList()).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity(), (a, b) -> a));
+
+        List<OrderViewItemDto> items = order.getItems() == null ? Collections.emptyList() : order.getItems().stream()
+                .map(item -> OrderViewItemDto.builder()
+                        .productId(item.getProductId())
+                        .quantity(item.getQuantity())
+                        .price(item.getPrice())
+                        .product(byId.get(item.getProductId()))
+                        .build())
+                .collect(Collectors.toList());
+
+        List<String> missing = new ArrayList<>();
+        if (payments.isEmpty()) {
+            missing.add("payments");
+        }
+        if (products.isEmpty()) {
+            missing.add("products");
+        }
+
+        return OrderViewDto.builder()
+                .orderId(order.getOrderId())
+                .customerId(order.getCustomerId())
+                .total(order.getTotal())
+                .status(order.getStatus())
+                .channel(order.getChannel())
+                .createdAt(order.getCreatedAt())
+                .confirmedAt(order.getConfirmedAt())
+                .items(items)
+                .payments(payments.orElse(null))
+                .missing(missing)
+                .build();
+    }
+
+    private List<Integer> productIds(OrderDetailDto order) {
+        if (order.getItems() == null) {
+            return Collections.emptyList();
+        }
+        return order.getItems().stream()
+                .map(OrderItemDto::getProductId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private void copyIdentity(HttpHeaders from, HttpHeaders to) {
+        for (String name : IDENTITY_HEADERS) {
+            String value = from.getFirst(name);
+            if (value != null) {
+                to.set(name, value);
+            }
+        }
+    }
+}
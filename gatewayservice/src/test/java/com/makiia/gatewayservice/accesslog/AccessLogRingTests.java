@@ -0,0 +1,109 @@
+package com.makiia.gatewayservice.accesslog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogRingTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void dropsInsteadOfBlockingWhenFull() {
+        AccessLogRing ring = new AccessLogRing(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer(i, 1, (byte) 0, i, 200, 10)).isTrue();
+        }
+        assertThat(ring.offer(4, 1, (byte) 0, 4, 200, 10)).isFalse();
+        assertThat(ring.getDropped()).isEqualTo(1);
+
+        // Al drenar se libera lugar y los registros salen en orden
+        List<Long> users = new ArrayList<>();
+        assertThat(ring.drain((ts, route, method, user, status, latency) -> users.add(user), 10)).isEqualTo(4);
+        assertThat(users).containsExactly(0L, 1L, 2L, 3L);
+        assertThat(ring.offer(5, 1, (byte) 0, 5, 200, 10)).isTrue();
+    }
+
+    @Test
+    void keepsEveryRecordWithConcurrentProducers() throws Exception {
+        AccessLogRing ring = new AccessLogRing(1024);
+        int threads = 4;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int producer = t;
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    // Reintenta si está lleno: en la prueba interesa que no se pierda ni duplique nada
+                    while (!ring.offer(i, producer, (byte) 0, i, 200, 1)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        long[] nextPerProducer = new long[threads];
+        long total = 0;
+        while (total < (long) threads * perThread) {
+            total += ring.drain((ts, route, method, user, status, latency) -> {
+                assertThat(user).isEqualTo(nextPerProducer[route]);
+                nextPerProducer[route]++;
+            }, 256);
+        }
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+
+        assertThat(nextPerProducer).containsOnly(perThread);
+    }
+
+    @Test
+    void writesCompressedFilesAndRollsBySize() throws Exception {
+        AccessLogRing ring = new AccessLogRing(1024);
+        AccessLogWriter writer = new AccessLogWriter(dir, 4096, 3_600_000, 2,
+                route -> "orders-services", method -> "GET");
+        for (int i = 0; i < 300; i++) {
+            ring.offer(1_700_000_000_000L + i, 1, (byte) 0, i % 2 == 0 ? 42 : -1, 200, 1500);
+            ring.drain(writer, 16);
+        }
+        writer.close();
+
+        // ~60 bytes por línea: varios archivos, pero sólo se conservan los 2 últimos
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.sorted().collect(Collectors.toList());
+        }
+        assertThat(files).hasSize(2);
+
+        List<String> lines = read(files.get(files.size() - 1));
+        assertThat(lines.get(0)).isEqualTo(AccessLogWriter.HEADER.trim());
+        assertThat(lines.get(lines.size() - 1)).isEqualTo("2023-11-14T22:13:20.299Z,orders-services,GET,,200,1500");
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private List<String> read(Path file) throws Exception {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return in.lines().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.makiia.gatewayservice.cache;
+
+import com.makiia.gatewayservice.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTests {
+
+    @Test
+    void staysWithinByteBudgetAndSkipsLargeBodies() {
+        ResponseCache cache = cache(1, 1000, 300);
+        for (int i = 0; i < 50; i++) {
+            cache.put("k" + i, response("/products/" + i, 100));
+        }
+        assertThat(cache.bytes()).isLessThanOrEqualTo(1000);
+        assertThat(cache.size()).isEqualTo(10);
+        assertThat(cache.get("k49")).isNotNull();
+        assertThat(cache.get("k0")).isNull();
+
+        assertThat(cache.put("big", response("/products/big", 301))).isFalse();
+    }
+
+    @Test
+    void purgesByRouteAndPrefix() {
+        ResponseCache cache = cache(4, 1_000_000, 10_000);
+        cache.put("a", response("/products/1", 10));
+        cache.put("b", response("/products/12", 10));
+        cache.put("c", response("/products/2", 10));
+
+        assertThat(cache.purge("products-services", "/products/1")).isEqualTo(2);
+        assertThat(cache.get("c")).isNotNull();
+        assertThat(cache.purge("orders-services", null)).isZero();
+        assertThat(cache.purge(null, null)).isEqualTo(1);
+        assertThat(cache.bytes()).isZero();
+    }
+
+    @Test
+    void entriesExpireAfterTheirTtl() {
+        CachedResponse response = new CachedResponse("products-services", "/products/1", new HttpHeaders(),
+                new byte[1], "\"x\"", 0, TimeUnit.SECONDS.toNanos(30));
+        assertThat(response.isFresh(TimeUnit.SECONDS.toNanos(29))).isTrue();
+        assertThat(response.isFresh(TimeUnit.SECONDS.toNanos(30))).isFalse();
+    }
+
+    private ResponseCache cache(int segments, long maxBytes, int maxEntryBytes) {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setSegments(segments);
+        properties.setMaxBytes(maxBytes);
+        properties.setMaxEntryBytes(maxEntryBytes);
+        return new ResponseCache(properties, new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    private CachedResponse response(String path, int size) {
+        return new CachedResponse("products-services", path, new HttpHeaders(), new byte[size], "\"x\"",
+                System.nanoTime(), TimeUnit.MINUTES.toNanos(1));
+    }
+}
@@ -0,0 +1,30 @@
+package com.makiia.gatewayservice.hedge;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgeBudgetTests {
+
+    @Test
+    void hedgesStayWithinPercentOfTraffic() {
+        HedgeBudget budget = new HedgeBudget(5, 10);
+
+        // Ráfaga inicial
+        int hedges = 0;
+        while (budget.tryWithdraw()) {
+            hedges++;
+        }
+        assertThat(hedges).isEqualTo(10);
+
+        // Después, 1 hedge cada 20 requests
+        hedges = 0;
+        for (int i = 0; i < 1000; i++) {
+            budget.deposit();
+            if (budget.tryWithdraw()) {
+                hedges++;
+            }
+        }
+        assertThat(hedges).isEqualTo(50);
+    }
+}
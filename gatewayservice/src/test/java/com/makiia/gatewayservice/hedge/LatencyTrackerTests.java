@@ -0,0 +1,42 @@
+package com.makiia.gatewayservice.hedge;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyTrackerTests {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void noPercentileUntilEnoughSamples() {
+        LatencyTracker tracker = new LatencyTracker(TimeUnit.SECONDS.toNanos(30), 100);
+        for (int i = 0; i < 99; i++) {
+            tracker.record(10 * MS);
+        }
+        assertThat(tracker.percentile(95)).isEqualTo(-1);
+    }
+
+    @Test
+    void p95FollowsTheSlowTail() {
+        LatencyTracker tracker = new LatencyTracker(TimeUnit.SECONDS.toNanos(30), 100);
+        for (int i = 0; i < 1000; i++) {
+            // 94% en ~10 ms, 6% en ~400 ms
+            tracker.record((i % 100 < 94 ? 10 : 400) * MS);
+        }
+        // Buckets de ~10%: el valor es el límite superior del bucket
+        assertThat(tracker.percentile(95)).isBetween(400 * MS, 440 * MS);
+        assertThat(tracker.percentile(50)).isBetween(10 * MS, 11 * MS);
+    }
+
+    @Test
+    void bucketsCoverTheirUpperBound() {
+        for (long latency : new long[]{MS / 2, MS, 7 * MS, 250 * MS, 30_000 * MS}) {
+            int bucket = LatencyTracker.bucketOf(latency);
+            assertThat(LatencyTracker.upperBound(bucket)).isGreaterThanOrEqualTo(latency - 1);
+            assertThat(LatencyTracker.upperBound(bucket)).isLessThanOrEqualTo((long) (latency * 1.1) + MS);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.makiia.gatewayservice.loadbalancer;
+
+import com.makiia.gatewayservice.config.LatencyBalancerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstanceStatsTests {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long DECAY = 10_000 * MS;
+
+    @Test
+    void slowdownIsTakenImmediatelyAndRecoveryDecays() {
+        InstanceStats stats = new InstanceStats("msvc-orders", "a", 10 * MS, 0, 0);
+
+        stats.observe(500 * MS, 1 * MS, DECAY);
+        assertThat(stats.getEwmaNanos()).isEqualTo(500 * MS);
+
+        // Un request rápido 1 s después apenas baja el promedio
+        stats.observe(10 * MS, 1_000 * MS, DECAY);
+        assertThat(stats.getEwmaNanos()).isBetween(400.0 * MS, 500.0 * MS);
+    }
+
+    @Test
+    void penaltyDecaysWhileTheInstanceGetsNoTraffic() {
+        InstanceStats stats = new InstanceStats("msvc-orders", "a", 10 * MS, 0, 0);
+        stats.observe(2_000 * MS, 0, DECAY);
+
+        assertThat(stats.ewmaAt(0, DECAY)).isEqualTo(2_000.0 * MS);
+        // Tres constantes de tiempo sin observaciones: ~5 %
+        assertThat(stats.ewmaAt(3 * DECAY, DECAY)).isBetween(90.0 * MS, 110.0 * MS);
+        assertThat(stats.getEwmaNanos()).isEqualTo(2_000.0 * MS);
+    }
+
+    @Test
+    void costGrowsWithInFlightAndWarmup() {
+        long warmup = 60_000 * MS;
+        InstanceStats warm = new InstanceStats("msvc-orders", "a", 10 * MS, -warmup, 0);
+        InstanceStats cold = new InstanceStats("msvc-orders", "b", 10 * MS, 0, 0);
+
+        assertThat(cold.warmupWeight(0, warmup, 0.1)).isEqualTo(0.1);
+        assertThat(cold.warmupWeight(warmup, warmup, 0.1)).isEqualTo(1);
+        assertThat(cold.cost(0, DECAY, warmup, 0.1)).isGreaterThan(warm.cost(0, DECAY, warmup, 0.1));
+
+        double idle = warm.cost(0, DECAY, warmup, 0.1);
+        warm.started(0);
+        warm.started(0);
+        assertThat(warm.cost(0, DECAY, warmup, 0.1)).isEqualTo(idle * 3);
+    }
+
+    @Test
+    void instancesSeenAtStartupAreWarmAndLaterOnesAreNot() {
+        InstanceStatsRegistry registry = new InstanceStatsRegistry(new LatencyBalancerProperties(),
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        long warmup = TimeUnit.SECONDS.toNanos(60);
+
+        List<InstanceStats> first = registry.statsFor("MSVC-ORDERS", List.of(instance("a")));
+        List<InstanceStats> second = registry.statsFor("msvc-orders", List.of(instance("a"), instance("b")));
+        // Después de statsFor: el registry toma su propio nanoTime al dar de alta
+        long now = System.nanoTime();
+
+        assertThat(first.get(0).warmupWeight(now, warmup, 0.1)).isEqualTo(1);
+        assertThat(second.get(0)).isSameAs(first.get(0));
+        assertThat(second.get(1).warmupWeight(now, warmup, 0.1)).isLessThan(0.2);
+        assertThat(registry.find("MSVC-ORDERS", instance("b"))).isSameAs(second.get(1));
+    }
+
+    private ServiceInstance instance(String id) {
+        return new DefaultServiceInstance(id, "MSVC-ORDERS", id + ".local", 8080, false);
+    }
+}
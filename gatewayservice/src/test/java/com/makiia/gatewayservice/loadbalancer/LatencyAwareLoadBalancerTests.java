@@ -0,0 +1,83 @@
+package com.makiia.gatewayservice.loadbalancer;
+
+import com.makiia.gatewayservice.config.LatencyBalancerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyAwareLoadBalancerTests {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ServiceInstance slow = instance("a");
+    private final ServiceInstance fast = instance("b");
+
+    @Test
+    void penalisedInstanceGetsTrafficAgainOnceThePenaltyDecays() throws Exception {
+        LatencyBalancerProperties properties = new LatencyBalancerProperties();
+        properties.setDecayMs(20);
+        InstanceStatsRegistry registry = new InstanceStatsRegistry(properties,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        LatencyAwareLoadBalancer balancer = balancer(registry, properties);
+
+        // "a" falla (penalidad de 2 s); "b" responde en 10 ms
+        balancer.choose(new DefaultRequest<>()).block();
+        InstanceStats slowStats = registry.begin(slow);
+        registry.complete(slowStats, System.nanoTime(), true);
+        InstanceStats fastStats = registry.find("MSVC-ORDERS", fast);
+        fastStats.observe(10 * MS, System.nanoTime(), 20 * MS);
+
+        assertThat(balancer.choose(new DefaultRequest<>()).block().getServer()).isSameAs(fast);
+
+        // "b" sigue recibiendo tráfico a 10 ms; "a" no recibe nada y su penalidad decae
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ServiceInstance chosen = fast;
+        while (chosen == fast && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            fastStats.observe(10 * MS, System.nanoTime(), 20 * MS);
+            chosen = balancer.choose(new DefaultRequest<>()).block().getServer();
+        }
+
+        assertThat(chosen).isSameAs(slow);
+    }
+
+    private LatencyAwareLoadBalancer balancer(InstanceStatsRegistry registry, LatencyBalancerProperties properties) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("supplier", new StaticSupplier(List.of(slow, fast)));
+        return new LatencyAwareLoadBalancer(beanFactory.getBeanProvider(ServiceInstanceListSupplier.class),
+                "msvc-orders", registry, properties);
+    }
+
+    private ServiceInstance instance(String id) {
+        return new DefaultServiceInstance(id, "MSVC-ORDERS", id + ".local", 8080, false);
+    }
+
+    // Lista fija de instancias (en lugar de Eureka)
+    private static class StaticSupplier implements ServiceInstanceListSupplier {
+        private final List<ServiceInstance> instances;
+
+        StaticSupplier(List<ServiceInstance> instances) {
+            this.instances = instances;
+        }
+
+        @Override
+        public String getServiceId() {
+            return "msvc-orders";
+        }
+
+        @Override
+        public Flux<List<ServiceInstance>> get() {
+            return Flux.just(instances);
+        }
+    }
+}
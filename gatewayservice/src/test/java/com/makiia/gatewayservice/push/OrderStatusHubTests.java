@@ -0,0 +1,111 @@
+package com.makiia.gatewayservice.push;
+
+import com.makiia.gatewayservice.config.OrderPushProperties;
+import com.makiia.gatewayservice.dto.external.OrderStatusEventDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderStatusHubTests {
+
+    @Test
+    void deliversOnlyToTheOrderOwner() {
+        OrderStatusHub hub = hub(32, 5);
+        List<OrderStatusEventDto> first = new CopyOnWriteArrayList<>();
+        List<OrderStatusEventDto> second = new CopyOnWriteArrayList<>();
+        Disposable a = hub.subscribe(1L).subscribe(first::add);
+        Disposable b = hub.subscribe(2L).subscribe(second::add);
+
+        hub.publish(event(10L, 1L));
+        hub.publish(event(11L, 2L));
+        hub.publish(event(12L, 3L));
+
+        assertThat(first).extracting(OrderStatusEventDto::getOrderId).containsExactly(10L);
+        assertThat(second).extracting(OrderStatusEventDto::getOrderId).containsExactly(11L);
+
+        a.dispose();
+        b.dispose();
+        assertThat(hub.connectionCount()).isZero();
+    }
+
+    @Test
+    void resyncReachesEveryConnection() {
+        OrderStatusHub hub = hub(32, 5);
+        List<OrderStatusEventDto> first = new CopyOnWriteArrayList<>();
+        List<OrderStatusEventDto> second = new CopyOnWriteArrayList<>();
+        hub.subscribe(1L).subscribe(first::add);
+        hub.subscribe(2L).subscribe(second::add);
+
+        hub.resync("http://orders-1:8003");
+
+        assertThat(first).containsExactly(OrderStatusHub.RESYNC);
+        assertThat(second).containsExactly(OrderStatusHub.RESYNC);
+    }
+
+    @Test
+    void slowConnectionIsClosedInsteadOfBuffering() {
+        OrderStatusHub hub = hub(4, 5);
+        // Sin subscribe: nadie lee, el buffer se llena
+        Flux<OrderStatusEventDto> stream = hub.subscribe(1L);
+        for (long i = 0; i < 10; i++) {
+            hub.publish(event(i, 1L));
+        }
+
+        List<OrderStatusEventDto> received = stream.collectList().block();
+        assertThat(received).hasSizeLessThanOrEqualTo(4);
+        assertThat(hub.connectionCount()).isZero();
+    }
+
+    @Test
+    void capsConnectionsPerUser() {
+        OrderStatusHub hub = hub(32, 2);
+        hub.subscribe(1L).subscribe();
+        hub.subscribe(1L).subscribe();
+
+        assertThatThrownBy(() -> hub.subscribe(1L)).isInstanceOf(ResponseStatusException.class);
+        assertThat(hub.connectionCount()).isEqualTo(2);
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private OrderStatusHub hub(int buffer, int perUser) {
+        OrderPushProperties properties = new OrderPushProperties();
+        properties.setBufferPerConnection(buffer);
+        properties.setMaxConnectionsPerUser(perUser);
+        return new OrderStatusHub(new NoInstances(), properties,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    private OrderStatusEventDto event(Long orderId, Long customerId) {
+        return OrderStatusEventDto.builder().orderId(orderId).customerId(customerId).status("CONFIRMED").build();
+    }
+
+    private static final class NoInstances implements DiscoveryClient {
+
+        @Override
+        public String description() {
+            return "test";
+        }
+
+        @Override
+        public List<ServiceInstance> getInstances(String serviceId) {
+            return List.of();
+        }
+
+        @Override
+        public List<String> getServices() {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.makiia.gatewayservice.ratelimit;
+
+import com.makiia.gatewayservice.config.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstThenRefillsAtConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(5, 1);
+        long now = 1_000 * SECOND;
+
+        for (int i = 4; i >= 0; i--) {
+            TokenBucket.Result result = bucket.tryConsume(now);
+            assertThat(result.isAllowed()).isTrue();
+            assertThat(result.getRemaining()).isEqualTo(i);
+        }
+
+        TokenBucket.Result rejected = bucket.tryConsume(now);
+        assertThat(rejected.isAllowed()).isFalse();
+        assertThat(rejected.getRetryAfterNanos()).isEqualTo(SECOND);
+
+        // Un segundo después hay exactamente un token nuevo
+        assertThat(bucket.tryConsume(now + SECOND).isAllowed()).isTrue();
+        assertThat(bucket.tryConsume(now + SECOND).isAllowed()).isFalse();
+    }
+
+    @Test
+    void neverAllowsMoreThanCapacityUnderContention() throws Exception {
+        TokenBucket bucket = new TokenBucket(100, 0.001);
+        long now = System.nanoTime();
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryConsume(now).isAllowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertThat(allowed.get()).isEqualTo(100);
+    }
+
+    @Test
+    void registryFallsBackToSharedBucketWhenFull() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxKeys(2);
+        RateLimiterRegistry registry = new RateLimiterRegistry(properties);
+
+        registry.tryConsume("orders", "u1", 1, 1);
+        registry.tryConsume("orders", "u2", 1, 1);
+
+        // u3 y u4 entran al bucket de desborde de la ruta: el segundo ya no tiene token
+        assertThat(registry.tryConsume("orders", "u3", 1, 1).isAllowed()).isTrue();
+        assertThat(registry.tryConsume("orders", "u4", 1, 1).isAllowed()).isFalse();
+        assertThat(registry.size()).isEqualTo(3);
+    }
+}
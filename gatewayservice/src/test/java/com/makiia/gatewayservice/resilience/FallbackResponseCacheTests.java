@@ -0,0 +1,42 @@
+package com.makiia.gatewayservice.resilience;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FallbackResponseCacheTests {
+
+    @Test
+    void evictsLeastRecentlyUsedWhenOverEntryLimit() {
+        FallbackResponseCache cache = new FallbackResponseCache(2, 1024 * 1024, 3600);
+        cache.put("/products/1", HttpStatus.OK, new HttpHeaders(), new byte[10]);
+        cache.put("/products/2", HttpStatus.OK, new HttpHeaders(), new byte[10]);
+        cache.get("/products/1");
+        cache.put("/products/3", HttpStatus.OK, new HttpHeaders(), new byte[10]);
+
+        assertThat(cache.get("/products/1")).isNotNull();
+        assertThat(cache.get("/products/2")).isNull();
+        assertThat(cache.get("/products/3")).isNotNull();
+    }
+
+    @Test
+    void staysWithinByteBudget() {
+        FallbackResponseCache cache = new FallbackResponseCache(1000, 1000, 3600);
+        for (int i = 0; i < 20; i++) {
+            cache.put("/products/" + i, HttpStatus.OK, new HttpHeaders(), new byte[100]);
+        }
+        int kept = 0;
+        for (int i = 0; i < 20; i++) {
+            if (cache.get("/products/" + i) != null) {
+                kept++;
+            }
+        }
+        assertThat(kept).isEqualTo(10);
+
+        // Un body más grande que el 10% del total no se guarda
+        cache.put("/products/big", HttpStatus.OK, new HttpHeaders(), new byte[200]);
+        assertThat(cache.get("/products/big")).isNull();
+    }
+}
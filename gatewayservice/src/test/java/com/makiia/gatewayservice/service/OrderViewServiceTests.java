@@ -0,0 +1,93 @@
+package com.makiia.gatewayservice.service;
+
+import com.makiia.gatewayservice.config.OrderViewProperties;
+import com.makiia.gatewayservice.dto.OrderViewDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderViewServiceTests {
+
+    private static final String ORDER = "{\"orderId\":7,\"customerId\":3,\"total\":30.00,\"status\":\"CONFIRMED\","
+            + "\"items\":[{\"productId\":1,\"quantity\":2,\"price\":10.00},{\"productId\":2,\"quantity\":1,\"price\":10.00}]}";
+    private static final String PAYMENTS = "[{\"paymentId\":9,\"orderId\":7,\"amount\":30.00,\"status\":\"APPROVED\"}]";
+    private static final String PRODUCTS = "[{\"id\":1,\"name\":\"Teclado\"},{\"id\":2,\"name\":\"Mouse\"}]";
+
+    @Test
+    void legsRunConcurrentlyAndAreMerged() {
+        OrderViewService service = service(200, 300, 100, HttpStatus.OK);
+
+        long start = System.nanoTime();
+        OrderViewDto view = service.getOrderView(7L, new HttpHeaders()).block();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Secuencial serían 600 ms; en paralelo ~max(orden + productos, pagos) = 300 ms
+        assertThat(elapsedMs).isLessThan(500);
+        assertThat(view.getMissing()).isEmpty();
+        assertThat(view.getPayments()).hasSize(1);
+        assertThat(view.getItems()).extracting(i -> i.getProduct().getName()).containsExactly("Teclado", "Mouse");
+    }
+
+    @Test
+    void slowOptionalLegIsDroppedAfterItsTimeout() {
+        OrderViewService service = service(50, 5000, 50, HttpStatus.OK);
+
+        long start = System.nanoTime();
+        OrderViewDto view = service.getOrderView(7L, new HttpHeaders()).block();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMs).isLessThan(1000);
+        assertThat(view.getPayments()).isNull();
+        assertThat(view.getMissing()).containsExactly("payments");
+        assertThat(view.getItems()).allMatch(i -> i.getProduct() != null);
+    }
+
+    @Test
+    void missingOrderIsNotFound() {
+        OrderViewService service = service(10, 10, 10, HttpStatus.NOT_FOUND);
+
+        assertThatThrownBy(() -> service.getOrderView(7L, new HttpHeaders()).block())
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatus())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private OrderViewService service(long orderMs, long paymentsMs, long productsMs, HttpStatus orderStatus) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            String host = request.url().getHost();
+            if (host.equals("msvc-orders")) {
+                return respond(orderStatus, ORDER, orderMs);
+            }
+            if (host.equals("msvc-pay")) {
+                return respond(HttpStatus.OK, PAYMENTS, paymentsMs);
+            }
+            return respond(HttpStatus.OK, PRODUCTS, productsMs);
+        });
+
+        OrderViewProperties properties = new OrderViewProperties();
+        properties.setOrderTimeoutMs(1000);
+        properties.setPaymentsTimeoutMs(400);
+        properties.setProductsTimeoutMs(400);
+        return new OrderViewService(builder, properties);
+    }
+
+    private Mono<ClientResponse> respond(HttpStatus status, String body, long delayMs) {
+        return Mono.delay(Duration.ofMillis(delayMs))
+                .map(t -> ClientResponse.create(status)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(status.is2xxSuccessful() ? body : "")
+                        .build());
+    }
+}
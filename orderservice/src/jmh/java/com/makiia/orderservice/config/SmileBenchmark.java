@@ -0,0 +1,110 @@
+package com.makiia.orderservice.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makiia.commons.smile.SmileConfig;
+import com.makiia.orderservice.dto.OrderStatusDto;
+import com.makiia.orderservice.dto.OrderStatusUpdateDto;
+import com.makiia.orderservice.dto.external.ProductDto;
+import com.makiia.orderservice.entity.OrderStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON contra Smile con lo que viaja entre servicios: ProductClient (uno y lote) y
+ * OrderClient (lote de estados y lookup). Mismo ObjectMapper que arma SmileConfig.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SmileBenchmark {
+
+    @Param({"product", "products", "status-updates", "statuses"})
+    public String payload;
+
+    @Param({"json", "smile"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private Object value;
+    private TypeReference<?> type;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = "smile".equals(format)
+                ? new SmileConfig().smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper()
+                : Jackson2ObjectMapperBuilder.json().build();
+
+        switch (payload) {
+            case "product":
+                value = products(1).get(0);
+                type = new TypeReference<ProductDto>() { };
+                break;
+            case "products":
+                value = products(500);
+                type = new TypeReference<List<ProductDto>>() { };
+                break;
+            case "status-updates":
+                value = updates(500);
+                type = new TypeReference<List<OrderStatusUpdateDto>>() { };
+                break;
+            default:
+                value = statuses(500);
+                type = new TypeReference<List<OrderStatusDto>>() { };
+        }
+        bytes = mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return mapper.readValue(bytes, type);
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private List<ProductDto> products(int count) {
+        List<ProductDto> products = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            ProductDto product = new ProductDto();
+            product.setId(i);
+            product.setName("Producto de prueba " + i);
+            product.setPrice(new BigDecimal("1999.90").add(BigDecimal.valueOf(i)));
+            products.add(product);
+        }
+        return products;
+    }
+
+    private List<OrderStatusUpdateDto> updates(int count) {
+        List<OrderStatusUpdateDto> updates = new ArrayList<>();
+        for (long i = 1; i <= count; i++) {
+            updates.add(new OrderStatusUpdateDto(1_000_000L + i, i % 2 == 0 ? OrderStatus.CONFIRMED : OrderStatus.CANCELLED));
+        }
+        return updates;
+    }
+
+    private List<OrderStatusDto> statuses(int count) {
+        List<OrderStatusDto> statuses = new ArrayList<>();
+        for (long i = 1; i <= count; i++) {
+            statuses.add(new OrderStatusDto(1_000_000L + i, "CONFIRMED"));
+        }
+        return statuses;
+    }
+}
@@ -4,6 +4,9 @@ import com.makiia.orderservice.dto.external.ProductDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Collection;
+import java.util.List;
+
 @FeignClient(
         name = "product-service",
         url = "http://productservice:8001"
@@ -12,4 +15,7 @@ public interface ProductClient {
 
     @GetMapping("/products/{id}")
     ProductDto getProductById(@PathVariable Integer id);
+
+    @GetMapping("/products/batch")
+    List<ProductDto> getProductsByIds(@RequestParam("ids") Collection<Integer> ids);
 }
@@ -0,0 +1,20 @@
+package com.makiia.orderservice.config;
+
+import com.makiia.commons.feign.FeignTransportConfig;
+import com.makiia.commons.feign.HttpClientProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+// Transporte Feign común (service-commons) con los ajustes de orders.http-client
+@Configuration
+@Import(FeignTransportConfig.class)
+public class HttpClientConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "orders.http-client")
+    public HttpClientProperties httpClientProperties() {
+        return new HttpClientProperties();
+    }
+}
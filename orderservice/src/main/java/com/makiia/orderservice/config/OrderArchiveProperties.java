@@ -0,0 +1,33 @@
+package com.makiia.orderservice.config;
+
+import com.makiia.orderservice.entity.OrderStatus;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "orders.archive")
+public class OrderArchiveProperties {
+
+    private boolean enabled = false;
+
+    // Antigüedad mínima (por created_at) para pasar a almacenamiento frío
+    private int minAgeDays = 180;
+
+    // Solo estados finales; una orden archivada ya no se puede confirmar ni cancelar
+    private List<OrderStatus> statuses = List.of(OrderStatus.CONFIRMED, OrderStatus.CANCELLED);
+
+    // Órdenes movidas por transacción
+    private int chunkSize = 500;
+
+    // Pausa entre bloques para no competir con el tráfico normal
+    private long pauseMs = 200;
+
+    // Tope de bloques por shard en cada corrida
+    private int maxChunksPerRun = 100;
+
+    private long intervalMs = 3600000;
+}
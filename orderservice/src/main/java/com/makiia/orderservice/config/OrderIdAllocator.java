@@ -0,0 +1,70 @@
+package com.makiia.orderservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+/**
+ * Ids de orden únicos entre shards (hi/lo): cada instancia reserva rangos de
+ * idAllocationSize en order_id_allocator del shard por defecto. Así una orden conserva
+ * su id aunque el rebalanceo la mueva de shard.
+ */
+@Component
+@ConditionalOnProperty(prefix = "orders.sharding", name = "enabled", havingValue = "true")
+public class OrderIdAllocator {
+
+    private static volatile OrderIdAllocator active;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int allocationSize;
+
+    private long next;
+    private long limit;
+
+    // ShardSchemaInitializer crea la tabla antes de que se use el allocator
+    public OrderIdAllocator(ShardRoutingDataSource routingDataSource,
+                            ShardSchemaInitializer schemaInitializer,
+                            ShardingProperties properties) {
+        DataSource dataSource = routingDataSource.getShards().get(routingDataSource.getDefaultShard());
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.allocationSize = properties.getIdAllocationSize();
+    }
+
+    // Lo usa OrderIdGenerator (Hibernate lo instancia fuera de Spring)
+    public static OrderIdAllocator active() {
+        return active;
+    }
+
+    @PostConstruct
+    void activate() {
+        active = this;
+    }
+
+    @PreDestroy
+    void deactivate() {
+        active = null;
+    }
+
+    public synchronized long next() {
+        if (next >= limit) {
+            Long start = transactionTemplate.execute(status -> {
+                Long current = jdbcTemplate.queryForObject(
+                        "select next_id from order_id_allocator where name = 'orders' for update", Long.class);
+                jdbcTemplate.update(
+                        "update order_id_allocator set next_id = ? where name = 'orders'", current + allocationSize);
+                return current;
+            });
+            next = start;
+            limit = start + allocationSize;
+        }
+        return next++;
+    }
+}
@@ -0,0 +1,16 @@
+package com.makiia.orderservice.config;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentityGenerator;
+
+import java.io.Serializable;
+
+// IDENTITY normal; con sharding activo el id lo asigna OrderIdAllocator antes del insert
+public class OrderIdGenerator extends IdentityGenerator {
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object entity) {
+        OrderIdAllocator allocator = OrderIdAllocator.active();
+        return allocator != null ? allocator.next() : super.generate(session, entity);
+    }
+}
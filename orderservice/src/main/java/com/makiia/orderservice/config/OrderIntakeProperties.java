@@ -0,0 +1,26 @@
+package com.makiia.orderservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "orders.intake")
+public class OrderIntakeProperties {
+
+    // Si es false, POST /orders sigue siendo síncrono
+    private boolean asyncEnabled = false;
+
+    private int queueCapacity = 10000;
+
+    // Órdenes por transacción del writer
+    private int batchSize = 50;
+
+    private String journalPath = "orders-intake.journal";
+
+    // Tiempo que se conserva el estado final de una orden encolada
+    private long statusTtlSeconds = 600;
+
+    private long subscribeTimeoutMillis = 30000;
+}
@@ -0,0 +1,23 @@
+package com.makiia.orderservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "orders.status-stream")
+public class OrderStatusStreamProperties {
+
+    // Eventos en espera de enviarse a los gateways; si se llena se descartan
+    private int queueCapacity = 10000;
+
+    // Los suscriptores son gateways (pocos), no clientes
+    private int maxSubscribers = 50;
+
+    // Comentario SSE periódico para que el balanceador no corte la conexión
+    private long heartbeatMs = 15000;
+
+    // El gateway se reconecta al vencer
+    private long timeoutMs = 1800000;
+}
@@ -0,0 +1,30 @@
+package com.makiia.orderservice.config;
+
+import java.util.function.Supplier;
+
+// Shard activo en el hilo actual (lo lee ShardRoutingDataSource al pedir una conexión)
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T call(String shard, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
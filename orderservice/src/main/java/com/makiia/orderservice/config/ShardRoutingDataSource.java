@@ -0,0 +1,48 @@
+package com.makiia.orderservice.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Elige el datasource del shard indicado en ShardContext (o el primero si no hay ninguno)
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final Map<String, DataSource> shards;
+    private final String defaultShard;
+
+    public ShardRoutingDataSource(LinkedHashMap<String, DataSource> shards) {
+        this.shards = Collections.unmodifiableMap(shards);
+        this.defaultShard = shards.keySet().iterator().next();
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.get(defaultShard));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    public Map<String, DataSource> getShards() {
+        return shards;
+    }
+
+    public String getDefaultShard() {
+        return defaultShard;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource dataSource : shards.values()) {
+            if (dataSource instanceof Closeable) {
+                ((Closeable) dataSource).close();
+            }
+        }
+    }
+}
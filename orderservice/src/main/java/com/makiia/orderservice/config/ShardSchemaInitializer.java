@@ -0,0 +1,100 @@
+package com.makiia.orderservice.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.tool.hbm2ddl.SchemaUpdate;
+import org.hibernate.tool.schema.TargetType;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Prepara los shards al arrancar:
+ * - ddl-auto=update de Hibernate solo actúa sobre el shard por defecto, así que aquí se
+ *   aplica el mismo SchemaUpdate a los demás;
+ * - crea/ajusta order_id_allocator en el shard por defecto, de donde OrderIdAllocator
+ *   toma rangos de ids únicos para todos los shards.
+ */
+@Component
+@ConditionalOnProperty(prefix = "orders.sharding", name = "enabled", havingValue = "true")
+public class ShardSchemaInitializer implements InitializingBean {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ShardRoutingDataSource routingDataSource;
+    private final String ddlAuto;
+
+    public ShardSchemaInitializer(EntityManagerFactory entityManagerFactory,
+                                  ShardRoutingDataSource routingDataSource,
+                                  @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.routingDataSource = routingDataSource;
+        this.ddlAuto = ddlAuto;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if ("update".equals(ddlAuto) || "create".equals(ddlAuto)) {
+            List<Class<?>> entities = new ArrayList<>();
+            for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+                entities.add(entity.getJavaType());
+            }
+            routingDataSource.getShards().forEach((name, dataSource) -> {
+                if (!name.equals(routingDataSource.getDefaultShard())) {
+                    updateSchema(dataSource, entities);
+                }
+            });
+        }
+
+        initIdAllocator();
+    }
+
+    private void updateSchema(DataSource dataSource, List<Class<?>> entities) {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DATASOURCE, dataSource)
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, new CamelCaseToUnderscoresNamingStrategy())
+                .applySetting(AvailableSettings.IMPLICIT_NAMING_STRATEGY, new SpringImplicitNamingStrategy())
+                .build();
+        try {
+            MetadataSources sources = new MetadataSources(registry);
+            entities.forEach(sources::addAnnotatedClass);
+            Metadata metadata = sources.buildMetadata();
+            new SchemaUpdate().execute(EnumSet.of(TargetType.DATABASE), metadata);
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+
+    private void initIdAllocator() {
+        // El siguiente id debe quedar por encima de cualquier orden existente en cualquier shard
+        long next = 1;
+        for (DataSource dataSource : routingDataSource.getShards().values()) {
+            Long max = new JdbcTemplate(dataSource)
+                    .queryForObject("select coalesce(max(id), 0) from orders", Long.class);
+            next = Math.max(next, (max != null ? max : 0) + 1);
+        }
+
+        JdbcTemplate jdbc = new JdbcTemplate(routingDataSource.getShards().get(routingDataSource.getDefaultShard()));
+        jdbc.execute("create table if not exists order_id_allocator " +
+                "(name varchar(32) not null primary key, next_id bigint not null)");
+        try {
+            jdbc.update("insert into order_id_allocator (name, next_id) values ('orders', ?)", next);
+        } catch (DuplicateKeyException e) {
+            jdbc.update("update order_id_allocator set next_id = ? where name = 'orders' and next_id < ?", next, next);
+        }
+    }
+}
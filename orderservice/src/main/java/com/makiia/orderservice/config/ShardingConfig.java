@@ -0,0 +1,42 @@
+package com.makiia.orderservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+
+// Reemplaza el datasource único por uno que enruta por shard (orders.sharding.enabled=true)
+@Configuration
+@ConditionalOnProperty(prefix = "orders.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource shardRoutingDataSource(ShardingProperties properties) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("orders.sharding.shards está vacío");
+        }
+
+        LinkedHashMap<String, DataSource> shards = new LinkedHashMap<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            DataSourceBuilder<HikariDataSource> builder = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword());
+            if (shard.getDriverClassName() != null) {
+                builder.driverClassName(shard.getDriverClassName());
+            }
+            HikariDataSource dataSource = builder.build();
+            dataSource.setPoolName("shard-" + shard.getName());
+            dataSource.setMaximumPoolSize(properties.getPoolSize());
+            shards.put(shard.getName(), dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+}
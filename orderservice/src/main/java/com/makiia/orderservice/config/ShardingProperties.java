@@ -0,0 +1,37 @@
+package com.makiia.orderservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "orders.sharding")
+public class ShardingProperties {
+
+    // Si es false se usa el datasource único de spring.datasource
+    private boolean enabled = false;
+
+    // Puntos por shard en el anillo de hashing consistente
+    private int virtualNodes = 128;
+
+    // Ids de orden reservados por instancia en cada acceso a order_id_allocator
+    private int idAllocationSize = 1000;
+
+    private int poolSize = 10;
+
+    // El primero es el shard por defecto (tablas globales como order_stats)
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+    }
+}
@@ -1,11 +1,29 @@
 package com.makiia.orderservice.controller;
 import com.makiia.orderservice.dto.CreateOrderDto;
+import com.makiia.orderservice.dto.OrderDetailDto;
+import com.makiia.orderservice.dto.OrderIntakeStatusDto;
 import com.makiia.orderservice.dto.HealthResponse;
 import com.makiia.orderservice.dto.OrderResponseDto;
+import com.makiia.orderservice.dto.OrderStatsDto;
+import com.makiia.orderservice.dto.OrderStatusDto;
+import com.makiia.orderservice.dto.OrderStatusUpdateDto;
+import com.makiia.orderservice.dto.OrderStatusUpdateResultDto;
+import com.makiia.orderservice.dto.OrderSummaryDto;
+import com.makiia.orderservice.entity.OrderChannel;
+import com.makiia.orderservice.service.OrderBulkService;
+import com.makiia.orderservice.service.OrderIntakeService;
 import com.makiia.orderservice.service.OrderService;
+import com.makiia.orderservice.service.OrderStatsService;
+import com.makiia.orderservice.service.OrderStatusBatchService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,10 +32,24 @@ import java.util.List;
 @RequestMapping("/orders")
 public class OrderController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final OrderService orderService;
+    private final OrderIntakeService orderIntakeService;
+    private final OrderBulkService orderBulkService;
+    private final OrderStatsService orderStatsService;
+    private final OrderStatusBatchService orderStatusBatchService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           OrderIntakeService orderIntakeService,
+                           OrderBulkService orderBulkService,
+                           OrderStatsService orderStatsService,
+                           OrderStatusBatchService orderStatusBatchService) {
         this.orderService = orderService;
+        this.orderIntakeService = orderIntakeService;
+        this.orderBulkService = orderBulkService;
+        this.orderStatsService = orderStatsService;
+        this.orderStatusBatchService = orderStatusBatchService;
     }
 
     // =============================
@@ -40,15 +72,74 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getAll());
     }
 
-    // 📌 Crear orden
+    // 📊 Ventas en memoria: /orders/stats?hours=24&top=20
+    @GetMapping("/stats")
+    public ResponseEntity<OrderStatsDto> getStats(
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(defaultValue = "20") int top) {
+        return ResponseEntity.ok(orderStatsService.snapshot(hours, top));
+    }
+
+    // 📌 Resúmenes desde la proyección de lectura: /orders/summaries?customerId=&page=&size=
+    @GetMapping("/summaries")
+    public ResponseEntity<List<OrderSummaryDto>> getSummaries(
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(orderService.getSummaries(customerId, page, Math.min(size, 200)));
+    }
+
+    // 📌 Detalle de varias órdenes (back-office): /orders/details?ids=1,2,3
+    @GetMapping("/details")
+    public ResponseEntity<List<OrderDetailDto>> getByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(orderService.getByIds(ids));
+    }
+
+    // 📌 Detalle de una orden con sus items
+    @GetMapping("/{id}")
+    public ResponseEntity<OrderDetailDto> getById(@PathVariable Long id) {
+        return ResponseEntity.ok(orderService.getById(id));
+    }
+
+    // 📌 Crear orden (202 + referencia si orders.intake.async-enabled)
     @PostMapping
-    public ResponseEntity<OrderResponseDto> createOrder(
+    public ResponseEntity<?> createOrder(
             @RequestBody CreateOrderDto dto) {
 
+        if (orderIntakeService.isEnabled()) {
+            OrderIntakeStatusDto status = orderIntakeService.enqueue(dto);
+            return ResponseEntity
+                    .accepted()
+                    .location(URI.create("/orders/intake/" + status.getReference()))
+                    .body(status);
+        }
+
         OrderResponseDto response = orderService.createOrder(dto);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    // 📌 Carga masiva NDJSON (una orden por línea, un resultado por línea)
+    @PostMapping(value = "/bulk", consumes = NDJSON)
+    public void bulkCreate(@RequestParam(defaultValue = "WEB") OrderChannel channel,
+                           HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(NDJSON);
+        orderBulkService.ingest(request.getInputStream(), channel, response.getOutputStream());
+    }
+
+    // 📌 Estado de una orden encolada (polling)
+    @GetMapping("/intake/{reference}")
+    public ResponseEntity<OrderIntakeStatusDto> getIntakeStatus(@PathVariable String reference) {
+        return ResponseEntity.ok(orderIntakeService.getStatus(reference));
+    }
+
+    // 📌 Estado de una orden encolada (SSE, un evento con el estado final)
+    @GetMapping(value = "/intake/{reference}/events", produces = "text/event-stream")
+    public SseEmitter subscribeIntakeStatus(@PathVariable String reference) {
+        return orderIntakeService.subscribe(reference);
+    }
+
     // 📌 Confirmar orden (Payment → Order)
     @PutMapping("/{id}/confirm")
     public ResponseEntity<Void> confirmOrder(@PathVariable Long id) {
@@ -62,4 +153,17 @@ public class OrderController {
         orderService.cancelOrder(id);
         return ResponseEntity.noContent().build();
     }
+
+    // 📌 Cambios de estado en lote (Payment → Order), resultado por orden
+    @PostMapping("/status/batch")
+    public ResponseEntity<List<OrderStatusUpdateResultDto>> updateStatuses(
+            @RequestBody List<OrderStatusUpdateDto> updates) {
+        return ResponseEntity.ok(orderStatusBatchService.updateStatuses(updates));
+    }
+
+    // 📌 Estado de varias órdenes en una llamada (conciliación de pagos)
+    @PostMapping("/status/lookup")
+    public ResponseEntity<List<OrderStatusDto>> lookupStatuses(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(orderStatusBatchService.lookup(ids));
+    }
 }
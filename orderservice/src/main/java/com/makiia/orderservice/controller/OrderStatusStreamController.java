@@ -0,0 +1,26 @@
+package com.makiia.orderservice.controller;
+
+import com.makiia.orderservice.service.OrderStatusStreamService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Interno (gateway → orderservice): fuera de /orders/** para no quedar expuesto por la ruta pública,
+// y el gateway corta /*/internal/** para que tampoco llegue por el discovery locator (/MSVC-ORDERS/**)
+@RestController
+@RequestMapping("/internal/orders/status")
+public class OrderStatusStreamController {
+
+    private final OrderStatusStreamService orderStatusStreamService;
+
+    public OrderStatusStreamController(OrderStatusStreamService orderStatusStreamService) {
+        this.orderStatusStreamService = orderStatusStreamService;
+    }
+
+    // 📌 Todos los cambios de estado (SSE), uno por orden
+    @GetMapping(value = "/stream", produces = "text/event-stream")
+    public SseEmitter stream() {
+        return orderStatusStreamService.subscribe();
+    }
+}
@@ -0,0 +1,34 @@
+package com.makiia.orderservice.controller;
+
+import com.makiia.orderservice.dto.ShardRebalanceReportDto;
+import com.makiia.orderservice.service.ShardRebalancer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// Operación interna: fuera de /orders/** para que no llegue por la ruta pública del gateway,
+// que además corta /*/internal/** (discovery locator)
+@RestController
+@RequestMapping("/internal/orders/shards")
+public class ShardAdminController {
+
+    private final ShardRebalancer shardRebalancer;
+
+    public ShardAdminController(ShardRebalancer shardRebalancer) {
+        this.shardRebalancer = shardRebalancer;
+    }
+
+    // 📌 Órdenes por shard
+    @GetMapping
+    public ResponseEntity<Map<String, Long>> countOrders() {
+        return ResponseEntity.ok(shardRebalancer.countOrders());
+    }
+
+    // 📌 Rebalancear tras cambiar la lista de shards (dryRun=true solo reporta)
+    @PostMapping("/rebalance")
+    public ResponseEntity<ShardRebalanceReportDto> rebalance(
+            @RequestParam(defaultValue = "true") boolean dryRun) throws InterruptedException {
+        return ResponseEntity.ok(shardRebalancer.rebalance(dryRun));
+    }
+}
@@ -0,0 +1,18 @@
+package com.makiia.orderservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class BulkOrderResultDto {
+    // Posición (0..n) de la orden en el stream recibido
+    private Integer index;
+    private Long orderId;
+    private BigDecimal total;
+    private String status;
+    private String error;
+    // true si la orden no se guardó por una falla transitoria (reenviarla es seguro)
+    private Boolean retryable;
+}
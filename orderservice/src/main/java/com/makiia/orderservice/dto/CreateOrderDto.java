@@ -1,5 +1,6 @@
 package com.makiia.orderservice.dto;
 
+import com.makiia.orderservice.entity.OrderChannel;
 import lombok.Data;
 import java.util.List;
 
@@ -10,4 +11,7 @@ public class CreateOrderDto {
     private String contactPhone;
     private String notes;
     private List<OrderItemDto> items;
+
+    // Opcional: WEB si no se indica
+    private OrderChannel channel;
 }
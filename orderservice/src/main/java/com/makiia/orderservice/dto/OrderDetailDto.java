@@ -0,0 +1,22 @@
+package com.makiia.orderservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class OrderDetailDto {
+    private Long orderId;
+    private Long customerId;
+    private BigDecimal total;
+    private String status;
+    private String channel;
+    private String contactPhone;
+    private String notes;
+    private LocalDateTime createdAt;
+    private LocalDateTime confirmedAt;
+    private List<OrderItemResponseDto> items;
+}
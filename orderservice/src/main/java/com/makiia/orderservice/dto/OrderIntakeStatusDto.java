@@ -0,0 +1,26 @@
+package com.makiia.orderservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class OrderIntakeStatusDto {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    private String reference;
+    private String state;
+    private Long orderId;
+    private BigDecimal total;
+    private String error;
+    private LocalDateTime updatedAt;
+
+    public boolean isFinished() {
+        return !QUEUED.equals(state);
+    }
+}
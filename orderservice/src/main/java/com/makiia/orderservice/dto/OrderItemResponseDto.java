@@ -0,0 +1,13 @@
+package com.makiia.orderservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class OrderItemResponseDto {
+    private Integer productId;
+    private Integer quantity;
+    private BigDecimal price;
+}
@@ -0,0 +1,36 @@
+package com.makiia.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class OrderStatsDto {
+
+    private Map<String, Counters> channels;
+    private List<Counters> topProducts;
+    private List<Counters> hours;
+    private Long lastOrderId;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Counters {
+        // productId, hora (inicio) o canal según la sección
+        private String key;
+        private LocalDateTime hour;
+        private long orders;
+        private long units;
+        private BigDecimal revenue;
+        private long confirmed;
+        private long cancelled;
+    }
+}
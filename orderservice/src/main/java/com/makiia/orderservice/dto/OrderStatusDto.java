@@ -0,0 +1,13 @@
+package com.makiia.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusDto {
+    private Long orderId;
+    private String status;
+}
@@ -0,0 +1,19 @@
+package com.makiia.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusEventDto {
+    private Long orderId;
+    private Long customerId;
+    private String status;
+    private LocalDateTime changedAt;
+}
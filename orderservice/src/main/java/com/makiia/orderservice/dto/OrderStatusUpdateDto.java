@@ -0,0 +1,15 @@
+package com.makiia.orderservice.dto;
+
+import com.makiia.orderservice.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdateDto {
+    private Long orderId;
+    // Estado destino (CONFIRMED o CANCELLED)
+    private OrderStatus status;
+}
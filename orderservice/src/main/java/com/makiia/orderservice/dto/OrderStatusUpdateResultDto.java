@@ -0,0 +1,19 @@
+package com.makiia.orderservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class OrderStatusUpdateResultDto {
+
+    public static final String UPDATED = "UPDATED";
+    public static final String UNCHANGED = "UNCHANGED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String INVALID = "INVALID";
+
+    private Long orderId;
+    private String outcome;
+    // Estado de la orden después del lote (null si no existe)
+    private String status;
+}
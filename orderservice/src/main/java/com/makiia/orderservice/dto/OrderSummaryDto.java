@@ -0,0 +1,19 @@
+package com.makiia.orderservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class OrderSummaryDto {
+    private Long orderId;
+    private Long customerId;
+    private Integer itemCount;
+    private BigDecimal total;
+    private String status;
+    private String channel;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,31 @@
+package com.makiia.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class ShardRebalanceReportDto {
+
+    private boolean dryRun;
+    private Map<String, Long> ordersPerShard;
+    private long customersMoved;
+    private long ordersMoved;
+    // Muestra de movimientos (como máximo 1000)
+    private List<Move> moves;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Move {
+        private Long customerId;
+        private String from;
+        private String to;
+        private long orders;
+    }
+}
@@ -0,0 +1,60 @@
+package com.makiia.orderservice.entity;
+
+import lombok.*;
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Orden movida a almacenamiento frío (mismas columnas que orders + archived_at)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "orders_archive",
+        indexes = {
+                @Index(name = "idx_orders_archive_customer", columnList = "customer_id"),
+                @Index(name = "idx_orders_archive_created", columnList = "created_at")
+        }
+)
+public class ArchivedOrder {
+
+    // Se conserva el id original
+    @Id
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(nullable = false)
+    private BigDecimal total;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Enumerated(EnumType.STRING)
+    private OrderChannel channel;
+
+    @Column(name = "contact_phone")
+    private String contactPhone;
+
+    private String notes;
+
+    @Column(name = "confirmed_at")
+    private LocalDateTime confirmedAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "intake_reference", length = 36)
+    private String intakeReference;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    @OneToMany(mappedBy = "order")
+    private List<ArchivedOrderItem> items;
+}
@@ -0,0 +1,31 @@
+package com.makiia.orderservice.entity;
+
+import lombok.*;
+import javax.persistence.*;
+import java.math.BigDecimal;
+
+@Entity
+@Table(
+        name = "order_items_archive",
+        indexes = @Index(name = "idx_order_items_archive_order", columnList = "order_id")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrderItem {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    private Integer quantity;
+
+    private BigDecimal price;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id")
+    private ArchivedOrder order;
+}
@@ -1,6 +1,8 @@
 package com.makiia.orderservice.entity;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+
 import javax.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -12,11 +14,12 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_created_at", columnList = "created_at"))
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "order-id")
+    @GenericGenerator(name = "order-id", strategy = "com.makiia.orderservice.config.OrderIdGenerator")
     private Long id;
 
     @Column(name = "customer_id", nullable = false)
@@ -42,6 +45,10 @@ public class Order {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
+    // Referencia devuelta en el 202 del modo asíncrono (evita duplicados al reprocesar el journal)
+    @Column(name = "intake_reference", unique = true, length = 36)
+    private String intakeReference;
+
     @OneToMany(
             mappedBy = "order",
             cascade = CascadeType.ALL,
@@ -2,5 +2,6 @@ package com.makiia.orderservice.entity;
 
 public enum OrderChannel {
     WEB,
-    WHATSAPP
+    WHATSAPP,
+    POS
 }
@@ -0,0 +1,47 @@
+package com.makiia.orderservice.entity;
+
+import lombok.*;
+import javax.persistence.*;
+import java.io.Serializable;
+
+// Checkpoint compacto de las estadísticas en memoria de una instancia (una fila por producto/hora/canal);
+// las cifras del servicio son la suma de todas las instancias
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@IdClass(OrderStatsCheckpoint.Key.class)
+@Table(name = "order_stats_by_instance")
+public class OrderStatsCheckpoint {
+
+    // Un id por arranque (orders.stats.instance-id)
+    @Id
+    @Column(name = "instance_id", length = 64)
+    private String instanceId;
+
+    // PRODUCT:<id>, HOUR:<epochHour>, CHANNEL:<canal>, META:checkpointAt, META:lastOrderId
+    @Id
+    @Column(name = "stat_key", length = 64)
+    private String statKey;
+
+    private long orders;
+
+    private long units;
+
+    @Column(name = "revenue_cents")
+    private long revenueCents;
+
+    private long confirmed;
+
+    private long cancelled;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String instanceId;
+        private String statKey;
+    }
+}
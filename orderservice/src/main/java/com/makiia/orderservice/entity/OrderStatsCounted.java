@@ -0,0 +1,24 @@
+package com.makiia.orderservice.entity;
+
+import lombok.*;
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// Órdenes ya sumadas en las estadísticas dentro de la ventana de asentamiento
+// (evita contarlas dos veces al ponerse al día tras un reinicio)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "order_stats_counted", indexes = @Index(name = "idx_order_stats_counted_created_at", columnList = "created_at"))
+public class OrderStatsCounted {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
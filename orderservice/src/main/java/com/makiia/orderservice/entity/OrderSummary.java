@@ -0,0 +1,45 @@
+package com.makiia.orderservice.entity;
+
+import lombok.*;
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Proyección de lectura (CQRS): una fila por orden, sin joins
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "order_summaries",
+        indexes = @Index(name = "idx_order_summaries_customer", columnList = "customer_id, created_at")
+)
+public class OrderSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "item_count", nullable = false)
+    private Integer itemCount;
+
+    @Column(nullable = false)
+    private BigDecimal total;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Enumerated(EnumType.STRING)
+    private OrderChannel channel;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
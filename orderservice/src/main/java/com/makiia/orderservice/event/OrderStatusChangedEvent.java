@@ -0,0 +1,22 @@
+package com.makiia.orderservice.event;
+
+import com.makiia.orderservice.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Cambio de estado aplicado a una o varias órdenes
+@Getter
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+    private final List<Long> orderIds;
+    private final OrderStatus status;
+    private final LocalDateTime changedAt;
+    // orderId -> customerId (para avisar al cliente)
+    private final Map<Long, Long> customerIds;
+    // orderId -> estado anterior (p. ej. para descontar confirmadas que luego se cancelan)
+    private final Map<Long, OrderStatus> previousStatuses;
+}
@@ -0,0 +1,14 @@
+package com.makiia.orderservice.event;
+
+import com.makiia.orderservice.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Órdenes recién guardadas (con sus items ya en memoria)
+@Getter
+@AllArgsConstructor
+public class OrdersCreatedEvent {
+    private final List<Order> orders;
+}
@@ -0,0 +1,41 @@
+package com.makiia.orderservice.repository;
+
+import com.makiia.orderservice.entity.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Movimiento hot → cold con sentencias set-based (se llaman dentro de una transacción)
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    @Query("select o.id as id, o.customerId as customerId, o.status as status from ArchivedOrder o where o.id in :ids")
+    List<OrderStatusView> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(nativeQuery = true, value =
+            "insert into orders_archive " +
+            "(id, customer_id, total, status, channel, contact_phone, notes, confirmed_at, created_at, " +
+            "intake_reference, archived_at) " +
+            "select id, customer_id, total, status, channel, contact_phone, notes, confirmed_at, created_at, " +
+            "intake_reference, :archivedAt from orders where id in :ids")
+    int copyOrders(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query(nativeQuery = true, value =
+            "insert into order_items_archive (id, product_id, quantity, price, order_id) " +
+            "select id, product_id, quantity, price, order_id from order_items where order_id in :ids")
+    int copyItems(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from order_items where order_id in :ids")
+    int deleteHotItems(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from orders where id in :ids")
+    int deleteHotOrders(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,119 @@
+package com.makiia.orderservice.repository;
+
+import com.makiia.orderservice.config.OrderIdAllocator;
+import com.makiia.orderservice.entity.Order;
+import com.makiia.orderservice.entity.OrderItem;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Inserciones JDBC por lotes para cargas masivas. Con IDENTITY Hibernate no agrupa
+ * inserts, así que aquí se usa executeBatch directamente (con rewriteBatchedStatements
+ * el driver de MySQL los convierte en inserts multi-fila).
+ */
+@Repository
+public class OrderBatchRepository {
+
+    private static final String INSERT_ORDER =
+            "insert into orders (customer_id, total, status, channel, contact_phone, notes, created_at) " +
+            "values (?, ?, ?, ?, ?, ?, ?)";
+
+    // Con sharding los ids vienen de OrderIdAllocator y se insertan explícitamente
+    private static final String INSERT_ORDER_WITH_ID =
+            "insert into orders (customer_id, total, status, channel, contact_phone, notes, created_at, id) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ITEM =
+            "insert into order_items (product_id, quantity, price, order_id) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // 📌 Guarda órdenes e items en una transacción; asigna los ids generados a las órdenes
+    @Transactional
+    public void insertAll(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        OrderIdAllocator allocator = OrderIdAllocator.active();
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+
+            if (allocator != null) {
+                try (PreparedStatement ps = con.prepareStatement(INSERT_ORDER_WITH_ID)) {
+                    for (Order order : orders) {
+                        order.setId(allocator.next());
+                        bindOrder(ps, order, now);
+                        ps.setLong(8, order.getId());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            } else {
+                insertWithGeneratedKeys(con, orders, now);
+            }
+
+            try (PreparedStatement ps = con.prepareStatement(INSERT_ITEM)) {
+                for (Order order : orders) {
+                    for (OrderItem item : order.getItems()) {
+                        ps.setInt(1, item.getProductId());
+                        ps.setInt(2, item.getQuantity());
+                        ps.setBigDecimal(3, item.getPrice());
+                        ps.setLong(4, order.getId());
+                        ps.addBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+
+            return null;
+        });
+    }
+
+    private void insertWithGeneratedKeys(Connection con, List<Order> orders, LocalDateTime now) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(INSERT_ORDER, Statement.RETURN_GENERATED_KEYS)) {
+            for (Order order : orders) {
+                bindOrder(ps, order, now);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                int i = 0;
+                while (keys.next()) {
+                    orders.get(i++).setId(keys.getLong(1));
+                }
+                if (i != orders.size()) {
+                    throw new IllegalStateException("Ids generados incompletos: " + i + "/" + orders.size());
+                }
+            }
+        }
+    }
+
+    private void bindOrder(PreparedStatement ps, Order order, LocalDateTime now) throws SQLException {
+        order.setCreatedAt(now);
+        ps.setLong(1, order.getCustomerId());
+        ps.setBigDecimal(2, order.getTotal());
+        ps.setString(3, order.getStatus().name());
+        ps.setString(4, order.getChannel().name());
+        ps.setString(5, order.getContactPhone());
+        ps.setString(6, order.getNotes());
+        ps.setTimestamp(7, Timestamp.valueOf(now));
+    }
+}
@@ -1,7 +1,55 @@
 package com.makiia.orderservice.repository;
 
 import com.makiia.orderservice.entity.Order;
+import com.makiia.orderservice.entity.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+
+    // 📌 Orden + items en una sola consulta (evita N+1)
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(Long id);
+
+    // 📌 Varias órdenes + items en una sola consulta
+    @Query("select distinct o from Order o left join fetch o.items where o.id in :ids")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 📌 Ids creados desde un instante (puesta al día de estadísticas por páginas)
+    @Query("select o.id from Order o where o.createdAt >= :since and o.id > :after order by o.id")
+    List<Long> findIdsCreatedSince(@Param("since") LocalDateTime since, @Param("after") Long after, Pageable pageable);
+
+    // 📌 Candidatas a archivo (estado final y más antiguas que el corte)
+    @Query("select o.id from Order o where o.status in :statuses and o.createdAt < :before order by o.id")
+    List<Long> findArchivableIds(@Param("statuses") Collection<OrderStatus> statuses,
+                                 @Param("before") LocalDateTime before,
+                                 Pageable pageable);
+
+    // 📌 Estado actual de varias órdenes
+    @Query("select o.id as id, o.customerId as customerId, o.status as status from Order o where o.id in :ids")
+    List<OrderStatusView> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 📌 Órdenes bloqueadas hasta el fin de la transacción (nadie cambia su estado entre el select y el update)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id in :ids")
+    List<Order> findAllForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 📌 Update condicional set-based: solo las que no están ya en el estado destino
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.status = :status where o.id in :ids and o.status <> :status")
+    int updateStatusWhereDifferent(@Param("ids") Collection<Long> ids, @Param("status") OrderStatus status);
+
+    // 📌 Órdenes ya guardadas desde la cola asíncrona
+    List<Order> findAllByIntakeReferenceIn(Collection<String> references);
 }
@@ -0,0 +1,15 @@
+package com.makiia.orderservice.repository;
+
+import com.makiia.orderservice.entity.Order;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Lecturas que buscan en orders y, si no está, en orders_archive
+public interface OrderRepositoryCustom {
+
+    Optional<Order> findWithItemsIncludingArchive(Long id);
+
+    List<Order> findAllWithItemsIncludingArchive(Collection<Long> ids);
+}
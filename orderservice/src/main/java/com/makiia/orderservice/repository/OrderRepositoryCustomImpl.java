@@ -0,0 +1,75 @@
+package com.makiia.orderservice.repository;
+
+import com.makiia.orderservice.entity.ArchivedOrder;
+import com.makiia.orderservice.entity.Order;
+import com.makiia.orderservice.entity.OrderItem;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private static final String HOT =
+            "select distinct o from Order o left join fetch o.items where o.id in :ids";
+    private static final String ARCHIVED =
+            "select distinct o from ArchivedOrder o left join fetch o.items where o.id in :ids";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Order> findWithItemsIncludingArchive(Long id) {
+        return findAllWithItemsIncludingArchive(List.of(id)).stream().findFirst();
+    }
+
+    @Override
+    public List<Order> findAllWithItemsIncludingArchive(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Order> orders = new ArrayList<>(entityManager
+                .createQuery(HOT, Order.class)
+                .setParameter("ids", ids)
+                .getResultList());
+
+        Set<Long> found = orders.stream().map(Order::getId).collect(Collectors.toSet());
+        List<Long> missing = ids.stream().filter(id -> !found.contains(id)).collect(Collectors.toList());
+
+        if (!missing.isEmpty()) {
+            entityManager.createQuery(ARCHIVED, ArchivedOrder.class)
+                    .setParameter("ids", missing)
+                    .getResultList()
+                    .forEach(archived -> orders.add(toOrder(archived)));
+        }
+        return orders;
+    }
+
+    // Copia no administrada: quien la recibe la trata igual que una orden activa (solo lectura)
+    private Order toOrder(ArchivedOrder archived) {
+        Order order = Order.builder()
+                .id(archived.getId())
+                .customerId(archived.getCustomerId())
+                .total(archived.getTotal())
+                .status(archived.getStatus())
+                .channel(archived.getChannel())
+                .contactPhone(archived.getContactPhone())
+                .notes(archived.getNotes())
+                .confirmedAt(archived.getConfirmedAt())
+                .createdAt(archived.getCreatedAt())
+                .intakeReference(archived.getIntakeReference())
+                .build();
+
+        order.setItems(archived.getItems()
+                .stream()
+                .map(i -> new OrderItem(i.getId(), i.getProductId(), i.getQuantity(), i.getPrice(), order))
+                .collect(Collectors.toList()));
+        return order;
+    }
+}
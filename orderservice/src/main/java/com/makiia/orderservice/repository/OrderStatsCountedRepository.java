@@ -0,0 +1,15 @@
+package com.makiia.orderservice.repository;
+
+import com.makiia.orderservice.entity.OrderStatsCounted;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderStatsCountedRepository extends JpaRepository<OrderStatsCounted, Long> {
+
+    @Query("select c from OrderStatsCounted c where c.createdAt >= :since")
+    List<OrderStatsCounted> findCreatedSince(@Param("since") LocalDateTime since);
+}
@@ -0,0 +1,15 @@
+package com.makiia.orderservice.repository;
+
+import com.makiia.orderservice.entity.OrderStatsCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface OrderStatsRepository extends JpaRepository<OrderStatsCheckpoint, OrderStatsCheckpoint.Key> {
+
+    // 📌 Último checkpoint de una instancia
+    List<OrderStatsCheckpoint> findAllByInstanceId(String instanceId);
+
+    // 📌 Las demás instancias (se suman en las consultas)
+    List<OrderStatsCheckpoint> findAllByInstanceIdNot(String instanceId);
+}
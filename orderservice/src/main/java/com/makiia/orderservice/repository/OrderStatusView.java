@@ -0,0 +1,13 @@
+package com.makiia.orderservice.repository;
+
+import com.makiia.orderservice.entity.OrderStatus;
+
+// Proyección id + cliente + estado (sin cargar la entidad)
+public interface OrderStatusView {
+
+    Long getId();
+
+    Long getCustomerId();
+
+    OrderStatus getStatus();
+}
@@ -0,0 +1,64 @@
+package com.makiia.orderservice.repository;
+
+import com.makiia.orderservice.entity.OrderStatus;
+import com.makiia.orderservice.entity.OrderSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+    // 📌 "Mis órdenes"
+    List<OrderSummary> findByCustomerIdOrderByCreatedAtDesc(Long customerId, Pageable pageable);
+
+    List<OrderSummary> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("update OrderSummary s set s.status = :status, s.updatedAt = :updatedAt where s.orderId in :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("status") OrderStatus status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    // 📌 Órdenes sin proyección (existentes antes de la proyección o eventos perdidos)
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value =
+            "insert into order_summaries " +
+            "(order_id, customer_id, item_count, total, status, channel, created_at, updated_at) " +
+            "select o.id, o.customer_id, " +
+            "(select count(*) from order_items i where i.order_id = o.id), " +
+            "o.total, o.status, o.channel, o.created_at, o.created_at " +
+            "from orders o left join order_summaries s on s.order_id = o.id " +
+            "where s.order_id is null")
+    int backfillMissing();
+
+    // 📌 Igual que backfillMissing pero sólo para estas órdenes
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value =
+            "insert into order_summaries " +
+            "(order_id, customer_id, item_count, total, status, channel, created_at, updated_at) " +
+            "select o.id, o.customer_id, " +
+            "(select count(*) from order_items i where i.order_id = o.id), " +
+            "o.total, o.status, o.channel, o.created_at, :updatedAt " +
+            "from orders o left join order_summaries s on s.order_id = o.id " +
+            "where o.id in (:ids) and s.order_id is null")
+    int insertMissing(@Param("ids") Collection<Long> ids, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // 📌 Estado de la proyección distinto del de la orden (cambios de estado perdidos)
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value =
+            "update order_summaries s " +
+            "set status = (select o.status from orders o where o.id = s.order_id), updated_at = :updatedAt " +
+            "where exists (select 1 from orders o where o.id = s.order_id and o.status <> s.status)")
+    int resyncStatus(@Param("updatedAt") LocalDateTime updatedAt);
+}
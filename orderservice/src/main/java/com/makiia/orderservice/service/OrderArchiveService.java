@@ -0,0 +1,107 @@
+package com.makiia.orderservice.service;
+
+import com.makiia.orderservice.config.OrderArchiveProperties;
+import com.makiia.orderservice.repository.ArchivedOrderRepository;
+import com.makiia.orderservice.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mueve las órdenes viejas en estado final de orders/order_items a
+ * orders_archive/order_items_archive, por bloques y con pausa entre bloques.
+ * Cada bloque es una transacción (copiar + borrar), así que una corrida
+ * interrumpida no deja órdenes duplicadas ni perdidas.
+ * Las lecturas por id siguen funcionando vía OrderRepository.findWithItemsIncludingArchive.
+ * order_summaries no se toca: el listado por cliente sigue mostrando las órdenes archivadas.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ShardRouter shardRouter;
+    private final OrderArchiveProperties properties;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OrderArchiveService(OrderRepository orderRepository,
+                               ArchivedOrderRepository archivedOrderRepository,
+                               ShardRouter shardRouter,
+                               OrderArchiveProperties properties) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${orders.archive.interval-ms:3600000}",
+            initialDelayString = "${orders.archive.interval-ms:3600000}"
+    )
+    public void scheduledRun() {
+        if (properties.isEnabled()) {
+            archive();
+        }
+    }
+
+    // 📌 Una corrida sobre todos los shards; devuelve cuántas órdenes se archivaron
+    public long archive() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(properties.getMinAgeDays());
+            long archived = 0;
+            for (String shard : shardRouter.shards()) {
+                archived += archiveShard(shard, cutoff);
+            }
+            if (archived > 0) {
+                log.info("Órdenes archivadas: {} (creadas antes de {})", archived, cutoff);
+            }
+            return archived;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private long archiveShard(String shard, LocalDateTime cutoff) throws InterruptedException {
+        long archived = 0;
+
+        for (int chunk = 0; chunk < properties.getMaxChunksPerRun(); chunk++) {
+            List<Long> ids = shardRouter.onShard(shard, () -> orderRepository.findArchivableIds(
+                    properties.getStatuses(), cutoff, PageRequest.of(0, properties.getChunkSize())));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            archived += shardRouter.inTransaction(shard, () -> move(ids));
+
+            if (ids.size() < properties.getChunkSize()) {
+                break;
+            }
+            Thread.sleep(properties.getPauseMs());
+        }
+        return archived;
+    }
+
+    private int move(List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        archivedOrderRepository.copyOrders(ids, now);
+        archivedOrderRepository.copyItems(ids);
+        archivedOrderRepository.deleteHotItems(ids);
+        return archivedOrderRepository.deleteHotOrders(ids);
+    }
+}
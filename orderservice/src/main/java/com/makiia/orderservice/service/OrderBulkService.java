@@ -0,0 +1,226 @@
+package com.makiia.orderservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makiia.orderservice.dto.BulkOrderResultDto;
+import com.makiia.orderservice.dto.CreateOrderDto;
+import com.makiia.orderservice.dto.external.ProductDto;
+import com.makiia.orderservice.entity.Order;
+import com.makiia.orderservice.entity.OrderChannel;
+import com.makiia.orderservice.event.OrdersCreatedEvent;
+import com.makiia.orderservice.repository.OrderBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Carga masiva de órdenes para integraciones (WhatsApp, POS...). Lee NDJSON en bloques,
+ * consulta cada producto una sola vez en todo el stream, inserta cada bloque con JDBC
+ * batch y escribe un resultado NDJSON por orden a medida que avanza.
+ */
+@Service
+public class OrderBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderBulkService.class);
+
+    private final OrderService orderService;
+    private final OrderBatchRepository orderBatchRepository;
+    private final ShardRouter shardRouter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public OrderBulkService(OrderService orderService,
+                            OrderBatchRepository orderBatchRepository,
+                            ShardRouter shardRouter,
+                            ApplicationEventPublisher eventPublisher,
+                            ObjectMapper objectMapper,
+                            @Value("${orders.bulk.chunk-size:500}") int chunkSize) {
+        this.orderService = orderService;
+        this.orderBatchRepository = orderBatchRepository;
+        this.shardRouter = shardRouter;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public void ingest(InputStream in, OrderChannel channel, OutputStream out) throws IOException {
+
+        // Precios compartidos por todo el stream
+        Map<Integer, ProductDto> products = new HashMap<>();
+        Set<Integer> requested = new HashSet<>();
+
+        List<CreateOrderDto> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        try (MappingIterator<CreateOrderDto> it = objectMapper
+                .readerFor(CreateOrderDto.class)
+                .readValues(in)) {
+
+            while (true) {
+                CreateOrderDto dto;
+                try {
+                    if (!it.hasNextValue()) {
+                        break;
+                    }
+                    dto = it.nextValue();
+                } catch (JsonProcessingException e) {
+                    // JSON inválido: se procesa lo leído y se corta el stream
+                    // (un error de E/S del cliente no es JSON inválido: se propaga)
+                    processChunk(chunk, index - chunk.size(), channel, products, requested, out);
+                    write(out, BulkOrderResultDto.builder()
+                            .index(index)
+                            .error("JSON inválido: " + e.getOriginalMessage())
+                            .build());
+                    out.flush();
+                    return;
+                }
+
+                chunk.add(dto);
+                index++;
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, index - chunk.size(), channel, products, requested, out);
+                    chunk.clear();
+                }
+            }
+        }
+
+        processChunk(chunk, index - chunk.size(), channel, products, requested, out);
+        out.flush();
+    }
+
+    private void processChunk(List<CreateOrderDto> chunk,
+                              int firstIndex,
+                              OrderChannel channel,
+                              Map<Integer, ProductDto> products,
+                              Set<Integer> requested,
+                              OutputStream out) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        BulkOrderResultDto[] results = new BulkOrderResultDto[chunk.size()];
+        List<CreateOrderDto> valid = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                orderService.validate(chunk.get(i));
+                valid.add(chunk.get(i));
+            } catch (RuntimeException e) {
+                results[i] = error(firstIndex + i, e);
+            }
+        }
+
+        // Solo se consultan los productos que aún no se pidieron en este stream
+        Set<Integer> missing = orderService.productIdsOf(valid);
+        missing.removeAll(requested);
+        try {
+            products.putAll(orderService.loadProducts(missing));
+            requested.addAll(missing);
+        } catch (ResponseStatusException e) {
+            // productservice caído: no se guarda nada del bloque y la integración puede reintentarlo
+            for (int i = 0; i < chunk.size(); i++) {
+                if (results[i] == null) {
+                    results[i] = error(firstIndex + i, e);
+                    results[i].setRetryable(true);
+                }
+            }
+            for (BulkOrderResultDto result : results) {
+                write(out, result);
+            }
+            out.flush();
+            return;
+        }
+
+        List<Order> orders = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            try {
+                orders.add(orderService.buildOrder(chunk.get(i), channel, products));
+                positions.add(i);
+            } catch (RuntimeException e) {
+                results[i] = error(firstIndex + i, e);
+            }
+        }
+
+        // Un insert por lotes (y una transacción) por shard; cada orden informa el resultado de su shard
+        Map<String, List<Integer>> byShard = new LinkedHashMap<>();
+        for (int j = 0; j < orders.size(); j++) {
+            byShard.computeIfAbsent(shardRouter.shardFor(orders.get(j).getCustomerId()), k -> new ArrayList<>()).add(j);
+        }
+        Map<String, List<Order>> saved = new LinkedHashMap<>();
+        byShard.forEach((shard, indexes) -> {
+            List<Order> group = indexes.stream().map(orders::get).collect(Collectors.toList());
+            try {
+                shardRouter.onShard(shard, () -> {
+                    orderBatchRepository.insertAll(group);
+                    return null;
+                });
+                saved.put(shard, group);
+                for (int j : indexes) {
+                    Order order = orders.get(j);
+                    int i = positions.get(j);
+                    results[i] = BulkOrderResultDto.builder()
+                            .index(firstIndex + i)
+                            .orderId(order.getId())
+                            .total(order.getTotal())
+                            .status(order.getStatus().name())
+                            .build();
+                }
+            } catch (RuntimeException e) {
+                for (int j : indexes) {
+                    results[positions.get(j)] = error(firstIndex + positions.get(j), e);
+                }
+            }
+        });
+
+        // Fuera del try del insert: las órdenes ya están guardadas y no deben informarse como error
+        saved.forEach((shard, group) -> {
+            try {
+                shardRouter.onShard(shard, () -> {
+                    eventPublisher.publishEvent(new OrdersCreatedEvent(group));
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                log.error("Carga masiva: no se pudo publicar el alta de {} órdenes", group.size(), e);
+            }
+        });
+
+        for (BulkOrderResultDto result : results) {
+            write(out, result);
+        }
+        out.flush();
+    }
+
+    private BulkOrderResultDto error(int index, RuntimeException e) {
+        return BulkOrderResultDto.builder()
+                .index(index)
+                .error(e instanceof ResponseStatusException
+                        ? ((ResponseStatusException) e).getReason()
+                        : e.getMessage())
+                .build();
+    }
+
+    private void write(OutputStream out, BulkOrderResultDto result) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write('\n');
+    }
+}
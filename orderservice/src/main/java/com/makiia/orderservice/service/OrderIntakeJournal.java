@@ -0,0 +1,131 @@
+package com.makiia.orderservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makiia.orderservice.dto.CreateOrderDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Journal local (una línea JSON por evento) de las órdenes aceptadas en modo asíncrono.
+ * Cada orden se escribe como ACCEPTED antes de responder 202 y como DONE cuando el writer
+ * la procesó; al arrancar se reencolan las ACCEPTED sin DONE. Cuando no quedan
+ * pendientes el archivo se trunca para que no crezca.
+ */
+class OrderIntakeJournal implements Closeable {
+
+    private static final String ACCEPTED = "ACCEPTED";
+    private static final String DONE = "DONE";
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    private FileChannel channel;
+    private int pending;
+
+    OrderIntakeJournal(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    // Devuelve las órdenes aceptadas que no alcanzaron a guardarse
+    synchronized Map<String, CreateOrderDto> open() throws IOException {
+        Map<String, CreateOrderDto> accepted = new LinkedHashMap<>();
+
+        if (Files.exists(path)) {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    Entry entry = objectMapper.readValue(line, Entry.class);
+                    if (ACCEPTED.equals(entry.getType())) {
+                        accepted.put(entry.getReference(), entry.getOrder());
+                    } else {
+                        accepted.remove(entry.getReference());
+                    }
+                } catch (JsonProcessingException e) {
+                    // última línea a medio escribir por una caída: se descarta
+                }
+            }
+        }
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        // Compacta: solo se reescriben las pendientes
+        for (Map.Entry<String, CreateOrderDto> e : accepted.entrySet()) {
+            write(new Entry(ACCEPTED, e.getKey(), e.getValue()));
+        }
+        channel.force(false);
+        pending = accepted.size();
+
+        return accepted;
+    }
+
+    synchronized void markAccepted(String reference, CreateOrderDto order) throws IOException {
+        write(new Entry(ACCEPTED, reference, order));
+        channel.force(false);
+        pending++;
+    }
+
+    // Un solo fsync por lote
+    synchronized void markDone(Collection<String> references) throws IOException {
+        if (references.isEmpty()) {
+            return;
+        }
+        if (pending <= references.size()) {
+            pending = 0;
+            channel.truncate(0);
+        } else {
+            for (String reference : references) {
+                write(new Entry(DONE, reference, null));
+            }
+            pending -= references.size();
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void write(Entry entry) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(entry);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+        buffer.put(json).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Entry {
+        private String type;
+        private String reference;
+        private CreateOrderDto order;
+    }
+}
@@ -0,0 +1,387 @@
+package com.makiia.orderservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makiia.orderservice.config.OrderIntakeProperties;
+import com.makiia.orderservice.dto.CreateOrderDto;
+import com.makiia.orderservice.dto.OrderIntakeStatusDto;
+import com.makiia.orderservice.dto.external.ProductDto;
+import com.makiia.orderservice.entity.Order;
+import com.makiia.orderservice.entity.OrderChannel;
+import com.makiia.orderservice.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Modo asíncrono de POST /orders: valida, escribe en el journal, encola y responde 202.
+ * Un único writer toma lotes de la cola, consulta cada producto distinto una sola vez
+ * y guarda el lote (una transacción por shard).
+ */
+@Service
+public class OrderIntakeService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final ShardRouter shardRouter;
+    private final OrderIntakeProperties properties;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, OrderIntakeStatusDto> statuses = new ConcurrentHashMap<>();
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    private BlockingQueue<PendingOrder> queue;
+    private OrderIntakeJournal journal;
+    private ExecutorService writer;
+    private volatile boolean running;
+
+    public OrderIntakeService(OrderService orderService,
+                              OrderRepository orderRepository,
+                              ShardRouter shardRouter,
+                              OrderIntakeProperties properties,
+                              ObjectMapper objectMapper) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void start() throws IOException, InterruptedException {
+        if (!properties.isAsyncEnabled()) {
+            return;
+        }
+
+        journal = new OrderIntakeJournal(Paths.get(properties.getJournalPath()), objectMapper);
+        Map<String, CreateOrderDto> recovered = journal.open();
+
+        // Las pendientes del journal entran antes de arrancar el writer (en lotes completos);
+        // la cola se agranda si no caben
+        queue = new ArrayBlockingQueue<>(Math.max(properties.getQueueCapacity(), recovered.size()));
+        if (!recovered.isEmpty()) {
+            log.info("Reencolando {} órdenes pendientes del journal", recovered.size());
+        }
+        for (Map.Entry<String, CreateOrderDto> e : recovered.entrySet()) {
+            statuses.put(e.getKey(), queued(e.getKey()));
+            queue.put(new PendingOrder(e.getKey(), e.getValue(), true));
+        }
+
+        running = true;
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "order-intake-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.submit(this::writeLoop);
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.shutdown();
+        writer.awaitTermination(30, TimeUnit.SECONDS);
+        journal.close();
+    }
+
+    public boolean isEnabled() {
+        return properties.isAsyncEnabled();
+    }
+
+    // 📌 Aceptar orden: durable en el journal antes de responder
+    public OrderIntakeStatusDto enqueue(CreateOrderDto dto) {
+
+        orderService.validate(dto);
+
+        String reference = UUID.randomUUID().toString();
+        OrderIntakeStatusDto status = queued(reference);
+
+        try {
+            journal.markAccepted(reference, dto);
+            statuses.put(reference, status);
+
+            if (!queue.offer(new PendingOrder(reference, dto, false))) {
+                statuses.remove(reference);
+                journal.markDone(List.of(reference));
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Cola de órdenes llena");
+            }
+        } catch (IOException e) {
+            statuses.remove(reference);
+            throw new UncheckedIOException(e);
+        }
+
+        return status;
+    }
+
+    // 📌 Consultar estado (polling)
+    public OrderIntakeStatusDto getStatus(String reference) {
+        OrderIntakeStatusDto status = statuses.get(reference);
+        if (status == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Referencia no encontrada");
+        }
+        return status;
+    }
+
+    // 📌 Suscribirse al estado final (SSE)
+    public SseEmitter subscribe(String reference) {
+        OrderIntakeStatusDto status = getStatus(reference);
+        SseEmitter emitter = new SseEmitter(properties.getSubscribeTimeoutMillis());
+
+        if (status.isFinished()) {
+            send(emitter, status);
+            return emitter;
+        }
+
+        List<SseEmitter> emitters = subscribers.computeIfAbsent(reference, k -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+
+        // Pudo terminar mientras nos registrábamos
+        OrderIntakeStatusDto current = statuses.get(reference);
+        if (current != null && current.isFinished()) {
+            notifySubscribers(current);
+        }
+        return emitter;
+    }
+
+    // ==========================
+    // ✍️ WRITER
+    // ==========================
+
+    private void writeLoop() {
+        List<PendingOrder> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, properties.getBatchSize() - 1);
+                    processWithRetry(batch);
+                    batch.clear();
+                }
+                evictFinished();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error en el writer de órdenes", e);
+                failUnfinished(batch, e);
+                batch.clear();
+            }
+        }
+    }
+
+    // 📌 Con productservice caído el lote sigue QUEUED (y en el journal) y se reintenta;
+    // si se está apagando se deja en el journal para la próxima arrancada
+    private void processWithRetry(List<PendingOrder> batch) throws InterruptedException {
+        long backoff = 500;
+        while (true) {
+            try {
+                process(batch);
+                return;
+            } catch (ResponseStatusException e) {
+                if (e.getStatus() != HttpStatus.SERVICE_UNAVAILABLE) {
+                    throw e;
+                }
+                if (!running) {
+                    log.warn("Writer de órdenes detenido con productservice caído: {} órdenes quedan en el journal",
+                            batch.size());
+                    return;
+                }
+                log.warn("productservice no disponible, se reintenta el lote de {} órdenes en {} ms",
+                        batch.size(), backoff);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, 10000);
+            }
+        }
+    }
+
+    // Error inesperado: las órdenes del lote que no terminaron quedan FAILED (y fuera del journal)
+    private void failUnfinished(List<PendingOrder> batch, RuntimeException e) {
+        List<String> references = new ArrayList<>();
+        for (PendingOrder pending : batch) {
+            OrderIntakeStatusDto status = statuses.get(pending.reference);
+            if (status == null || !status.isFinished()) {
+                complete(failed(pending.reference, e));
+            }
+            references.add(pending.reference);
+        }
+        try {
+            journal.markDone(references);
+        } catch (IOException io) {
+            log.error("No se pudo actualizar el journal de órdenes", io);
+        }
+    }
+
+    private void process(List<PendingOrder> batch) {
+
+        // Órdenes reencoladas tras una caída que ya alcanzaron a guardarse
+        Map<String, Order> alreadySaved = findSaved(batch.stream()
+                .filter(p -> p.recovered)
+                .collect(Collectors.toList()));
+
+        List<PendingOrder> toSave = batch.stream()
+                .filter(p -> !alreadySaved.containsKey(p.reference))
+                .collect(Collectors.toList());
+
+        Map<Integer, ProductDto> products = orderService.loadProducts(
+                orderService.productIdsOf(toSave.stream().map(p -> p.order).collect(Collectors.toList())));
+
+        List<PendingOrder> priced = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        for (PendingOrder pending : toSave) {
+            try {
+                orders.add(build(pending, products));
+                priced.add(pending);
+            } catch (RuntimeException e) {
+                complete(failed(pending.reference, e));
+            }
+        }
+
+        try {
+            List<Order> saved = orderService.saveAll(orders);
+            for (int i = 0; i < saved.size(); i++) {
+                complete(created(priced.get(i).reference, saved.get(i)));
+            }
+        } catch (RuntimeException e) {
+            // saveAll confirma shard por shard: las de los shards que ya confirmaron están
+            // guardadas y no se vuelven a insertar (intake_reference es único)
+            Map<String, Order> committed = findSaved(priced);
+
+            // Se aísla la orden problemática guardando una por una
+            for (PendingOrder pending : priced) {
+                Order stored = committed.get(pending.reference);
+                if (stored != null) {
+                    complete(created(pending.reference, stored));
+                    continue;
+                }
+                try {
+                    Order saved = orderService.saveAll(List.of(build(pending, products))).get(0);
+                    complete(created(pending.reference, saved));
+                } catch (RuntimeException single) {
+                    complete(failed(pending.reference, single));
+                }
+            }
+        }
+
+        alreadySaved.forEach((reference, order) -> complete(created(reference, order)));
+
+        try {
+            journal.markDone(batch.stream().map(p -> p.reference).collect(Collectors.toList()));
+        } catch (IOException e) {
+            log.error("No se pudo actualizar el journal de órdenes", e);
+        }
+    }
+
+    private Order build(PendingOrder pending, Map<Integer, ProductDto> products) {
+        Order order = orderService.buildOrder(pending.order, OrderChannel.WEB, products);
+        order.setIntakeReference(pending.reference);
+        return order;
+    }
+
+    // Órdenes ya guardadas por referencia (en cualquier shard)
+    private Map<String, Order> findSaved(List<PendingOrder> pending) {
+        List<String> references = pending.stream()
+                .map(p -> p.reference)
+                .collect(Collectors.toList());
+        if (references.isEmpty()) {
+            return Map.of();
+        }
+        return shardRouter.onAllShards(() -> orderRepository.findAllByIntakeReferenceIn(references))
+                .stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(Order::getIntakeReference, o -> o));
+    }
+
+    private void complete(OrderIntakeStatusDto status) {
+        statuses.put(status.getReference(), status);
+        notifySubscribers(status);
+    }
+
+    private void notifySubscribers(OrderIntakeStatusDto status) {
+        List<SseEmitter> emitters = subscribers.remove(status.getReference());
+        if (emitters != null) {
+            emitters.forEach(emitter -> send(emitter, status));
+        }
+    }
+
+    private void send(SseEmitter emitter, OrderIntakeStatusDto status) {
+        try {
+            emitter.send(status);
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void evictFinished() {
+        LocalDateTime limit = LocalDateTime.now().minusSeconds(properties.getStatusTtlSeconds());
+        statuses.values().removeIf(s -> s.isFinished() && s.getUpdatedAt().isBefore(limit));
+    }
+
+    private OrderIntakeStatusDto queued(String reference) {
+        return OrderIntakeStatusDto.builder()
+                .reference(reference)
+                .state(OrderIntakeStatusDto.QUEUED)
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private OrderIntakeStatusDto created(String reference, Order order) {
+        return OrderIntakeStatusDto.builder()
+                .reference(reference)
+                .state(OrderIntakeStatusDto.CREATED)
+                .orderId(order.getId())
+                .total(order.getTotal())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private OrderIntakeStatusDto failed(String reference, RuntimeException e) {
+        return OrderIntakeStatusDto.builder()
+                .reference(reference)
+                .state(OrderIntakeStatusDto.FAILED)
+                .error(e.getMessage())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static class PendingOrder {
+        private final String reference;
+        private final CreateOrderDto order;
+        private final boolean recovered;
+
+        PendingOrder(String reference, CreateOrderDto order, boolean recovered) {
+            this.reference = reference;
+            this.order = order;
+            this.recovered = recovered;
+        }
+    }
+}
@@ -2,58 +2,209 @@ package com.makiia.orderservice.service;
 
 import com.makiia.orderservice.client.ProductClient;
 import com.makiia.orderservice.dto.CreateOrderDto;
+import com.makiia.orderservice.dto.OrderDetailDto;
 import com.makiia.orderservice.dto.OrderItemDto;
+import com.makiia.orderservice.dto.OrderItemResponseDto;
 import com.makiia.orderservice.dto.OrderResponseDto;
+import com.makiia.orderservice.dto.OrderSummaryDto;
+import com.makiia.orderservice.dto.external.ProductDto;
 import com.makiia.orderservice.entity.*;
+import com.makiia.orderservice.event.OrderStatusChangedEvent;
+import com.makiia.orderservice.event.OrdersCreatedEvent;
 import com.makiia.orderservice.repository.OrderRepository;
+import com.makiia.orderservice.repository.OrderSummaryRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
+    private static final int PRODUCT_LOOKUP_CHUNK = 200;
+
     private final OrderRepository orderRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
     private final ProductClient productClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
 
     public OrderService(OrderRepository orderRepository,
-                        ProductClient productClient) {
+                        OrderSummaryRepository orderSummaryRepository,
+                        ProductClient productClient,
+                        ApplicationEventPublisher eventPublisher,
+                        ShardRouter shardRouter) {
         this.orderRepository = orderRepository;
+        this.orderSummaryRepository = orderSummaryRepository;
         this.productClient = productClient;
+        this.eventPublisher = eventPublisher;
+        this.shardRouter = shardRouter;
     }
 
-    // 📌 Listar órdenes
+    // 📌 Listar órdenes (desde la proyección order_summaries, todos los shards)
     public List<OrderResponseDto> getAll() {
-        return orderRepository.findAll()
+        return shardRouter.onAllShards(orderSummaryRepository::findAll)
                 .stream()
+                .flatMap(List::stream)
                 .map(this::mapToDto)
                 .collect(Collectors.toList());
     }
 
+    // 📌 Resúmenes paginados ("mis órdenes" / reportes), sin tocar orders/order_items
+    public List<OrderSummaryDto> getSummaries(Long customerId, int page, int size) {
+        List<OrderSummary> summaries;
+        if (customerId != null) {
+            // Un cliente vive en un solo shard
+            summaries = shardRouter.onCustomerShard(customerId, () ->
+                    orderSummaryRepository.findByCustomerIdOrderByCreatedAtDesc(customerId, PageRequest.of(page, size)));
+        } else {
+            // Cada shard aporta sus primeras (page + 1) * size filas y se mezclan por fecha
+            PageRequest firstRows = PageRequest.of(0, (page + 1) * size);
+            summaries = shardRouter.onAllShards(() -> orderSummaryRepository.findAllByOrderByCreatedAtDesc(firstRows))
+                    .stream()
+                    .flatMap(List::stream)
+                    .sorted(Comparator.comparing(OrderSummary::getCreatedAt,
+                            Comparator.nullsLast(Comparator.reverseOrder())))
+                    .skip((long) page * size)
+                    .limit(size)
+                    .collect(Collectors.toList());
+        }
+        return summaries.stream()
+                .map(this::mapToSummaryDto)
+                .collect(Collectors.toList());
+    }
+
+    // 📌 Detalle de una orden con sus items (se busca en todos los shards)
+    public OrderDetailDto getById(Long id) {
+        Order order = shardRouter.findFirst(() -> orderRepository.findWithItemsIncludingArchive(id))
+                .orElseThrow(() -> new RuntimeException("Order no encontrada"));
+        return mapToDetailDto(order);
+    }
+
+    // 📌 Detalle de varias órdenes (back-office)
+    public List<OrderDetailDto> getByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return shardRouter.onAllShards(() -> orderRepository.findAllWithItemsIncludingArchive(ids))
+                .stream()
+                .flatMap(List::stream)
+                .map(this::mapToDetailDto)
+                .collect(Collectors.toList());
+    }
+
     // 📌 Crear orden
     public OrderResponseDto createOrder(CreateOrderDto dto) {
 
+        validate(dto);
+
+        Map<Integer, ProductDto> products = loadProducts(productIdsOf(List.of(dto)));
+        Order order = buildOrder(dto, OrderChannel.WEB, products);
+
+        // Escritura en un solo shard: el del cliente
+        Order saved = shardRouter.onCustomerShard(dto.getCustomerId(), () -> {
+            Order s = orderRepository.save(order);
+            eventPublisher.publishEvent(new OrdersCreatedEvent(List.of(s)));
+            return s;
+        });
+        return mapToDto(saved);
+    }
+
+    // 📌 Validar orden antes de aceptarla
+    public void validate(CreateOrderDto dto) {
+        if (dto.getCustomerId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "customerId es obligatorio");
+        }
+        if (dto.getItems() == null || dto.getItems().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La orden no tiene items");
+        }
+        for (OrderItemDto item : dto.getItems()) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Item inválido");
+            }
+        }
+    }
+
+    // 📌 Productos distintos de un lote de órdenes
+    public Set<Integer> productIdsOf(Collection<CreateOrderDto> dtos) {
+        return dtos.stream()
+                .flatMap(dto -> dto.getItems().stream())
+                .map(OrderItemDto::getProductId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    // 📌 Precios de productos distintos vía /products/batch
+    // (los que no llegan quedan fuera del mapa y la orden que los usa falla en buildOrder;
+    // si productservice no responde es un 503, no "Producto no encontrado")
+    public Map<Integer, ProductDto> loadProducts(Collection<Integer> productIds) {
+        Map<Integer, ProductDto> products = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += PRODUCT_LOOKUP_CHUNK) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + PRODUCT_LOOKUP_CHUNK, ids.size()));
+            try {
+                productClient.getProductsByIds(chunk)
+                        .forEach(p -> products.put(p.getId(), p));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "productservice no disponible", e);
+            }
+        }
+        return products;
+    }
+
+    // 📌 Construir la orden con precios ya resueltos
+    // (channel es el canal por defecto si el dto no trae uno)
+    public Order buildOrder(CreateOrderDto dto,
+                            OrderChannel channel,
+                            Map<Integer, ProductDto> products) {
+
         Order order = new Order();
         order.setCustomerId(dto.getCustomerId());
         order.setStatus(OrderStatus.PENDING);
-        order.setChannel(OrderChannel.WEB);
+        order.setChannel(dto.getChannel() != null ? dto.getChannel() : channel);
         order.setContactPhone(dto.getContactPhone());
         order.setNotes(dto.getNotes());
 
         List<OrderItem> items = dto.getItems()
                 .stream()
-                .map(item -> mapToOrderItem(item, order))
+                .map(item -> mapToOrderItem(item, order, products))
                 .collect(Collectors.toList());
 
         BigDecimal total = calculateTotal(items);
 
         order.setTotal(total);
         order.setItems(items);
+        return order;
+    }
 
-        Order saved = orderRepository.save(order);
-        return mapToDto(saved);
+    // 📌 Guardar un lote de órdenes: una transacción por shard
+    public List<Order> saveAll(List<Order> orders) {
+        Map<String, List<Order>> byShard = orders.stream()
+                .collect(Collectors.groupingBy(o -> shardRouter.shardFor(o.getCustomerId()),
+                        LinkedHashMap::new, Collectors.toList()));
+
+        byShard.forEach((shard, group) -> shardRouter.inTransaction(shard, () -> {
+            orderRepository.saveAll(group);
+            eventPublisher.publishEvent(new OrdersCreatedEvent(group));
+            return null;
+        }));
+
+        // Mismo orden que la lista recibida (saveAll persiste las mismas instancias)
+        return orders;
     }
 
     // 📌 Confirmar orden (llamado desde Payment)
@@ -70,9 +221,14 @@ public class OrderService {
     // 🔁 HELPERS
     // ==========================
 
-    private OrderItem mapToOrderItem(OrderItemDto dto, Order order) {
+    private OrderItem mapToOrderItem(OrderItemDto dto,
+                                     Order order,
+                                     Map<Integer, ProductDto> products) {
 
-        var product = productClient.getProductById(dto.getProductId());
+        ProductDto product = products.get(dto.getProductId());
+        if (product == null) {
+            throw new RuntimeException("Producto no encontrado: " + dto.getProductId());
+        }
 
         OrderItem item = new OrderItem();
         item.setProductId(product.getId());
@@ -91,17 +247,78 @@ public class OrderService {
     }
 
     private void updateStatus(Long id, OrderStatus status) {
-        Order order = orderRepository.findById(id)
+        String shard = shardRouter.locate(() -> orderRepository.existsById(id))
                 .orElseThrow(() -> new RuntimeException("Order no encontrada"));
-        order.setStatus(status);
-        orderRepository.save(order);
+
+        shardRouter.inTransaction(shard, () -> {
+            Order order = orderRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Order no encontrada"));
+            if (order.getStatus() == status) {
+                return null;
+            }
+            OrderStatus previous = order.getStatus();
+            order.setStatus(status);
+            orderRepository.save(order);
+            eventPublisher.publishEvent(
+                    new OrderStatusChangedEvent(List.of(id), status, LocalDateTime.now(),
+                            Collections.singletonMap(id, order.getCustomerId()),
+                            Collections.singletonMap(id, previous)));
+            return null;
+        });
+    }
+
+    public OrderResponseDto mapToDto(Order order) {
+        return OrderResponseDto.builder()
+                .orderId(order.getId())
+                .total(order.getTotal())
+                .status(order.getStatus().name())
+                .build();
     }
 
-    private OrderResponseDto mapToDto(Order order) {
+    private OrderResponseDto mapToDto(OrderSummary summary) {
         return OrderResponseDto.builder()
+                .orderId(summary.getOrderId())
+                .total(summary.getTotal())
+                .status(summary.getStatus().name())
+                .build();
+    }
+
+    private OrderSummaryDto mapToSummaryDto(OrderSummary summary) {
+        return OrderSummaryDto.builder()
+                .orderId(summary.getOrderId())
+                .customerId(summary.getCustomerId())
+                .itemCount(summary.getItemCount())
+                .total(summary.getTotal())
+                .status(summary.getStatus().name())
+                .channel(summary.getChannel() != null ? summary.getChannel().name() : null)
+                .createdAt(summary.getCreatedAt())
+                .updatedAt(summary.getUpdatedAt())
+                .build();
+    }
+
+    private OrderDetailDto mapToDetailDto(Order order) {
+        return OrderDetailDto.builder()
                 .orderId(order.getId())
+                .customerId(order.getCustomerId())
                 .total(order.getTotal())
                 .status(order.getStatus().name())
+                .channel(order.getChannel() != null ? order.getChannel().name() : null)
+                .contactPhone(order.getContactPhone())
+                .notes(order.getNotes())
+                .createdAt(order.getCreatedAt())
+                .confirmedAt(order.getConfirmedAt())
+                .items(order.getItems()
+                        .stream()
+                        .map(this::mapToItemDto)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private OrderItemResponseDto mapToItemDto(OrderItem item) {
+        return OrderItemResponseDto.builder()
+                .productId(item.getProductId())
+                .quantity(item.getQuantity())
+                .price(item.getPrice())
                 .build();
     }
 }
@@ -0,0 +1,568 @@
+package com.makiia.orderservice.service;
+
+import com.makiia.orderservice.dto.OrderStatsDto;
+import com.makiia.orderservice.entity.Order;
+import com.makiia.orderservice.entity.OrderChannel;
+import com.makiia.orderservice.entity.OrderItem;
+import com.makiia.orderservice.entity.OrderStatsCheckpoint;
+import com.makiia.orderservice.entity.OrderStatus;
+import com.makiia.orderservice.event.OrderStatusChangedEvent;
+import com.makiia.orderservice.event.OrdersCreatedEvent;
+import com.makiia.orderservice.repository.OrderRepository;
+import com.makiia.orderservice.repository.OrderStatsCountedRepository;
+import com.makiia.orderservice.repository.OrderStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Agregados de ventas en memoria (por producto, por hora y por canal) actualizados con
+ * los eventos de órdenes, para no correr GROUP BY sobre orders/order_items en producción.
+ * Cada instancia guarda cada cierto tiempo sus propios contadores en order_stats_by_instance
+ * (con su instance-id) y las consultas suman los de las demás instancias según su último
+ * checkpoint. Al arrancar (antes de recibir tráfico) adopta los contadores de las instancias
+ * que ya no hacen checkpoint y, si no queda ninguna activa, procesa las órdenes que faltan;
+ * con otras activas no hay puesta al día, porque ellas ya contaron esas órdenes.
+ * Los arranques se serializan con un bloqueo en la misma tabla.
+ *
+ * La marca de agua no es el id máximo: los ids hi/lo no siguen el orden de commit y una
+ * transacción larga puede confirmar una orden con id menor después del checkpoint. En su
+ * lugar, cada checkpoint guarda también las órdenes contadas en la ventana de asentamiento
+ * (order_stats_counted) y la puesta al día recorre las órdenes con created_at dentro de
+ * esa ventana, saltando las ya contadas.
+ * Los cambios de estado ocurridos con el servicio caído no se recuperan (cifras aproximadas),
+ * ni las órdenes que tardaron más que la ventana en confirmarse.
+ */
+@Service
+public class OrderStatsService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatsService.class);
+
+    private static final String PRODUCT = "PRODUCT:";
+    private static final String HOUR = "HOUR:";
+    private static final String CHANNEL = "CHANNEL:";
+    private static final String CHECKPOINT_AT = "META:checkpointAt";
+    private static final String LAST_ORDER_ID = "META:lastOrderId";
+    private static final String META = "META:";
+    // Fila fija que bloquea cada arranque (instance_id, stat_key)
+    private static final String RESTORE_LOCK_INSTANCE = "*";
+    private static final String RESTORE_LOCK = "META:restore";
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int CATCH_UP_PAGE = 500;
+    // Antes del registro en Eureka (fase 0) y del arranque del servidor web
+    private static final int PHASE = -100;
+
+    private final OrderRepository orderRepository;
+    private final OrderStatsRepository orderStatsRepository;
+    private final OrderStatsCountedRepository orderStatsCountedRepository;
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId;
+    private final long retentionHours;
+    private final Duration settleWindow;
+    // Sin checkpoint en este tiempo la instancia se da por caída
+    private final Duration staleAfter;
+
+    private final Map<Integer, Counters> products = new ConcurrentHashMap<>();
+    private final Map<Long, Counters> hours = new ConcurrentHashMap<>();
+    private final Map<OrderChannel, Counters> channels = new ConcurrentHashMap<>();
+    private final AtomicLong lastOrderId = new AtomicLong();
+
+    // Contadores de las demás instancias (clave de order_stats_by_instance -> suma), según su último checkpoint
+    private volatile Map<String, Counters> others = Map.of();
+    private volatile long othersLastOrderId;
+
+    // Órdenes ya sumadas (id -> created_at); quien la reclama primero, evento o puesta al día, la cuenta
+    private final Map<Long, LocalDateTime> counted = new ConcurrentHashMap<>();
+    // Contadas desde el último checkpoint, pendientes de guardar en order_stats_counted
+    private final Queue<Long> pendingCounted = new ConcurrentLinkedQueue<>();
+    // El checkpoint toma contadores y órdenes contadas juntos (escritura); los eventos solo leen
+    private final ReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+
+    public OrderStatsService(OrderRepository orderRepository,
+                             OrderStatsRepository orderStatsRepository,
+                             OrderStatsCountedRepository orderStatsCountedRepository,
+                             ShardRouter shardRouter,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${orders.stats.instance-id:${random.uuid}}") String instanceId,
+                             @Value("${orders.stats.retention-hours:168}") long retentionHours,
+                             @Value("${orders.stats.settle-minutes:10}") long settleMinutes,
+                             @Value("${orders.stats.checkpoint-interval-ms:60000}") long checkpointIntervalMillis) {
+        this.orderRepository = orderRepository;
+        this.orderStatsRepository = orderStatsRepository;
+        this.orderStatsCountedRepository = orderStatsCountedRepository;
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.instanceId = instanceId;
+        this.retentionHours = retentionHours;
+        this.settleWindow = Duration.ofMinutes(settleMinutes);
+        this.staleAfter = Duration.ofMillis(checkpointIntervalMillis * 3);
+    }
+
+    // ==========================
+    // 📥 EVENTOS
+    // ==========================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCreated(OrdersCreatedEvent event) {
+        event.getOrders().forEach(this::recordCreated);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getStatus() != OrderStatus.CONFIRMED && event.getStatus() != OrderStatus.CANCELLED) {
+            return;
+        }
+
+        // Los items hacen falta para descontar unidades/ingresos por producto al cancelar
+        List<Order> orders = event.getStatus() == OrderStatus.CANCELLED
+                ? orderRepository.findAllWithItemsByIdIn(event.getOrderIds())
+                : orderRepository.findAllById(event.getOrderIds());
+
+        for (Order order : orders) {
+            Counters channel = channel(order.getChannel());
+            Counters hour = hour(order.getCreatedAt());
+
+            if (event.getStatus() == OrderStatus.CONFIRMED) {
+                channel.confirmed.increment();
+                hour.confirmed.increment();
+            } else {
+                // Confirmada y luego cancelada: deja de contar como confirmada
+                if (previousStatus(event, order.getId()) == OrderStatus.CONFIRMED) {
+                    channel.confirmed.decrement();
+                    hour.confirmed.decrement();
+                }
+                long cents = cents(order.getTotal());
+                channel.cancelled.increment();
+                channel.revenueCents.add(-cents);
+                hour.cancelled.increment();
+                hour.revenueCents.add(-cents);
+                for (OrderItem item : order.getItems()) {
+                    Counters product = product(item.getProductId());
+                    product.cancelled.increment();
+                    product.units.add(-item.getQuantity());
+                    product.revenueCents.add(-lineCents(item));
+                }
+            }
+        }
+    }
+
+    private boolean recordCreated(Order order) {
+        LocalDateTime createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+
+        checkpointLock.readLock().lock();
+        try {
+            if (counted.putIfAbsent(order.getId(), createdAt) != null) {
+                return false;
+            }
+            pendingCounted.add(order.getId());
+            addCreated(order);
+            lastOrderId.accumulateAndGet(order.getId(), Math::max);
+            return true;
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    private void addCreated(Order order) {
+        long cents = cents(order.getTotal());
+
+        Counters channel = channel(order.getChannel());
+        channel.orders.increment();
+        channel.revenueCents.add(cents);
+
+        Counters hour = hour(order.getCreatedAt());
+        hour.orders.increment();
+        hour.revenueCents.add(cents);
+
+        for (OrderItem item : order.getItems()) {
+            Counters product = product(item.getProductId());
+            product.orders.increment();
+            product.units.add(item.getQuantity());
+            product.revenueCents.add(lineCents(item));
+            hour.units.add(item.getQuantity());
+            channel.units.add(item.getQuantity());
+        }
+    }
+
+    // ==========================
+    // 📊 CONSULTA
+    // ==========================
+
+    public OrderStatsDto snapshot(int lastHours, int topProducts) {
+        long fromHour = currentHour() - lastHours + 1;
+        Map<String, Counters> otherCounters = others;
+
+        Map<String, OrderStatsDto.Counters> channelDtos = new TreeMap<>();
+        withOthers(channels, otherCounters, CHANNEL, OrderChannel::valueOf)
+                .forEach((channel, c) -> channelDtos.put(channel.name(), c.toDto(channel.name(), null)));
+
+        List<OrderStatsDto.Counters> productDtos = withOthers(products, otherCounters, PRODUCT, Integer::valueOf)
+                .entrySet()
+                .stream()
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<Integer, Counters> e) -> e.getValue().revenueCents.sum()).reversed())
+                .limit(topProducts)
+                .map(e -> e.getValue().toDto(String.valueOf(e.getKey()), null))
+                .collect(Collectors.toList());
+
+        List<OrderStatsDto.Counters> hourDtos = withOthers(hours, otherCounters, HOUR, Long::valueOf)
+                .entrySet()
+                .stream()
+                .filter(e -> e.getKey() >= fromHour)
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> e.getValue().toDto(null, toDateTime(e.getKey())))
+                .collect(Collectors.toList());
+
+        return OrderStatsDto.builder()
+                .channels(channelDtos)
+                .topProducts(productDtos)
+                .hours(hourDtos)
+                .lastOrderId(Math.max(lastOrderId.get(), othersLastOrderId))
+                .build();
+    }
+
+    // ==========================
+    // 💾 CHECKPOINT
+    // ==========================
+
+    @Scheduled(
+            fixedDelayString = "${orders.stats.checkpoint-interval-ms:60000}",
+            initialDelayString = "${orders.stats.checkpoint-interval-ms:60000}")
+    @Transactional
+    public void checkpoint() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime settledBefore = now.minus(settleWindow);
+        long oldest = currentHour() - retentionHours;
+        hours.keySet().removeIf(h -> h < oldest);
+
+        List<Object[]> rows = new ArrayList<>();
+        List<Object[]> newlyCounted = new ArrayList<>();
+
+        // Lo que queda sumado en los contadores queda también en order_stats_counted
+        checkpointLock.writeLock().lock();
+        try {
+            products.forEach((id, c) -> rows.add(c.toRow(instanceId, PRODUCT + id)));
+            hours.forEach((h, c) -> rows.add(c.toRow(instanceId, HOUR + h)));
+            channels.forEach((ch, c) -> rows.add(c.toRow(instanceId, CHANNEL + ch.name())));
+            rows.add(new Object[]{instanceId, CHECKPOINT_AT, now.toInstant(ZoneOffset.UTC).toEpochMilli(), 0L, 0L, 0L, 0L});
+            rows.add(new Object[]{instanceId, LAST_ORDER_ID, lastOrderId.get(), 0L, 0L, 0L, 0L});
+
+            for (Long id = pendingCounted.poll(); id != null; id = pendingCounted.poll()) {
+                LocalDateTime createdAt = counted.get(id);
+                if (createdAt != null && !createdAt.isBefore(settledBefore)) {
+                    newlyCounted.add(new Object[]{id, Timestamp.valueOf(createdAt)});
+                }
+            }
+            counted.values().removeIf(createdAt -> createdAt.isBefore(settledBefore));
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+
+        try {
+            // Solo las filas de esta instancia: las demás guardan las suyas
+            jdbcTemplate.update("delete from order_stats_by_instance where instance_id = ?", instanceId);
+            jdbcTemplate.batchUpdate(
+                    "insert into order_stats_by_instance " +
+                    "(instance_id, stat_key, orders, units, revenue_cents, confirmed, cancelled) " +
+                    "values (?, ?, ?, ?, ?, ?, ?)",
+                    rows);
+            jdbcTemplate.update("delete from order_stats_counted where created_at < ?", Timestamp.valueOf(settledBefore));
+            jdbcTemplate.batchUpdate("insert into order_stats_counted (order_id, created_at) values (?, ?)", newlyCounted);
+        } catch (RuntimeException e) {
+            // Se revierte todo el checkpoint: las órdenes quedan pendientes para el siguiente
+            newlyCounted.forEach(row -> pendingCounted.add((Long) row[0]));
+            throw e;
+        }
+
+        refreshOthers();
+    }
+
+    // ==========================
+    // 🔄 RESTAURACIÓN
+    // ==========================
+
+    @Override
+    public void start() {
+        restore();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    // order_stats_by_instance vive en el shard por defecto; la puesta al día recorre cada shard
+    void restore() {
+        LocalDateTime since = transactionTemplate.execute(status -> adoptStaleInstances());
+
+        if (since == null) {
+            log.info("Estadísticas de órdenes: hay otras instancias activas, se cuentan sólo las órdenes nuevas");
+            return;
+        }
+        if (!since.equals(EPOCH)) {
+            orderStatsCountedRepository.findCreatedSince(since)
+                    .forEach(c -> counted.putIfAbsent(c.getOrderId(), c.getCreatedAt()));
+        }
+
+        int caughtUp = 0;
+        for (String shard : shardRouter.shards()) {
+            caughtUp += shardRouter.onShard(shard, () -> catchUp(since));
+        }
+        if (caughtUp > 0) {
+            log.info("Estadísticas de órdenes: {} órdenes procesadas desde el último checkpoint", caughtUp);
+        }
+    }
+
+    // 📌 Suma y borra los contadores de las instancias caídas (y los propios, si el id se repite) y
+    // guarda el primer checkpoint. Devuelve desde cuándo ponerse al día, o null si hay otras activas.
+    private LocalDateTime adoptStaleInstances() {
+        lockRestore();
+
+        LocalDateTime staleBefore = LocalDateTime.now().minus(staleAfter);
+        Map<String, List<OrderStatsCheckpoint>> byInstance = orderStatsRepository.findAll()
+                .stream()
+                .filter(row -> !RESTORE_LOCK_INSTANCE.equals(row.getInstanceId()))
+                .collect(Collectors.groupingBy(OrderStatsCheckpoint::getInstanceId));
+
+        boolean othersActive = false;
+        LocalDateTime lastCheckpoint = null;
+        for (Map.Entry<String, List<OrderStatsCheckpoint>> instance : byInstance.entrySet()) {
+            LocalDateTime checkpointAt = checkpointAt(instance.getValue());
+            boolean own = instance.getKey().equals(instanceId);
+            if (!own && checkpointAt != null && checkpointAt.isAfter(staleBefore)) {
+                othersActive = true;
+                continue;
+            }
+
+            instance.getValue().forEach(this::restoreRow);
+            if (!own) {
+                jdbcTemplate.update("delete from order_stats_by_instance where instance_id = ?", instance.getKey());
+            }
+            if (checkpointAt != null && (lastCheckpoint == null || checkpointAt.isAfter(lastCheckpoint))) {
+                lastCheckpoint = checkpointAt;
+            }
+        }
+
+        // Desde aquí esta instancia cuenta como activa para los arranques que esperan el bloqueo
+        checkpoint();
+
+        if (othersActive) {
+            return null;
+        }
+        // Sin checkpoint previo se recalcula todo
+        return lastCheckpoint != null ? lastCheckpoint.minus(settleWindow) : EPOCH;
+    }
+
+    private void lockRestore() {
+        try {
+            jdbcTemplate.update("insert into order_stats_by_instance " +
+                            "(instance_id, stat_key, orders, units, revenue_cents, confirmed, cancelled) " +
+                            "values (?, ?, 0, 0, 0, 0, 0)",
+                    RESTORE_LOCK_INSTANCE, RESTORE_LOCK);
+        } catch (DuplicateKeyException e) {
+            // ya existe
+        }
+        jdbcTemplate.queryForList("select stat_key from order_stats_by_instance " +
+                        "where instance_id = ? and stat_key = ? for update",
+                String.class, RESTORE_LOCK_INSTANCE, RESTORE_LOCK);
+    }
+
+    private void restoreRow(OrderStatsCheckpoint row) {
+        String key = row.getStatKey();
+        if (key.equals(LAST_ORDER_ID)) {
+            lastOrderId.accumulateAndGet(row.getOrders(), Math::max);
+        } else if (key.startsWith(PRODUCT)) {
+            product(Integer.valueOf(key.substring(PRODUCT.length()))).add(row);
+        } else if (key.startsWith(HOUR)) {
+            hours.computeIfAbsent(Long.valueOf(key.substring(HOUR.length())), k -> new Counters()).add(row);
+        } else if (key.startsWith(CHANNEL)) {
+            channel(OrderChannel.valueOf(key.substring(CHANNEL.length()))).add(row);
+        }
+    }
+
+    private void refreshOthers() {
+        Map<String, Counters> summed = new HashMap<>();
+        long maxOrderId = 0;
+        for (OrderStatsCheckpoint row : orderStatsRepository.findAllByInstanceIdNot(instanceId)) {
+            if (row.getStatKey().equals(LAST_ORDER_ID)) {
+                maxOrderId = Math.max(maxOrderId, row.getOrders());
+            } else if (!row.getStatKey().startsWith(META)) {
+                summed.computeIfAbsent(row.getStatKey(), k -> new Counters()).add(row);
+            }
+        }
+        others = summed;
+        othersLastOrderId = maxOrderId;
+    }
+
+    private int catchUp(LocalDateTime since) {
+        long after = 0;
+        int caughtUp = 0;
+        while (true) {
+            List<Long> ids = orderRepository.findIdsCreatedSince(since, after, PageRequest.of(0, CATCH_UP_PAGE));
+            if (ids.isEmpty()) {
+                return caughtUp;
+            }
+            List<Long> missing = ids.stream()
+                    .filter(id -> !counted.containsKey(id))
+                    .collect(Collectors.toList());
+            if (!missing.isEmpty()) {
+                for (Order order : orderRepository.findAllWithItemsByIdIn(missing)) {
+                    if (recordCreated(order)) {
+                        caughtUp++;
+                    }
+                }
+            }
+            after = ids.get(ids.size() - 1);
+        }
+    }
+
+    // ==========================
+    // 🔁 HELPERS
+    // ==========================
+
+    private static LocalDateTime checkpointAt(List<OrderStatsCheckpoint> rows) {
+        return rows.stream()
+                .filter(row -> CHECKPOINT_AT.equals(row.getStatKey()))
+                .map(row -> LocalDateTime.ofInstant(Instant.ofEpochMilli(row.getOrders()), ZoneOffset.UTC))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static OrderStatus previousStatus(OrderStatusChangedEvent event, Long orderId) {
+        return event.getPreviousStatuses() != null ? event.getPreviousStatuses().get(orderId) : null;
+    }
+
+    // Contadores propios más los de las demás instancias con el mismo prefijo
+    private static <K> Map<K, Counters> withOthers(Map<K, Counters> own, Map<String, Counters> others,
+                                                   String prefix, Function<String, K> parseKey) {
+        Map<K, Counters> merged = new HashMap<>();
+        own.forEach((key, c) -> merged.computeIfAbsent(key, k -> new Counters()).add(c));
+        others.forEach((key, c) -> {
+            if (key.startsWith(prefix)) {
+                merged.computeIfAbsent(parseKey.apply(key.substring(prefix.length())), k -> new Counters()).add(c);
+            }
+        });
+        return merged;
+    }
+
+    private Counters product(Integer productId) {
+        return products.computeIfAbsent(productId, k -> new Counters());
+    }
+
+    private Counters hour(LocalDateTime createdAt) {
+        long hour = createdAt != null
+                ? createdAt.toEpochSecond(ZoneOffset.UTC) / 3600
+                : currentHour();
+        return hours.computeIfAbsent(hour, k -> new Counters());
+    }
+
+    private Counters channel(OrderChannel channel) {
+        return channels.computeIfAbsent(channel != null ? channel : OrderChannel.WEB, k -> new Counters());
+    }
+
+    private static long currentHour() {
+        return LocalDateTime.now().toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+
+    private static LocalDateTime toDateTime(long epochHour) {
+        return LocalDateTime.ofEpochSecond(epochHour * 3600, 0, ZoneOffset.UTC);
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static long lineCents(OrderItem item) {
+        return cents(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+    }
+
+    private static class Counters {
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder units = new LongAdder();
+        private final LongAdder revenueCents = new LongAdder();
+        private final LongAdder confirmed = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+
+        void add(OrderStatsCheckpoint row) {
+            orders.add(row.getOrders());
+            units.add(row.getUnits());
+            revenueCents.add(row.getRevenueCents());
+            confirmed.add(row.getConfirmed());
+            cancelled.add(row.getCancelled());
+        }
+
+        void add(Counters other) {
+            orders.add(other.orders.sum());
+            units.add(other.units.sum());
+            revenueCents.add(other.revenueCents.sum());
+            confirmed.add(other.confirmed.sum());
+            cancelled.add(other.cancelled.sum());
+        }
+
+        Object[] toRow(String instanceId, String key) {
+            return new Object[]{instanceId, key, orders.sum(), units.sum(), revenueCents.sum(),
+                    confirmed.sum(), cancelled.sum()};
+        }
+
+        OrderStatsDto.Counters toDto(String key, LocalDateTime hour) {
+            return OrderStatsDto.Counters.builder()
+                    .key(key)
+                    .hour(hour)
+                    .orders(orders.sum())
+                    .units(units.sum())
+                    .revenue(BigDecimal.valueOf(revenueCents.sum(), 2))
+                    .confirmed(confirmed.sum())
+                    .cancelled(cancelled.sum())
+                    .build();
+        }
+    }
+}
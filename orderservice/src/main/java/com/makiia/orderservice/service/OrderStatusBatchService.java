@@ -0,0 +1,178 @@
+package com.makiia.orderservice.service;
+
+import com.makiia.orderservice.dto.OrderStatusDto;
+import com.makiia.orderservice.dto.OrderStatusUpdateDto;
+import com.makiia.orderservice.dto.OrderStatusUpdateResultDto;
+import com.makiia.orderservice.entity.Order;
+import com.makiia.orderservice.entity.OrderStatus;
+import com.makiia.orderservice.event.OrderStatusChangedEvent;
+import com.makiia.orderservice.repository.ArchivedOrderRepository;
+import com.makiia.orderservice.repository.OrderRepository;
+import com.makiia.orderservice.repository.OrderStatusView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cambios de estado en lote (callbacks de pagos). Por cada bloque y shard: un select
+ * de los estados actuales (con las filas bloqueadas) y un update condicional por estado
+ * destino, en una sola transacción. Si el mismo id viene repetido, gana el último.
+ * Cada shard abre su propia transacción, lo que requiere spring.jpa.open-in-view=false
+ * (con un EntityManager por request todos los shards usarían la conexión del primero).
+ */
+@Service
+public class OrderStatusBatchService {
+
+    private static final Set<OrderStatus> ALLOWED = Set.of(OrderStatus.CONFIRMED, OrderStatus.CANCELLED);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+    private final int chunkSize;
+    private final int maxUpdates;
+
+    public OrderStatusBatchService(OrderRepository orderRepository,
+                                   ArchivedOrderRepository archivedOrderRepository,
+                                   ApplicationEventPublisher eventPublisher,
+                                   ShardRouter shardRouter,
+                                   @Value("${orders.status-batch.chunk-size:500}") int chunkSize,
+                                   @Value("${orders.status-batch.max-updates:10000}") int maxUpdates) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.eventPublisher = eventPublisher;
+        this.shardRouter = shardRouter;
+        this.chunkSize = chunkSize;
+        this.maxUpdates = maxUpdates;
+    }
+
+    public List<OrderStatusUpdateResultDto> updateStatuses(List<OrderStatusUpdateDto> updates) {
+        if (updates == null || updates.isEmpty()) {
+            return List.of();
+        }
+        if (updates.size() > maxUpdates) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Máximo " + maxUpdates + " cambios por lote");
+        }
+
+        Map<Long, OrderStatusUpdateResultDto> results = new LinkedHashMap<>();
+        Map<Long, OrderStatus> targets = new LinkedHashMap<>();
+
+        for (OrderStatusUpdateDto update : updates) {
+            if (update.getOrderId() == null) {
+                continue;
+            }
+            if (update.getStatus() == null || !ALLOWED.contains(update.getStatus())) {
+                targets.remove(update.getOrderId());
+                results.put(update.getOrderId(), result(update.getOrderId(), OrderStatusUpdateResultDto.INVALID, null));
+            } else {
+                targets.put(update.getOrderId(), update.getStatus());
+                results.put(update.getOrderId(), result(update.getOrderId(), OrderStatusUpdateResultDto.NOT_FOUND, null));
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(targets.keySet());
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            // Cada shard aplica lo suyo; las órdenes que no tiene quedan NOT_FOUND
+            shardRouter.shards().forEach(shard ->
+                    shardRouter.inTransaction(shard, () -> applyChunk(chunk, targets, results)));
+        }
+
+        return new ArrayList<>(results.values());
+    }
+
+    // 📌 Estado actual de varias órdenes (activas o archivadas); las que no existen no vienen
+    public List<OrderStatusDto> lookup(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        if (ids.size() > maxUpdates) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Máximo " + maxUpdates + " órdenes por consulta");
+        }
+
+        List<OrderStatusView> found = shardRouter.onAllShards(() -> orderRepository.findStatusesByIdIn(ids))
+                .stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+
+        Set<Long> foundIds = found.stream().map(OrderStatusView::getId).collect(Collectors.toSet());
+        List<Long> missing = ids.stream().filter(id -> !foundIds.contains(id)).collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            shardRouter.onAllShards(() -> archivedOrderRepository.findStatusesByIdIn(missing))
+                    .forEach(found::addAll);
+        }
+
+        return found.stream()
+                .map(view -> new OrderStatusDto(view.getId(), view.getStatus().name()))
+                .collect(Collectors.toList());
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private Void applyChunk(List<Long> chunk,
+                            Map<Long, OrderStatus> targets,
+                            Map<Long, OrderStatusUpdateResultDto> results) {
+
+        List<Order> current = orderRepository.findAllForUpdateByIdIn(chunk);
+        if (current.isEmpty()) {
+            return null;
+        }
+
+        Map<OrderStatus, List<Long>> toChange = new EnumMap<>(OrderStatus.class);
+        Map<Long, Long> customerIds = new HashMap<>();
+        Map<Long, OrderStatus> previousStatuses = new HashMap<>();
+        for (Order order : current) {
+            customerIds.put(order.getId(), order.getCustomerId());
+            previousStatuses.put(order.getId(), order.getStatus());
+            OrderStatus target = targets.get(order.getId());
+            if (order.getStatus() == target) {
+                results.put(order.getId(), result(order.getId(), OrderStatusUpdateResultDto.UNCHANGED, target));
+            } else {
+                toChange.computeIfAbsent(target, s -> new ArrayList<>()).add(order.getId());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        toChange.forEach((status, changeIds) -> {
+            int updated = orderRepository.updateStatusWhereDifferent(changeIds, status);
+            if (updated != changeIds.size()) {
+                // Con las filas bloqueadas no debería pasar; se revierte el shard y el outbox reintenta
+                throw new IllegalStateException("Cambio de estado incompleto: " + updated + " de "
+                        + changeIds.size() + " órdenes a " + status);
+            }
+            changeIds.forEach(id -> results.put(id, result(id, OrderStatusUpdateResultDto.UPDATED, status)));
+            Map<Long, Long> changedCustomers = new HashMap<>();
+            Map<Long, OrderStatus> changedFrom = new HashMap<>();
+            changeIds.forEach(id -> {
+                changedCustomers.put(id, customerIds.get(id));
+                changedFrom.put(id, previousStatuses.get(id));
+            });
+            eventPublisher.publishEvent(
+                    new OrderStatusChangedEvent(changeIds, status, now, changedCustomers, changedFrom));
+        });
+        return null;
+    }
+
+    private OrderStatusUpdateResultDto result(Long orderId, String outcome, OrderStatus status) {
+        return OrderStatusUpdateResultDto.builder()
+                .orderId(orderId)
+                .outcome(outcome)
+                .status(status != null ? status.name() : null)
+                .build();
+    }
+}
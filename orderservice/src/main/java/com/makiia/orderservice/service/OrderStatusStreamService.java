@@ -0,0 +1,140 @@
+package com.makiia.orderservice.service;
+
+import com.makiia.orderservice.config.OrderStatusStreamProperties;
+import com.makiia.orderservice.dto.OrderStatusEventDto;
+import com.makiia.orderservice.event.OrderStatusChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stream interno de cambios de estado (SSE) para los gateways: cada gateway abre una
+ * sola conexión por instancia de orderservice y reparte los eventos a sus clientes.
+ * Los eventos salen después del commit, desde un hilo propio (un gateway lento no
+ * frena la transacción que confirmó la orden). Cada conexión empieza con el comentario
+ * "ready": el gateway sabe así que el stream quedó abierto y, si fue una reconexión,
+ * avisa a sus clientes que pudieron perderse cambios.
+ */
+@Service
+public class OrderStatusStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusStreamService.class);
+
+    private final OrderStatusStreamProperties properties;
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private BlockingQueue<OrderStatusEventDto> queue;
+    private Thread sender;
+    private volatile boolean running;
+
+    public OrderStatusStreamService(OrderStatusStreamProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new LinkedBlockingQueue<>(properties.getQueueCapacity());
+        running = true;
+        sender = new Thread(this::sendLoop, "order-status-stream");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        sender.interrupt();
+        subscribers.forEach(SseEmitter::complete);
+    }
+
+    // 📌 Nueva conexión de un gateway
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Demasiados suscriptores al stream de estados");
+        }
+        SseEmitter emitter = new SseEmitter(properties.getTimeoutMs());
+        subscribers.add(emitter);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        send(emitter, SseEmitter.event().comment("ready"));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (Long orderId : event.getOrderIds()) {
+            OrderStatusEventDto dto = OrderStatusEventDto.builder()
+                    .orderId(orderId)
+                    .customerId(event.getCustomerIds() != null ? event.getCustomerIds().get(orderId) : null)
+                    .status(event.getStatus().name())
+                    .changedAt(event.getChangedAt())
+                    .build();
+            if (!queue.offer(dto)) {
+                // El cliente igual ve el estado al recargar; no se frena el commit
+                if (dropped.incrementAndGet() % 1000 == 1) {
+                    log.warn("Stream de estados: cola llena, {} eventos descartados", dropped.get());
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.status-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (SseEmitter emitter : subscribers) {
+            send(emitter, SseEmitter.event().comment("ping"));
+        }
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private void sendLoop() {
+        List<OrderStatusEventDto> batch = new ArrayList<>();
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, 499);
+            for (SseEmitter emitter : subscribers) {
+                for (OrderStatusEventDto dto : batch) {
+                    if (!send(emitter, SseEmitter.event().name("order-status").data(dto))) {
+                        break;
+                    }
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(emitter);
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.makiia.orderservice.service;
+
+import com.makiia.orderservice.entity.Order;
+import com.makiia.orderservice.entity.OrderSummary;
+import com.makiia.orderservice.event.OrderStatusChangedEvent;
+import com.makiia.orderservice.event.OrdersCreatedEvent;
+import com.makiia.orderservice.repository.OrderSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Mantiene order_summaries a partir de los eventos de escritura de órdenes.
+ * Corre después del commit y en un hilo propio: la escritura del checkout no comparte
+ * locks con la proyección y una falla de la proyección no afecta la respuesta (se
+ * registra y la fila se corrige en la próxima resincronización). Todas las tareas pasan
+ * por la cola de un solo hilo, que mantiene el orden entre alta y cambios de estado.
+ * Con la cola llena el publicador espera hasta enqueue-timeout-ms; si no hay lugar la
+ * tarea se descarta y se programa la resincronización (backfill + estados).
+ */
+@Component
+public class OrderSummaryProjector {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderSummaryProjector.class);
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final ShardRouter shardRouter;
+    private final ThreadPoolExecutor executor;
+    private final AtomicBoolean resyncPending = new AtomicBoolean();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OrderSummaryProjector(OrderSummaryRepository orderSummaryRepository,
+                                 ShardRouter shardRouter,
+                                 @Value("${orders.summary-projector.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${orders.summary-projector.enqueue-timeout-ms:2000}") long enqueueTimeoutMillis) {
+        this.orderSummaryRepository = orderSummaryRepository;
+        this.shardRouter = shardRouter;
+        // Cola llena: espera acotada del publicador y, si no alcanza, descarte + resincronización
+        // (nunca se proyecta en el hilo del AFTER_COMMIT)
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "order-summary-projector");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> enqueueOrDrop(task, pool, enqueueTimeoutMillis));
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCreated(OrdersCreatedEvent event) {
+        Map<String, List<Order>> byShard = event.getOrders()
+                .stream()
+                .collect(Collectors.groupingBy(o -> shardRouter.shardFor(o.getCustomerId()),
+                        LinkedHashMap::new, Collectors.toList()));
+        byShard.forEach((shard, orders) -> executor.execute(() -> project(shard, orders)));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        Map<String, List<Long>> byShard = new LinkedHashMap<>();
+        for (Long orderId : event.getOrderIds()) {
+            Long customerId = event.getCustomerIds() != null ? event.getCustomerIds().get(orderId) : null;
+            String shard = customerId != null ? shardRouter.shardFor(customerId) : null;
+            byShard.computeIfAbsent(shard, k -> new ArrayList<>()).add(orderId);
+        }
+        byShard.forEach((shard, ids) -> executor.execute(() -> updateStatus(shard, ids, event)));
+    }
+
+    // 📌 Completa la proyección para órdenes creadas antes de que existiera
+    // (la fila queda en el shard de la orden)
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int inserted = shardRouter.onAllShards(orderSummaryRepository::backfillMissing)
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+        if (inserted > 0) {
+            log.info("Proyección order_summaries: {} órdenes agregadas", inserted);
+        }
+    }
+
+    // 📌 Corrige lo que quedó afuera por tareas descartadas (altas y cambios de estado)
+    @Scheduled(fixedDelayString = "${orders.summary-projector.resync-interval-ms:60000}")
+    public void resyncIfDropped() {
+        if (!resyncPending.getAndSet(false)) {
+            return;
+        }
+        try {
+            backfill();
+            int updated = shardRouter.onAllShards(() -> orderSummaryRepository.resyncStatus(LocalDateTime.now()))
+                    .stream()
+                    .mapToInt(Integer::intValue)
+                    .sum();
+            log.info("Proyección order_summaries: {} estados resincronizados", updated);
+        } catch (RuntimeException e) {
+            resyncPending.set(true);
+            log.error("Proyección order_summaries: falló la resincronización", e);
+        }
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private void enqueueOrDrop(Runnable task, ThreadPoolExecutor pool, long timeoutMillis) {
+        if (pool.isShutdown()) {
+            return;
+        }
+        try {
+            if (pool.getQueue().offer(task, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!resyncPending.getAndSet(true)) {
+            log.warn("Proyección order_summaries: cola llena, se descartan tareas hasta la próxima resincronización");
+        }
+    }
+
+    private void project(String shard, List<Order> orders) {
+        try {
+            shardRouter.inNewTransaction(shard, () -> {
+                for (Order order : orders) {
+                    // persist directo: el id es el de la orden, evita el select previo de merge
+                    entityManager.persist(OrderSummary.builder()
+                            .orderId(order.getId())
+                            .customerId(order.getCustomerId())
+                            .itemCount(order.getItems() != null ? order.getItems().size() : 0)
+                            .total(order.getTotal())
+                            .status(order.getStatus())
+                            .channel(order.getChannel())
+                            .createdAt(order.getCreatedAt())
+                            .updatedAt(order.getCreatedAt())
+                            .build());
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // Alguna fila ya existía (o el lote falló): se insertan sólo las que faltan
+            List<Long> ids = orders.stream().map(Order::getId).collect(Collectors.toList());
+            try {
+                shardRouter.inNewTransaction(shard, () -> orderSummaryRepository.insertMissing(ids, LocalDateTime.now()));
+            } catch (RuntimeException retry) {
+                log.error("Proyección order_summaries: no se pudieron proyectar las órdenes {}", ids, retry);
+            }
+        }
+    }
+
+    private void updateStatus(String shard, List<Long> ids, OrderStatusChangedEvent event) {
+        try {
+            // Sin customerId no se sabe el shard: se intenta en todos
+            List<String> shards = shard != null ? List.of(shard) : shardRouter.shards();
+            for (String target : shards) {
+                shardRouter.inNewTransaction(target, () -> {
+                    int updated = orderSummaryRepository.updateStatus(ids, event.getStatus(), event.getChangedAt());
+                    if (updated < ids.size()) {
+                        // Alguna orden aún no tenía proyección: sólo esas filas, con el estado ya guardado
+                        orderSummaryRepository.insertMissing(ids, event.getChangedAt());
+                    }
+                    return null;
+                });
+            }
+        } catch (RuntimeException e) {
+            log.error("Proyección order_summaries: no se pudo actualizar el estado de las órdenes {}", ids, e);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.makiia.orderservice.service;
+
+import com.makiia.orderservice.config.ConsistentHashRing;
+import com.makiia.orderservice.config.ShardRoutingDataSource;
+import com.makiia.orderservice.dto.ShardRebalanceReportDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Mueve las órdenes de los clientes que, con la lista actual de shards, tienen otro
+ * dueño en el anillo (por ejemplo después de agregar un shard). Copia orders,
+ * order_items y order_summaries al destino conservando el id de la orden y luego los
+ * borra del origen, por bloques y con una pausa entre bloques; cada bloque queda
+ * bloqueado en el origen mientras se copia. Es re-ejecutable:
+ * lo ya copiado no se vuelve a insertar.
+ */
+@Service
+public class ShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private static final int CUSTOMER_PAGE = 500;
+    private static final int MAX_REPORTED_MOVES = 1000;
+
+    private final ShardRoutingDataSource routingDataSource;
+    private final ShardRouter shardRouter;
+    private final int chunkSize;
+    private final long pauseMillis;
+
+    public ShardRebalancer(ObjectProvider<ShardRoutingDataSource> routingDataSource,
+                           ShardRouter shardRouter,
+                           @Value("${orders.sharding.rebalance.chunk-size:200}") int chunkSize,
+                           @Value("${orders.sharding.rebalance.pause-ms:50}") long pauseMillis) {
+        this.routingDataSource = routingDataSource.getIfAvailable();
+        this.shardRouter = shardRouter;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    // 📌 Órdenes por shard
+    public Map<String, Long> countOrders() {
+        requireSharding();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        routingDataSource.getShards().forEach((name, ds) ->
+                counts.put(name, new JdbcTemplate(ds).queryForObject("select count(*) from orders", Long.class)));
+        return counts;
+    }
+
+    public ShardRebalanceReportDto rebalance(boolean dryRun) throws InterruptedException {
+        requireSharding();
+
+        ConsistentHashRing ring = shardRouter.ring();
+        Map<String, Long> before = countOrders();
+        List<ShardRebalanceReportDto.Move> moves = new ArrayList<>();
+        long customersMoved = 0;
+        long ordersMoved = 0;
+
+        for (Map.Entry<String, DataSource> source : routingDataSource.getShards().entrySet()) {
+            JdbcTemplate sourceJdbc = new JdbcTemplate(source.getValue());
+            long lastCustomer = Long.MIN_VALUE;
+
+            while (true) {
+                List<Long> customers = sourceJdbc.queryForList(
+                        "select distinct customer_id from orders where customer_id > ? order by customer_id limit ?",
+                        Long.class, lastCustomer, CUSTOMER_PAGE);
+                if (customers.isEmpty()) {
+                    break;
+                }
+                lastCustomer = customers.get(customers.size() - 1);
+
+                for (Long customerId : customers) {
+                    String target = ring.nodeFor(customerId);
+                    if (target.equals(source.getKey())) {
+                        continue;
+                    }
+                    long moved = dryRun
+                            ? sourceJdbc.queryForObject(
+                                    "select count(*) from orders where customer_id = ?", Long.class, customerId)
+                            : moveCustomer(customerId, source.getValue(), routingDataSource.getShards().get(target));
+
+                    customersMoved++;
+                    ordersMoved += moved;
+                    if (moves.size() < MAX_REPORTED_MOVES) {
+                        moves.add(new ShardRebalanceReportDto.Move(customerId, source.getKey(), target, moved));
+                    }
+                }
+            }
+        }
+
+        log.info("Rebalanceo de shards (dryRun={}): {} clientes, {} órdenes", dryRun, customersMoved, ordersMoved);
+
+        return ShardRebalanceReportDto.builder()
+                .dryRun(dryRun)
+                .ordersPerShard(before)
+                .customersMoved(customersMoved)
+                .ordersMoved(ordersMoved)
+                .moves(moves)
+                .build();
+    }
+
+    private long moveCustomer(Long customerId, DataSource source, DataSource target) throws InterruptedException {
+        JdbcTemplate sourceJdbc = new JdbcTemplate(source);
+        JdbcTemplate targetJdbc = new JdbcTemplate(target);
+        TransactionTemplate sourceTx = new TransactionTemplate(new DataSourceTransactionManager(source));
+        TransactionTemplate targetTx = new TransactionTemplate(new DataSourceTransactionManager(target));
+
+        List<Long> orderIds = sourceJdbc.queryForList(
+                "select id from orders where customer_id = ? order by id", Long.class, customerId);
+
+        for (int from = 0; from < orderIds.size(); from += chunkSize) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + chunkSize, orderIds.size()));
+            String in = placeholders(chunk.size());
+            Object[] ids = chunk.toArray();
+
+            // Las filas del origen quedan bloqueadas (for update) desde la lectura hasta el borrado:
+            // un updateStatus concurrente espera y, al liberarse, ya no encuentra la fila (falla y
+            // se reintenta contra el destino) en vez de perderse entre la copia y el borrado
+            sourceTx.executeWithoutResult(sourceStatus -> {
+                List<Map<String, Object>> orders = sourceJdbc.queryForList(
+                        "select * from orders where id in (" + in + ") for update", ids);
+                List<Map<String, Object>> items = sourceJdbc.queryForList(
+                        "select * from order_items where order_id in (" + in + ") for update", ids);
+                List<Map<String, Object>> summaries = sourceJdbc.queryForList(
+                        "select * from order_summaries where order_id in (" + in + ") for update", ids);
+
+                // 1) Copiar (se omite lo que ya esté en el destino por una corrida anterior)
+                targetTx.executeWithoutResult(status -> {
+                    Set<Long> existing = new HashSet<>(targetJdbc.queryForList(
+                            "select id from orders where id in (" + in + ")", Long.class, ids));
+                    for (Map<String, Object> order : orders) {
+                        if (!existing.contains(((Number) order.get("id")).longValue())) {
+                            insert(targetJdbc, "orders", order, Collections.emptySet());
+                        }
+                    }
+                    for (Map<String, Object> item : items) {
+                        if (!existing.contains(((Number) item.get("order_id")).longValue())) {
+                            // el id del item lo asigna el destino
+                            insert(targetJdbc, "order_items", item, Set.of("id"));
+                        }
+                    }
+                    Set<Long> existingSummaries = new HashSet<>(targetJdbc.queryForList(
+                            "select order_id from order_summaries where order_id in (" + in + ")", Long.class, ids));
+                    for (Map<String, Object> summary : summaries) {
+                        if (!existingSummaries.contains(((Number) summary.get("order_id")).longValue())) {
+                            insert(targetJdbc, "order_summaries", summary, Collections.emptySet());
+                        }
+                    }
+                });
+
+                // 2) Borrar del origen (en la misma transacción que tomó los bloqueos)
+                sourceJdbc.update("delete from order_items where order_id in (" + in + ")", ids);
+                sourceJdbc.update("delete from order_summaries where order_id in (" + in + ")", ids);
+                sourceJdbc.update("delete from orders where id in (" + in + ")", ids);
+            });
+
+            Thread.sleep(pauseMillis);
+        }
+
+        return orderIds.size();
+    }
+
+    private void insert(JdbcTemplate jdbc, String table, Map<String, Object> row, Set<String> skip) {
+        // queryForList devuelve mapas sin distinción de mayúsculas (H2 usa ID, MySQL id)
+        List<String> columns = row.keySet()
+                .stream()
+                .filter(c -> !skip.contains(c.toLowerCase()))
+                .collect(Collectors.toList());
+        String sql = "insert into " + table + " (" + String.join(", ", columns) + ") values (" +
+                placeholders(columns.size()) + ")";
+        jdbc.update(sql, columns.stream().map(row::get).toArray());
+    }
+
+    private String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private void requireSharding() {
+        if (routingDataSource == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "orders.sharding.enabled=false");
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.makiia.orderservice.service;
+
+import com.makiia.orderservice.config.ConsistentHashRing;
+import com.makiia.orderservice.config.ShardContext;
+import com.makiia.orderservice.config.ShardRoutingDataSource;
+import com.makiia.orderservice.config.ShardingProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Punto único para decidir en qué shard corre cada operación de órdenes.
+ * Sin orders.sharding.enabled hay un solo shard ("default") y todo corre en el hilo actual,
+ * así que los servicios usan el mismo código en ambos modos.
+ */
+@Component
+public class ShardRouter {
+
+    public static final String DEFAULT_SHARD = "default";
+
+    private final ShardRoutingDataSource routingDataSource;
+    private final ConsistentHashRing ring;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final ExecutorService executor;
+
+    public ShardRouter(ObjectProvider<ShardRoutingDataSource> routingDataSource,
+                       ShardingProperties properties,
+                       PlatformTransactionManager transactionManager) {
+        this.routingDataSource = routingDataSource.getIfAvailable();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        if (this.routingDataSource != null) {
+            List<String> shards = new ArrayList<>(this.routingDataSource.getShards().keySet());
+            this.ring = new ConsistentHashRing(shards, properties.getVirtualNodes());
+            this.executor = Executors.newFixedThreadPool(shards.size() * 2, r -> {
+                Thread thread = new Thread(r, "order-shards");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.ring = null;
+            this.executor = null;
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    public boolean isEnabled() {
+        return routingDataSource != null;
+    }
+
+    public List<String> shards() {
+        return isEnabled()
+                ? new ArrayList<>(routingDataSource.getShards().keySet())
+                : List.of(DEFAULT_SHARD);
+    }
+
+    public ConsistentHashRing ring() {
+        return ring;
+    }
+
+    // 📌 Shard dueño de un cliente
+    public String shardFor(Long customerId) {
+        return isEnabled() ? ring.nodeFor(customerId) : DEFAULT_SHARD;
+    }
+
+    public String currentShard() {
+        if (!isEnabled()) {
+            return DEFAULT_SHARD;
+        }
+        String current = ShardContext.current();
+        return current != null ? current : routingDataSource.getDefaultShard();
+    }
+
+    // 📌 Ejecutar en un shard (las transacciones que se abran adentro usan ese shard)
+    public <T> T onShard(String shard, Supplier<T> action) {
+        return isEnabled() ? ShardContext.call(shard, action) : action.get();
+    }
+
+    public <T> T onCustomerShard(Long customerId, Supplier<T> action) {
+        return onShard(shardFor(customerId), action);
+    }
+
+    // 📌 Ejecutar en una transacción sobre un shard
+    public <T> T inTransaction(String shard, Supplier<T> action) {
+        return onShard(shard, () -> transactionTemplate.execute(status -> action.get()));
+    }
+
+    // 📌 Igual, pero siempre en una transacción propia (p. ej. desde un AFTER_COMMIT, donde
+    // la transacción del hilo ya confirmó y sigue ligada a la conexión de otro shard)
+    public <T> T inNewTransaction(String shard, Supplier<T> action) {
+        return onShard(shard, () -> newTransactionTemplate.execute(status -> action.get()));
+    }
+
+    // 📌 Scatter/gather: la misma acción en todos los shards en paralelo
+    public <T> List<T> onAllShards(Supplier<T> action) {
+        if (!isEnabled()) {
+            return List.of(action.get());
+        }
+
+        List<CompletableFuture<T>> futures = shards()
+                .stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> ShardContext.call(shard, action), executor))
+                .collect(Collectors.toList());
+
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    // 📌 Primer resultado encontrado en cualquier shard (búsquedas por id de orden)
+    public <T> Optional<T> findFirst(Supplier<Optional<T>> action) {
+        return onAllShards(action)
+                .stream()
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .findFirst();
+    }
+
+    // 📌 Shard donde existe una orden
+    public Optional<String> locate(Supplier<Boolean> exists) {
+        if (!isEnabled()) {
+            return Optional.of(DEFAULT_SHARD);
+        }
+        return findFirst(() -> Boolean.TRUE.equals(exists.get())
+                ? Optional.of(currentShard())
+                : Optional.empty());
+    }
+}
@@ -0,0 +1,142 @@
+package com.makiia.orderservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardRoutingTests {
+
+    @Test
+    void ringSpreadsCustomersAndMovesFewOnNewShard() {
+        ConsistentHashRing three = new ConsistentHashRing(List.of("shard0", "shard1", "shard2"), 128);
+        ConsistentHashRing four = new ConsistentHashRing(List.of("shard0", "shard1", "shard2", "shard3"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        int moved = 0;
+        int customers = 30_000;
+        for (long customerId = 1; customerId <= customers; customerId++) {
+            String before = three.nodeFor(customerId);
+            String after = four.nodeFor(customerId);
+            counts.merge(before, 1, Integer::sum);
+            if (!before.equals(after)) {
+                moved++;
+                // Solo se mueven clientes hacia el shard nuevo
+                assertThat(after).isEqualTo("shard3");
+            }
+        }
+
+        assertThat(counts.values()).allSatisfy(c -> assertThat(c).isBetween(customers / 5, customers / 2));
+        assertThat(moved).isBetween(customers / 8, customers * 2 / 5);
+        assertThat(three.nodeFor(42L)).isEqualTo(new ConsistentHashRing(List.of("shard0", "shard1", "shard2"), 128).nodeFor(42L));
+    }
+
+    @Test
+    void writesGoToTheCustomerShardOnly() {
+        LinkedHashMap<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put("shard0", h2("shardtest0"));
+        shards.put("shard1", h2("shardtest1"));
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shards);
+        routing.afterPropertiesSet();
+
+        shards.values().forEach(ds -> new JdbcTemplate(ds)
+                .execute("create table orders (id bigint primary key, customer_id bigint not null)"));
+
+        ConsistentHashRing ring = new ConsistentHashRing(shards.keySet(), 128);
+        JdbcTemplate jdbc = new JdbcTemplate(routing);
+        Map<String, Integer> expected = new HashMap<>();
+
+        for (long customerId = 1; customerId <= 200; customerId++) {
+            long id = customerId;
+            String shard = ring.nodeFor(customerId);
+            expected.merge(shard, 1, Integer::sum);
+            ShardContext.call(shard, () ->
+                    jdbc.update("insert into orders (id, customer_id) values (?, ?)", id, id));
+        }
+
+        shards.forEach((name, ds) -> assertThat(
+                new JdbcTemplate(ds).queryForObject("select count(*) from orders", Integer.class))
+                .isEqualTo(expected.get(name)));
+
+        // Sin shard en el contexto se usa el primero
+        assertThat(ShardContext.current()).isNull();
+        assertThat(jdbc.queryForObject("select count(*) from orders", Integer.class))
+                .isEqualTo(expected.get("shard0"));
+    }
+
+    @Test
+    void requestScopedEntityManagerStaysOnTheFirstShard() {
+        LinkedHashMap<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put("shard0", h2("shardem0"));
+        shards.put("shard1", h2("shardem1"));
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shards);
+        routing.afterPropertiesSet();
+
+        shards.values().forEach(ds -> new JdbcTemplate(ds)
+                .execute("create table orders (id bigint primary key, customer_id bigint not null)"));
+        new JdbcTemplate(shards.get("shard0")).update("insert into orders values (1, 1)");
+        new JdbcTemplate(shards.get("shard1")).batchUpdate(
+                "insert into orders values (2, 2)", "insert into orders values (3, 3)");
+
+        EntityManagerFactory emf = entityManagerFactory(routing);
+        try {
+            // Como open-in-view: un solo EntityManager para todo el request
+            EntityManager requestScoped = emf.createEntityManager();
+            try {
+                assertThat(ShardContext.call("shard0", () -> countOrders(requestScoped))).isEqualTo(1);
+                // La conexión del primer shard sigue tomada: el segundo shard no se consulta
+                assertThat(ShardContext.call("shard1", () -> countOrders(requestScoped))).isEqualTo(1);
+            } finally {
+                requestScoped.close();
+            }
+
+            // Con open-in-view desactivado cada operación abre su EntityManager dentro del shard
+            assertThat(ShardContext.call("shard0", () -> countOrders(emf))).isEqualTo(1);
+            assertThat(ShardContext.call("shard1", () -> countOrders(emf))).isEqualTo(2);
+        } finally {
+            emf.close();
+        }
+    }
+
+    private EntityManagerFactory entityManagerFactory(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        // Sin entidades: solo consultas nativas
+        factory.setPackagesToScan(ShardRoutingTests.class.getPackageName());
+        factory.setPersistenceUnitName("shard-routing-test");
+        // Lo mismo que aplica Spring Boot: la conexión se toma al primer uso y se retiene hasta cerrar
+        factory.getJpaPropertyMap().put("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_HOLD");
+        factory.getJpaPropertyMap().put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        factory.afterPropertiesSet();
+        return factory.getObject();
+    }
+
+    private int countOrders(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return countOrders(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    private int countOrders(EntityManager em) {
+        return ((Number) em.createNativeQuery("select count(*) from orders").getSingleResult()).intValue();
+    }
+
+    private DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+    }
+}
@@ -0,0 +1,56 @@
+package com.makiia.orderservice.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.makiia.commons.smile.SmileConfig;
+import com.makiia.orderservice.dto.external.ProductDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SmileConfigTests {
+
+    private final MappingJackson2SmileHttpMessageConverter converter =
+            new SmileConfig().smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json());
+
+    @Test
+    void roundTripsProductBatchAndIsSmallerThanJson() throws Exception {
+        List<ProductDto> products = products(500);
+
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        converter.write(products, MediaType.valueOf(SmileConfig.APPLICATION_SMILE_VALUE), out);
+        assertThat(out.getHeaders().getContentType().toString()).isEqualTo(SmileConfig.APPLICATION_SMILE_VALUE);
+
+        MockHttpInputMessage in = new MockHttpInputMessage(out.getBodyAsBytes());
+        in.getHeaders().setContentType(MediaType.valueOf(SmileConfig.APPLICATION_SMILE_VALUE));
+        @SuppressWarnings("unchecked")
+        List<ProductDto> read = (List<ProductDto>) converter.read(
+                new TypeReference<List<ProductDto>>() { }.getType(), null, in);
+
+        assertThat(read).isEqualTo(products);
+        assertThat(out.getBodyAsBytes().length)
+                .isLessThan(Jackson2ObjectMapperBuilder.json().build().writeValueAsBytes(products).length);
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private List<ProductDto> products(int count) {
+        List<ProductDto> products = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            ProductDto product = new ProductDto();
+            product.setId(i);
+            product.setName("Producto de prueba " + i);
+            product.setPrice(new BigDecimal("1999.90").add(BigDecimal.valueOf(i)));
+            products.add(product);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,102 @@
+package com.makiia.orderservice.repository;
+
+import com.makiia.orderservice.entity.Order;
+import com.makiia.orderservice.entity.OrderChannel;
+import com.makiia.orderservice.entity.OrderItem;
+import com.makiia.orderservice.entity.OrderStatus;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderRepositoryTests {
+
+    // Evita cargar OrderserviceApplication (@EnableFeignClients) en el slice JPA
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findWithItemsByIdLoadsItemsInOneStatement() {
+        Long id = persistOrder(3);
+
+        statistics.clear();
+        Order order = orderRepository.findWithItemsById(id).orElseThrow();
+        int quantities = order.getItems().stream().mapToInt(OrderItem::getQuantity).sum();
+
+        assertThat(order.getItems()).hasSize(3);
+        assertThat(quantities).isEqualTo(6);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findAllWithItemsByIdInLoadsAllOrdersInOneStatement() {
+        List<Long> ids = List.of(persistOrder(2), persistOrder(1), persistOrder(4));
+
+        statistics.clear();
+        List<Order> orders = orderRepository.findAllWithItemsByIdIn(ids);
+        int items = orders.stream().mapToInt(o -> o.getItems().size()).sum();
+
+        assertThat(orders).hasSize(3);
+        assertThat(items).isEqualTo(7);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private Long persistOrder(int itemCount) {
+        Order order = new Order();
+        order.setCustomerId(1L);
+        order.setTotal(BigDecimal.TEN);
+        order.setStatus(OrderStatus.PENDING);
+        order.setChannel(OrderChannel.WEB);
+
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 1; i <= itemCount; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId(i);
+            item.setQuantity(i);
+            item.setPrice(BigDecimal.ONE);
+            item.setOrder(order);
+            items.add(item);
+        }
+        order.setItems(items);
+
+        Long id = entityManager.persistAndFlush(order).getId();
+        entityManager.clear();
+        return id;
+    }
+}
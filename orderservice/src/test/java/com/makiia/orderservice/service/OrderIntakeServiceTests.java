@@ -0,0 +1,298 @@
+package com.makiia.orderservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makiia.orderservice.client.ProductClient;
+import com.makiia.orderservice.config.OrderIdAllocator;
+import com.makiia.orderservice.config.OrderIntakeProperties;
+import com.makiia.orderservice.config.ShardRoutingDataSource;
+import com.makiia.orderservice.config.ShardSchemaInitializer;
+import com.makiia.orderservice.config.ShardingProperties;
+import com.makiia.orderservice.dto.CreateOrderDto;
+import com.makiia.orderservice.dto.OrderIntakeStatusDto;
+import com.makiia.orderservice.dto.OrderItemDto;
+import com.makiia.orderservice.dto.external.ProductDto;
+import com.makiia.orderservice.entity.Order;
+import com.makiia.orderservice.entity.OrderChannel;
+import com.makiia.orderservice.entity.OrderItem;
+import com.makiia.orderservice.entity.OrderStatus;
+import com.makiia.orderservice.repository.OrderRepository;
+import com.makiia.orderservice.repository.OrderSummaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Los shards usan sus propias transacciones: los datos se guardan fuera de la del test
+@DataJpaTest(properties = {"spring.cloud.config.enabled=false", "orders.sharding.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=create"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderIntakeServiceTests {
+
+    // Dos shards H2 (como ShardRoutingTests) con el esquema y los ids que se usan con sharding
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    @Import({ShardSchemaInitializer.class, OrderIdAllocator.class})
+    static class JpaConfig {
+
+        @Bean
+        @Primary
+        ShardRoutingDataSource shardRoutingDataSource() {
+            LinkedHashMap<String, DataSource> shards = new LinkedHashMap<>();
+            shards.put("shard0", new DriverManagerDataSource("jdbc:h2:mem:intake0;DB_CLOSE_DELAY=-1"));
+            shards.put("shard1", new DriverManagerDataSource("jdbc:h2:mem:intake1;DB_CLOSE_DELAY=-1"));
+            return new ShardRoutingDataSource(shards);
+        }
+
+        @Bean
+        ShardingProperties shardingProperties() {
+            return new ShardingProperties();
+        }
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private ShardRoutingDataSource routingDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @TempDir
+    Path dir;
+
+    private final AtomicInteger publishes = new AtomicInteger();
+    private volatile int failOnPublish = -1;
+
+    private ShardRouter shardRouter;
+    private OrderIntakeService service;
+
+    @BeforeEach
+    void setUp() {
+        shardRouter = new ShardRouter(
+                context.getBeanProvider(ShardRoutingDataSource.class), new ShardingProperties(), transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        stopService();
+        shardRouter.stop();
+        routingDataSource.getShards().values().forEach(ds -> {
+            JdbcTemplate jdbc = new JdbcTemplate(ds);
+            jdbc.update("delete from order_items");
+            jdbc.update("delete from orders");
+        });
+    }
+
+    @Test
+    void queuedOrderIsCreatedOnTheCustomerShardAndLeavesTheJournal() throws Exception {
+        service = start();
+
+        OrderIntakeStatusDto accepted = service.enqueue(order(7L));
+        assertThat(accepted.getState()).isEqualTo(OrderIntakeStatusDto.QUEUED);
+
+        OrderIntakeStatusDto status = awaitFinished(accepted.getReference());
+        assertThat(status.getState()).isEqualTo(OrderIntakeStatusDto.CREATED);
+        assertThat(status.getTotal()).isEqualByComparingTo("4");
+        assertThat(shardRouter.onCustomerShard(7L, () -> orderRepository.findById(status.getOrderId())))
+                .hasValueSatisfying(o -> assertThat(o.getIntakeReference()).isEqualTo(accepted.getReference()));
+
+        // Nada pendiente: el journal queda vacío
+        stopService();
+        assertThat(Files.size(journalPath())).isZero();
+    }
+
+    @Test
+    void replayReportsOrdersSavedBeforeTheCrashWithoutDuplicating() throws Exception {
+        String saved = UUID.randomUUID().toString();
+        String pending = UUID.randomUUID().toString();
+        Long savedId = persistOrder(7L, saved);
+        accept(saved, order(7L));
+        accept(pending, order(8L));
+
+        service = start();
+
+        OrderIntakeStatusDto savedStatus = awaitFinished(saved);
+        assertThat(savedStatus.getState()).isEqualTo(OrderIntakeStatusDto.CREATED);
+        assertThat(savedStatus.getOrderId()).isEqualTo(savedId);
+        assertThat(awaitFinished(pending).getState()).isEqualTo(OrderIntakeStatusDto.CREATED);
+
+        assertThat(savedReferences(List.of(saved, pending))).containsExactlyInAnyOrder(saved, pending);
+    }
+
+    @Test
+    void batchFallbackKeepsOrdersFromShardsThatAlreadyCommitted() throws Exception {
+        long first = 1L;
+        long second = customerOnAnotherShard(first);
+        String committed = UUID.randomUUID().toString();
+        String rolledBack = UUID.randomUUID().toString();
+        accept(committed, order(first));
+        accept(rolledBack, order(second));
+
+        // El segundo shard del lote falla después de que el primero confirmó
+        failOnPublish = 2;
+        service = start();
+
+        OrderIntakeStatusDto committedStatus = awaitFinished(committed);
+        OrderIntakeStatusDto rolledBackStatus = awaitFinished(rolledBack);
+        assertThat(committedStatus.getState()).isEqualTo(OrderIntakeStatusDto.CREATED);
+        assertThat(rolledBackStatus.getState()).isEqualTo(OrderIntakeStatusDto.CREATED);
+
+        assertThat(savedReferences(List.of(committed, rolledBack))).containsExactlyInAnyOrder(committed, rolledBack);
+        assertThat(shardRouter.onCustomerShard(first, () -> orderRepository.findById(committedStatus.getOrderId())))
+                .isPresent();
+        stopService();
+        assertThat(Files.size(journalPath())).isZero();
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private OrderIntakeService start() throws Exception {
+        ApplicationEventPublisher publisher = event -> {
+            if (publishes.incrementAndGet() == failOnPublish) {
+                throw new IllegalStateException("Falla simulada del shard");
+            }
+        };
+        OrderService orderService = new OrderService(
+                orderRepository, orderSummaryRepository, new StubProductClient(), publisher, shardRouter);
+
+        OrderIntakeProperties properties = new OrderIntakeProperties();
+        properties.setAsyncEnabled(true);
+        properties.setJournalPath(journalPath().toString());
+        OrderIntakeService started = new OrderIntakeService(
+                orderService, orderRepository, shardRouter, properties, new ObjectMapper());
+        started.start();
+        return started;
+    }
+
+    // Espera al writer (y a que marque el lote en el journal)
+    private void stopService() throws Exception {
+        if (service != null) {
+            service.stop();
+            service = null;
+        }
+    }
+
+    // Aceptada antes de una caída: queda en el journal sin DONE
+    private void accept(String reference, CreateOrderDto order) throws Exception {
+        OrderIntakeJournal journal = new OrderIntakeJournal(journalPath(), new ObjectMapper());
+        journal.open();
+        journal.markAccepted(reference, order);
+        journal.close();
+    }
+
+    private OrderIntakeStatusDto awaitFinished(String reference) throws InterruptedException {
+        for (int i = 0; i < 500 && !service.getStatus(reference).isFinished(); i++) {
+            Thread.sleep(10);
+        }
+        return service.getStatus(reference);
+    }
+
+    private List<String> savedReferences(Collection<String> references) {
+        return shardRouter.onAllShards(() -> orderRepository.findAllByIntakeReferenceIn(references))
+                .stream()
+                .flatMap(List::stream)
+                .map(Order::getIntakeReference)
+                .collect(Collectors.toList());
+    }
+
+    private long customerOnAnotherShard(long customerId) {
+        long other = customerId + 1;
+        while (shardRouter.shardFor(other).equals(shardRouter.shardFor(customerId))) {
+            other++;
+        }
+        return other;
+    }
+
+    private Long persistOrder(Long customerId, String reference) {
+        Order order = new Order();
+        order.setCustomerId(customerId);
+        order.setTotal(BigDecimal.valueOf(4));
+        order.setStatus(OrderStatus.PENDING);
+        order.setChannel(OrderChannel.WEB);
+        order.setIntakeReference(reference);
+
+        OrderItem item = new OrderItem();
+        item.setProductId(3);
+        item.setQuantity(2);
+        item.setPrice(BigDecimal.valueOf(2));
+        item.setOrder(order);
+        order.setItems(new ArrayList<>(List.of(item)));
+
+        return shardRouter.inTransaction(shardRouter.shardFor(customerId), () -> orderRepository.save(order)).getId();
+    }
+
+    private CreateOrderDto order(Long customerId) {
+        OrderItemDto item = new OrderItemDto();
+        item.setProductId(3);
+        item.setQuantity(2);
+
+        CreateOrderDto dto = new CreateOrderDto();
+        dto.setCustomerId(customerId);
+        dto.setItems(List.of(item));
+        return dto;
+    }
+
+    private Path journalPath() {
+        return dir.resolve("orders-intake.journal");
+    }
+
+    private static class StubProductClient implements ProductClient {
+
+        @Override
+        public ProductDto getProductById(Integer id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<ProductDto> getProductsByIds(Collection<Integer> ids) {
+            return ids.stream()
+                    .map(id -> {
+                        ProductDto product = new ProductDto();
+                        product.setId(id);
+                        product.setName("Producto " + id);
+                        product.setPrice(BigDecimal.valueOf(2));
+                        return product;
+                    })
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.makiia.orderservice.service;
+
+import com.makiia.orderservice.config.ShardRoutingDataSource;
+import com.makiia.orderservice.config.ShardingProperties;
+import com.makiia.orderservice.dto.OrderStatsDto;
+import com.makiia.orderservice.entity.Order;
+import com.makiia.orderservice.entity.OrderChannel;
+import com.makiia.orderservice.entity.OrderItem;
+import com.makiia.orderservice.entity.OrderStatus;
+import com.makiia.orderservice.event.OrderStatusChangedEvent;
+import com.makiia.orderservice.event.OrdersCreatedEvent;
+import com.makiia.orderservice.repository.OrderRepository;
+import com.makiia.orderservice.repository.OrderStatsCountedRepository;
+import com.makiia.orderservice.repository.OrderStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.cloud.config.enabled=false")
+class OrderStatsServiceTests {
+
+    // Intervalo de checkpoint con el que las instancias anteriores ya cuentan como caídas
+    private static final long CRASHED = 0;
+    private static final long ACTIVE = 60_000;
+
+    // Evita cargar OrderserviceApplication (@EnableFeignClients) en el slice JPA
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatsRepository orderStatsRepository;
+
+    @Autowired
+    private OrderStatsCountedRepository orderStatsCountedRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void restoreCountsLateCommitsOnceAndSkipsCheckpointedOrders() {
+        OrderStatsService before = newService("before", CRASHED);
+        before.restore();
+
+        Long checkpointed = persistOrder();
+        before.onCreated(new OrdersCreatedEvent(orderRepository.findAllWithItemsByIdIn(List.of(checkpointed))));
+        before.checkpoint();
+
+        // Creada antes del checkpoint pero confirmada después (sin evento antes del reinicio)
+        Long lateCommit = persistOrder();
+        new JdbcTemplate(dataSource).update("update orders set created_at = ? where id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(2)), lateCommit);
+        Long afterCheckpoint = persistOrder();
+        entityManager.clear();
+
+        OrderStatsService restarted = newService("restarted", CRASHED);
+        restarted.restore();
+
+        assertThat(webOrders(restarted)).isEqualTo(3);
+        assertThat(restarted.snapshot(24, 10).getLastOrderId()).isEqualTo(Math.max(lateCommit, afterCheckpoint));
+
+        // El evento que llega tarde no vuelve a sumar una orden ya recuperada
+        restarted.onCreated(new OrdersCreatedEvent(orderRepository.findAllWithItemsByIdIn(List.of(afterCheckpoint))));
+        assertThat(webOrders(restarted)).isEqualTo(3);
+
+        restarted.checkpoint();
+        OrderStatsService again = newService("again", CRASHED);
+        again.restore();
+        assertThat(webOrders(again)).isEqualTo(3);
+        assertThat(again.snapshot(24, 10).getTopProducts().get(0).getUnits()).isEqualTo(6L);
+    }
+
+    // Cada instancia guarda sólo sus filas y las consultas suman las de las demás
+    @Test
+    void instancesKeepTheirOwnCheckpointAndReadTheSum() {
+        OrderStatsService first = newService("first", ACTIVE);
+        first.restore();
+        OrderStatsService second = newService("second", ACTIVE);
+        second.restore();
+
+        first.onCreated(new OrdersCreatedEvent(orderRepository.findAllWithItemsByIdIn(List.of(persistOrder()))));
+        second.onCreated(new OrdersCreatedEvent(orderRepository.findAllWithItemsByIdIn(List.of(persistOrder()))));
+        second.onCreated(new OrdersCreatedEvent(orderRepository.findAllWithItemsByIdIn(List.of(persistOrder()))));
+        first.checkpoint();
+        second.checkpoint();
+        first.checkpoint();
+
+        assertThat(webOrders(first)).isEqualTo(3);
+        assertThat(webOrders(second)).isEqualTo(3);
+
+        // Con otras instancias activas no se pone al día: esas órdenes ya están contadas
+        OrderStatsService third = newService("third", ACTIVE);
+        third.restore();
+        assertThat(webOrders(third)).isEqualTo(3);
+    }
+
+    @Test
+    void cancellingAConfirmedOrderNoLongerCountsItAsConfirmed() {
+        OrderStatsService service = newService("single", ACTIVE);
+        service.restore();
+        Long id = persistOrder();
+        service.onCreated(new OrdersCreatedEvent(orderRepository.findAllWithItemsByIdIn(List.of(id))));
+
+        service.onStatusChanged(statusChanged(id, OrderStatus.PENDING, OrderStatus.CONFIRMED));
+        assertThat(webChannel(service).getConfirmed()).isEqualTo(1);
+
+        service.onStatusChanged(statusChanged(id, OrderStatus.CONFIRMED, OrderStatus.CANCELLED));
+        assertThat(webChannel(service).getConfirmed()).isZero();
+        assertThat(webChannel(service).getCancelled()).isEqualTo(1);
+        assertThat(webChannel(service).getRevenue()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void restoresBeforeEurekaRegistrationAndWebServer() {
+        assertThat(newService("phase", ACTIVE).getPhase()).isLessThan(0);
+    }
+
+    private OrderStatsService newService(String instanceId, long checkpointIntervalMillis) {
+        ShardRouter shardRouter = new ShardRouter(
+                context.getBeanProvider(ShardRoutingDataSource.class), new ShardingProperties(), transactionManager);
+        return new OrderStatsService(orderRepository, orderStatsRepository, orderStatsCountedRepository,
+                shardRouter, new JdbcTemplate(dataSource), transactionManager, instanceId, 168, 10,
+                checkpointIntervalMillis);
+    }
+
+    private OrderStatusChangedEvent statusChanged(Long id, OrderStatus from, OrderStatus to) {
+        return new OrderStatusChangedEvent(List.of(id), to, LocalDateTime.now(), Map.of(id, 1L), Map.of(id, from));
+    }
+
+    private OrderStatsDto.Counters webChannel(OrderStatsService service) {
+        return service.snapshot(24, 10).getChannels().get(OrderChannel.WEB.name());
+    }
+
+    private long webOrders(OrderStatsService service) {
+        return webChannel(service).getOrders();
+    }
+
+    private Long persistOrder() {
+        Order order = new Order();
+        order.setCustomerId(1L);
+        order.setTotal(BigDecimal.valueOf(4));
+        order.setStatus(OrderStatus.PENDING);
+        order.setChannel(OrderChannel.WEB);
+
+        OrderItem item = new OrderItem();
+        item.setProductId(7);
+        item.setQuantity(2);
+        item.setPrice(BigDecimal.valueOf(2));
+        item.setOrder(order);
+        order.setItems(new ArrayList<>(List.of(item)));
+
+        return entityManager.persistAndFlush(order).getId();
+    }
+}
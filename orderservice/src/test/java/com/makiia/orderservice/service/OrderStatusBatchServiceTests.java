@@ -0,0 +1,267 @@
+package com.makiia.orderservice.service;
+
+import com.makiia.orderservice.config.OrderIdAllocator;
+import com.makiia.orderservice.config.ShardRoutingDataSource;
+import com.makiia.orderservice.config.ShardSchemaInitializer;
+import com.makiia.orderservice.config.ShardingProperties;
+import com.makiia.orderservice.dto.OrderStatusUpdateDto;
+import com.makiia.orderservice.dto.OrderStatusUpdateResultDto;
+import com.makiia.orderservice.entity.Order;
+import com.makiia.orderservice.entity.OrderChannel;
+import com.makiia.orderservice.entity.OrderStatus;
+import com.makiia.orderservice.event.OrderStatusChangedEvent;
+import com.makiia.orderservice.repository.ArchivedOrderRepository;
+import com.makiia.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Los shards usan sus propias transacciones: los datos se guardan fuera de la del test
+@DataJpaTest(properties = {"spring.cloud.config.enabled=false", "orders.sharding.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=create"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderStatusBatchServiceTests {
+
+    // Dos shards H2 (como ShardRoutingTests) con el esquema y los ids que se usan con sharding
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    @Import({ShardSchemaInitializer.class, OrderIdAllocator.class})
+    static class JpaConfig {
+
+        @Bean
+        @Primary
+        ShardRoutingDataSource shardRoutingDataSource() {
+            LinkedHashMap<String, DataSource> shards = new LinkedHashMap<>();
+            shards.put("shard0", new DriverManagerDataSource("jdbc:h2:mem:batch0;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"));
+            shards.put("shard1", new DriverManagerDataSource("jdbc:h2:mem:batch1;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"));
+            return new ShardRoutingDataSource(shards);
+        }
+
+        @Bean
+        ShardingProperties shardingProperties() {
+            return new ShardingProperties();
+        }
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ShardRoutingDataSource routingDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private final List<OrderStatusChangedEvent> events = new CopyOnWriteArrayList<>();
+
+    private ShardRouter shardRouter;
+
+    @BeforeEach
+    void setUp() {
+        shardRouter = new ShardRouter(
+                context.getBeanProvider(ShardRoutingDataSource.class), new ShardingProperties(), transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardRouter.stop();
+        routingDataSource.getShards().values().forEach(ds -> {
+            JdbcTemplate jdbc = new JdbcTemplate(ds);
+            jdbc.update("delete from order_items");
+            jdbc.update("delete from orders");
+        });
+    }
+
+    @Test
+    void reportsEachOutcomeAndTheLastUpdatePerOrderWins() {
+        long customer = 7L;
+        Order pending = persistOrder(customer, OrderStatus.PENDING);
+        Order confirmed = persistOrder(otherShardCustomer(customer), OrderStatus.CONFIRMED);
+        Order invalidated = persistOrder(customer, OrderStatus.PENDING);
+
+        List<OrderStatusUpdateResultDto> results = service(orderRepository).updateStatuses(List.of(
+                new OrderStatusUpdateDto(pending.getId(), OrderStatus.CANCELLED),
+                new OrderStatusUpdateDto(confirmed.getId(), OrderStatus.CONFIRMED),
+                new OrderStatusUpdateDto(invalidated.getId(), OrderStatus.CONFIRMED),
+                new OrderStatusUpdateDto(999_999L, OrderStatus.CONFIRMED),
+                new OrderStatusUpdateDto(pending.getId(), OrderStatus.CONFIRMED),
+                new OrderStatusUpdateDto(invalidated.getId(), OrderStatus.PENDING),
+                new OrderStatusUpdateDto(null, OrderStatus.CONFIRMED)));
+
+        assertThat(outcomes(results)).containsExactly(
+                Map.entry(pending.getId(), OrderStatusUpdateResultDto.UPDATED + ":CONFIRMED"),
+                Map.entry(confirmed.getId(), OrderStatusUpdateResultDto.UNCHANGED + ":CONFIRMED"),
+                Map.entry(invalidated.getId(), OrderStatusUpdateResultDto.INVALID + ":null"),
+                Map.entry(999_999L, OrderStatusUpdateResultDto.NOT_FOUND + ":null"));
+
+        assertThat(statusOf(pending)).isEqualTo(OrderStatus.CONFIRMED.name());
+        assertThat(statusOf(confirmed)).isEqualTo(OrderStatus.CONFIRMED.name());
+        assertThat(statusOf(invalidated)).isEqualTo(OrderStatus.PENDING.name());
+
+        // Un solo evento: sólo cambió la orden pendiente, con su estado anterior
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getOrderIds()).containsExactly(pending.getId());
+        assertThat(events.get(0).getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(events.get(0).getPreviousStatuses()).containsEntry(pending.getId(), OrderStatus.PENDING);
+    }
+
+    // El select bloquea las filas del shard: un cambio en curso se espera y el lote ve su resultado
+    @Test
+    void waitsForRowsLockedOnTheShard() throws Exception {
+        Order order = persistOrder(7L, OrderStatus.PENDING);
+        String shard = shardRouter.shardFor(7L);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(new DataSourceTransactionManager(shardDataSource(shard)))
+                        .executeWithoutResult(status -> {
+                            JdbcTemplate jdbc = jdbc(shard);
+                            jdbc.queryForList("select id from orders where id = ? for update", order.getId());
+                            jdbc.update("update orders set status = ? where id = ?",
+                                    OrderStatus.CANCELLED.name(), order.getId());
+                            locked.countDown();
+                            await(release);
+                        }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<List<OrderStatusUpdateResultDto>> batch = CompletableFuture.supplyAsync(() ->
+                service(orderRepository).updateStatuses(
+                        List.of(new OrderStatusUpdateDto(order.getId(), OrderStatus.CANCELLED))));
+        Thread.sleep(300);
+        assertThat(batch).isNotDone();
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+
+        assertThat(outcomes(batch.get(5, TimeUnit.SECONDS)))
+                .containsExactly(Map.entry(order.getId(), OrderStatusUpdateResultDto.UNCHANGED + ":CANCELLED"));
+        assertThat(events).isEmpty();
+    }
+
+    // Si el update condicional no toca todas las filas bloqueadas se revierte el shard completo
+    @Test
+    void incompleteUpdateRollsBackTheShard() {
+        Order first = persistOrder(7L, OrderStatus.PENDING);
+        Order second = persistOrder(7L, OrderStatus.PENDING);
+
+        OrderStatusBatchService service = service(updatingOneRowLess(orderRepository));
+
+        assertThatThrownBy(() -> service.updateStatuses(List.of(
+                new OrderStatusUpdateDto(first.getId(), OrderStatus.CONFIRMED),
+                new OrderStatusUpdateDto(second.getId(), OrderStatus.CONFIRMED))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("incompleto");
+
+        assertThat(statusOf(first)).isEqualTo(OrderStatus.PENDING.name());
+        assertThat(statusOf(second)).isEqualTo(OrderStatus.PENDING.name());
+        assertThat(events).isEmpty();
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private OrderStatusBatchService service(OrderRepository repository) {
+        return new OrderStatusBatchService(repository, archivedOrderRepository,
+                event -> events.add((OrderStatusChangedEvent) event), shardRouter, 2, 100);
+    }
+
+    // Aplica el update real pero informa una fila menos (lo que el servicio nunca debería ver)
+    private static OrderRepository updatingOneRowLess(OrderRepository delegate) {
+        return (OrderRepository) Proxy.newProxyInstance(OrderRepository.class.getClassLoader(),
+                new Class<?>[]{OrderRepository.class},
+                (proxy, method, args) -> {
+                    try {
+                        Object result = method.invoke(delegate, args);
+                        return method.getName().equals("updateStatusWhereDifferent") ? (Integer) result - 1 : result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private Map<Long, String> outcomes(List<OrderStatusUpdateResultDto> results) {
+        return results.stream()
+                .collect(Collectors.toMap(OrderStatusUpdateResultDto::getOrderId,
+                        r -> r.getOutcome() + ":" + r.getStatus(),
+                        (a, b) -> b, LinkedHashMap::new));
+    }
+
+    private Order persistOrder(Long customerId, OrderStatus status) {
+        Order order = new Order();
+        order.setCustomerId(customerId);
+        order.setTotal(BigDecimal.valueOf(4));
+        order.setStatus(status);
+        order.setChannel(OrderChannel.WEB);
+        return shardRouter.inTransaction(shardRouter.shardFor(customerId), () -> orderRepository.save(order));
+    }
+
+    private String statusOf(Order order) {
+        return jdbc(shardRouter.shardFor(order.getCustomerId()))
+                .queryForObject("select status from orders where id = ?", String.class, order.getId());
+    }
+
+    private long otherShardCustomer(long customerId) {
+        long other = customerId + 1;
+        while (shardRouter.shardFor(other).equals(shardRouter.shardFor(customerId))) {
+            other++;
+        }
+        return other;
+    }
+
+    private DataSource shardDataSource(String shard) {
+        return routingDataSource.getShards().get(shard);
+    }
+
+    private JdbcTemplate jdbc(String shard) {
+        return new JdbcTemplate(shardDataSource(shard));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
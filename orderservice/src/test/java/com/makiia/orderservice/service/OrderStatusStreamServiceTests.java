@@ -0,0 +1,79 @@
+package com.makiia.orderservice.service;
+
+import com.makiia.orderservice.config.OrderStatusStreamProperties;
+import com.makiia.orderservice.controller.OrderStatusStreamController;
+import com.makiia.orderservice.entity.OrderStatus;
+import com.makiia.orderservice.event.OrderStatusChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OrderStatusStreamServiceTests {
+
+    private static final String STREAM = "/internal/orders/status/stream";
+
+    private OrderStatusStreamService service;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        OrderStatusStreamProperties properties = new OrderStatusStreamProperties();
+        properties.setMaxSubscribers(1);
+        service = new OrderStatusStreamService(properties);
+        service.start();
+        mockMvc = MockMvcBuilders.standaloneSetup(new OrderStatusStreamController(service)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void subscriberGetsReadyAndThenEveryChangedOrder() throws Exception {
+        MvcResult result = mockMvc.perform(get(STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        service.onStatusChanged(new OrderStatusChangedEvent(List.of(10L, 11L), OrderStatus.CONFIRMED,
+                LocalDateTime.now(), Map.of(10L, 7L, 11L, 8L),
+                Map.of(10L, OrderStatus.PENDING, 11L, OrderStatus.PENDING)));
+
+        String body = awaitContent(result, "\"orderId\":11");
+        assertThat(body).startsWith(":ready");
+        assertThat(body).contains("event:order-status");
+        assertThat(body).contains("\"orderId\":10,\"customerId\":7,\"status\":\"CONFIRMED\"");
+        assertThat(body.indexOf("\"orderId\":10")).isLessThan(body.indexOf("\"orderId\":11"));
+    }
+
+    @Test
+    void subscribersOverTheLimitAreRejected() throws Exception {
+        mockMvc.perform(get(STREAM)).andExpect(request().asyncStarted());
+
+        mockMvc.perform(get(STREAM)).andExpect(status().isServiceUnavailable());
+    }
+
+    // Los eventos salen desde el hilo del stream
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            body = result.getResponse().getContentAsString();
+        }
+        assertThat(body).contains(expected);
+        return body;
+    }
+}
@@ -0,0 +1,212 @@
+package com.makiia.orderservice.service;
+
+import com.makiia.orderservice.config.OrderIdAllocator;
+import com.makiia.orderservice.config.ShardRoutingDataSource;
+import com.makiia.orderservice.config.ShardSchemaInitializer;
+import com.makiia.orderservice.config.ShardingProperties;
+import com.makiia.orderservice.entity.Order;
+import com.makiia.orderservice.entity.OrderChannel;
+import com.makiia.orderservice.entity.OrderStatus;
+import com.makiia.orderservice.event.OrderStatusChangedEvent;
+import com.makiia.orderservice.event.OrdersCreatedEvent;
+import com.makiia.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Los shards usan sus propias transacciones: los datos se guardan fuera de la del test
+@DataJpaTest(properties = {"spring.cloud.config.enabled=false", "orders.sharding.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=create",
+        "orders.summary-projector.queue-capacity=1", "orders.summary-projector.enqueue-timeout-ms=10"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderSummaryProjectorTests {
+
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    @Import({ShardSchemaInitializer.class, OrderIdAllocator.class, ShardRouter.class, OrderSummaryProjector.class})
+    static class JpaConfig {
+
+        @Bean
+        @Primary
+        ShardRoutingDataSource shardRoutingDataSource() {
+            LinkedHashMap<String, DataSource> shards = new LinkedHashMap<>();
+            shards.put("shard0", new DriverManagerDataSource("jdbc:h2:mem:projector0;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"));
+            shards.put("shard1", new DriverManagerDataSource("jdbc:h2:mem:projector1;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"));
+            return new ShardRoutingDataSource(shards);
+        }
+
+        @Bean
+        ShardingProperties shardingProperties() {
+            return new ShardingProperties();
+        }
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ShardRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private OrderSummaryProjector projector;
+
+    @AfterEach
+    void tearDown() {
+        routingDataSource.getShards().values().forEach(ds -> {
+            JdbcTemplate jdbc = new JdbcTemplate(ds);
+            jdbc.update("delete from order_summaries");
+            jdbc.update("delete from order_items");
+            jdbc.update("delete from orders");
+        });
+    }
+
+    // El AFTER_COMMIT de un shard proyecta una orden de otro: la fila queda confirmada en el shard de la orden
+    @Test
+    void projectsOrdersOfAnotherShardFromAfterCommit() throws Exception {
+        Order order = persistOrder(7L, OrderStatus.PENDING);
+        String otherShard = otherShard(shardRouter.shardFor(7L));
+
+        shardRouter.inTransaction(otherShard, () -> {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    projector.onCreated(new OrdersCreatedEvent(List.of(order)));
+                }
+            });
+            return null;
+        });
+
+        assertThat(awaitSummaryStatus(order, OrderStatus.PENDING)).isEqualTo(OrderStatus.PENDING.name());
+        assertThat(jdbc(otherShard).queryForObject("select count(*) from order_summaries", Long.class)).isZero();
+    }
+
+    // Con la cola llena se descartan tareas (no corren en el hilo que publica) y la resincronización las corrige
+    @Test
+    void droppedStatusChangesAreFixedByTheResync() throws Exception {
+        Order first = persistOrder(7L, OrderStatus.PENDING);
+        Order second = persistOrder(8L, OrderStatus.PENDING);
+        projector.backfill();
+        String firstShard = shardRouter.shardFor(7L);
+
+        // Bloquea la fila proyectada: el hilo del proyector queda esperando en su update
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(new DataSourceTransactionManager(shardDataSource(firstShard)))
+                        .executeWithoutResult(status -> {
+                            jdbc(firstShard).queryForList(
+                                    "select order_id from order_summaries where order_id = ? for update", first.getId());
+                            locked.countDown();
+                            await(release);
+                        }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        confirm(first);
+        projector.onStatusChanged(statusChanged(first, OrderStatus.CONFIRMED));
+        Thread.sleep(100);
+        // Una en la cola y la otra descartada sin esperar al lock
+        confirm(second);
+        long start = System.nanoTime();
+        projector.onStatusChanged(statusChanged(second, OrderStatus.CANCELLED));
+        projector.onStatusChanged(statusChanged(second, OrderStatus.CONFIRMED));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2000);
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertThat(awaitSummaryStatus(second, OrderStatus.CANCELLED)).isEqualTo(OrderStatus.CANCELLED.name());
+        assertThat(summaryStatus(first)).isEqualTo(OrderStatus.CONFIRMED.name());
+
+        projector.resyncIfDropped();
+        assertThat(summaryStatus(second)).isEqualTo(OrderStatus.CONFIRMED.name());
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private Order persistOrder(Long customerId, OrderStatus status) {
+        Order order = new Order();
+        order.setCustomerId(customerId);
+        order.setTotal(BigDecimal.valueOf(4));
+        order.setStatus(status);
+        order.setChannel(OrderChannel.WEB);
+        order.setCreatedAt(LocalDateTime.now());
+        return shardRouter.inTransaction(shardRouter.shardFor(customerId), () -> orderRepository.save(order));
+    }
+
+    private void confirm(Order order) {
+        jdbc(shardRouter.shardFor(order.getCustomerId())).update(
+                "update orders set status = ? where id = ?", OrderStatus.CONFIRMED.name(), order.getId());
+    }
+
+    private OrderStatusChangedEvent statusChanged(Order order, OrderStatus status) {
+        return new OrderStatusChangedEvent(List.of(order.getId()), status, LocalDateTime.now(),
+                Map.of(order.getId(), order.getCustomerId()), Map.of(order.getId(), OrderStatus.PENDING));
+    }
+
+    private String awaitSummaryStatus(Order order, OrderStatus expected) throws InterruptedException {
+        for (int i = 0; i < 500 && !expected.name().equals(summaryStatus(order)); i++) {
+            Thread.sleep(10);
+        }
+        return summaryStatus(order);
+    }
+
+    private String summaryStatus(Order order) {
+        return jdbc(shardRouter.shardFor(order.getCustomerId())).queryForList(
+                        "select status from order_summaries where order_id = ?", String.class, order.getId())
+                .stream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    private String otherShard(String shard) {
+        return shardRouter.shards().stream().filter(s -> !s.equals(shard)).findFirst().orElseThrow();
+    }
+
+    private DataSource shardDataSource(String shard) {
+        return routingDataSource.getShards().get(shard);
+    }
+
+    private JdbcTemplate jdbc(String shard) {
+        return new JdbcTemplate(shardDataSource(shard));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
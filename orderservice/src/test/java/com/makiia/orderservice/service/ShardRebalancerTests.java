@@ -0,0 +1,193 @@
+package com.makiia.orderservice.service;
+
+import com.makiia.orderservice.config.OrderIdAllocator;
+import com.makiia.orderservice.config.ShardRoutingDataSource;
+import com.makiia.orderservice.config.ShardSchemaInitializer;
+import com.makiia.orderservice.config.ShardingProperties;
+import com.makiia.orderservice.dto.ShardRebalanceReportDto;
+import com.makiia.orderservice.entity.Order;
+import com.makiia.orderservice.entity.OrderChannel;
+import com.makiia.orderservice.entity.OrderItem;
+import com.makiia.orderservice.entity.OrderStatus;
+import com.makiia.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Los shards usan sus propias transacciones: los datos se guardan fuera de la del test
+@DataJpaTest(properties = {"spring.cloud.config.enabled=false", "orders.sharding.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=create"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShardRebalancerTests {
+
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    @Import({ShardSchemaInitializer.class, OrderIdAllocator.class})
+    static class JpaConfig {
+
+        @Bean
+        @Primary
+        ShardRoutingDataSource shardRoutingDataSource() {
+            LinkedHashMap<String, DataSource> shards = new LinkedHashMap<>();
+            shards.put("shard0", h2("rebalance0"));
+            shards.put("shard1", h2("rebalance1"));
+            return new ShardRoutingDataSource(shards);
+        }
+
+        @Bean
+        ShardingProperties shardingProperties() {
+            return new ShardingProperties();
+        }
+
+        private static DataSource h2(String name) {
+            return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        }
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ShardRoutingDataSource routingDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private ShardRouter shardRouter;
+    private ShardRebalancer rebalancer;
+
+    @BeforeEach
+    void setUp() {
+        shardRouter = new ShardRouter(
+                context.getBeanProvider(ShardRoutingDataSource.class), new ShardingProperties(), transactionManager);
+        rebalancer = new ShardRebalancer(context.getBeanProvider(ShardRoutingDataSource.class), shardRouter, 1, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardRouter.stop();
+        routingDataSource.getShards().values().forEach(ds -> {
+            JdbcTemplate jdbc = new JdbcTemplate(ds);
+            jdbc.update("delete from order_items");
+            jdbc.update("delete from orders");
+        });
+    }
+
+    @Test
+    void movesOrdersToTheCustomerShardAndIsReRunnable() throws Exception {
+        Long id = persistOrder(7L, otherShard(7L));
+
+        ShardRebalanceReportDto dryRun = rebalancer.rebalance(true);
+        assertThat(dryRun.getOrdersMoved()).isEqualTo(1);
+        assertThat(jdbc(otherShard(7L)).queryForObject("select count(*) from orders", Long.class)).isEqualTo(1);
+
+        ShardRebalanceReportDto report = rebalancer.rebalance(false);
+        assertThat(report.getCustomersMoved()).isEqualTo(1);
+        assertThat(shardRouter.onCustomerShard(7L, () -> orderRepository.findById(id))).isPresent();
+        assertThat(jdbc(shardRouter.shardFor(7L)).queryForObject(
+                "select count(*) from order_items where order_id = ?", Long.class, id)).isEqualTo(1);
+        assertThat(jdbc(otherShard(7L)).queryForObject("select count(*) from orders", Long.class)).isZero();
+
+        assertThat(rebalancer.rebalance(false).getOrdersMoved()).isZero();
+    }
+
+    // Un cambio de estado en curso en el origen no se pierde: el bloque espera su commit y copia la fila nueva
+    @Test
+    void waitsForInFlightUpdatesOnTheSourceRows() throws Exception {
+        String source = otherShard(7L);
+        Long id = persistOrder(7L, source);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CompletableFuture<Void> update = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(new DataSourceTransactionManager(shardDataSource(source)))
+                        .executeWithoutResult(status -> {
+                            JdbcTemplate jdbc = jdbc(source);
+                            jdbc.queryForList("select id from orders where id = ? for update", id);
+                            locked.countDown();
+                            sleep(300);
+                            jdbc.update("update orders set status = ? where id = ?", OrderStatus.CONFIRMED.name(), id);
+                        }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        rebalancer.rebalance(false);
+        update.get(5, TimeUnit.SECONDS);
+
+        assertThat(shardRouter.onCustomerShard(7L, () -> orderRepository.findById(id)))
+                .hasValueSatisfying(o -> assertThat(o.getStatus()).isEqualTo(OrderStatus.CONFIRMED));
+        assertThat(jdbc(source).queryForObject("select count(*) from orders", Long.class)).isZero();
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    // Guarda la orden directamente en un shard que no es el de su cliente
+    private Long persistOrder(Long customerId, String shard) {
+        Order order = new Order();
+        order.setCustomerId(customerId);
+        order.setTotal(BigDecimal.valueOf(4));
+        order.setStatus(OrderStatus.PENDING);
+        order.setChannel(OrderChannel.WEB);
+
+        OrderItem item = new OrderItem();
+        item.setProductId(3);
+        item.setQuantity(2);
+        item.setPrice(BigDecimal.valueOf(2));
+        item.setOrder(order);
+        order.setItems(new ArrayList<>(List.of(item)));
+
+        return shardRouter.inTransaction(shard, () -> orderRepository.save(order)).getId();
+    }
+
+    private String otherShard(Long customerId) {
+        String owner = shardRouter.shardFor(customerId);
+        return shardRouter.shards().stream().filter(s -> !s.equals(owner)).findFirst().orElseThrow();
+    }
+
+    private DataSource shardDataSource(String shard) {
+        return routingDataSource.getShards().get(shard);
+    }
+
+    private JdbcTemplate jdbc(String shard) {
+        return new JdbcTemplate(shardDataSource(shard));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
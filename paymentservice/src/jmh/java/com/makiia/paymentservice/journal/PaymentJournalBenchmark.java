@@ -0,0 +1,160 @@
+package com.makiia.paymentservice.journal;
+
+import com.makiia.paymentservice.config.PaymentIdAllocator;
+import com.makiia.paymentservice.config.PaymentJournalProperties;
+import com.makiia.paymentservice.dto.PaymentRequestDto;
+import com.makiia.paymentservice.dto.PaymentResponseDto;
+import com.makiia.paymentservice.entity.OutboxEvent;
+import com.makiia.paymentservice.entity.OutboxEventType;
+import com.makiia.paymentservice.entity.OutboxStatus;
+import com.makiia.paymentservice.entity.Payment;
+import com.makiia.paymentservice.entity.PaymentStatus;
+import com.makiia.paymentservice.repository.OutboxEventRepository;
+import com.makiia.paymentservice.repository.PaymentRepository;
+import com.makiia.paymentservice.service.PaymentJournalService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pagos confirmados por segundo con 64 hilos (los del pool de pagos), contra la base de
+ * los tests (H2): el guardado directo de PaymentService (saveAndFlush + outbox en su
+ * transacción) contra PaymentJournalService, que confirma con el group commit del journal
+ * y pasa los lotes a la base en su hilo (y con markFlushed borra los segmentos ya guardados).
+ *
+ * H2 en memoria no hace fsync por commit: contra MySQL la diferencia es mayor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+public class PaymentJournalBenchmark {
+
+    private final AtomicLong orders = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private PaymentRepository paymentRepository;
+    private OutboxEventRepository outboxEventRepository;
+    private PaymentIdAllocator idAllocator;
+    private TransactionTemplate transactionTemplate;
+    private PaymentJournalService journalService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BenchmarkConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.cloud.config.enabled=false",
+                        "spring.datasource.url=jdbc:h2:mem:payments-bench;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.maximum-pool-size=10",
+                        "spring.jpa.hibernate.ddl-auto=create-drop")
+                .run();
+        paymentRepository = context.getBean(PaymentRepository.class);
+        outboxEventRepository = context.getBean(OutboxEventRepository.class);
+        idAllocator = context.getBean(PaymentIdAllocator.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        journalService = context.getBean(PaymentJournalService.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Path dir = Paths.get(context.getBean(PaymentJournalProperties.class).getDir());
+        context.close();
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    // 📌 payments.journal.enabled=false: un commit de la base por pago (como PaymentService.save)
+    @Benchmark
+    public Payment directSave() {
+        long orderId = orders.incrementAndGet();
+        long id = idAllocator.next();
+        return transactionTemplate.execute(tx -> {
+            Payment saved = paymentRepository.saveAndFlush(Payment.builder()
+                    .id(id)
+                    .orderId(orderId)
+                    .amount(new BigDecimal(orderId + ".50"))
+                    .method("CARD")
+                    .status(PaymentStatus.APPROVED)
+                    .idempotencyKey("key-" + orderId)
+                    .settledOrderId(orderId)
+                    .build());
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .paymentId(saved.getId())
+                    .orderId(orderId)
+                    .type(OutboxEventType.CONFIRM_ORDER)
+                    .status(OutboxStatus.PENDING)
+                    .attempts(0)
+                    .nextAttemptAt(LocalDateTime.now())
+                    .build());
+            return saved;
+        });
+    }
+
+    // 📌 payments.journal.enabled=true: se confirma con el force() del grupo
+    @Benchmark
+    public PaymentResponseDto groupCommit() throws Exception {
+        long orderId = orders.incrementAndGet();
+        PaymentRequestDto dto = new PaymentRequestDto();
+        dto.setOrderId(orderId);
+        dto.setAmount(new BigDecimal(orderId + ".50"));
+        dto.setMethod("CARD");
+        return journalService.append(dto, "key-" + orderId, PaymentStatus.APPROVED).get();
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    // Solo JPA + los beans del journal (sin Eureka, Feign ni config server)
+    @Configuration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            JdbcTemplateAutoConfiguration.class, TransactionAutoConfiguration.class})
+    @EntityScan(basePackageClasses = Payment.class)
+    @EnableJpaRepositories(basePackageClasses = PaymentRepository.class)
+    @Import({PaymentIdAllocator.class, PaymentJournalService.class})
+    static class BenchmarkConfig {
+
+        @Bean
+        PaymentJournalProperties paymentJournalProperties() throws IOException {
+            PaymentJournalProperties properties = new PaymentJournalProperties();
+            properties.setEnabled(true);
+            properties.setDir(Files.createTempDirectory("payment-journal-bench").toString());
+            return properties;
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
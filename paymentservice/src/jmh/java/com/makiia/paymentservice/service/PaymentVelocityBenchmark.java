@@ -0,0 +1,75 @@
+package com.makiia.paymentservice.service;
+
+import com.makiia.paymentservice.config.VelocityProperties;
+import com.makiia.paymentservice.velocity.VelocityAction;
+import com.makiia.paymentservice.velocity.VelocityDecision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lo que agrega la velocidad a cada pago: un check con las dos reglas de msvc-pay.yml
+ * (cliente y orden) sobre 10.000 clientes y 50.000 órdenes activas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaymentVelocityBenchmark {
+
+    private static final int CUSTOMERS = 10_000;
+    private static final int ORDERS = 50_000;
+    private static final BigDecimal AMOUNT = new BigDecimal("49.90");
+
+    private PaymentVelocityService service;
+
+    // 📌 Sin topes: se mide el conteo; si las reglas saltaran, el log de cada HOLD/REJECT
+    // dominaría la medición
+    @Setup
+    public void setUp() {
+        VelocityProperties.Rule burst = new VelocityProperties.Rule();
+        burst.setName("customer-burst");
+        burst.setKey(VelocityProperties.KeyType.CUSTOMER);
+        burst.setWindowSeconds(60);
+        burst.setAction(VelocityAction.HOLD);
+
+        VelocityProperties.Rule retries = new VelocityProperties.Rule();
+        retries.setName("order-retries");
+        retries.setKey(VelocityProperties.KeyType.ORDER);
+        retries.setWindowSeconds(300);
+        retries.setAction(VelocityAction.REJECT);
+
+        VelocityProperties properties = new VelocityProperties();
+        properties.setEnabled(true);
+        properties.setRules(List.of(burst, retries));
+        service = new PaymentVelocityService(properties);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public VelocityDecision singleThread() {
+        return check();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public VelocityDecision contended() {
+        return check();
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private VelocityDecision check() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return service.check((long) random.nextInt(CUSTOMERS), (long) random.nextInt(ORDERS), AMOUNT);
+    }
+}
@@ -1,12 +1,17 @@
 package com.makiia.paymentservice;
+import com.makiia.commons.smile.SmileConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableFeignClients
 @EnableDiscoveryClient
+@Import(SmileConfig.class)
+@EnableScheduling
 public class PaymentserviceApplication {
 
 	public static void main(String[] args) {
@@ -1,8 +1,14 @@
 package com.makiia.paymentservice.client;
 
+import com.makiia.paymentservice.dto.external.OrderStatusDto;
+import com.makiia.paymentservice.dto.external.OrderStatusUpdateDto;
+import com.makiia.paymentservice.dto.external.OrderStatusUpdateResultDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Collection;
+import java.util.List;
+
 @FeignClient(name = "order-service", url = "http://orderservice:8002")
 public interface OrderClient {
 
@@ -11,4 +17,12 @@ public interface OrderClient {
 
     @PutMapping("/orders/{orderId}/cancel")
     void cancelOrder(@PathVariable Long orderId);
+
+    // 📌 Varios cambios de estado en una llamada (resultado por orden)
+    @PostMapping("/orders/status/batch")
+    List<OrderStatusUpdateResultDto> updateStatuses(@RequestBody List<OrderStatusUpdateDto> updates);
+
+    // 📌 Estado actual de varias órdenes (las inexistentes no vienen en la respuesta)
+    @PostMapping("/orders/status/lookup")
+    List<OrderStatusDto> getStatuses(@RequestBody Collection<Long> orderIds);
 }
@@ -0,0 +1,20 @@
+package com.makiia.paymentservice.config;
+
+import com.makiia.commons.feign.FeignTransportConfig;
+import com.makiia.commons.feign.HttpClientProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+// Transporte Feign común (service-commons) con los ajustes de payments.http-client
+@Configuration
+@Import(FeignTransportConfig.class)
+public class HttpClientConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "payments.http-client")
+    public HttpClientProperties httpClientProperties() {
+        return new HttpClientProperties();
+    }
+}
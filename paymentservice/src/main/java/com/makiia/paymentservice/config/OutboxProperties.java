@@ -0,0 +1,29 @@
+package com.makiia.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "payments.outbox")
+public class OutboxProperties {
+
+    // Eventos leídos por ciclo del dispatcher
+    private int batchSize = 100;
+
+    private long pollIntervalMs = 500;
+
+    // Reserva de un lote tomado por una instancia; si se cae, otra lo retoma después
+    private long claimTimeoutMs = 60000;
+
+    // Backoff exponencial: initial * 2^(intentos-1), con tope y jitter
+    private long initialBackoffMs = 1000;
+
+    private long maxBackoffMs = 300000;
+
+    // Después de esto el evento queda FAILED para revisión manual
+    private int maxAttempts = 15;
+
+    private long retentionHours = 72;
+}
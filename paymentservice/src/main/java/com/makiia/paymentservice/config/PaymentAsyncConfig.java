@@ -0,0 +1,23 @@
+package com.makiia.paymentservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class PaymentAsyncConfig {
+
+    // 📌 Hilos que guardan el pago cuando responde el proveedor (no los del scheduler del proveedor)
+    @Bean
+    public ThreadPoolTaskExecutor paymentExecutor(@Value("${payments.executor.threads:16}") int threads,
+                                                  @Value("${payments.executor.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("payment-");
+        executor.initialize();
+        return executor;
+    }
+}
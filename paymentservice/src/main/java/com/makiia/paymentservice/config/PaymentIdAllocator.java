@@ -0,0 +1,97 @@
+package com.makiia.paymentservice.config;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+
+/**
+ * Ids de pago (hi/lo): el modo journal necesita el id al responder, antes de que el pago
+ * llegue a MySQL. Todas las instancias (con o sin journal) toman sus ids de aquí, así un
+ * insert directo nunca cae dentro del rango que otra instancia ya reservó. Cada instancia
+ * reserva rangos en payment_id_allocator (entidad PaymentIdAllocation, creada con el
+ * esquema), siempre por encima del mayor id ya guardado.
+ */
+@Component
+public class PaymentIdAllocator {
+
+    private static final String NAME = "payments";
+
+    private static volatile PaymentIdAllocator active;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int allocationSize;
+
+    private long next;
+    private long limit;
+
+    public PaymentIdAllocator(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              PaymentJournalProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.allocationSize = properties.getIdAllocationSize();
+    }
+
+    // Lo usa PaymentIdGenerator (Hibernate lo instancia fuera de Spring)
+    public static PaymentIdAllocator active() {
+        return active;
+    }
+
+    @PostConstruct
+    void activate() {
+        active = this;
+    }
+
+    @PreDestroy
+    void deactivate() {
+        if (active == this) {
+            active = null;
+        }
+    }
+
+    public synchronized long next() {
+        if (next >= limit) {
+            Long start = transactionTemplate.execute(status -> {
+                long current = lockNextId();
+                Long maxId = jdbcTemplate.queryForObject(
+                        "select coalesce(max(id), 0) from payments", Long.class);
+                long from = Math.max(current, maxId + 1);
+                jdbcTemplate.update(
+                        "update payment_id_allocator set next_id = ? where name = ?", from + allocationSize, NAME);
+                return from;
+            });
+            next = start;
+            limit = start + allocationSize;
+        }
+        return next++;
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private long lockNextId() {
+        List<Long> current = selectForUpdate();
+        if (current.isEmpty()) {
+            try {
+                jdbcTemplate.update("insert into payment_id_allocator (name, next_id) values (?, 1)", NAME);
+            } catch (DuplicateKeyException e) {
+                // otra instancia la creó primero
+            }
+            current = selectForUpdate();
+        }
+        return current.get(0);
+    }
+
+    private List<Long> selectForUpdate() {
+        return jdbcTemplate.queryForList(
+                "select next_id from payment_id_allocator where name = ? for update", Long.class, NAME);
+    }
+}
@@ -0,0 +1,21 @@
+package com.makiia.paymentservice.config;
+
+import com.makiia.paymentservice.entity.Payment;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentityGenerator;
+
+import java.io.Serializable;
+
+// El id lo asigna PaymentIdAllocator antes del insert (PaymentService ya lo trae reservado);
+// IDENTITY solo si no hay allocator (tests de JPA)
+public class PaymentIdGenerator extends IdentityGenerator {
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object entity) {
+        if (entity instanceof Payment && ((Payment) entity).getId() != null) {
+            return ((Payment) entity).getId();
+        }
+        PaymentIdAllocator allocator = PaymentIdAllocator.active();
+        return allocator != null ? allocator.next() : super.generate(session, entity);
+    }
+}
@@ -0,0 +1,29 @@
+package com.makiia.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "payments.journal")
+public class PaymentJournalProperties {
+
+    // Si es false, cada pago se guarda en MySQL en su propia transacción
+    private boolean enabled = false;
+
+    private String dir = "payments-journal";
+
+    private int segmentBytes = 64 * 1024 * 1024;
+
+    // Máximo de pagos por force() del journal
+    private int groupCommitSize = 256;
+
+    private int queueCapacity = 10000;
+
+    // Pagos por transacción del writer hacia MySQL
+    private int flushBatchSize = 500;
+
+    // Rango de ids que reserva cada instancia
+    private int idAllocationSize = 1000;
+}
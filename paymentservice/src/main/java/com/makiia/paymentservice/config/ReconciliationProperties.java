@@ -0,0 +1,24 @@
+package com.makiia.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "payments.reconciliation")
+public class ReconciliationProperties {
+
+    // Pagos leídos por bloque (= ids por llamada a /orders/status/lookup)
+    private int chunkSize = 500;
+
+    // Los pagos más nuevos que esto se ignoran (su evento del outbox puede estar en camino)
+    private long graceMinutes = 10;
+
+    private String reportDir = "/tmp";
+
+    // Cantidad de diferencias que se devuelven en el resumen
+    private int maxSamples = 100;
+
+    private long pauseMs = 0;
+}
@@ -0,0 +1,47 @@
+package com.makiia.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "payments.provider.simulator")
+public class SimulatedProviderProperties {
+
+    // Perfil para los métodos sin configuración propia
+    private Profile defaults = new Profile();
+
+    // Perfil por method (CARD, CASH, WHATSAPP...)
+    private Map<String, Profile> methods = new HashMap<>();
+
+    // Hilos que completan las respuestas (no duermen, solo programan)
+    private int threads = 2;
+
+    public Profile profileFor(String method) {
+        return method != null ? methods.getOrDefault(method.toUpperCase(), defaults) : defaults;
+    }
+
+    @Data
+    public static class Profile {
+
+        // Latencia lognormal: mediana y sigma (dispersión) del log
+        private double medianMs = 120;
+        private double sigma = 0.5;
+
+        // Picos de cola: con esta probabilidad la latencia se multiplica
+        private double spikeProbability = 0.01;
+        private double spikeMultiplier = 10;
+
+        private double approvalRatio = 0.5;
+
+        // Fracción de llamadas que terminan en error del proveedor
+        private double errorRate = 0.0;
+
+        // Si la latencia supera esto, la llamada termina por timeout
+        private long timeoutMs = 3000;
+    }
+}
@@ -0,0 +1,44 @@
+package com.makiia.paymentservice.config;
+
+import com.makiia.paymentservice.velocity.VelocityAction;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "payments.velocity")
+public class VelocityProperties {
+
+    private boolean enabled = false;
+
+    // Tope de ventanas en memoria (clave x regla); las claves nuevas por encima no se cuentan
+    private int maxKeys = 100000;
+
+    // Buckets por ventana (precisión del deslizamiento)
+    private int buckets = 12;
+
+    private long sweepIntervalMs = 10000;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    public enum KeyType {
+        CUSTOMER,
+        ORDER
+    }
+
+    @Data
+    public static class Rule {
+        private String name;
+        private KeyType key = KeyType.CUSTOMER;
+        private long windowSeconds = 60;
+        // null = sin tope por ese criterio
+        private Long maxCount;
+        private BigDecimal maxAmount;
+        private VelocityAction action = VelocityAction.HOLD;
+    }
+}
@@ -3,12 +3,15 @@ package com.makiia.paymentservice.controller;
 import com.makiia.paymentservice.dto.HealthResponse;
 import com.makiia.paymentservice.dto.PaymentRequestDto;
 import com.makiia.paymentservice.dto.PaymentResponseDto;
+import com.makiia.paymentservice.entity.PaymentStatus;
 import com.makiia.paymentservice.service.PaymentService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/payments")
@@ -36,16 +39,45 @@ public class PaymentController {
 
     // 💳 PROCESAR PAGO
     @PostMapping
-    public ResponseEntity<PaymentResponseDto> processPayment(
-            @RequestBody PaymentRequestDto dto) {
+    public CompletableFuture<ResponseEntity<PaymentResponseDto>> processPayment(
+            @RequestBody PaymentRequestDto dto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
 
-        return ResponseEntity.ok(paymentService.processPayment(dto));
+        // Asíncrono: el hilo del servlet se libera mientras responde el proveedor.
+        // X-User-Id lo agrega el gateway (AuthFilter) y es la clave de cliente para velocidad.
+        return paymentService.processPayment(dto, idempotencyKey, userId).thenApply(ResponseEntity::ok);
     }
 
-    // 🔍 GET ALL
+    // ✅ LIBERAR PAGO RETENIDO (HELD) tras la revisión
+    @PutMapping("/{id}/release")
+    public ResponseEntity<PaymentResponseDto> release(@PathVariable Long id) {
+        return ResponseEntity.ok(paymentService.release(id));
+    }
+
+    // 🔍 BUSCAR (keyset: la siguiente página se pide con after = X-Next-After)
     @GetMapping
-    public ResponseEntity<List<PaymentResponseDto>> getAll() {
-        return ResponseEntity.ok(paymentService.getAll());
+    public ResponseEntity<List<PaymentResponseDto>> search(
+            @RequestParam(required = false) Long orderId,
+            @RequestParam(required = false) PaymentStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        List<PaymentResponseDto> payments = paymentService.search(orderId, status, from, to, after, limit);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (payments.size() == limit) {
+            response.header("X-Next-After", String.valueOf(payments.get(payments.size() - 1).getPaymentId()));
+        }
+        return response.body(payments);
+    }
+
+    // 🔍 GET BY ORDER
+    @GetMapping("/by-order/{orderId}")
+    public ResponseEntity<List<PaymentResponseDto>> getByOrderId(@PathVariable Long orderId) {
+        return ResponseEntity.ok(paymentService.getByOrderId(orderId));
     }
 
     // 🔍 GET BY ID
@@ -0,0 +1,30 @@
+package com.makiia.paymentservice.controller;
+
+import com.makiia.paymentservice.dto.ReconciliationReportDto;
+import com.makiia.paymentservice.service.ReconciliationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/payments/reconciliation")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    public ReconciliationController(ReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    // 🔁 INICIAR (fix=true corrige las órdenes que siguen abiertas)
+    @PostMapping
+    public ResponseEntity<ReconciliationReportDto> start(@RequestParam(defaultValue = "false") boolean fix) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reconciliationService.start(fix));
+    }
+
+    // 🔍 ÚLTIMA CORRIDA
+    @GetMapping
+    public ResponseEntity<ReconciliationReportDto> latest() {
+        return ResponseEntity.ok(reconciliationService.latest());
+    }
+}
@@ -0,0 +1,42 @@
+package com.makiia.paymentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class ReconciliationReportDto {
+
+    private String runId;
+    private String state; // RUNNING, DONE, FAILED
+    private boolean fix;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long scanned;
+    private long mismatches;
+    private long corrected;
+    private Map<String, Long> byType;
+    // Primeras diferencias; el detalle completo queda en reportFile (NDJSON)
+    private List<Mismatch> samples;
+    private String reportFile;
+    private String error;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Mismatch {
+        private Long paymentId;
+        private Long orderId;
+        private String paymentStatus;
+        private String orderStatus;
+        private String type;
+        private boolean corrected;
+    }
+}
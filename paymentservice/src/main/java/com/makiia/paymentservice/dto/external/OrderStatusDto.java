@@ -0,0 +1,9 @@
+package com.makiia.paymentservice.dto.external;
+
+import lombok.Data;
+
+@Data
+public class OrderStatusDto {
+    private Long orderId;
+    private String status;
+}
@@ -0,0 +1,13 @@
+package com.makiia.paymentservice.dto.external;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdateDto {
+    private Long orderId;
+    private String status; // CONFIRMED, CANCELLED
+}
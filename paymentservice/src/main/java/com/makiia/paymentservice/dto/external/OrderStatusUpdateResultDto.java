@@ -0,0 +1,10 @@
+package com.makiia.paymentservice.dto.external;
+
+import lombok.Data;
+
+@Data
+public class OrderStatusUpdateResultDto {
+    private Long orderId;
+    private String outcome; // UPDATED, UNCHANGED, NOT_FOUND, INVALID
+    private String status;
+}
@@ -0,0 +1,6 @@
+package com.makiia.paymentservice.entity;
+
+public enum OutboxEventType {
+    CONFIRM_ORDER,
+    CANCEL_ORDER
+}
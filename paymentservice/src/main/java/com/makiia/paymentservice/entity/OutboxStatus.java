@@ -0,0 +1,7 @@
+package com.makiia.paymentservice.entity;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
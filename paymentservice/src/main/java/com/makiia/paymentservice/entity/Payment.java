@@ -2,13 +2,24 @@ package com.makiia.paymentservice.entity;
 
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(
+        name = "payments",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_payments_idempotency_key", columnNames = "idempotency_key"),
+                @UniqueConstraint(name = "uk_payments_settled_order", columnNames = "settled_order_id")
+        },
+        indexes = {
+                @Index(name = "idx_payments_order", columnList = "order_id"),
+                @Index(name = "idx_payments_status_created", columnList = "status, created_at")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,8 +27,11 @@ import java.time.LocalDateTime;
 @Builder
 public class Payment {
 
+    // Siempre de PaymentIdAllocator: los ids del modo journal y los del guardado directo
+    // salen del mismo rango aunque convivan instancias con y sin journal
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "payment-id")
+    @GenericGenerator(name = "payment-id", strategy = "com.makiia.paymentservice.config.PaymentIdGenerator")
     private Long id;
 
     @Column(name = "order_id", nullable = false)
@@ -33,6 +47,14 @@ public class Payment {
     @Column(nullable = false)
     private PaymentStatus status;
 
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
+    // = orderId cuando el pago quedó APPROVED/REJECTED, null si FAILED:
+    // a lo sumo un pago resuelto por orden (los FAILED se pueden reintentar)
+    @Column(name = "settled_order_id")
+    private Long settledOrderId;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
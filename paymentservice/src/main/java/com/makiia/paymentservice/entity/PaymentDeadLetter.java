@@ -0,0 +1,56 @@
+package com.makiia.paymentservice.entity;
+
+import lombok.*;
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Pago del journal que no se pudo pasar a MySQL porque choca con otro pago distinto
+// (mismo id, misma Idempotency-Key u orden ya resuelta): queda aquí para revisión manual
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "payment_dead_letter",
+        indexes = @Index(name = "idx_payment_dead_letter_order", columnList = "order_id")
+)
+public class PaymentDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    private String method;
+
+    @Column(nullable = false, length = 10)
+    private String status;
+
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
+    @Column(name = "payment_created_at")
+    private LocalDateTime paymentCreatedAt;
+
+    // DUPLICATE_ID, DUPLICATE_KEY, ORDER_SETTLED, UNKNOWN
+    @Column(nullable = false, length = 20)
+    private String reason;
+
+    // Pago que ya estaba en MySQL (null si no se encontró)
+    @Column(name = "conflicting_payment_id")
+    private Long conflictingPaymentId;
+
+    @Column(name = "parked_at", nullable = false)
+    private LocalDateTime parkedAt;
+}
@@ -0,0 +1,22 @@
+package com.makiia.paymentservice.entity;
+
+import lombok.*;
+import javax.persistence.*;
+
+// Rango de ids reservado por PaymentIdAllocator (una fila por secuencia; hoy solo "payments")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "payment_id_allocator")
+public class PaymentIdAllocation {
+
+    @Id
+    @Column(length = 32)
+    private String name;
+
+    @Column(name = "next_id", nullable = false)
+    private Long nextId;
+}
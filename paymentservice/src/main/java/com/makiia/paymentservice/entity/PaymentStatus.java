@@ -2,6 +2,17 @@ package com.makiia.paymentservice.entity;
 
 public enum PaymentStatus {
     APPROVED,
-    REJECTED
-}
+    REJECTED,
+    // El proveedor falló o no respondió a tiempo (la orden no se toca)
+    FAILED,
+    // Retenido por una regla de velocidad, sin llamar al proveedor (revisión manual)
+    HELD,
+    // HELD aprobado en la revisión: libera la Idempotency-Key y el siguiente intento de la
+    // orden va directo al proveedor, sin reglas de velocidad
+    RELEASED;
 
+    // APPROVED / REJECTED: resultado definitivo que se avisa a orderservice
+    public boolean isSettled() {
+        return this == APPROVED || this == REJECTED;
+    }
+}
@@ -0,0 +1,308 @@
+package com.makiia.paymentservice.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Log local append-only de pagos sobre archivos mapeados en memoria (segmentos de
+ * tamaño fijo). Un solo hilo escribe: toma todo lo que esté en cola (hasta maxBatch),
+ * lo copia al segmento y hace un único force() para el grupo (group commit); recién
+ * entonces se completan los futures de ese grupo.
+ *
+ * Formato de cada entrada: [int largo][int crc32][datos]. Un largo 0 marca el final
+ * del segmento; una entrada con CRC inválido (escritura cortada por una caída) corta
+ * la lectura de ese segmento.
+ *
+ * Un grupo que falla a mitad no deja entradas vivas con su future fallido: lo escrito en
+ * el segmento actual se anula con un largo 0 y se sigue en un segmento nuevo. Las entradas
+ * del grupo que quedaron en un segmento anterior ya tenían force() al cambiar de segmento
+ * y se confirman.
+ */
+public class PaymentJournal implements Closeable {
+
+    private static final int HEADER = 8;
+    private static final String PREFIX = "payments-";
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int maxBatch;
+    private final BlockingQueue<Append> queue;
+
+    // Segmentos cerrados -> mayor seq que contienen (se borran cuando todo está en MySQL)
+    private final ConcurrentSkipListMap<Long, Long> closedSegments = new ConcurrentSkipListMap<>();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long segment;
+    private long segmentMaxSeq;
+    private long nextSeq = 1;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public PaymentJournal(Path dir, int segmentBytes, int maxBatch, int queueCapacity) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.maxBatch = maxBatch;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    // 📌 Lee lo que quedó en disco y arranca el writer (en un segmento nuevo)
+    public synchronized List<PaymentJournalRecord> open() throws IOException {
+        Files.createDirectories(dir);
+        List<PaymentJournalRecord> records = new ArrayList<>();
+
+        long lastSegment = 0;
+        for (Path file : segmentFiles()) {
+            long index = indexOf(file);
+            lastSegment = Math.max(lastSegment, index);
+
+            List<PaymentJournalRecord> read = read(file);
+            if (read.isEmpty()) {
+                Files.delete(file);
+                continue;
+            }
+            long maxSeq = 0;
+            for (PaymentJournalRecord record : read) {
+                maxSeq = Math.max(maxSeq, record.getSeq());
+            }
+            nextSeq = Math.max(nextSeq, maxSeq + 1);
+            closedSegments.put(index, maxSeq);
+            records.addAll(read);
+        }
+
+        roll(lastSegment + 1);
+        running = true;
+        writer = new Thread(this::writeLoop, "payment-journal");
+        writer.setDaemon(true);
+        writer.start();
+        return records;
+    }
+
+    // 📌 Se completa cuando la entrada (y su grupo) ya está en disco; devuelve el seq
+    public CompletableFuture<Long> append(PaymentJournalRecord record) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("Journal de pagos cerrado"));
+            return future;
+        }
+        try {
+            queue.put(new Append(record, future));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // 📌 Todo hasta seq ya está en MySQL: se borran los segmentos cerrados que no hacen falta
+    public void markFlushed(long seq) {
+        for (Map.Entry<Long, Long> entry : closedSegments.entrySet()) {
+            if (entry.getValue() > seq) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(fileOf(entry.getKey()));
+                closedSegments.remove(entry.getKey());
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Append> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(a -> a.future.completeExceptionally(new IllegalStateException("Journal de pagos cerrado")));
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+        }
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private void writeLoop() {
+        List<Append> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<Append> batch) {
+        long batchSegment = segment;
+        long previousMaxSeq = segmentMaxSeq;
+        try {
+            for (Append append : batch) {
+                write(append);
+            }
+            buffer.force();
+            batch.forEach(a -> a.future.complete(a.record.getSeq()));
+        } catch (IOException | RuntimeException e) {
+            discard(batch, batchSegment, previousMaxSeq, e);
+        }
+    }
+
+    // 📌 Anula lo escrito del grupo en el segmento actual y confirma solo lo que ya tenía force()
+    private void discard(List<Append> batch, long batchSegment, long previousMaxSeq, Exception error) {
+        int undoFrom = -1;
+        for (Append append : batch) {
+            if (append.position < 0) {
+                append.future.completeExceptionally(error);
+            } else if (append.segment < segment) {
+                append.future.complete(append.record.getSeq());
+            } else {
+                if (undoFrom < 0) {
+                    undoFrom = append.position;
+                }
+                append.future.completeExceptionally(error);
+            }
+        }
+        if (undoFrom < 0) {
+            return;
+        }
+
+        try {
+            buffer.putInt(undoFrom, 0);
+            buffer.force();
+            // Lo que siga en este segmento quedaría detrás de la marca: se abre otro
+            closedSegments.put(segment, segment == batchSegment ? previousMaxSeq : 0L);
+            roll(segment + 1);
+        } catch (IOException | RuntimeException e) {
+            // Sin poder anular el grupo no se acepta nada más (las entradas podrían reaparecer)
+            running = false;
+        }
+    }
+
+    private void write(Append append) throws IOException {
+        long seq = nextSeq++;
+        byte[] data = append.record.encode(seq);
+        if (HEADER + data.length + 4 > segmentBytes) {
+            throw new IOException("Entrada más grande que el segmento del journal");
+        }
+        if (buffer.remaining() < HEADER + data.length + 4) {
+            buffer.force();
+            closedSegments.put(segment, segmentMaxSeq);
+            roll(segment + 1);
+        }
+
+        append.segment = segment;
+        append.position = buffer.position();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        buffer.putInt(data.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(data);
+
+        append.record.setSeq(seq);
+        segmentMaxSeq = seq;
+    }
+
+    private void roll(long index) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        segment = index;
+        segmentMaxSeq = 0;
+        channel = FileChannel.open(fileOf(index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+
+    private List<PaymentJournalRecord> read(Path file) throws IOException {
+        List<PaymentJournalRecord> records = new ArrayList<>();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            while (data.remaining() >= HEADER) {
+                int length = data.getInt();
+                int expectedCrc = data.getInt();
+                if (length <= 0 || length > data.remaining()) {
+                    break;
+                }
+                byte[] bytes = new byte[length];
+                data.get(bytes);
+
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                if ((int) crc.getValue() != expectedCrc) {
+                    break;
+                }
+                try {
+                    records.add(PaymentJournalRecord.decode(bytes));
+                } catch (IOException | RuntimeException e) {
+                    break;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // final de segmento incompleto: se conserva lo leído
+        }
+        return records;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(f -> f.getFileName().toString().startsWith(PREFIX)
+                            && f.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path fileOf(long index) {
+        return dir.resolve(String.format("%s%020d%s", PREFIX, index, SUFFIX));
+    }
+
+    private long indexOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static class Append {
+
+        private final PaymentJournalRecord record;
+        private final CompletableFuture<Long> future;
+        // Dónde quedó escrita (-1 si todavía no se escribió)
+        private long segment = -1;
+        private int position = -1;
+
+        Append(PaymentJournalRecord record, CompletableFuture<Long> future) {
+            this.record = record;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.makiia.paymentservice.journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pago tal como queda en el journal (formato binario propio, sin depender de Jackson
+ * para mantener el append barato).
+ */
+public class PaymentJournalRecord {
+
+    private long seq;
+    private final long id;
+    private final long orderId;
+    private final BigDecimal amount;
+    private final String method;
+    private final String status;
+    private final String idempotencyKey;
+    private final LocalDateTime createdAt;
+
+    public PaymentJournalRecord(long id, long orderId, BigDecimal amount, String method, String status,
+                                String idempotencyKey, LocalDateTime createdAt) {
+        this.id = id;
+        this.orderId = orderId;
+        this.amount = amount;
+        this.method = method;
+        this.status = status;
+        this.idempotencyKey = idempotencyKey;
+        this.createdAt = createdAt;
+    }
+
+    // Posición en el journal (la asigna PaymentJournal al escribir)
+    public long getSeq() {
+        return seq;
+    }
+
+    void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    byte[] encode(long seq) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(seq);
+            out.writeLong(id);
+            out.writeLong(orderId);
+            out.writeUTF(amount.toPlainString());
+            writeNullable(out, method);
+            out.writeUTF(status);
+            writeNullable(out, idempotencyKey);
+            out.writeUTF(createdAt.toString());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static PaymentJournalRecord decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        long seq = in.readLong();
+        PaymentJournalRecord record = new PaymentJournalRecord(
+                in.readLong(),
+                in.readLong(),
+                new BigDecimal(in.readUTF()),
+                readNullable(in),
+                in.readUTF(),
+                readNullable(in),
+                LocalDateTime.parse(in.readUTF()));
+        record.setSeq(seq);
+        return record;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
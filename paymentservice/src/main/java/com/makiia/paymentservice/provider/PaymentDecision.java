@@ -0,0 +1,12 @@
+package com.makiia.paymentservice.provider;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PaymentDecision {
+    private boolean approved;
+    // Latencia observada del proveedor
+    private long latencyMs;
+}
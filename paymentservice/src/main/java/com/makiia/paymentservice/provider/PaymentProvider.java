@@ -0,0 +1,14 @@
+package com.makiia.paymentservice.provider;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Proveedor externo que autoriza el cobro. Las implementaciones no bloquean el hilo
+ * que llama: el resultado llega en el CompletableFuture, que termina con
+ * PaymentProviderException si el proveedor falla o no responde a tiempo.
+ */
+public interface PaymentProvider {
+
+    CompletableFuture<PaymentDecision> authorize(Long orderId, BigDecimal amount, String method);
+}
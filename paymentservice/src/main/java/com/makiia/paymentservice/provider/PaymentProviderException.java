@@ -0,0 +1,15 @@
+package com.makiia.paymentservice.provider;
+
+public class PaymentProviderException extends RuntimeException {
+
+    private final boolean timeout;
+
+    public PaymentProviderException(String message, boolean timeout) {
+        super(message);
+        this.timeout = timeout;
+    }
+
+    public boolean isTimeout() {
+        return timeout;
+    }
+}
@@ -0,0 +1,79 @@
+package com.makiia.paymentservice.provider;
+
+import com.makiia.paymentservice.config.SimulatedProviderProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proveedor local para pruebas de carga: latencia lognormal con picos de cola,
+ * tasa de aprobación, errores y timeout configurables por method
+ * (payments.provider.simulator). Las respuestas se programan en un scheduler,
+ * así que miles de pagos en vuelo no ocupan miles de hilos.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.provider.type", havingValue = "simulator", matchIfMissing = true)
+public class SimulatedPaymentProvider implements PaymentProvider {
+
+    private final SimulatedProviderProperties properties;
+    private final ScheduledExecutorService scheduler;
+
+    public SimulatedPaymentProvider(SimulatedProviderProperties properties) {
+        this.properties = properties;
+        this.scheduler = Executors.newScheduledThreadPool(properties.getThreads(), r -> {
+            Thread thread = new Thread(r, "payment-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public CompletableFuture<PaymentDecision> authorize(Long orderId, BigDecimal amount, String method) {
+        SimulatedProviderProperties.Profile profile = properties.profileFor(method);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long latency = sampleLatency(profile, random);
+        boolean error = random.nextDouble() < profile.getErrorRate();
+        boolean approved = random.nextDouble() < profile.getApprovalRatio();
+
+        CompletableFuture<PaymentDecision> future = new CompletableFuture<>();
+
+        // 📌 Timeout: el que llama se entera a los timeoutMs, no cuando "respondería" el proveedor
+        if (latency > profile.getTimeoutMs()) {
+            scheduler.schedule(() -> future.completeExceptionally(
+                    new PaymentProviderException("Timeout del proveedor (" + profile.getTimeoutMs() + " ms)", true)),
+                    profile.getTimeoutMs(), TimeUnit.MILLISECONDS);
+            return future;
+        }
+
+        scheduler.schedule(() -> {
+            if (error) {
+                future.completeExceptionally(new PaymentProviderException("Error del proveedor", false));
+            } else {
+                future.complete(new PaymentDecision(approved, latency));
+            }
+        }, latency, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    // exp(ln(mediana) + sigma * N(0,1)), con pico ocasional
+    private long sampleLatency(SimulatedProviderProperties.Profile profile, ThreadLocalRandom random) {
+        double latency = Math.exp(Math.log(profile.getMedianMs()) + profile.getSigma() * random.nextGaussian());
+        if (random.nextDouble() < profile.getSpikeProbability()) {
+            latency *= profile.getSpikeMultiplier();
+        }
+        return Math.max(0, Math.round(latency));
+    }
+}
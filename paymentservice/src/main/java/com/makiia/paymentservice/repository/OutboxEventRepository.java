@@ -0,0 +1,44 @@
+package com.makiia.paymentservice.repository;
+
+import com.makiia.paymentservice.entity.OutboxEvent;
+import com.makiia.paymentservice.entity.OutboxStatus;
+import org.hibernate.LockOptions;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // 📌 Lote listo para enviar (en orden de creación), bloqueado y saltando lo que otra instancia ya tomó
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "" + LockOptions.SKIP_LOCKED))
+    @Query("select e from OutboxEvent e where e.status = :status and e.nextAttemptAt <= :now order by e.id")
+    List<OutboxEvent> lockDue(@Param("status") OutboxStatus status,
+                              @Param("now") LocalDateTime now,
+                              Pageable pageable);
+
+    // 📌 Evento pendiente más antiguo de cada orden: [orderId, id]
+    @Query("select e.orderId, min(e.id) from OutboxEvent e " +
+           "where e.status = :status and e.orderId in :orderIds group by e.orderId")
+    List<Object[]> findOldestIdsByOrder(@Param("status") OutboxStatus status,
+                                        @Param("orderIds") Collection<Long> orderIds);
+
+    long countByStatus(OutboxStatus status);
+
+    // 📌 Limpieza de eventos ya entregados
+    @Modifying
+    @Transactional
+    @Query("delete from OutboxEvent e where e.status = :status and e.sentAt < :before")
+    int deleteSentBefore(@Param("status") OutboxStatus status, @Param("before") LocalDateTime before);
+}
@@ -1,7 +1,51 @@
 package com.makiia.paymentservice.repository;
 
 import com.makiia.paymentservice.entity.Payment;
+import com.makiia.paymentservice.entity.PaymentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    Optional<Payment> findByIdempotencyKey(String idempotencyKey);
+
+    // 📌 Pago ya resuelto (APPROVED/REJECTED) de una orden
+    Optional<Payment> findBySettledOrderId(Long orderId);
+
+    // 📌 Orden con un pago retenido ya liberado en revisión
+    boolean existsByOrderIdAndStatus(Long orderId, PaymentStatus status);
+
+    // 📌 Pagos de una orden (idx_payments_order)
+    List<PaymentView> findByOrderIdOrderByIdDesc(Long orderId);
+
+    // 📌 Búsqueda con filtros opcionales, keyset por id (más recientes primero)
+    @Query("select p.id as id, p.orderId as orderId, p.amount as amount, p.method as method, " +
+            "p.status as status, p.createdAt as createdAt from Payment p " +
+            "where (:orderId is null or p.orderId = :orderId) " +
+            "and (:status is null or p.status = :status) " +
+            "and (:from is null or p.createdAt >= :from) " +
+            "and (:to is null or p.createdAt < :to) " +
+            "and (:after is null or p.id < :after) " +
+            "order by p.id desc")
+    List<PaymentView> search(@Param("orderId") Long orderId,
+                             @Param("status") PaymentStatus status,
+                             @Param("from") LocalDateTime from,
+                             @Param("to") LocalDateTime to,
+                             @Param("after") Long after,
+                             Pageable pageable);
+
+    // 📌 Pagos resueltos en orden de id, por bloques (conciliación)
+    @Query("select p.id as id, p.orderId as orderId, p.amount as amount, p.method as method, " +
+            "p.status as status, p.createdAt as createdAt from Payment p " +
+            "where p.settledOrderId is not null and p.id > :after and p.createdAt < :before " +
+            "order by p.id")
+    List<PaymentView> findSettledAfter(@Param("after") Long after,
+                                       @Param("before") LocalDateTime before,
+                                       Pageable pageable);
 }
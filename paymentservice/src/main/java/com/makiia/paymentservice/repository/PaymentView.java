@@ -0,0 +1,22 @@
+package com.makiia.paymentservice.repository;
+
+import com.makiia.paymentservice.entity.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Proyección de lectura (solo las columnas que devuelve la API)
+public interface PaymentView {
+
+    Long getId();
+
+    Long getOrderId();
+
+    BigDecimal getAmount();
+
+    String getMethod();
+
+    PaymentStatus getStatus();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,186 @@
+package com.makiia.paymentservice.service;
+
+import com.makiia.paymentservice.client.OrderClient;
+import com.makiia.paymentservice.config.OutboxProperties;
+import com.makiia.paymentservice.dto.external.OrderStatusUpdateDto;
+import com.makiia.paymentservice.dto.external.OrderStatusUpdateResultDto;
+import com.makiia.paymentservice.entity.OutboxEvent;
+import com.makiia.paymentservice.entity.OutboxEventType;
+import com.makiia.paymentservice.entity.OutboxStatus;
+import com.makiia.paymentservice.repository.OutboxEventRepository;
+import feign.FeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Entrega a orderservice los eventos del outbox fuera del request de pago.
+ * Cada lote va en una sola llamada a POST /orders/status/batch, con un cambio
+ * por orden (el último evento gana y los anteriores se marcan como enviados).
+ * Los errores de red / 5xx se reintentan con backoff exponencial; un 4xx o una
+ * orden NOT_FOUND / INVALID no se reintenta.
+ *
+ * Con varias instancias cada una toma su lote con select ... for update skip locked y lo
+ * reserva (next_attempt_at = ahora + claim-timeout) antes de llamar a orderservice. Una orden
+ * solo se envía si el lote incluye su evento pendiente más antiguo; si ese evento lo tiene otra
+ * instancia o espera reintento, la orden espera, así los estados no llegan fuera de orden.
+ */
+@Service
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final String UPDATED = "UPDATED";
+    private static final String UNCHANGED = "UNCHANGED";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderClient orderClient;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            OrderClient orderClient,
+                            OutboxProperties properties,
+                            PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderClient = orderClient;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${payments.outbox.poll-interval-ms:500}")
+    public void dispatch() {
+        List<OutboxEvent> batch;
+        do {
+            batch = claim();
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        } while (batch.size() == properties.getBatchSize());
+    }
+
+    @Scheduled(fixedDelay = 3600000)
+    public void purgeSent() {
+        int deleted = outboxEventRepository.deleteSentBefore(
+                OutboxStatus.SENT, LocalDateTime.now().minusHours(properties.getRetentionHours()));
+        if (deleted > 0) {
+            log.info("Outbox: {} eventos enviados eliminados", deleted);
+        }
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    // 📌 Toma y reserva un lote; los bloqueos duran solo esta transacción, no la llamada HTTP
+    List<OutboxEvent> claim() {
+        return transactionTemplate.execute(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = outboxEventRepository.lockDue(
+                    OutboxStatus.PENDING, now, PageRequest.of(0, properties.getBatchSize()));
+            if (due.isEmpty()) {
+                return due;
+            }
+
+            Map<Long, Long> firstInBatch = new HashMap<>();
+            due.forEach(e -> firstInBatch.merge(e.getOrderId(), e.getId(), Math::min));
+            Map<Long, Long> oldestPending = new HashMap<>();
+            for (Object[] row : outboxEventRepository.findOldestIdsByOrder(OutboxStatus.PENDING, firstInBatch.keySet())) {
+                oldestPending.put((Long) row[0], (Long) row[1]);
+            }
+
+            LocalDateTime reservedUntil = now.plusNanos(properties.getClaimTimeoutMs() * 1_000_000L);
+            List<OutboxEvent> claimed = due.stream()
+                    .filter(e -> firstInBatch.get(e.getOrderId()).equals(oldestPending.get(e.getOrderId())))
+                    .collect(Collectors.toList());
+            claimed.forEach(e -> e.setNextAttemptAt(reservedUntil));
+            return outboxEventRepository.saveAll(claimed);
+        });
+    }
+
+    private void deliver(List<OutboxEvent> batch) {
+        // 📌 Deduplicar por orden: solo el evento más reciente se envía
+        Map<Long, List<OutboxEvent>> byOrder = batch.stream()
+                .collect(Collectors.groupingBy(OutboxEvent::getOrderId, LinkedHashMap::new, Collectors.toList()));
+
+        List<OrderStatusUpdateDto> updates = byOrder.values()
+                .stream()
+                .map(events -> toUpdate(events.get(events.size() - 1)))
+                .collect(Collectors.toList());
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            // 📌 Un solo llamado por lote; el resultado viene por orden
+            Map<Long, String> outcomes = orderClient.updateStatuses(updates)
+                    .stream()
+                    .collect(Collectors.toMap(OrderStatusUpdateResultDto::getOrderId,
+                            OrderStatusUpdateResultDto::getOutcome, (a, b) -> b));
+
+            byOrder.forEach((orderId, events) -> {
+                String outcome = outcomes.get(orderId);
+                if (UPDATED.equals(outcome) || UNCHANGED.equals(outcome)) {
+                    events.forEach(e -> markSent(e, now));
+                } else {
+                    RuntimeException error = new IllegalStateException("orderservice respondió " + outcome);
+                    events.forEach(e -> markFailedAttempt(e, error, false, now));
+                }
+            });
+        } catch (FeignException e) {
+            boolean retryable = e.status() < 400 || e.status() >= 500;
+            batch.forEach(event -> markFailedAttempt(event, e, retryable, now));
+        } catch (RuntimeException e) {
+            batch.forEach(event -> markFailedAttempt(event, e, true, now));
+        }
+        outboxEventRepository.saveAll(batch);
+    }
+
+    private OrderStatusUpdateDto toUpdate(OutboxEvent event) {
+        return new OrderStatusUpdateDto(event.getOrderId(),
+                event.getType() == OutboxEventType.CONFIRM_ORDER ? "CONFIRMED" : "CANCELLED");
+    }
+
+    private void markSent(OutboxEvent event, LocalDateTime now) {
+        event.setStatus(OutboxStatus.SENT);
+        event.setSentAt(now);
+        event.setLastError(null);
+    }
+
+    private void markFailedAttempt(OutboxEvent event, RuntimeException error, boolean retryable, LocalDateTime now) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(error.getMessage()));
+
+        if (!retryable || attempts >= properties.getMaxAttempts()) {
+            event.setStatus(OutboxStatus.FAILED);
+            log.warn("Outbox: evento {} ({} orden {}) FAILED tras {} intentos: {}",
+                    event.getId(), event.getType(), event.getOrderId(), attempts, event.getLastError());
+            return;
+        }
+        event.setNextAttemptAt(now.plusNanos(backoffMillis(attempts) * 1_000_000L));
+    }
+
+    // initial * 2^(n-1) con tope, +/-20% de jitter para no sincronizar reintentos
+    private long backoffMillis(int attempts) {
+        long base = properties.getInitialBackoffMs() << Math.min(attempts - 1, 30);
+        long capped = Math.min(Math.max(base, 0), properties.getMaxBackoffMs());
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return (long) (capped * jitter);
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
@@ -0,0 +1,356 @@
+package com.makiia.paymentservice.service;
+
+import com.makiia.paymentservice.config.PaymentIdAllocator;
+import com.makiia.paymentservice.config.PaymentJournalProperties;
+import com.makiia.paymentservice.dto.PaymentRequestDto;
+import com.makiia.paymentservice.dto.PaymentResponseDto;
+import com.makiia.paymentservice.entity.OutboxEventType;
+import com.makiia.paymentservice.entity.OutboxStatus;
+import com.makiia.paymentservice.entity.PaymentStatus;
+import com.makiia.paymentservice.journal.PaymentJournal;
+import com.makiia.paymentservice.journal.PaymentJournalRecord;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Modo journal (payments.journal.enabled): el pago se confirma al cliente cuando está
+ * en el journal local (group commit) y un hilo aparte lo pasa a MySQL por lotes
+ * (payments + payment_outbox en una transacción). Mientras no llega a MySQL se
+ * responde desde memoria (idempotencia y GET por id). Al arrancar se reinsertan las
+ * entradas del journal que no están en la base.
+ *
+ * Si un pago choca con un unique al pasar a MySQL: con el mismo id y los mismos datos es
+ * una repetición (ya se había guardado) y se salta; si choca con otro pago distinto (id,
+ * Idempotency-Key u orden ya resuelta) es un cobro que no debe perderse: se guarda en
+ * payment_dead_letter, se cuenta en payments.journal.dead_letter y se loguea como error.
+ */
+@Service
+public class PaymentJournalService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentJournalService.class);
+
+    private static final String INSERT_PAYMENT =
+            "insert into payments (id, order_id, amount, method, status, idempotency_key, settled_order_id, created_at) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_DEAD_LETTER =
+            "insert into payment_dead_letter (payment_id, order_id, amount, method, status, idempotency_key, " +
+            "payment_created_at, reason, conflicting_payment_id, parked_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String FIND_CONFLICTS =
+            "select id, order_id, amount, method, status, idempotency_key, settled_order_id from payments " +
+            "where id = ? or idempotency_key = ? or settled_order_id = ?";
+    private static final String INSERT_OUTBOX =
+            "insert into payment_outbox (payment_id, order_id, type, status, attempts, next_attempt_at, created_at) " +
+            "values (?, ?, ?, ?, 0, ?, ?)";
+
+    private final PaymentJournalProperties properties;
+    private final PaymentIdAllocator idAllocator;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // Pagos en el journal que todavía no están en MySQL
+    private final ConcurrentHashMap<Long, PaymentJournalRecord> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> pendingSettledByOrder = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> pendingByKey = new ConcurrentHashMap<>();
+    private final BlockingQueue<PaymentJournalRecord> toFlush = new LinkedBlockingQueue<>();
+
+    private PaymentJournal journal;
+    private Thread flusher;
+    private volatile boolean running;
+
+    public PaymentJournalService(PaymentJournalProperties properties,
+                                 PaymentIdAllocator idAllocator,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.idAllocator = idAllocator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        journal = new PaymentJournal(Paths.get(properties.getDir()), properties.getSegmentBytes(),
+                properties.getGroupCommitSize(), properties.getQueueCapacity());
+        List<PaymentJournalRecord> recovered = journal.open();
+
+        // 📌 Recuperación: lo que quedó en el journal y no llegó a MySQL
+        Set<Long> stored = existingIds(recovered.stream().map(PaymentJournalRecord::getId).collect(Collectors.toList()));
+        int replayed = 0;
+        for (PaymentJournalRecord record : recovered) {
+            if (!stored.contains(record.getId())) {
+                track(record);
+                replayed++;
+            }
+        }
+        if (!recovered.isEmpty()) {
+            log.info("Journal de pagos: {} entradas leídas, {} pendientes de MySQL", recovered.size(), replayed);
+        }
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "payment-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        if (!isEnabled()) {
+            return;
+        }
+        journal.close();
+        running = false;
+        flusher.interrupt();
+        flusher.join(5000);
+    }
+
+    // 📌 Escribe el pago en el journal; el future termina cuando está en disco
+    public CompletableFuture<PaymentResponseDto> append(PaymentRequestDto dto, String idempotencyKey, PaymentStatus status) {
+        PaymentJournalRecord record = new PaymentJournalRecord(
+                idAllocator.next(),
+                dto.getOrderId(),
+                dto.getAmount(),
+                dto.getMethod(),
+                status.name(),
+                idempotencyKey,
+                LocalDateTime.now());
+
+        return journal.append(record).thenApply(seq -> {
+            track(record);
+            return toDto(record);
+        });
+    }
+
+    // 📌 Pago aún no guardado en MySQL (misma regla que PaymentService.findExisting)
+    public Optional<PaymentResponseDto> findPendingByKey(String idempotencyKey) {
+        Long id = pendingByKey.get(idempotencyKey);
+        return id != null ? findPendingById(id) : Optional.empty();
+    }
+
+    public Optional<PaymentResponseDto> findPendingSettled(Long orderId) {
+        Long id = pendingSettledByOrder.get(orderId);
+        return id != null ? findPendingById(id) : Optional.empty();
+    }
+
+    public Optional<PaymentResponseDto> findPendingById(Long id) {
+        return Optional.ofNullable(pending.get(id)).map(this::toDto);
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private void track(PaymentJournalRecord record) {
+        pending.put(record.getId(), record);
+        if (record.getIdempotencyKey() != null) {
+            pendingByKey.put(record.getIdempotencyKey(), record.getId());
+        }
+        if (PaymentStatus.valueOf(record.getStatus()).isSettled()) {
+            pendingSettledByOrder.put(record.getOrderId(), record.getId());
+        }
+        toFlush.add(record);
+    }
+
+    private void untrack(PaymentJournalRecord record) {
+        pending.remove(record.getId());
+        if (record.getIdempotencyKey() != null) {
+            pendingByKey.remove(record.getIdempotencyKey(), record.getId());
+        }
+        pendingSettledByOrder.remove(record.getOrderId(), record.getId());
+    }
+
+    private void flushLoop() {
+        List<PaymentJournalRecord> batch = new ArrayList<>(properties.getFlushBatchSize());
+        while (running) {
+            try {
+                batch.add(toFlush.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            toFlush.drainTo(batch, properties.getFlushBatchSize() - 1);
+
+            // Si MySQL no responde se reintenta el mismo lote (siguen en el journal)
+            long backoff = 500;
+            while (running) {
+                try {
+                    flush(batch);
+                    break;
+                } catch (RuntimeException e) {
+                    // DataAccessException (MySQL caído) u otro error: el lote sigue en el journal
+                    log.warn("Journal de pagos: no se pudo escribir el lote en MySQL, reintento en {} ms", backoff, e);
+                    try {
+                        Thread.sleep(backoff);
+                    } catch (InterruptedException ie) {
+                        return;
+                    }
+                    backoff = Math.min(backoff * 2, 30000);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    void flush(List<PaymentJournalRecord> batch) {
+        try {
+            transactionTemplate.execute(status -> insert(batch));
+        } catch (DataIntegrityViolationException e) {
+            // 📌 Algún pago choca con un unique: uno por uno para separar repeticiones de conflictos
+            for (PaymentJournalRecord record : batch) {
+                try {
+                    transactionTemplate.execute(status -> insert(List.of(record)));
+                } catch (DataIntegrityViolationException conflict) {
+                    resolveConflict(record);
+                }
+            }
+        }
+
+        batch.forEach(this::untrack);
+        journal.markFlushed(batch.stream().mapToLong(PaymentJournalRecord::getSeq).max().orElse(0));
+    }
+
+    private Void insert(List<PaymentJournalRecord> records) {
+        jdbcTemplate.batchUpdate(INSERT_PAYMENT, records, records.size(), (ps, r) -> {
+            ps.setLong(1, r.getId());
+            ps.setLong(2, r.getOrderId());
+            ps.setBigDecimal(3, r.getAmount());
+            ps.setString(4, r.getMethod());
+            ps.setString(5, r.getStatus());
+            ps.setString(6, r.getIdempotencyKey());
+            if (PaymentStatus.valueOf(r.getStatus()).isSettled()) {
+                ps.setLong(7, r.getOrderId());
+            } else {
+                ps.setNull(7, Types.BIGINT);
+            }
+            ps.setTimestamp(8, Timestamp.valueOf(r.getCreatedAt()));
+        });
+
+        List<PaymentJournalRecord> settled = records.stream()
+                .filter(r -> PaymentStatus.valueOf(r.getStatus()).isSettled())
+                .collect(Collectors.toList());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX, settled, settled.size(), (ps, r) -> {
+            ps.setLong(1, r.getId());
+            ps.setLong(2, r.getOrderId());
+            ps.setString(3, PaymentStatus.APPROVED.name().equals(r.getStatus())
+                    ? OutboxEventType.CONFIRM_ORDER.name()
+                    : OutboxEventType.CANCEL_ORDER.name());
+            ps.setString(4, OutboxStatus.PENDING.name());
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+        });
+        return null;
+    }
+
+    // 📌 Repetición (mismo id y mismos datos) -> nada que hacer; cualquier otro choque -> dead letter
+    private void resolveConflict(PaymentJournalRecord record) {
+        Long settledOrderId = PaymentStatus.valueOf(record.getStatus()).isSettled() ? record.getOrderId() : null;
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(FIND_CONFLICTS,
+                record.getId(), record.getIdempotencyKey(), settledOrderId);
+
+        String reason = "UNKNOWN";
+        Long conflictingId = null;
+        for (Map<String, Object> row : rows) {
+            long id = ((Number) row.get("id")).longValue();
+            if (id == record.getId()) {
+                if (samePayment(row, record)) {
+                    log.info("Journal de pagos: pago {} ya estaba en MySQL (repetición)", record.getId());
+                    return;
+                }
+                reason = "DUPLICATE_ID";
+            } else if (record.getIdempotencyKey() != null
+                    && record.getIdempotencyKey().equals(row.get("idempotency_key"))) {
+                reason = "DUPLICATE_KEY";
+            } else {
+                reason = "ORDER_SETTLED";
+            }
+            conflictingId = id;
+        }
+
+        park(record, reason, conflictingId);
+    }
+
+    private boolean samePayment(Map<String, Object> row, PaymentJournalRecord record) {
+        return ((Number) row.get("order_id")).longValue() == record.getOrderId()
+                && ((BigDecimal) row.get("amount")).compareTo(record.getAmount()) == 0
+                && Objects.equals(row.get("method"), record.getMethod())
+                && Objects.equals(row.get("status"), record.getStatus())
+                && Objects.equals(row.get("idempotency_key"), record.getIdempotencyKey());
+    }
+
+    private void park(PaymentJournalRecord record, String reason, Long conflictingId) {
+        jdbcTemplate.update(INSERT_DEAD_LETTER,
+                record.getId(),
+                record.getOrderId(),
+                record.getAmount(),
+                record.getMethod(),
+                record.getStatus(),
+                record.getIdempotencyKey(),
+                Timestamp.valueOf(record.getCreatedAt()),
+                reason,
+                conflictingId,
+                Timestamp.valueOf(LocalDateTime.now()));
+        meterRegistry.counter("payments.journal.dead_letter", "reason", reason).increment();
+        log.error("Journal de pagos: pago {} de la orden {} ({} {}) en payment_dead_letter por {} " +
+                        "(choca con el pago {}); requiere revisión manual",
+                record.getId(), record.getOrderId(), record.getStatus(), record.getAmount(), reason, conflictingId);
+    }
+
+    private Set<Long> existingIds(List<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += 500) {
+            List<Long> chunk = ids.subList(from, Math.min(from + 500, ids.size()));
+            existing.addAll(namedJdbcTemplate.queryForList(
+                    "select id from payments where id in (:ids)", new MapSqlParameterSource("ids", chunk), Long.class));
+        }
+        return existing;
+    }
+
+    private PaymentResponseDto toDto(PaymentJournalRecord record) {
+        return PaymentResponseDto.builder()
+                .paymentId(record.getId())
+                .orderId(record.getOrderId())
+                .amount(record.getAmount())
+                .method(record.getMethod())
+                .status(record.getStatus())
+                .createdAt(record.getCreatedAt())
+                .build();
+    }
+}
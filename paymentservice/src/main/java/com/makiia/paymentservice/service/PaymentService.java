@@ -1,55 +1,147 @@
 package com.makiia.paymentservice.service;
 
+import com.makiia.paymentservice.config.PaymentIdAllocator;
 import com.makiia.paymentservice.dto.PaymentRequestDto;
 import com.makiia.paymentservice.dto.PaymentResponseDto;
+import com.makiia.paymentservice.entity.OutboxEvent;
+import com.makiia.paymentservice.entity.OutboxEventType;
+import com.makiia.paymentservice.entity.OutboxStatus;
 import com.makiia.paymentservice.entity.Payment;
 import com.makiia.paymentservice.entity.PaymentStatus;
+import com.makiia.paymentservice.provider.PaymentProvider;
+import com.makiia.paymentservice.repository.OutboxEventRepository;
 import com.makiia.paymentservice.repository.PaymentRepository;
+import com.makiia.paymentservice.repository.PaymentView;
+import com.makiia.paymentservice.velocity.VelocityDecision;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.Random;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 @Service
 public class PaymentService {
 
+    private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
+
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final PaymentRepository paymentRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final PaymentProvider paymentProvider;
+    private final PaymentJournalService journalService;
+    private final PaymentVelocityService velocityService;
+    private final Executor paymentExecutor;
+    private final PaymentIdAllocator idAllocator;
+    private final TransactionTemplate transactionTemplate;
 
-    public PaymentService(PaymentRepository paymentRepository) {
+    // 📌 Pagos en curso por Idempotency-Key (o por orden si no viene); vive solo mientras responde el proveedor
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    // 📌 Orden -> clave del pago en curso: dos claves distintas no cobran la misma orden a la vez
+    private final ConcurrentHashMap<Long, String> inFlightOrders = new ConcurrentHashMap<>();
+
+    public PaymentService(PaymentRepository paymentRepository,
+                          OutboxEventRepository outboxEventRepository,
+                          PaymentProvider paymentProvider,
+                          PaymentJournalService journalService,
+                          PaymentVelocityService velocityService,
+                          @Qualifier("paymentExecutor") Executor paymentExecutor,
+                          PaymentIdAllocator idAllocator,
+                          PlatformTransactionManager transactionManager) {
         this.paymentRepository = paymentRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.paymentProvider = paymentProvider;
+        this.journalService = journalService;
+        this.velocityService = velocityService;
+        this.paymentExecutor = paymentExecutor;
+        this.idAllocator = idAllocator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    // 💳 Procesar pago
-    public PaymentResponseDto processPayment(PaymentRequestDto dto) {
+    // 💳 Procesar pago (idempotente por Idempotency-Key y por orderId).
+    // Reintentos concurrentes con la misma clave y el mismo cuerpo comparten el mismo future
+    // -> una sola llamada al proveedor; después, el pago ya guardado se devuelve sin volver a
+    // cobrar. La misma clave con otra orden es 409 y con otro monto/método 422.
+    public CompletableFuture<PaymentResponseDto> processPayment(PaymentRequestDto dto,
+                                                                String idempotencyKey,
+                                                                Long customerId) {
+        validate(dto, idempotencyKey);
 
-        boolean approved = new Random().nextBoolean();
+        String key = idempotencyKey != null ? "key:" + idempotencyKey : "order:" + dto.getOrderId();
+        InFlight mine = new InFlight(dto);
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            checkSameRequest(running.orderId, running.amount, running.method, dto);
+            return running.result;
+        }
 
-        PaymentStatus status = approved
-                ? PaymentStatus.APPROVED
-                : PaymentStatus.REJECTED;
+        String owner = inFlightOrders.putIfAbsent(dto.getOrderId(), key);
+        if (owner != null) {
+            ResponseStatusException busy = new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Ya hay un pago en curso para la orden " + dto.getOrderId());
+            // Quien se haya unido a este intento recibe el mismo 409
+            inFlight.remove(key, mine);
+            mine.result.completeExceptionally(busy);
+            return mine.result;
+        }
 
-        Payment payment = Payment.builder()
-                .orderId(dto.getOrderId())
-                .amount(dto.getAmount())
-                .method(dto.getMethod())
-                .status(status)
-                .build();
+        CompletableFuture<PaymentResponseDto> processing;
+        try {
+            processing = findExisting(dto, idempotencyKey)
+                    .map(CompletableFuture::completedFuture)
+                    .orElseGet(() -> checkVelocityAndAuthorize(dto, idempotencyKey, customerId));
+        } catch (RuntimeException e) {
+            processing = CompletableFuture.failedFuture(e);
+        }
 
-        Payment saved = paymentRepository.save(payment);
+        // Se libera la clave antes de completar: el siguiente intento ya ve el pago en la BD
+        processing.whenComplete((response, error) -> {
+            inFlightOrders.remove(dto.getOrderId(), key);
+            inFlight.remove(key, mine);
+            if (error != null) {
+                mine.result.completeExceptionally(rootCause(error));
+            } else {
+                mine.result.complete(response);
+            }
+        });
+        return mine.result;
+    }
 
-        return PaymentResponseDto.builder()
-                .paymentId(saved.getId())
-                .orderId(saved.getOrderId())
-                .amount(saved.getAmount())
-                .method(saved.getMethod())
-                .status(saved.getStatus().name())
-                .createdAt(saved.getCreatedAt())
-                .build();
+    // 🔍 Buscar (filtros opcionales; after = último paymentId de la página anterior)
+    public List<PaymentResponseDto> search(Long orderId,
+                                           PaymentStatus status,
+                                           LocalDateTime from,
+                                           LocalDateTime to,
+                                           Long after,
+                                           int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+        return paymentRepository.search(orderId, status, from, to, after, PageRequest.of(0, limit))
+                .stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
     }
 
-    // 🔍 Obtener todos
-    public java.util.List<PaymentResponseDto> getAll() {
-        return paymentRepository.findAll()
+    // 🔍 Pagos de una orden
+    public List<PaymentResponseDto> getByOrderId(Long orderId) {
+        return paymentRepository.findByOrderIdOrderByIdDesc(orderId)
                 .stream()
                 .map(this::mapToDto)
                 .collect(Collectors.toList());
@@ -57,11 +149,176 @@ public class PaymentService {
 
     // 🔍 Obtener por ID
     public PaymentResponseDto getById(Long id) {
+        if (journalService.isEnabled()) {
+            Optional<PaymentResponseDto> pending = journalService.findPendingById(id);
+            if (pending.isPresent()) {
+                return pending.get();
+            }
+        }
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Pago no encontrado"));
         return mapToDto(payment);
     }
 
+    // ✅ Liberar un pago retenido (revisión manual): el cliente puede reintentar, incluso con la misma clave
+    public PaymentResponseDto release(Long id) {
+        if (journalService.isEnabled() && journalService.findPendingById(id).isPresent()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "El pago " + id + " todavía no está en la base, reintentar en unos segundos");
+        }
+        return transactionTemplate.execute(tx -> {
+            Payment payment = paymentRepository.findById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pago no encontrado"));
+            if (payment.getStatus() != PaymentStatus.HELD) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Solo se libera un pago HELD (el pago " + id + " está " + payment.getStatus() + ")");
+            }
+            // Sin clave: el reintento con la misma Idempotency-Key ya no devuelve el HELD
+            payment.setStatus(PaymentStatus.RELEASED);
+            payment.setIdempotencyKey(null);
+            log.info("Pago {} de la orden {} liberado tras revisión", id, payment.getOrderId());
+            return mapToDto(payment);
+        });
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private void validate(PaymentRequestDto dto, String idempotencyKey) {
+        if (dto.getOrderId() == null || dto.getAmount() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "orderId y amount son obligatorios");
+        }
+        if (idempotencyKey != null && idempotencyKey.length() > 64) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key supera 64 caracteres");
+        }
+    }
+
+    private Optional<PaymentResponseDto> findExisting(PaymentRequestDto dto, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            Optional<PaymentResponseDto> byKey = journalService.isEnabled()
+                    ? journalService.findPendingByKey(idempotencyKey)
+                    : Optional.empty();
+            if (byKey.isEmpty()) {
+                byKey = paymentRepository.findByIdempotencyKey(idempotencyKey).map(this::mapToDto);
+            }
+            if (byKey.isPresent()) {
+                PaymentResponseDto existing = byKey.get();
+                checkSameRequest(existing.getOrderId(), existing.getAmount(), existing.getMethod(), dto);
+                return byKey;
+            }
+        }
+        // Sin clave conocida: la orden ya resuelta por otro intento se devuelve tal cual
+        if (journalService.isEnabled()) {
+            Optional<PaymentResponseDto> pending = journalService.findPendingSettled(dto.getOrderId());
+            if (pending.isPresent()) {
+                return pending;
+            }
+        }
+        return paymentRepository.findBySettledOrderId(dto.getOrderId()).map(this::mapToDto);
+    }
+
+    // 📌 Una Idempotency-Key solo vale para el mismo cuerpo
+    private void checkSameRequest(Long orderId, BigDecimal amount, String method, PaymentRequestDto dto) {
+        if (!orderId.equals(dto.getOrderId())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Idempotency-Key ya usada para otra orden");
+        }
+        if (amount.compareTo(dto.getAmount()) != 0 || !Objects.equals(method, dto.getMethod())) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key ya usada con otro monto o método de pago");
+        }
+    }
+
+    private CompletableFuture<PaymentResponseDto> authorizeAndSave(PaymentRequestDto dto, String idempotencyKey) {
+        return paymentProvider.authorize(dto.getOrderId(), dto.getAmount(), dto.getMethod())
+                .handle((decision, error) -> {
+                    if (error != null) {
+                        log.warn("Pago de la orden {} sin respuesta del proveedor: {}",
+                                dto.getOrderId(), rootCause(error).getMessage());
+                        return PaymentStatus.FAILED;
+                    }
+                    return decision.isApproved() ? PaymentStatus.APPROVED : PaymentStatus.REJECTED;
+                })
+                .thenComposeAsync(status -> persist(dto, idempotencyKey, status), paymentExecutor);
+    }
+
+    // 📌 Regla de velocidad antes del proveedor: REJECT no guarda nada, HOLD guarda el pago retenido.
+    // Una orden con un HELD liberado en revisión ya no pasa por las reglas.
+    private CompletableFuture<PaymentResponseDto> checkVelocityAndAuthorize(PaymentRequestDto dto,
+                                                                          String idempotencyKey,
+                                                                          Long customerId) {
+        if (paymentRepository.existsByOrderIdAndStatus(dto.getOrderId(), PaymentStatus.RELEASED)) {
+            return authorizeAndSave(dto, idempotencyKey);
+        }
+        VelocityDecision velocity = velocityService.check(customerId, dto.getOrderId(), dto.getAmount());
+        switch (velocity.getAction()) {
+            case REJECT:
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "Demasiados pagos en poco tiempo (regla " + velocity.getRule() + ")");
+            case HOLD:
+                return CompletableFuture.completedFuture(PaymentStatus.HELD)
+                        .thenComposeAsync(status -> persist(dto, idempotencyKey, status), paymentExecutor);
+            default:
+                return authorizeAndSave(dto, idempotencyKey);
+        }
+    }
+
+    private CompletableFuture<PaymentResponseDto> persist(PaymentRequestDto dto, String idempotencyKey, PaymentStatus status) {
+        // 📌 Modo journal: se responde cuando el grupo está en disco, MySQL va después
+        return journalService.isEnabled()
+                ? journalService.append(dto, idempotencyKey, status)
+                : CompletableFuture.completedFuture(saveOrFindExisting(dto, idempotencyKey, status));
+    }
+
+    private PaymentResponseDto saveOrFindExisting(PaymentRequestDto dto, String idempotencyKey, PaymentStatus status) {
+        // 📌 El id se reserva antes de abrir la transacción: reponer el rango del allocator
+        // pide otra conexión, y con el pool ocupado por pagos esperando su id nadie la suelta
+        long id = idAllocator.next();
+        try {
+            return transactionTemplate.execute(tx -> save(id, dto, idempotencyKey, status));
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia guardó primero (unique de key / orden resuelta)
+            return findExisting(dto, idempotencyKey).orElseThrow(() -> e);
+        }
+    }
+
+    private PaymentResponseDto save(long id, PaymentRequestDto dto, String idempotencyKey, PaymentStatus status) {
+        Payment saved = paymentRepository.saveAndFlush(Payment.builder()
+                .id(id)
+                .orderId(dto.getOrderId())
+                .amount(dto.getAmount())
+                .method(dto.getMethod())
+                .status(status)
+                .idempotencyKey(idempotencyKey)
+                .settledOrderId(status.isSettled() ? dto.getOrderId() : null)
+                .build());
+
+        if (status.isSettled()) {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .paymentId(saved.getId())
+                    .orderId(saved.getOrderId())
+                    .type(status == PaymentStatus.APPROVED ? OutboxEventType.CONFIRM_ORDER : OutboxEventType.CANCEL_ORDER)
+                    .status(OutboxStatus.PENDING)
+                    .attempts(0)
+                    .nextAttemptAt(LocalDateTime.now())
+                    .build());
+        }
+        return mapToDto(saved);
+    }
+
+    private Throwable rootCause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private PaymentResponseDto mapToDto(PaymentView payment) {
+        return PaymentResponseDto.builder()
+                .paymentId(payment.getId())
+                .orderId(payment.getOrderId())
+                .amount(payment.getAmount())
+                .method(payment.getMethod())
+                .status(payment.getStatus().name())
+                .createdAt(payment.getCreatedAt())
+                .build();
+    }
+
     private PaymentResponseDto mapToDto(Payment payment) {
         return PaymentResponseDto.builder()
                 .paymentId(payment.getId())
@@ -72,4 +329,18 @@ public class PaymentService {
                 .createdAt(payment.getCreatedAt())
                 .build();
     }
+
+    // Datos del intento en curso con los que se compara un reintento de la misma clave
+    private static class InFlight {
+        private final Long orderId;
+        private final BigDecimal amount;
+        private final String method;
+        private final CompletableFuture<PaymentResponseDto> result = new CompletableFuture<>();
+
+        InFlight(PaymentRequestDto dto) {
+            this.orderId = dto.getOrderId();
+            this.amount = dto.getAmount();
+            this.method = dto.getMethod();
+        }
+    }
 }
@@ -0,0 +1,130 @@
+package com.makiia.paymentservice.service;
+
+import com.makiia.paymentservice.config.VelocityProperties;
+import com.makiia.paymentservice.velocity.SlidingWindow;
+import com.makiia.paymentservice.velocity.VelocityDecision;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Velocidad de pagos por cliente / orden en memoria, antes de llamar al proveedor.
+ * Cada regla lleva una ventana deslizante por clave; se cuentan los intentos (también
+ * los que terminan rechazados, que es justo lo que interesa en una ráfaga). Las ventanas
+ * sin uso por más que la ventana más larga se eliminan periódicamente.
+ * Los contadores son por instancia: con N instancias el límite efectivo es hasta N veces mayor.
+ */
+@Service
+public class PaymentVelocityService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentVelocityService.class);
+
+    private final VelocityProperties properties;
+    private final ConcurrentHashMap<String, SlidingWindow> windows = new ConcurrentHashMap<>();
+    private final LongAdder untracked = new LongAdder();
+    private final long longestWindowMillis;
+    private volatile long lastEviction;
+
+    public PaymentVelocityService(VelocityProperties properties) {
+        this.properties = properties;
+        this.longestWindowMillis = properties.getRules()
+                .stream()
+                .mapToLong(r -> r.getWindowSeconds() * 1000)
+                .max()
+                .orElse(0);
+    }
+
+    // 📌 Registra el intento y decide (ALLOW / HOLD / REJECT); gana la acción más severa
+    public VelocityDecision check(Long customerId, Long orderId, BigDecimal amount) {
+        return check(customerId, orderId, amount, System.currentTimeMillis());
+    }
+
+    VelocityDecision check(Long customerId, Long orderId, BigDecimal amount, long now) {
+        if (!properties.isEnabled()) {
+            return VelocityDecision.ALLOW;
+        }
+
+        long cents = amount.movePointRight(2).longValue();
+        VelocityDecision decision = VelocityDecision.ALLOW;
+
+        for (VelocityProperties.Rule rule : properties.getRules()) {
+            Long id = rule.getKey() == VelocityProperties.KeyType.CUSTOMER ? customerId : orderId;
+            if (id == null) {
+                continue;
+            }
+            long[] totals = add(rule, id, now, cents);
+            if (totals == null) {
+                continue;
+            }
+
+            boolean exceeded = (rule.getMaxCount() != null && totals[0] > rule.getMaxCount())
+                    || (rule.getMaxAmount() != null && totals[1] > rule.getMaxAmount().movePointRight(2).longValue());
+
+            if (exceeded && rule.getAction().compareTo(decision.getAction()) > 0) {
+                decision = new VelocityDecision(rule.getAction(), rule.getName(), totals[0], totals[1]);
+            }
+        }
+
+        if (!decision.isAllowed()) {
+            log.info("Velocidad: {} por regla {} (cliente {}, orden {}, {} pagos, {} centavos)",
+                    decision.getAction(), decision.getRule(), customerId, orderId,
+                    decision.getCount(), decision.getAmountCents());
+        }
+        return decision;
+    }
+
+    @Scheduled(fixedDelayString = "${payments.velocity.sweep-interval-ms:10000}")
+    public void sweep() {
+        evictIdle(System.currentTimeMillis());
+        long skipped = untracked.sumThenReset();
+        if (skipped > 0) {
+            log.warn("Velocidad: {} intentos sin contar (max-keys={} alcanzado)", skipped, properties.getMaxKeys());
+        }
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    // 📌 El alta y la suma van dentro del compute de la clave: el barrido usa el mismo lock
+    // por clave, así que nunca elimina una ventana entre que se obtiene y se le suma el pago
+    private long[] add(VelocityProperties.Rule rule, Long id, long now, long cents) {
+        String key = rule.getName() + ":" + id;
+        if (!windows.containsKey(key) && windows.size() >= properties.getMaxKeys()) {
+            // Como mucho un barrido por segundo cuando la tabla está llena
+            if (now - lastEviction > 1000) {
+                evictIdle(now);
+            }
+            if (windows.size() >= properties.getMaxKeys()) {
+                untracked.increment();
+                return null;
+            }
+        }
+        long[][] totals = new long[1][];
+        windows.compute(key, (k, window) -> {
+            SlidingWindow target = window != null
+                    ? window
+                    : new SlidingWindow(rule.getWindowSeconds() * 1000, properties.getBuckets(), now);
+            totals[0] = target.add(now, cents);
+            return target;
+        });
+        return totals[0];
+    }
+
+    void evictIdle(long now) {
+        lastEviction = now;
+        for (String key : windows.keySet()) {
+            // Se vuelve a mirar la actividad con la clave bloqueada: si alguien sumó entre
+            // medio, la ventana se queda
+            windows.computeIfPresent(key, (k, window) ->
+                    now - window.lastTouched() > longestWindowMillis ? null : window);
+        }
+    }
+
+    int trackedKeys() {
+        return windows.size();
+    }
+}
@@ -0,0 +1,289 @@
+package com.makiia.paymentservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makiia.paymentservice.client.OrderClient;
+import com.makiia.paymentservice.config.ReconciliationProperties;
+import com.makiia.paymentservice.dto.ReconciliationReportDto;
+import com.makiia.paymentservice.dto.external.OrderStatusDto;
+import com.makiia.paymentservice.dto.external.OrderStatusUpdateDto;
+import com.makiia.paymentservice.dto.external.OrderStatusUpdateResultDto;
+import com.makiia.paymentservice.entity.PaymentStatus;
+import com.makiia.paymentservice.repository.PaymentRepository;
+import com.makiia.paymentservice.repository.PaymentView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Compara los pagos resueltos (APPROVED/REJECTED) con el estado de su orden.
+ * Recorre payments por id en bloques (keyset), consulta los estados de cada bloque
+ * con una sola llamada a orderservice y escribe cada diferencia en un archivo NDJSON,
+ * así que la memoria usada depende del tamaño del bloque y no del total de pagos.
+ * Con fix=true corrige las órdenes que siguen abiertas (PENDING / WHATSAPP_PENDING);
+ * los conflictos con estados finales (aprobado pero cancelada, etc.) solo se reportan.
+ */
+@Service
+public class ReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationService.class);
+
+    public static final String ORDER_NOT_FOUND = "ORDER_NOT_FOUND";
+    public static final String APPROVED_ORDER_OPEN = "APPROVED_ORDER_OPEN";
+    public static final String APPROVED_ORDER_CANCELLED = "APPROVED_ORDER_CANCELLED";
+    public static final String REJECTED_ORDER_OPEN = "REJECTED_ORDER_OPEN";
+    public static final String REJECTED_ORDER_CONFIRMED = "REJECTED_ORDER_CONFIRMED";
+
+    private static final Set<String> OPEN = Set.of("PENDING", "WHATSAPP_PENDING");
+    private static final Set<String> CONFIRMED = Set.of("CONFIRMED", "SHIPPED", "COMPLETED");
+
+    private final PaymentRepository paymentRepository;
+    private final OrderClient orderClient;
+    private final ReconciliationProperties properties;
+    private final ObjectMapper objectMapper;
+    private final boolean scheduledFix;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "payment-reconciliation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Run current;
+
+    public ReconciliationService(PaymentRepository paymentRepository,
+                                 OrderClient orderClient,
+                                 ReconciliationProperties properties,
+                                 ObjectMapper objectMapper,
+                                 @Value("${payments.reconciliation.scheduled-fix:false}") boolean scheduledFix) {
+        this.paymentRepository = paymentRepository;
+        this.orderClient = orderClient;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.scheduledFix = scheduledFix;
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(cron = "${payments.reconciliation.cron:-}")
+    public void scheduledRun() {
+        try {
+            start(scheduledFix);
+        } catch (ResponseStatusException e) {
+            log.info("Conciliación programada omitida: ya hay una en curso");
+        }
+    }
+
+    // 📌 Lanza una corrida en segundo plano (una a la vez)
+    public synchronized ReconciliationReportDto start(boolean fix) {
+        if (current != null && current.isRunning()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Ya hay una conciliación en curso");
+        }
+        String runId = UUID.randomUUID().toString();
+        Run run = new Run(runId, fix,
+                Paths.get(properties.getReportDir()).resolve("reconciliation-" + runId + ".ndjson"));
+        current = run;
+        executor.submit(() -> execute(run));
+        return run.toDto();
+    }
+
+    // 📌 Resumen de la última corrida
+    public ReconciliationReportDto latest() {
+        Run run = current;
+        if (run == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No hay conciliaciones");
+        }
+        return run.toDto();
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private void execute(Run run) {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(properties.getGraceMinutes());
+        String error = null;
+
+        // El reporte se cierra (completo en disco) antes de marcar la corrida como terminada
+        try (BufferedWriter report = Files.newBufferedWriter(run.reportFile, StandardCharsets.UTF_8)) {
+            long after = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                List<PaymentView> payments = paymentRepository.findSettledAfter(
+                        after, before, PageRequest.of(0, properties.getChunkSize()));
+                if (payments.isEmpty()) {
+                    break;
+                }
+                reconcileChunk(run, payments, report);
+                after = payments.get(payments.size() - 1).getId();
+
+                if (properties.getPauseMs() > 0) {
+                    Thread.sleep(properties.getPauseMs());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrumpida";
+        } catch (Exception e) {
+            log.error("Conciliación {} falló", run.runId, e);
+            error = e.getMessage();
+        }
+
+        run.finish(error);
+        if (error == null) {
+            log.info("Conciliación {}: {} pagos, {} diferencias, {} corregidas",
+                    run.runId, run.scanned, run.mismatches, run.corrected);
+        }
+    }
+
+    private void reconcileChunk(Run run, List<PaymentView> payments, BufferedWriter report) throws IOException {
+        Map<Long, String> orderStatuses = orderClient.getStatuses(
+                        payments.stream().map(PaymentView::getOrderId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(OrderStatusDto::getOrderId, OrderStatusDto::getStatus, (a, b) -> a));
+
+        List<ReconciliationReportDto.Mismatch> mismatches = new ArrayList<>();
+        for (PaymentView payment : payments) {
+            String orderStatus = orderStatuses.get(payment.getOrderId());
+            String type = classify(payment.getStatus(), orderStatus);
+            if (type != null) {
+                mismatches.add(new ReconciliationReportDto.Mismatch(payment.getId(), payment.getOrderId(),
+                        payment.getStatus().name(), orderStatus, type, false));
+            }
+        }
+
+        if (run.fix) {
+            correct(mismatches);
+        }
+
+        for (ReconciliationReportDto.Mismatch mismatch : mismatches) {
+            report.write(objectMapper.writeValueAsString(mismatch));
+            report.newLine();
+        }
+        run.record(payments.size(), mismatches, properties.getMaxSamples());
+    }
+
+    private String classify(PaymentStatus paymentStatus, String orderStatus) {
+        if (orderStatus == null) {
+            return ORDER_NOT_FOUND;
+        }
+        if (paymentStatus == PaymentStatus.APPROVED) {
+            if (CONFIRMED.contains(orderStatus)) {
+                return null;
+            }
+            return OPEN.contains(orderStatus) ? APPROVED_ORDER_OPEN : APPROVED_ORDER_CANCELLED;
+        }
+        if ("CANCELLED".equals(orderStatus)) {
+            return null;
+        }
+        return OPEN.contains(orderStatus) ? REJECTED_ORDER_OPEN : REJECTED_ORDER_CONFIRMED;
+    }
+
+    // 📌 Un solo llamado por bloque para las órdenes que siguen abiertas
+    private void correct(List<ReconciliationReportDto.Mismatch> mismatches) {
+        Map<Long, ReconciliationReportDto.Mismatch> fixable = mismatches.stream()
+                .filter(m -> APPROVED_ORDER_OPEN.equals(m.getType()) || REJECTED_ORDER_OPEN.equals(m.getType()))
+                .collect(Collectors.toMap(ReconciliationReportDto.Mismatch::getOrderId, Function.identity(),
+                        (a, b) -> a, LinkedHashMap::new));
+        if (fixable.isEmpty()) {
+            return;
+        }
+
+        List<OrderStatusUpdateDto> updates = fixable.values()
+                .stream()
+                .map(m -> new OrderStatusUpdateDto(m.getOrderId(),
+                        APPROVED_ORDER_OPEN.equals(m.getType()) ? "CONFIRMED" : "CANCELLED"))
+                .collect(Collectors.toList());
+
+        for (OrderStatusUpdateResultDto result : orderClient.updateStatuses(updates)) {
+            ReconciliationReportDto.Mismatch mismatch = fixable.get(result.getOrderId());
+            if (mismatch != null && ("UPDATED".equals(result.getOutcome()) || "UNCHANGED".equals(result.getOutcome()))) {
+                mismatch.setCorrected(true);
+            }
+        }
+    }
+
+    // Estado de una corrida; se lee desde el controller mientras el hilo de conciliación escribe
+    private static class Run {
+
+        private final String runId;
+        private final boolean fix;
+        private final Path reportFile;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final Map<String, Long> byType = new LinkedHashMap<>();
+        private final List<ReconciliationReportDto.Mismatch> samples = new ArrayList<>();
+        private LocalDateTime finishedAt;
+        private long scanned;
+        private long mismatches;
+        private long corrected;
+        private String error;
+
+        Run(String runId, boolean fix, Path reportFile) {
+            this.runId = runId;
+            this.fix = fix;
+            this.reportFile = reportFile;
+        }
+
+        synchronized boolean isRunning() {
+            return finishedAt == null;
+        }
+
+        synchronized void record(int payments, List<ReconciliationReportDto.Mismatch> found, int maxSamples) {
+            scanned += payments;
+            mismatches += found.size();
+            for (ReconciliationReportDto.Mismatch mismatch : found) {
+                byType.merge(mismatch.getType(), 1L, Long::sum);
+                if (mismatch.isCorrected()) {
+                    corrected++;
+                }
+                if (samples.size() < maxSamples) {
+                    samples.add(mismatch);
+                }
+            }
+        }
+
+        synchronized void finish(String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        synchronized ReconciliationReportDto toDto() {
+            return ReconciliationReportDto.builder()
+                    .runId(runId)
+                    .state(finishedAt == null ? "RUNNING" : error == null ? "DONE" : "FAILED")
+                    .fix(fix)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .scanned(scanned)
+                    .mismatches(mismatches)
+                    .corrected(corrected)
+                    .byType(new LinkedHashMap<>(byType))
+                    .samples(new ArrayList<>(samples))
+                    .reportFile(reportFile.toString())
+                    .error(error)
+                    .build();
+        }
+    }
+}
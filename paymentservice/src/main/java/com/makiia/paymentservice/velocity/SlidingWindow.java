@@ -0,0 +1,58 @@
+package com.makiia.paymentservice.velocity;
+
+import java.util.Arrays;
+
+/**
+ * Ventana deslizante por buckets de tiempo (anillo de tamaño fijo): cantidad y monto
+ * de la ventana sin guardar cada pago. Un bucket viejo se reutiliza al pasar por él,
+ * así que la memoria por clave es constante. El lock es por ventana (una por clave),
+ * de modo que dos clientes distintos nunca compiten entre sí.
+ */
+public final class SlidingWindow {
+
+    private final long bucketMillis;
+    private final long[] epochs;
+    private final long[] counts;
+    private final long[] amounts;
+    private volatile long lastTouched;
+
+    public SlidingWindow(long windowMillis, int buckets, long nowMillis) {
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+        this.epochs = new long[buckets];
+        this.counts = new long[buckets];
+        this.amounts = new long[buckets];
+        Arrays.fill(epochs, Long.MIN_VALUE);
+        this.lastTouched = nowMillis;
+    }
+
+    // 📌 Suma un pago y devuelve {cantidad, monto} de la ventana incluyéndolo
+    public synchronized long[] add(long nowMillis, long amount) {
+        long epoch = nowMillis / bucketMillis;
+        int index = (int) Math.floorMod(epoch, (long) epochs.length);
+        if (epochs[index] != epoch) {
+            epochs[index] = epoch;
+            counts[index] = 0;
+            amounts[index] = 0;
+        }
+        counts[index]++;
+        amounts[index] += amount;
+        // Solo avanza: un hilo con un reloj leído antes no hace parecer inactiva la ventana
+        if (nowMillis > lastTouched) {
+            lastTouched = nowMillis;
+        }
+
+        long count = 0;
+        long total = 0;
+        for (int i = 0; i < epochs.length; i++) {
+            if (epochs[i] > epoch - epochs.length) {
+                count += counts[i];
+                total += amounts[i];
+            }
+        }
+        return new long[]{count, total};
+    }
+
+    public long lastTouched() {
+        return lastTouched;
+    }
+}
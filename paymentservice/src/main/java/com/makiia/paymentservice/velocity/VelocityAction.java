@@ -0,0 +1,8 @@
+package com.makiia.paymentservice.velocity;
+
+// Orden de severidad: ALLOW < HOLD < REJECT
+public enum VelocityAction {
+    ALLOW,
+    HOLD,
+    REJECT
+}
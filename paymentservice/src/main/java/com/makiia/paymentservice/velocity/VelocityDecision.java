@@ -0,0 +1,21 @@
+package com.makiia.paymentservice.velocity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class VelocityDecision {
+
+    public static final VelocityDecision ALLOW = new VelocityDecision(VelocityAction.ALLOW, null, 0, 0);
+
+    private final VelocityAction action;
+    // Regla que se superó (null si ALLOW)
+    private final String rule;
+    private final long count;
+    private final long amountCents;
+
+    public boolean isAllowed() {
+        return action == VelocityAction.ALLOW;
+    }
+}
@@ -0,0 +1,86 @@
+package com.makiia.paymentservice.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.makiia.commons.smile.SmileConfig;
+import com.makiia.paymentservice.dto.PaymentResponseDto;
+import com.makiia.paymentservice.service.PaymentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PaymentControllerTests {
+
+    // Como el builder de Spring Boot: fechas en ISO-8601, no como arreglo
+    private final MappingJackson2SmileHttpMessageConverter smile = new SmileConfig().smileHttpMessageConverter(
+            Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+    private MockMvc mockMvc;
+
+    // Mismo orden que Spring Boot: JSON primero, Smile sólo si se pide
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new PaymentController(new StubPaymentService()))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(), smile)
+                .build();
+    }
+
+    @Test
+    void paymentsByOrderAreAnsweredInSmileWhenAccepted() throws Exception {
+        MvcResult result = mockMvc.perform(get("/payments/by-order/{orderId}", 10)
+                        .accept(SmileConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SmileConfig.APPLICATION_SMILE_VALUE))
+                .andReturn();
+
+        List<Map<String, Object>> payments = smile.getObjectMapper().readValue(
+                result.getResponse().getContentAsByteArray(), new TypeReference<List<Map<String, Object>>>() { });
+        assertThat(payments).hasSize(1);
+        assertThat(payments.get(0)).containsEntry("orderId", 10).containsEntry("status", "APPROVED");
+        assertThat(payments.get(0).get("createdAt")).isEqualTo("2026-01-01T12:00:00");
+    }
+
+    @Test
+    void withoutAcceptStillAnswersJson() throws Exception {
+        mockMvc.perform(get("/payments/by-order/{orderId}", 10))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private static class StubPaymentService extends PaymentService {
+
+        StubPaymentService() {
+            super(null, null, null, null, null, null, null, null);
+        }
+
+        @Override
+        public List<PaymentResponseDto> getByOrderId(Long orderId) {
+            return List.of(PaymentResponseDto.builder()
+                    .paymentId(1L)
+                    .orderId(orderId)
+                    .amount(new BigDecimal("25.00"))
+                    .method("CARD")
+                    .status("APPROVED")
+                    .createdAt(LocalDateTime.of(2026, 1, 1, 12, 0))
+                    .build());
+        }
+    }
+}
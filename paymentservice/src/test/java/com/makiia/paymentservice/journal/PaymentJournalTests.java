@@ -0,0 +1,96 @@
+package com.makiia.paymentservice.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentJournalTests {
+
+    private static final int SEGMENT = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysAcknowledgedPaymentsAfterRestart() throws Exception {
+        PaymentJournal journal = new PaymentJournal(dir, SEGMENT, 64, 1000);
+        assertThat(journal.open()).isEmpty();
+
+        List<CompletableFuture<Long>> acks = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            acks.add(journal.append(record(id)));
+        }
+        CompletableFuture.allOf(acks.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        journal.close();
+
+        // 2000 pagos no caben en un segmento de 64 KB: se leen varios
+        PaymentJournal reopened = new PaymentJournal(dir, SEGMENT, 64, 1000);
+        List<PaymentJournalRecord> recovered = reopened.open();
+        reopened.close();
+
+        assertThat(recovered).hasSize(2000);
+        assertThat(recovered.get(0).getId()).isEqualTo(1);
+        assertThat(recovered.get(1999).getAmount()).isEqualByComparingTo("2000.50");
+        assertThat(recovered.stream().map(PaymentJournalRecord::getSeq).distinct().count()).isEqualTo(2000);
+    }
+
+    @Test
+    void ignoresTornEntryAndDropsFlushedSegments() throws Exception {
+        PaymentJournal journal = new PaymentJournal(dir, SEGMENT, 64, 1000);
+        journal.open();
+        long lastSeq = 0;
+        for (long id = 1; id <= 10; id++) {
+            lastSeq = journal.append(record(id)).get(5, TimeUnit.SECONDS);
+        }
+        journal.close();
+
+        // Simula una caída a mitad de escritura: CRC de la entrada 10 inválido
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(8);
+            long position = 0;
+            for (int i = 0; i < 9; i++) {
+                header.clear();
+                channel.read(header, position);
+                position += 8 + header.getInt(0);
+            }
+            channel.write(ByteBuffer.allocate(4).putInt(0, 12345), position + 4);
+        }
+
+        PaymentJournal reopened = new PaymentJournal(dir, SEGMENT, 64, 1000);
+        assertThat(reopened.open()).hasSize(9);
+
+        reopened.markFlushed(lastSeq);
+        assertThat(segments()).doesNotContain(segment);
+        reopened.close();
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private PaymentJournalRecord record(long id) {
+        return new PaymentJournalRecord(id, 1000 + id, new BigDecimal(id + ".50"), "CARD", "APPROVED",
+                "key-" + id, LocalDateTime.of(2026, 1, 1, 12, 0));
+    }
+}
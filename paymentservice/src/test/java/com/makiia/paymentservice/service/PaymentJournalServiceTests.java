@@ -0,0 +1,114 @@
+package com.makiia.paymentservice.service;
+
+import com.makiia.paymentservice.config.PaymentIdAllocator;
+import com.makiia.paymentservice.config.PaymentJournalProperties;
+import com.makiia.paymentservice.entity.Payment;
+import com.makiia.paymentservice.journal.PaymentJournalRecord;
+import com.makiia.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// El flush usa sus propias transacciones: los datos se guardan fuera de la del test
+@DataJpaTest(properties = "spring.cloud.config.enabled=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentJournalServiceTests {
+
+    @Configuration
+    @EntityScan(basePackageClasses = Payment.class)
+    @EnableJpaRepositories(basePackageClasses = PaymentRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JdbcTemplate jdbcTemplate;
+    private PaymentJournalService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        PaymentJournalProperties properties = new PaymentJournalProperties();
+        properties.setEnabled(true);
+        properties.setDir(dir.toString());
+        properties.setSegmentBytes(64 * 1024);
+        service = new PaymentJournalService(properties,
+                new PaymentIdAllocator(jdbcTemplate, transactionManager, properties), jdbcTemplate,
+                transactionManager, meterRegistry);
+        service.start();
+
+        jdbcTemplate.update("insert into payments (id, order_id, amount, method, status, idempotency_key, " +
+                "settled_order_id, created_at) values (100, 1, 10.00, 'CARD', 'APPROVED', 'key-1', 1, ?)",
+                LocalDateTime.now());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.stop();
+        jdbcTemplate.update("delete from payment_outbox");
+        jdbcTemplate.update("delete from payment_dead_letter");
+        jdbcTemplate.update("delete from payments");
+    }
+
+    @Test
+    void replaysAreSkippedAndConflictsAreParked() {
+        service.flush(List.of(
+                record(100, 1, "10.00", "APPROVED", "key-1"),   // repetición
+                record(101, 2, "15.00", "APPROVED", "key-2"),   // nuevo
+                record(102, 3, "20.00", "APPROVED", "key-1"),   // misma clave, otro pago
+                record(103, 1, "10.00", "APPROVED", null),      // orden ya resuelta
+                record(100, 9, "30.00", "REJECTED", "key-9"))); // mismo id, otro pago
+
+        assertThat(jdbcTemplate.queryForList("select id from payments order by id", Long.class))
+                .containsExactly(100L, 101L);
+        assertThat(jdbcTemplate.queryForList("select payment_id from payment_outbox", Long.class))
+                .containsExactly(101L);
+
+        Map<Long, String> parked = jdbcTemplate.queryForList(
+                        "select payment_id, order_id, reason, conflicting_payment_id from payment_dead_letter")
+                .stream()
+                .peek(row -> assertThat(((Number) row.get("conflicting_payment_id")).longValue()).isEqualTo(100L))
+                .collect(Collectors.toMap(row -> ((Number) row.get("order_id")).longValue(),
+                        row -> (String) row.get("reason")));
+        assertThat(parked).containsOnly(
+                Map.entry(3L, "DUPLICATE_KEY"),
+                Map.entry(1L, "ORDER_SETTLED"),
+                Map.entry(9L, "DUPLICATE_ID"));
+        assertThat(meterRegistry.find("payments.journal.dead_letter").counters())
+                .hasSize(3)
+                .allSatisfy(counter -> assertThat(counter.count()).isEqualTo(1.0));
+    }
+
+    private PaymentJournalRecord record(long id, long orderId, String amount, String status, String key) {
+        return new PaymentJournalRecord(id, orderId, new BigDecimal(amount), "CARD", status, key, LocalDateTime.now());
+    }
+}
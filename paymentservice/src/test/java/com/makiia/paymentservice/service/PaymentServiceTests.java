@@ -0,0 +1,184 @@
+package com.makiia.paymentservice.service;
+
+import com.makiia.paymentservice.config.PaymentIdAllocator;
+import com.makiia.paymentservice.config.PaymentJournalProperties;
+import com.makiia.paymentservice.config.VelocityProperties;
+import com.makiia.paymentservice.dto.PaymentRequestDto;
+import com.makiia.paymentservice.dto.PaymentResponseDto;
+import com.makiia.paymentservice.entity.Payment;
+import com.makiia.paymentservice.provider.PaymentDecision;
+import com.makiia.paymentservice.provider.PaymentProvider;
+import com.makiia.paymentservice.repository.OutboxEventRepository;
+import com.makiia.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.cloud.config.enabled=false")
+class PaymentServiceTests {
+
+    // Evita cargar PaymentserviceApplication (@EnableFeignClients) en el slice JPA
+    @Configuration
+    @EntityScan(basePackageClasses = Payment.class)
+    @EnableJpaRepositories(basePackageClasses = PaymentRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final StubProvider provider = new StubProvider();
+    private PaymentService service;
+
+    @BeforeEach
+    void setUp() {
+        service = newService(new VelocityProperties());
+    }
+
+    @Test
+    void concurrentDuplicateJoinsTheSameProviderCall() throws Exception {
+        CompletableFuture<PaymentResponseDto> first = service.processPayment(request(1L, "25.00", "CARD"), "key-1", 7L);
+        CompletableFuture<PaymentResponseDto> second = service.processPayment(request(1L, "25.0", "CARD"), "key-1", 7L);
+
+        assertThat(second).isSameAs(first);
+        assertThat(provider.calls).hasSize(1);
+
+        provider.calls.get(0).complete(new PaymentDecision(true, 5));
+        assertThat(first.get().getStatus()).isEqualTo("APPROVED");
+        assertThat(paymentRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void replayReturnsTheStoredPaymentWithoutCharging() throws Exception {
+        CompletableFuture<PaymentResponseDto> first = service.processPayment(request(2L, "10.00", "CARD"), "key-2", 7L);
+        provider.calls.get(0).complete(new PaymentDecision(true, 5));
+
+        PaymentResponseDto replay = service.processPayment(request(2L, "10.00", "CARD"), "key-2", 7L).get();
+
+        assertThat(replay.getPaymentId()).isEqualTo(first.get().getPaymentId());
+        assertThat(provider.calls).hasSize(1);
+    }
+
+    @Test
+    void keyReuseWithDifferentBodyIsRejected() {
+        service.processPayment(request(3L, "10.00", "CARD"), "key-3", 7L);
+
+        // Mientras el primero sigue en curso
+        assertThatThrownBy(() -> service.processPayment(request(3L, "99.00", "CARD"), "key-3", 7L))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatus())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThatThrownBy(() -> service.processPayment(request(4L, "10.00", "CARD"), "key-3", 7L))
+                .extracting(e -> ((ResponseStatusException) e).getStatus())
+                .isEqualTo(HttpStatus.CONFLICT);
+
+        provider.calls.get(0).complete(new PaymentDecision(true, 5));
+
+        // Ya guardado
+        assertThatThrownBy(() -> service.processPayment(request(3L, "10.00", "CASH"), "key-3", 7L).get())
+                .isInstanceOf(ExecutionException.class)
+                .extracting(e -> ((ResponseStatusException) e.getCause()).getStatus())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(provider.calls).hasSize(1);
+    }
+
+    @Test
+    void otherKeyForAnOrderInFlightIsAConflict() {
+        service.processPayment(request(5L, "10.00", "CARD"), "key-5a", 7L);
+
+        assertThatThrownBy(() -> service.processPayment(request(5L, "10.00", "CARD"), "key-5b", 7L).get())
+                .isInstanceOf(ExecutionException.class)
+                .extracting(e -> ((ResponseStatusException) e.getCause()).getStatus())
+                .isEqualTo(HttpStatus.CONFLICT);
+        assertThat(provider.calls).hasSize(1);
+    }
+
+    @Test
+    void heldPaymentIsRetriedWithTheSameKeyAfterRelease() throws Exception {
+        // Toda compra del cliente queda retenida
+        VelocityProperties.Rule hold = new VelocityProperties.Rule();
+        hold.setName("hold-all");
+        hold.setMaxCount(0L);
+        VelocityProperties velocity = new VelocityProperties();
+        velocity.setEnabled(true);
+        velocity.setRules(List.of(hold));
+        service = newService(velocity);
+
+        PaymentResponseDto held = service.processPayment(request(6L, "10.00", "CARD"), "key-6", 7L).get();
+        assertThat(held.getStatus()).isEqualTo("HELD");
+        // Antes de la revisión el reintento devuelve el mismo HELD
+        assertThat(service.processPayment(request(6L, "10.00", "CARD"), "key-6", 7L).get().getPaymentId())
+                .isEqualTo(held.getPaymentId());
+        assertThat(provider.calls).isEmpty();
+
+        assertThat(service.release(held.getPaymentId()).getStatus()).isEqualTo("RELEASED");
+
+        CompletableFuture<PaymentResponseDto> retry = service.processPayment(request(6L, "10.00", "CARD"), "key-6", 7L);
+        assertThat(provider.calls).hasSize(1);
+        provider.calls.get(0).complete(new PaymentDecision(true, 5));
+        assertThat(retry.get().getStatus()).isEqualTo("APPROVED");
+        assertThat(retry.get().getPaymentId()).isNotEqualTo(held.getPaymentId());
+
+        assertThatThrownBy(() -> service.release(held.getPaymentId()))
+                .extracting(e -> ((ResponseStatusException) e).getStatus())
+                .isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    private PaymentService newService(VelocityProperties velocity) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        PaymentJournalProperties properties = new PaymentJournalProperties();
+        PaymentIdAllocator idAllocator = new PaymentIdAllocator(jdbcTemplate, transactionManager, properties);
+        PaymentJournalService journal = new PaymentJournalService(properties, idAllocator, jdbcTemplate,
+                transactionManager, new SimpleMeterRegistry());
+        return new PaymentService(paymentRepository, outboxEventRepository, provider, journal,
+                new PaymentVelocityService(velocity), Runnable::run, idAllocator, transactionManager);
+    }
+
+    private PaymentRequestDto request(Long orderId, String amount, String method) {
+        PaymentRequestDto dto = new PaymentRequestDto();
+        dto.setOrderId(orderId);
+        dto.setAmount(new BigDecimal(amount));
+        dto.setMethod(method);
+        return dto;
+    }
+
+    // Proveedor que responde cuando el test lo decide
+    private static class StubProvider implements PaymentProvider {
+        private final List<CompletableFuture<PaymentDecision>> calls = new ArrayList<>();
+
+        @Override
+        public CompletableFuture<PaymentDecision> authorize(Long orderId, BigDecimal amount, String method) {
+            CompletableFuture<PaymentDecision> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.makiia.paymentservice.service;
+
+import com.makiia.paymentservice.config.VelocityProperties;
+import com.makiia.paymentservice.velocity.VelocityAction;
+import com.makiia.paymentservice.velocity.VelocityDecision;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentVelocityServiceTests {
+
+    private static final long T0 = 1_000_000_000L;
+    private static final BigDecimal TEN = new BigDecimal("10.00");
+
+    private VelocityProperties properties;
+    private PaymentVelocityService service;
+
+    // Las mismas reglas que msvc-pay.yml
+    @BeforeEach
+    void setUp() {
+        VelocityProperties.Rule burst = new VelocityProperties.Rule();
+        burst.setName("customer-burst");
+        burst.setKey(VelocityProperties.KeyType.CUSTOMER);
+        burst.setWindowSeconds(60);
+        burst.setMaxCount(10L);
+        burst.setMaxAmount(new BigDecimal("5000"));
+        burst.setAction(VelocityAction.HOLD);
+
+        VelocityProperties.Rule retries = new VelocityProperties.Rule();
+        retries.setName("order-retries");
+        retries.setKey(VelocityProperties.KeyType.ORDER);
+        retries.setWindowSeconds(300);
+        retries.setMaxCount(5L);
+        retries.setAction(VelocityAction.REJECT);
+
+        properties = new VelocityProperties();
+        properties.setEnabled(true);
+        properties.setRules(List.of(burst, retries));
+        service = new PaymentVelocityService(properties);
+    }
+
+    @Test
+    void customerCountOverTheLimitIsHeld() {
+        for (long order = 1; order <= 10; order++) {
+            assertThat(service.check(7L, order, TEN, T0).isAllowed()).isTrue();
+        }
+
+        VelocityDecision decision = service.check(7L, 11L, TEN, T0);
+
+        assertThat(decision.getAction()).isEqualTo(VelocityAction.HOLD);
+        assertThat(decision.getRule()).isEqualTo("customer-burst");
+        assertThat(decision.getCount()).isEqualTo(11);
+        // Otro cliente no se ve afectado
+        assertThat(service.check(8L, 12L, TEN, T0).isAllowed()).isTrue();
+    }
+
+    @Test
+    void customerAmountOverTheLimitIsHeld() {
+        assertThat(service.check(7L, 1L, new BigDecimal("4000.00"), T0).isAllowed()).isTrue();
+
+        VelocityDecision decision = service.check(7L, 2L, new BigDecimal("1000.01"), T0);
+
+        assertThat(decision.getAction()).isEqualTo(VelocityAction.HOLD);
+        assertThat(decision.getAmountCents()).isEqualTo(500_001);
+    }
+
+    @Test
+    void orderRetriesOverTheLimitAreRejected() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(service.check(null, 1L, TEN, T0 + i).isAllowed()).isTrue();
+        }
+
+        VelocityDecision decision = service.check(null, 1L, TEN, T0 + 5);
+
+        assertThat(decision.getAction()).isEqualTo(VelocityAction.REJECT);
+        assertThat(decision.getRule()).isEqualTo("order-retries");
+    }
+
+    @Test
+    void mostSevereActionWins() {
+        for (int i = 0; i < 10; i++) {
+            service.check(7L, 1L, TEN, T0);
+        }
+
+        // Supera las dos reglas: REJECT gana a HOLD
+        assertThat(service.check(7L, 1L, TEN, T0).getAction()).isEqualTo(VelocityAction.REJECT);
+    }
+
+    @Test
+    void windowRollsOverAndAllowsAgain() {
+        for (long order = 1; order <= 11; order++) {
+            service.check(7L, order, TEN, T0);
+        }
+
+        assertThat(service.check(7L, 20L, TEN, T0 + 61_000).isAllowed()).isTrue();
+    }
+
+    @Test
+    void disabledAlwaysAllows() {
+        properties.setEnabled(false);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(service.check(7L, 1L, TEN, T0)).isSameAs(VelocityDecision.ALLOW);
+        }
+        assertThat(service.trackedKeys()).isZero();
+    }
+
+    @Test
+    void idleWindowsAreEvictedButActiveOnesStay() {
+        service.check(7L, 1L, TEN, T0);
+        service.check(8L, 2L, TEN, T0 + 290_000);
+
+        // La ventana más larga es de 300 s: se van las dos claves del primer intento
+        service.evictIdle(T0 + 301_000);
+
+        assertThat(service.trackedKeys()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentChecksWhileEvictingLoseNoAttempts() throws Exception {
+        // Cada intento supera la regla -> la decisión trae la cantidad de la ventana
+        VelocityProperties.Rule every = new VelocityProperties.Rule();
+        every.setName("every");
+        every.setKey(VelocityProperties.KeyType.ORDER);
+        every.setWindowSeconds(300);
+        every.setMaxCount(0L);
+        properties.setRules(List.of(every));
+        PaymentVelocityService velocity = new PaymentVelocityService(properties);
+
+        // Ventana tocada por última vez hace más de 300 s: el barrido la considera inactiva
+        velocity.check(null, 1L, TEN, T0);
+        long now = T0 + 301_000;
+
+        int threads = 8;
+        int perThread = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    velocity.check(null, 1L, TEN, now);
+                }
+                return null;
+            });
+        }
+        pool.submit(() -> {
+            start.await();
+            for (int i = 0; i < 1_000; i++) {
+                velocity.evictIdle(now);
+            }
+            return null;
+        });
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Si el barrido se llevara la ventana entre el get y la suma, esos intentos se perderían
+        assertThat(velocity.check(null, 1L, TEN, now).getCount()).isEqualTo(threads * perThread + 1);
+    }
+}
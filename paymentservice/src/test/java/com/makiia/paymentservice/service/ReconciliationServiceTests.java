@@ -0,0 +1,192 @@
+package com.makiia.paymentservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.makiia.paymentservice.client.OrderClient;
+import com.makiia.paymentservice.config.ReconciliationProperties;
+import com.makiia.paymentservice.dto.ReconciliationReportDto;
+import com.makiia.paymentservice.dto.external.OrderStatusDto;
+import com.makiia.paymentservice.dto.external.OrderStatusUpdateDto;
+import com.makiia.paymentservice.dto.external.OrderStatusUpdateResultDto;
+import com.makiia.paymentservice.entity.Payment;
+import com.makiia.paymentservice.entity.PaymentStatus;
+import com.makiia.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// La corrida usa su propio hilo: los pagos se guardan fuera de la transacción del test
+@DataJpaTest(properties = "spring.cloud.config.enabled=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReconciliationServiceTests {
+
+    @Configuration
+    @EntityScan(basePackageClasses = Payment.class)
+    @EnableJpaRepositories(basePackageClasses = PaymentRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @TempDir
+    Path reportDir;
+
+    private final StubOrderClient orders = new StubOrderClient();
+
+    @AfterEach
+    void cleanUp() {
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    void reportsMismatchesWithoutTouchingOrders() throws Exception {
+        payment(1L, PaymentStatus.APPROVED, "CONFIRMED");
+        payment(2L, PaymentStatus.APPROVED, "PENDING");
+        payment(3L, PaymentStatus.REJECTED, "CONFIRMED");
+        payment(4L, PaymentStatus.APPROVED, null);
+        payment(5L, PaymentStatus.REJECTED, "CANCELLED");
+
+        ReconciliationReportDto report = run(false);
+
+        assertThat(report.getState()).isEqualTo("DONE");
+        assertThat(report.getScanned()).isEqualTo(5);
+        assertThat(report.getMismatches()).isEqualTo(3);
+        assertThat(report.getCorrected()).isZero();
+        assertThat(report.getByType()).containsOnly(
+                Map.entry(ReconciliationService.APPROVED_ORDER_OPEN, 1L),
+                Map.entry(ReconciliationService.REJECTED_ORDER_CONFIRMED, 1L),
+                Map.entry(ReconciliationService.ORDER_NOT_FOUND, 1L));
+        assertThat(Files.readAllLines(Paths.get(report.getReportFile()))).hasSize(3);
+        assertThat(orders.updateCalls).isZero();
+        assertThat(orders.statuses.get(2L)).isEqualTo("PENDING");
+    }
+
+    @Test
+    void fixCorrectsOnlyOpenOrdersAndReportsWhatOrderserviceDidNotApply() throws Exception {
+        payment(2L, PaymentStatus.APPROVED, "PENDING");
+        payment(6L, PaymentStatus.REJECTED, "WHATSAPP_PENDING");
+        payment(7L, PaymentStatus.APPROVED, "CANCELLED");
+        payment(8L, PaymentStatus.APPROVED, "PENDING");
+        // orderservice no la encuentra al actualizar (por ejemplo, movida de shard)
+        orders.notFoundOnUpdate.add(8L);
+
+        ReconciliationReportDto report = run(true);
+
+        assertThat(report.getMismatches()).isEqualTo(4);
+        assertThat(report.getCorrected()).isEqualTo(2);
+        // Un lote por bloque con órdenes abiertas (chunkSize 2: {2, 6} y {7, 8})
+        assertThat(orders.updateCalls).isEqualTo(2);
+        assertThat(orders.statuses).containsEntry(2L, "CONFIRMED")
+                .containsEntry(6L, "CANCELLED")
+                .containsEntry(7L, "CANCELLED")
+                .containsEntry(8L, "PENDING");
+        assertThat(report.getSamples())
+                .filteredOn(ReconciliationReportDto.Mismatch::isCorrected)
+                .extracting(ReconciliationReportDto.Mismatch::getOrderId)
+                .containsExactlyInAnyOrder(2L, 6L);
+    }
+
+    private ReconciliationReportDto run(boolean fix) throws InterruptedException {
+        ReconciliationProperties properties = new ReconciliationProperties();
+        properties.setReportDir(reportDir.toString());
+        properties.setChunkSize(2);
+        // Incluye los pagos recién creados
+        properties.setGraceMinutes(-1);
+
+        ReconciliationService service = new ReconciliationService(
+                paymentRepository, orders, properties, new ObjectMapper(), false);
+        try {
+            service.start(fix);
+            for (int i = 0; i < 500 && "RUNNING".equals(service.latest().getState()); i++) {
+                Thread.sleep(10);
+            }
+            return service.latest();
+        } finally {
+            service.stop();
+        }
+    }
+
+    private void payment(Long orderId, PaymentStatus status, String orderStatus) {
+        paymentRepository.save(Payment.builder()
+                .orderId(orderId)
+                .amount(BigDecimal.TEN)
+                .method("CARD")
+                .status(status)
+                .settledOrderId(orderId)
+                .build());
+        if (orderStatus != null) {
+            orders.statuses.put(orderId, orderStatus);
+        }
+    }
+
+    // orderservice en memoria con la semántica de /orders/status/lookup y /orders/status/batch
+    private static class StubOrderClient implements OrderClient {
+        private final Map<Long, String> statuses = new HashMap<>();
+        private final Set<Long> notFoundOnUpdate = new HashSet<>();
+        private int updateCalls;
+
+        @Override
+        public void confirmOrder(Long orderId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void cancelOrder(Long orderId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public synchronized List<OrderStatusUpdateResultDto> updateStatuses(List<OrderStatusUpdateDto> updates) {
+            updateCalls++;
+            List<OrderStatusUpdateResultDto> results = new ArrayList<>();
+            for (OrderStatusUpdateDto update : updates) {
+                OrderStatusUpdateResultDto result = new OrderStatusUpdateResultDto();
+                result.setOrderId(update.getOrderId());
+                if (!statuses.containsKey(update.getOrderId()) || notFoundOnUpdate.contains(update.getOrderId())) {
+                    result.setOutcome("NOT_FOUND");
+                } else if (update.getStatus().equals(statuses.put(update.getOrderId(), update.getStatus()))) {
+                    result.setOutcome("UNCHANGED");
+                } else {
+                    result.setOutcome("UPDATED");
+                }
+                results.add(result);
+            }
+            return results;
+        }
+
+        @Override
+        public synchronized List<OrderStatusDto> getStatuses(Collection<Long> orderIds) {
+            return orderIds.stream()
+                    .filter(statuses::containsKey)
+                    .map(id -> {
+                        OrderStatusDto dto = new OrderStatusDto();
+                        dto.setOrderId(id);
+                        dto.setStatus(statuses.get(id));
+                        return dto;
+                    })
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.makiia.paymentservice.velocity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowTests {
+
+    // Ventana de 60 s en 12 buckets de 5 s
+    private static final long T0 = 1_000_000_000L;
+
+    @Test
+    void sumsCountAndAmountInsideTheWindow() {
+        SlidingWindow window = new SlidingWindow(60_000, 12, T0);
+
+        window.add(T0, 100);
+        window.add(T0 + 10_000, 250);
+        long[] totals = window.add(T0 + 59_000, 50);
+
+        assertThat(totals).containsExactly(3, 400);
+    }
+
+    @Test
+    void oldBucketsRollOutOfTheWindow() {
+        SlidingWindow window = new SlidingWindow(60_000, 12, T0);
+
+        window.add(T0, 100);
+        window.add(T0 + 30_000, 200);
+
+        // El primer bucket ya quedó fuera; el de +30 s sigue
+        assertThat(window.add(T0 + 61_000, 1)).containsExactly(2, 201);
+        // Una vuelta entera del anillo: solo queda el pago nuevo
+        assertThat(window.add(T0 + 200_000, 7)).containsExactly(1, 7);
+    }
+
+    @Test
+    void lastTouchedOnlyMovesForward() {
+        SlidingWindow window = new SlidingWindow(60_000, 12, T0);
+
+        window.add(T0 + 5_000, 1);
+        window.add(T0 + 1_000, 1);
+
+        assertThat(window.lastTouched()).isEqualTo(T0 + 5_000);
+    }
+
+    @Test
+    void concurrentAddsAreAllCounted() throws Exception {
+        SlidingWindow window = new SlidingWindow(60_000, 12, T0);
+        int threads = 8;
+        int perThread = 10_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    window.add(T0 + i % 1000, 2);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        long total = threads * perThread;
+        assertThat(window.add(T0 + 1000, 0)).containsExactly(total + 1, total * 2);
+    }
+}
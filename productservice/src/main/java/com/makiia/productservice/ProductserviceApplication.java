@@ -1,10 +1,13 @@
 package com.makiia.productservice;
+import com.makiia.commons.smile.SmileConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
 @EnableDiscoveryClient
+@Import(SmileConfig.class)
 public class ProductserviceApplication {
 
 	public static void main(String[] args) {
@@ -42,6 +42,11 @@ public class ProductController {
         return ResponseEntity.ok(productsService.getAll());
     }
 
+    @GetMapping("/batch")
+    public ResponseEntity<List<ProductsDto>> getByIds(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(productsService.getByIds(ids));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductsDto> getById(@PathVariable Integer id) {
         return ResponseEntity.ok(productsService.getById(id));
@@ -49,6 +49,14 @@ public class ProductsService {
     }
 
 
+    // Varios productos en una sola consulta (precios para órdenes en lote)
+    public List<ProductsDto> getByIds(List<Integer> ids) {
+        return productsRepository.findAllById(ids)
+                .stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
     public ProductsDto save(NewProductDto dto) {
         Categories category = categoriesRepository.findById(dto.getCategoryId())
                 .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
@@ -70,7 +78,11 @@ public class ProductsService {
                 .description(product.getDescription())
                 .price(product.getPrice())
                 .stock(product.getStock())
-                .category(product.getCategory().getName())
+                .category(
+                        product.getCategory() != null
+                                ? product.getCategory().getName()
+                                : null
+                )
                 .build();
     }
 }
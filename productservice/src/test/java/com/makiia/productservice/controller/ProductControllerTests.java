@@ -0,0 +1,82 @@
+package com.makiia.productservice.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.makiia.commons.smile.SmileConfig;
+import com.makiia.productservice.dto.ProductsDto;
+import com.makiia.productservice.service.ProductsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProductControllerTests {
+
+    private final MappingJackson2SmileHttpMessageConverter smile =
+            new SmileConfig().smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json());
+
+    private MockMvc mockMvc;
+
+    // Mismo orden que Spring Boot: JSON primero, Smile sólo si se pide
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(new StubProductsService()))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(), smile)
+                .build();
+    }
+
+    @Test
+    void batchIsAnsweredInSmileWhenAccepted() throws Exception {
+        MvcResult result = mockMvc.perform(get("/products/batch").param("ids", "1", "2")
+                        .accept(SmileConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SmileConfig.APPLICATION_SMILE_VALUE))
+                .andReturn();
+
+        List<ProductsDto> products = smile.getObjectMapper().readValue(
+                result.getResponse().getContentAsByteArray(), new TypeReference<List<ProductsDto>>() { });
+        assertThat(products).extracting(ProductsDto::getId).containsExactly(1, 2);
+        assertThat(products.get(1).getPrice()).isEqualByComparingTo("20.50");
+    }
+
+    @Test
+    void withoutAcceptStillAnswersJson() throws Exception {
+        mockMvc.perform(get("/products/batch").param("ids", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private static class StubProductsService extends ProductsService {
+
+        StubProductsService() {
+            super(null, null);
+        }
+
+        @Override
+        public List<ProductsDto> getByIds(List<Integer> ids) {
+            return ids.stream()
+                    .map(id -> ProductsDto.builder()
+                            .id(id)
+                            .name("Producto " + id)
+                            .price(new BigDecimal(id * 10 + ".50"))
+                            .stock(5)
+                            .build())
+                    .collect(Collectors.toList());
+        }
+    }
+}
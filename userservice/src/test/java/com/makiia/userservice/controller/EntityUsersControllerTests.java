@@ -0,0 +1,81 @@
+package com.makiia.userservice.controller;
+
+import com.makiia.commons.smile.SmileConfig;
+import com.makiia.userservice.dto.RequestDto;
+import com.makiia.userservice.dto.TokenDto;
+import com.makiia.userservice.service.EntityUsersService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class EntityUsersControllerTests {
+
+    private static final String BODY = "{\"uri\":\"/orders\",\"method\":\"GET\"}";
+
+    private final MappingJackson2SmileHttpMessageConverter smile =
+            new SmileConfig().smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json());
+
+    private MockMvc mockMvc;
+
+    // Mismo orden que Spring Boot: JSON primero, Smile sólo si se pide
+    @BeforeEach
+    void setUp() {
+        EntityUsersController controller = new EntityUsersController();
+        controller.entityUsersService = new StubEntityUsersService();
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(), smile)
+                .build();
+    }
+
+    // El gateway (AuthFilter) valida cada request pidiendo Smile
+    @Test
+    void validateIsAnsweredInSmileWhenAccepted() throws Exception {
+        MvcResult result = mockMvc.perform(post("/users/validate").param("token", "abc")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY)
+                        .accept(SmileConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SmileConfig.APPLICATION_SMILE_VALUE))
+                .andReturn();
+
+        TokenDto token = smile.getObjectMapper().readValue(result.getResponse().getContentAsByteArray(), TokenDto.class);
+        assertThat(token.getToken()).isEqualTo("abc");
+        assertThat(token.getUserId()).isEqualTo(7);
+        assertThat(token.getRole()).isEqualTo("USER");
+    }
+
+    @Test
+    void withoutAcceptStillAnswersJson() throws Exception {
+        mockMvc.perform(post("/users/validate").param("token", "abc")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    // ==== 🔁 HELPERS ====
+
+    private static class StubEntityUsersService extends EntityUsersService {
+
+        @Override
+        public TokenDto validate(String token, RequestDto dto) {
+            return TokenDto.builder()
+                    .token(token)
+                    .userId(7)
+                    .role("USER")
+                    .username("ana")
+                    .build();
+        }
+    }
+}